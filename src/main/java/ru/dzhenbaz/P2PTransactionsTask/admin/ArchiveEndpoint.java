@@ -0,0 +1,93 @@
+package ru.dzhenbaz.P2PTransactionsTask.admin;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import ru.dzhenbaz.P2PTransactionsTask.archive.TransactionArchiver;
+import ru.dzhenbaz.P2PTransactionsTask.dto.ArchiveSegmentResponse;
+import ru.dzhenbaz.P2PTransactionsTask.exception.BadRequestException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.NotFoundException;
+import ru.dzhenbaz.P2PTransactionsTask.model.ArchivedSegment;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Административный endpoint Actuator для архива переводов ({@code /actuator/archive/{month}}).
+ * <p>
+ * {@code GET /actuator/archive} возвращает каталог архива и проверяет контрольные суммы файлов,
+ * {@code POST} переносит переводы месяца ({@code yyyy-MM}) в архив, {@code DELETE} возвращает
+ * их в таблицу. Обе операции можно безопасно повторять. По умолчанию endpoint не публикуется по HTTP:
+ * его нужно явно добавить в {@code management.endpoints.web.exposure.include}.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+@Endpoint(id = "archive")
+public class ArchiveEndpoint {
+
+    private final TransactionArchiver transactionArchiver;
+
+    /**
+     * Конструктор с внедрением зависимости {@link TransactionArchiver}.
+     *
+     * @param transactionArchiver архиватор переводов
+     */
+    public ArchiveEndpoint(TransactionArchiver transactionArchiver) {
+        this.transactionArchiver = transactionArchiver;
+    }
+
+    /**
+     * Возвращает каталог архива с результатами проверки файлов.
+     *
+     * @return месяцы архива по возрастанию
+     */
+    @ReadOperation
+    public List<ArchiveSegmentResponse> segments() {
+        return transactionArchiver.verify().stream()
+                .map(verification -> toResponse(verification.segment(), verification.valid()))
+                .toList();
+    }
+
+    /**
+     * Переносит переводы месяца в архив.
+     *
+     * @param month месяц в формате {@code yyyy-MM}
+     * @return состояние месяца в архиве
+     */
+    @WriteOperation
+    public ArchiveSegmentResponse archive(@Selector String month) {
+        return transactionArchiver.archiveMonth(parse(month))
+                .map(segment -> toResponse(segment, null))
+                .orElseThrow(() -> new NotFoundException("Переводов за месяц нет"));
+    }
+
+    /**
+     * Возвращает переводы месяца из архива в таблицу.
+     *
+     * @param month месяц в формате {@code yyyy-MM}
+     * @return состояние месяца в архиве
+     */
+    @DeleteOperation
+    public ArchiveSegmentResponse restore(@Selector String month) {
+        return transactionArchiver.restoreMonth(parse(month))
+                .map(segment -> toResponse(segment, null))
+                .orElseThrow(() -> new NotFoundException("Месяц не архивировался"));
+    }
+
+    private static YearMonth parse(String month) {
+        try {
+            return YearMonth.parse(month);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Месяц должен быть в формате yyyy-MM");
+        }
+    }
+
+    private static ArchiveSegmentResponse toResponse(ArchivedSegment segment, Boolean valid) {
+        return new ArchiveSegmentResponse(segment.getMonth().toString(), segment.getStatus(), segment.getRowCount(),
+                segment.getAmountSum(), segment.getChecksum(), valid);
+    }
+}
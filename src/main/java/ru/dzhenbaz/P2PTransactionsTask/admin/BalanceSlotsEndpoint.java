@@ -0,0 +1,72 @@
+package ru.dzhenbaz.P2PTransactionsTask.admin;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import ru.dzhenbaz.P2PTransactionsTask.dto.BalanceSlotsResponse;
+import ru.dzhenbaz.P2PTransactionsTask.service.BalanceSlotService;
+
+/**
+ * Административный endpoint Actuator для слотов баланса ({@code /actuator/balanceslots/{accountId}}).
+ * <p>
+ * {@code GET} возвращает состояние слотов, {@code POST} с полем {@code slots} включает разделение
+ * или меняет число слотов, {@code POST} с пустым JSON-объектом перебалансирует счёт, {@code DELETE} отключает
+ * разделение. По умолчанию endpoint не публикуется по HTTP: его нужно явно добавить в
+ * {@code management.endpoints.web.exposure.include}, желательно на отдельном порту управления.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+@Endpoint(id = "balanceslots")
+public class BalanceSlotsEndpoint {
+
+    private final BalanceSlotService balanceSlotService;
+
+    /**
+     * Конструктор с внедрением зависимости {@link BalanceSlotService}.
+     *
+     * @param balanceSlotService сервис администрирования слотов
+     */
+    public BalanceSlotsEndpoint(BalanceSlotService balanceSlotService) {
+        this.balanceSlotService = balanceSlotService;
+    }
+
+    /**
+     * Возвращает состояние слотов счёта.
+     *
+     * @param accountId идентификатор счёта
+     * @return суммарный баланс и балансы слотов
+     */
+    @ReadOperation
+    public BalanceSlotsResponse slots(@Selector Long accountId) {
+        return balanceSlotService.getSlots(accountId);
+    }
+
+    /**
+     * Меняет число слотов счёта или, если число не передано, перебалансирует счёт.
+     *
+     * @param accountId идентификатор счёта
+     * @param slots     новое число слотов или {@code null}
+     * @return состояние слотов после изменения
+     */
+    @WriteOperation
+    public BalanceSlotsResponse resize(@Selector Long accountId, @Nullable Integer slots) {
+        return slots == null
+                ? balanceSlotService.rebalance(accountId)
+                : balanceSlotService.resize(accountId, slots);
+    }
+
+    /**
+     * Отключает разделение баланса счёта.
+     *
+     * @param accountId идентификатор счёта
+     * @return состояние счёта после отключения
+     */
+    @DeleteOperation
+    public BalanceSlotsResponse disable(@Selector Long accountId) {
+        return balanceSlotService.disable(accountId);
+    }
+}
@@ -0,0 +1,52 @@
+package ru.dzhenbaz.P2PTransactionsTask.admin;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import ru.dzhenbaz.P2PTransactionsTask.dto.ReconciliationResponse;
+import ru.dzhenbaz.P2PTransactionsTask.reconciliation.BalanceReconciler;
+
+/**
+ * Административный endpoint Actuator для сверки балансов ({@code /actuator/reconciliation}).
+ * <p>
+ * {@code GET} возвращает результат последней сверки (или {@code 404}, если её ещё не было),
+ * {@code POST} запускает сверку и дожидается её результата. По умолчанию endpoint не публикуется
+ * по HTTP: его нужно явно добавить в {@code management.endpoints.web.exposure.include}.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+@Endpoint(id = "reconciliation")
+public class ReconciliationEndpoint {
+
+    private final BalanceReconciler balanceReconciler;
+
+    /**
+     * Конструктор с внедрением зависимости {@link BalanceReconciler}.
+     *
+     * @param balanceReconciler сверка балансов
+     */
+    public ReconciliationEndpoint(BalanceReconciler balanceReconciler) {
+        this.balanceReconciler = balanceReconciler;
+    }
+
+    /**
+     * Возвращает результат последней сверки.
+     *
+     * @return результат или {@code null}, если сверка ещё не выполнялась
+     */
+    @ReadOperation
+    public ReconciliationResponse last() {
+        return balanceReconciler.lastResult();
+    }
+
+    /**
+     * Запускает сверку.
+     *
+     * @return результат сверки
+     */
+    @WriteOperation
+    public ReconciliationResponse run() {
+        return balanceReconciler.reconcile();
+    }
+}
@@ -0,0 +1,317 @@
+package ru.dzhenbaz.P2PTransactionsTask.archive;
+
+import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Неизменяемый файл сегмента архива переводов, отображённый в память только для чтения.
+ * <p>
+ * Формат файла:
+ * <ol>
+ *     <li>блоки до {@link SegmentWriter#BLOCK_ROWS} строк в порядке {@code (created_at, id)}. Блок хранит
+ *     колонки {@code created_at} (микросекунды), {@code id}, {@code from_account_id},
+ *     {@code to_account_id} и {@code amount} по отдельности; время и идентификатор записаны разностью
+ *     с предыдущей строкой, все значения — в кодировке zigzag varint, так что монотонные колонки
+ *     занимают 1–3 байта на строку;</li>
+ *     <li>каталог блоков: смещение, длина, число строк, диапазон времени и CRC32 каждого блока;</li>
+ *     <li>разреженный индекс счетов: для каждого счёта по возрастанию — номера блоков, в которых
+ *     он встречается как отправитель или получатель;</li>
+ *     <li>описание файла и CRC32 всего предшествующего содержимого.</li>
+ * </ol>
+ * </p>
+ *
+ * <p>Чтение по счёту находит счёт двоичным поиском в индексе, пропускает блоки вне диапазона
+ * времени (или, при постраничном чтении с конца, после курсора) и декодирует только оставшиеся блоки прямо из отображённой памяти, без копирования
+ * файла в кучу. Перед декодированием проверяется CRC32 блока, {@link #verify()} проверяет весь файл.</p>
+ *
+ * <p>Экземпляр потокобезопасен: используется только абсолютное чтение буфера. Размер файла
+ * ограничен 2 ГиБ — пределом одного отображения.</p>
+ *
+ * @author Dzhenbaz
+ */
+public final class ArchiveSegment {
+
+    static final long MAGIC = 0x5032505345473031L;
+    static final int VERSION = 1;
+    static final int COLUMNS = 5;
+    static final int DIRECTORY_ENTRY_SIZE = 40;
+    static final int INDEX_ENTRY_SIZE = 16;
+    static final int TRAILER_SIZE = 56;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int blockCount;
+    private final long rowCount;
+    private final long amountSum;
+    private final int directoryOffset;
+    private final int indexOffset;
+    private final int accountCount;
+    private final int postingsOffset;
+    private final int trailerOffset;
+    private final long checksum;
+
+    private ArchiveSegment(Path path, MappedByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+        this.trailerOffset = buffer.capacity() - TRAILER_SIZE - Long.BYTES;
+        if (trailerOffset < 0 || buffer.getLong(trailerOffset) != MAGIC) {
+            throw new IOException("Not an archive segment: " + path);
+        }
+        if (buffer.getInt(trailerOffset + 8) != VERSION) {
+            throw new IOException("Unsupported archive segment version in " + path);
+        }
+        this.blockCount = buffer.getInt(trailerOffset + 12);
+        this.rowCount = buffer.getLong(trailerOffset + 16);
+        this.amountSum = buffer.getLong(trailerOffset + 24);
+        this.directoryOffset = (int) buffer.getLong(trailerOffset + 32);
+        this.indexOffset = (int) buffer.getLong(trailerOffset + 40);
+        this.accountCount = buffer.getInt(trailerOffset + 48);
+        this.postingsOffset = indexOffset + accountCount * INDEX_ENTRY_SIZE;
+        this.checksum = buffer.getLong(trailerOffset + TRAILER_SIZE);
+    }
+
+    /**
+     * Открывает файл сегмента и отображает его в память. Отображение остаётся действительным
+     * и после удаления файла.
+     *
+     * @param path путь к файлу
+     * @return сегмент
+     * @throws IOException если файл не читается или не является сегментом
+     */
+    public static ArchiveSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Archive segment exceeds 2 GiB: " + path);
+            }
+            return new ArchiveSegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public long rowCount() {
+        return rowCount;
+    }
+
+    public long amountSum() {
+        return amountSum;
+    }
+
+    /**
+     * Возвращает контрольную сумму, записанную в файле при создании.
+     *
+     * @return CRC32 содержимого файла
+     */
+    public long checksum() {
+        return checksum;
+    }
+
+    /**
+     * Пересчитывает CRC32 файла и сравнивает с записанной.
+     *
+     * @return {@code true}, если файл не повреждён
+     */
+    public boolean verify() {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(0, trailerOffset + TRAILER_SIZE));
+        return crc.getValue() == checksum;
+    }
+
+    /**
+     * Передаёт все строки сегмента в порядке возрастания {@code (created_at, id)}.
+     *
+     * @param consumer обработчик строк
+     */
+    public void forEach(Consumer<Transaction> consumer) {
+        long[][] columns = new long[COLUMNS][SegmentWriter.BLOCK_ROWS];
+        for (int block = 0; block < blockCount; block++) {
+            int rows = decode(block, columns);
+            for (int i = 0; i < rows; i++) {
+                consumer.accept(row(columns, i));
+            }
+        }
+    }
+
+    /**
+     * Передаёт переводы по счёту, входящие и исходящие, в порядке возрастания {@code (created_at, id)}.
+     *
+     * @param accountId идентификатор счёта
+     * @param from      начало диапазона включительно или {@code null}
+     * @param to        конец диапазона не включительно или {@code null}
+     * @param consumer  обработчик строк
+     */
+    public void forEachByAccountId(long accountId, LocalDateTime from, LocalDateTime to,
+                                   Consumer<Transaction> consumer) {
+        int entry = findAccount(accountId);
+        if (entry < 0) {
+            return;
+        }
+        long fromMicros = from != null ? toMicros(from) : Long.MIN_VALUE;
+        long toMicros = to != null ? toMicros(to) : Long.MAX_VALUE;
+        int start = buffer.getInt(indexOffset + entry * INDEX_ENTRY_SIZE + 8);
+        int count = buffer.getInt(indexOffset + entry * INDEX_ENTRY_SIZE + 12);
+        long[][] columns = new long[COLUMNS][SegmentWriter.BLOCK_ROWS];
+        for (int p = start; p < start + count; p++) {
+            int block = buffer.getInt(postingsOffset + p * Integer.BYTES);
+            int descriptor = directoryOffset + block * DIRECTORY_ENTRY_SIZE;
+            if (buffer.getLong(descriptor + 24) < fromMicros || buffer.getLong(descriptor + 16) >= toMicros) {
+                continue;
+            }
+            int rows = decode(block, columns);
+            for (int i = 0; i < rows; i++) {
+                long time = columns[0][i];
+                if (time >= fromMicros && time < toMicros
+                        && (columns[2][i] == accountId || columns[3][i] == accountId)) {
+                    consumer.accept(row(columns, i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Передаёт переводы по счёту в порядке убывания {@code (created_at, id)}, начиная с курсора,
+     * и останавливается после {@code limit} строк. Блоки читаются с конца списка блоков счёта, блоки,
+     * начинающиеся не раньше курсора, пропускаются без декодирования, поэтому стоимость страницы
+     * зависит от её размера, а не от числа переводов счёта в сегменте.
+     *
+     * @param accountId       идентификатор счёта
+     * @param beforeCreatedAt время перевода-курсора или {@code null} для чтения с конца сегмента
+     * @param beforeId        идентификатор перевода-курсора; учитывается вместе с {@code beforeCreatedAt}
+     * @param limit           максимальное число строк
+     * @param consumer        обработчик строк
+     * @return число переданных строк
+     */
+    public int forEachByAccountIdDescending(long accountId, LocalDateTime beforeCreatedAt, Long beforeId, int limit,
+                                            Consumer<Transaction> consumer) {
+        int entry = findAccount(accountId);
+        if (entry < 0 || limit <= 0) {
+            return 0;
+        }
+        boolean cursor = beforeCreatedAt != null && beforeId != null;
+        long cursorMicros = cursor ? toMicros(beforeCreatedAt) : Long.MAX_VALUE;
+        long cursorId = cursor ? beforeId : Long.MAX_VALUE;
+        int start = buffer.getInt(indexOffset + entry * INDEX_ENTRY_SIZE + 8);
+        int count = buffer.getInt(indexOffset + entry * INDEX_ENTRY_SIZE + 12);
+        long[][] columns = new long[COLUMNS][SegmentWriter.BLOCK_ROWS];
+        int emitted = 0;
+        for (int p = start + count - 1; p >= start && emitted < limit; p--) {
+            int block = buffer.getInt(postingsOffset + p * Integer.BYTES);
+            int descriptor = directoryOffset + block * DIRECTORY_ENTRY_SIZE;
+            if (buffer.getLong(descriptor + 16) > cursorMicros) {
+                continue;
+            }
+            int rows = decode(block, columns);
+            for (int i = rows - 1; i >= 0 && emitted < limit; i--) {
+                long time = columns[0][i];
+                if ((time < cursorMicros || (time == cursorMicros && columns[1][i] < cursorId))
+                        && (columns[2][i] == accountId || columns[3][i] == accountId)) {
+                    consumer.accept(row(columns, i));
+                    emitted++;
+                }
+            }
+        }
+        return emitted;
+    }
+
+    /**
+     * Преобразует время в микросекунды от начала эпохи. Время в БД хранится с той же точностью.
+     *
+     * @param time время
+     * @return микросекунды
+     */
+    static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static Transaction row(long[][] columns, int i) {
+        return new Transaction(columns[1][i], columns[2][i], columns[3][i], columns[4][i], fromMicros(columns[0][i]));
+    }
+
+    /**
+     * Двоичный поиск счёта в индексе.
+     *
+     * @param accountId идентификатор счёта
+     * @return номер записи индекса или {@code -1}
+     */
+    private int findAccount(long accountId) {
+        int low = 0;
+        int high = accountCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long value = buffer.getLong(indexOffset + mid * INDEX_ENTRY_SIZE);
+            if (value < accountId) {
+                low = mid + 1;
+            } else if (value > accountId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Проверяет CRC32 блока и декодирует его колонки.
+     *
+     * @param block   номер блока
+     * @param columns массивы колонок, заполняемые значениями
+     * @return число строк в блоке
+     */
+    private int decode(int block, long[][] columns) {
+        int descriptor = directoryOffset + block * DIRECTORY_ENTRY_SIZE;
+        int offset = (int) buffer.getLong(descriptor);
+        int length = buffer.getInt(descriptor + 8);
+        int rows = buffer.getInt(descriptor + 12);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset, length));
+        if (crc.getValue() != buffer.getLong(descriptor + 32)) {
+            throw new IllegalStateException("Повреждён блок " + block + " сегмента архива " + path);
+        }
+        int position = offset + COLUMNS * Integer.BYTES;
+        int[] cursor = new int[1];
+        for (int column = 0; column < COLUMNS; column++) {
+            cursor[0] = position;
+            long previous = 0;
+            for (int i = 0; i < rows; i++) {
+                long value = readZigZag(cursor);
+                if (column < 2) {
+                    value += previous;
+                    previous = value;
+                }
+                columns[column][i] = value;
+            }
+            position += buffer.getInt(offset + column * Integer.BYTES);
+        }
+        return rows;
+    }
+
+    private long readZigZag(int[] cursor) {
+        long v = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get(cursor[0]++);
+            v |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
@@ -0,0 +1,209 @@
+package ru.dzhenbaz.P2PTransactionsTask.archive;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionArchiveDao;
+import ru.dzhenbaz.P2PTransactionsTask.model.ArchivedSegment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Открытые сегменты архива переводов, по одному на месяц.
+ * <p>
+ * Набор сегментов берётся из каталога {@code archive_segments}: читаются только месяцы в состоянии
+ * {@link ArchivedSegment.Status#ARCHIVED}. Файлы открываются один раз и остаются отображёнными
+ * в память; у открываемого файла контрольная сумма в описании сверяется с каталогом.
+ * Набор заменяется целиком, поэтому читатели работают с неизменяемым снимком, полученным
+ * через {@link #segments()}.
+ * </p>
+ *
+ * <p>Архиватор этого экземпляра обновляет набор сразу, изменения, сделанные другими экземплярами,
+ * видны здесь после очередного {@link #refresh()}. Каталог архива должен быть общим для всех
+ * экземпляров приложения, работающих с одной БД.</p>
+ *
+ * <p>Метрики: {@code transfer.archive.segments} и {@code transfer.archive.rows} — число открытых
+ * сегментов и строк в них.</p>
+ *
+ * @author Dzhenbaz
+ */
+@Slf4j
+public class ArchiveStore {
+
+    private final TransactionArchiveDao archiveDao;
+    private final Path directory;
+    private final Map<YearMonth, ArchiveSegment> pending = new HashMap<>();
+
+    private volatile NavigableMap<YearMonth, ArchiveSegment> segments;
+
+    /**
+     * Конструктор с внедрением зависимостей.
+     *
+     * @param archiveDao    DAO архива
+     * @param directory     каталог файлов сегментов
+     * @param meterRegistry реестр метрик
+     */
+    public ArchiveStore(TransactionArchiveDao archiveDao, Path directory, MeterRegistry meterRegistry) {
+        this.archiveDao = archiveDao;
+        this.directory = directory;
+        Gauge.builder("transfer.archive.segments", this, store -> store.segments().size())
+                .description("Сегменты архива переводов, открытые для чтения")
+                .register(meterRegistry);
+        Gauge.builder("transfer.archive.rows", this,
+                        store -> store.segments().values().stream().mapToLong(ArchiveSegment::rowCount).sum())
+                .description("Переводы в открытых сегментах архива")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Возвращает снимок открытых сегментов. При первом вызове загружает каталог.
+     *
+     * @return неизменяемый набор сегментов по месяцам
+     */
+    public NavigableMap<YearMonth, ArchiveSegment> segments() {
+        NavigableMap<YearMonth, ArchiveSegment> result = segments;
+        if (result == null) {
+            synchronized (this) {
+                result = segments;
+                if (result == null) {
+                    result = load(Collections.emptyNavigableMap());
+                    segments = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Перечитывает каталог архива: открывает сегменты новых месяцев и закрывает восстановленные.
+     */
+    @Scheduled(fixedDelayString = "${transfer.archive.refresh-interval:1m}")
+    public void refresh() {
+        try {
+            synchronized (this) {
+                NavigableMap<YearMonth, ArchiveSegment> current = segments;
+                segments = load(current != null ? current : Collections.emptyNavigableMap());
+            }
+        } catch (DataAccessException e) {
+            log.error("Archive catalog refresh failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Возвращает путь к файлу сегмента месяца.
+     *
+     * @param month месяц
+     * @return путь к файлу
+     */
+    public Path segmentPath(YearMonth month) {
+        return directory.resolve(fileName(month));
+    }
+
+    Path directory() {
+        return directory;
+    }
+
+    /**
+     * Добавляет сегмент в набор до фиксации записи каталога. До вызова {@link #confirm(YearMonth)}
+     * или {@link #unpublish(YearMonth)} сегмент сохраняется в наборе и при обновлении из каталога.
+     *
+     * @param month   месяц
+     * @param segment сегмент
+     */
+    synchronized void publish(YearMonth month, ArchiveSegment segment) {
+        pending.put(month, segment);
+        NavigableMap<YearMonth, ArchiveSegment> next = new TreeMap<>(segments());
+        next.put(month, segment);
+        segments = Collections.unmodifiableNavigableMap(next);
+    }
+
+    /**
+     * Отмечает, что запись каталога для опубликованного сегмента зафиксирована.
+     *
+     * @param month месяц
+     */
+    synchronized void confirm(YearMonth month) {
+        pending.remove(month);
+    }
+
+    /**
+     * Убирает сегмент из набора.
+     *
+     * @param month месяц
+     */
+    synchronized void unpublish(YearMonth month) {
+        pending.remove(month);
+        NavigableMap<YearMonth, ArchiveSegment> next = new TreeMap<>(segments());
+        if (next.remove(month) != null) {
+            segments = Collections.unmodifiableNavigableMap(next);
+        }
+    }
+
+    /**
+     * Удаляет весь архив: записи каталога и файлы сегментов.
+     * <p>Как правило, используется в тестах или при очистке среды.</p>
+     */
+    public synchronized void clear() {
+        NavigableMap<YearMonth, ArchiveSegment> current = segments();
+        archiveDao.deleteSegments();
+        pending.clear();
+        segments = Collections.emptyNavigableMap();
+        for (ArchiveSegment segment : current.values()) {
+            try {
+                Files.deleteIfExists(segment.path());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    static String fileName(YearMonth month) {
+        return "transactions-" + month + ".seg";
+    }
+
+    private NavigableMap<YearMonth, ArchiveSegment> load(NavigableMap<YearMonth, ArchiveSegment> current) {
+        NavigableMap<YearMonth, ArchiveSegment> next = new TreeMap<>();
+        for (ArchivedSegment record : archiveDao.findSegments()) {
+            if (record.getStatus() != ArchivedSegment.Status.ARCHIVED) {
+                continue;
+            }
+            ArchiveSegment segment = current.get(record.getMonth());
+            if (segment == null || segment.checksum() != record.getChecksum()) {
+                segment = open(record);
+            }
+            if (segment != null) {
+                next.put(record.getMonth(), segment);
+            }
+        }
+        next.putAll(pending);
+        return Collections.unmodifiableNavigableMap(next);
+    }
+
+    private ArchiveSegment open(ArchivedSegment record) {
+        Path path = directory.resolve(record.getFileName());
+        try {
+            ArchiveSegment segment = ArchiveSegment.open(path);
+            if (segment.checksum() != record.getChecksum() || segment.rowCount() != record.getRowCount()) {
+                log.error("Archive segment {} does not match catalog entry for {}, skipping it",
+                        path, record.getMonth());
+                return null;
+            }
+            return segment;
+        } catch (IOException e) {
+            log.error("Archive segment {} for {} cannot be opened, its transfers are not readable: {}",
+                    path, record.getMonth(), e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package ru.dzhenbaz.P2PTransactionsTask.archive;
+
+import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Запись файла сегмента архива в формате, который читает {@link ArchiveSegment}.
+ * <p>
+ * Строки принимаются по одной в порядке возрастания {@code (created_at, id)} и копятся в блок
+ * из {@link #BLOCK_ROWS} строк. Заполненный блок кодируется по колонкам и сразу дописывается
+ * в файл, поэтому в памяти держится один блок и список блоков каждого счёта, а не весь месяц.
+ * Файл пишется последовательно, контрольная сумма считается по мере записи.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+final class SegmentWriter implements Closeable {
+
+    /**
+     * Максимальное число строк в блоке.
+     */
+    static final int BLOCK_ROWS = 1024;
+
+    private final FileChannel channel;
+    private final CRC32 crc = new CRC32();
+    private final long[] createdAt = new long[BLOCK_ROWS];
+    private final long[] ids = new long[BLOCK_ROWS];
+    private final long[] fromAccounts = new long[BLOCK_ROWS];
+    private final long[] toAccounts = new long[BLOCK_ROWS];
+    private final long[] amounts = new long[BLOCK_ROWS];
+    private final Column[] columns = new Column[ArchiveSegment.COLUMNS];
+    private final List<ByteBuffer> directory = new ArrayList<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    private int blockRows;
+    private long position;
+    private long rowCount;
+    private long amountSum;
+    private long lastCreatedAt = Long.MIN_VALUE;
+    private long lastId = Long.MIN_VALUE;
+    private boolean finished;
+
+    /**
+     * Номера блоков, в которых встречается счёт.
+     */
+    private static final class Postings {
+        private int[] blocks = new int[4];
+        private int size;
+
+        void add(int block) {
+            if (size > 0 && blocks[size - 1] == block) {
+                return;
+            }
+            if (size == blocks.length) {
+                blocks = Arrays.copyOf(blocks, size * 2);
+            }
+            blocks[size++] = block;
+        }
+    }
+
+    /**
+     * Буфер одной колонки блока в кодировке varint.
+     */
+    private static final class Column {
+        private byte[] data = new byte[BLOCK_ROWS * 2];
+        private int size;
+
+        void putZigZag(long value) {
+            long v = (value << 1) ^ (value >> 63);
+            if (size + 10 > data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            while ((v & ~0x7FL) != 0) {
+                data[size++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            data[size++] = (byte) v;
+        }
+    }
+
+    /**
+     * Создаёт файл сегмента; существующий файл перезаписывается.
+     *
+     * @param path путь к файлу
+     * @throws IOException при ошибке создания файла
+     */
+    SegmentWriter(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = new Column();
+        }
+    }
+
+    /**
+     * Добавляет строку в сегмент.
+     *
+     * @param tx перевод; должен следовать за предыдущим в порядке {@code (created_at, id)}
+     * @throws IOException при ошибке записи
+     */
+    void append(Transaction tx) throws IOException {
+        long time = ArchiveSegment.toMicros(tx.getCreatedAt());
+        if (time < lastCreatedAt || (time == lastCreatedAt && tx.getId() <= lastId)) {
+            throw new IllegalArgumentException("Rows must be appended in (created_at, id) order");
+        }
+        lastCreatedAt = time;
+        lastId = tx.getId();
+        createdAt[blockRows] = time;
+        ids[blockRows] = tx.getId();
+        fromAccounts[blockRows] = tx.getFromAccountId();
+        toAccounts[blockRows] = tx.getToAccountId();
+        amounts[blockRows] = tx.getAmount();
+        int block = directory.size();
+        postings.computeIfAbsent(tx.getFromAccountId(), key -> new Postings()).add(block);
+        postings.computeIfAbsent(tx.getToAccountId(), key -> new Postings()).add(block);
+        rowCount++;
+        amountSum += tx.getAmount();
+        if (++blockRows == BLOCK_ROWS) {
+            flushBlock();
+        }
+    }
+
+    /**
+     * Дописывает каталог блоков, индекс счетов и описание файла, сбрасывает файл на диск и закрывает его.
+     *
+     * @return контрольная сумма файла
+     * @throws IOException при ошибке записи
+     */
+    long finish() throws IOException {
+        if (blockRows > 0) {
+            flushBlock();
+        }
+        long directoryOffset = position;
+        ByteBuffer directoryBuffer = ByteBuffer.allocate(directory.size() * ArchiveSegment.DIRECTORY_ENTRY_SIZE);
+        directory.forEach(directoryBuffer::put);
+        write(directoryBuffer.flip());
+
+        long indexOffset = position;
+        Long[] accounts = postings.keySet().toArray(new Long[0]);
+        Arrays.sort(accounts);
+        ByteBuffer index = ByteBuffer.allocate(accounts.length * ArchiveSegment.INDEX_ENTRY_SIZE);
+        int postingCount = 0;
+        for (Long account : accounts) {
+            Postings list = postings.get(account);
+            index.putLong(account).putInt(postingCount).putInt(list.size);
+            postingCount += list.size;
+        }
+        write(index.flip());
+        ByteBuffer blockLists = ByteBuffer.allocate(postingCount * Integer.BYTES);
+        for (Long account : accounts) {
+            Postings list = postings.get(account);
+            for (int i = 0; i < list.size; i++) {
+                blockLists.putInt(list.blocks[i]);
+            }
+        }
+        write(blockLists.flip());
+
+        ByteBuffer trailer = ByteBuffer.allocate(ArchiveSegment.TRAILER_SIZE)
+                .putLong(ArchiveSegment.MAGIC)
+                .putInt(ArchiveSegment.VERSION)
+                .putInt(directory.size())
+                .putLong(rowCount)
+                .putLong(amountSum)
+                .putLong(directoryOffset)
+                .putLong(indexOffset)
+                .putInt(accounts.length)
+                .putInt(postingCount);
+        write(trailer.flip());
+        long checksum = crc.getValue();
+        ByteBuffer footer = ByteBuffer.allocate(Long.BYTES).putLong(checksum).flip();
+        while (footer.hasRemaining()) {
+            position += channel.write(footer);
+        }
+        if (position > Integer.MAX_VALUE) {
+            throw new IOException("Archive segment exceeds 2 GiB");
+        }
+        channel.force(true);
+        channel.close();
+        finished = true;
+        return checksum;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!finished) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Кодирует накопленный блок по колонкам и дописывает его в файл.
+     */
+    private void flushBlock() throws IOException {
+        for (Column column : columns) {
+            column.size = 0;
+        }
+        long previousTime = 0;
+        long previousId = 0;
+        for (int i = 0; i < blockRows; i++) {
+            columns[0].putZigZag(createdAt[i] - previousTime);
+            columns[1].putZigZag(ids[i] - previousId);
+            columns[2].putZigZag(fromAccounts[i]);
+            columns[3].putZigZag(toAccounts[i]);
+            columns[4].putZigZag(amounts[i]);
+            previousTime = createdAt[i];
+            previousId = ids[i];
+        }
+        int length = columns.length * Integer.BYTES;
+        for (Column column : columns) {
+            length += column.size;
+        }
+        ByteBuffer block = ByteBuffer.allocate(length);
+        for (Column column : columns) {
+            block.putInt(column.size);
+        }
+        for (Column column : columns) {
+            block.put(column.data, 0, column.size);
+        }
+        block.flip();
+        CRC32 blockCrc = new CRC32();
+        blockCrc.update(block.duplicate());
+
+        directory.add(ByteBuffer.allocate(ArchiveSegment.DIRECTORY_ENTRY_SIZE)
+                .putLong(position)
+                .putInt(length)
+                .putInt(blockRows)
+                .putLong(createdAt[0])
+                .putLong(createdAt[blockRows - 1])
+                .putLong(blockCrc.getValue())
+                .flip());
+        write(block);
+        blockRows = 0;
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package ru.dzhenbaz.P2PTransactionsTask.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionArchiveDao;
+import ru.dzhenbaz.P2PTransactionsTask.model.ArchivedSegment;
+import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Перенос старых переводов из таблицы {@code transactions} в сегменты архива и обратно.
+ * <p>
+ * Архивируются целые месяцы, закончившиеся раньше, чем {@code retention} назад. Месяц переносится так:
+ * <ol>
+ *     <li>строки месяца читаются курсором в порядке {@code (created_at, id)} и пишутся во временный
+ *     файл {@link SegmentWriter}, который затем сбрасывается на диск и атомарно переименовывается;</li>
+ *     <li>файл открывается заново, его контрольная сумма пересчитывается, число строк и сумма
+ *     сверяются с записанными;</li>
+ *     <li>сегмент публикуется в {@link ArchiveStore}, после чего в одной транзакции создаётся запись
+ *     каталога и удаляются строки месяца. Если удалено не столько строк, сколько записано в файл,
+ *     транзакция откатывается и месяц архивируется заново при следующем проходе.</li>
+ * </ol>
+ * </p>
+ *
+ * <p>Обе операции идемпотентны: уже архивированный месяц не переписывается, а повторная
+ * архивация после сбоя перезаписывает файл, пока запись каталога не зафиксирована. Восстановление
+ * вставляет только отсутствующие в таблице строки и отмечает месяц восстановленным в той же
+ * транзакции; файл сегмента удаляется после фиксации. Перед восстановлением контрольная сумма файла
+ * сверяется с каталогом.</p>
+ *
+ * <p>Предполагается, что в архивируемые месяцы новые переводы не пишутся: время перевода
+ * задаётся при проведении, а {@code retention} намного больше времени жизни транзакции.</p>
+ *
+ * @author Dzhenbaz
+ */
+@Slf4j
+public class TransactionArchiver {
+
+    private final TransactionArchiveDao archiveDao;
+    private final ArchiveStore archiveStore;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final int fetchSize;
+
+    /**
+     * Конструктор.
+     *
+     * @param archiveDao         DAO архива
+     * @param archiveStore       открытые сегменты архива
+     * @param transactionManager менеджер транзакций
+     * @param retention          возраст, после которого переводы переносятся в архив
+     * @param fetchSize          число строк, получаемых от БД за одно обращение
+     */
+    public TransactionArchiver(TransactionArchiveDao archiveDao, ArchiveStore archiveStore,
+                               PlatformTransactionManager transactionManager, Duration retention, int fetchSize) {
+        this.archiveDao = archiveDao;
+        this.archiveStore = archiveStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retention = retention;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Архивирует все месяцы, закончившиеся раньше {@code retention} назад. Первый запуск выполняется
+     * при старте приложения.
+     */
+    @Scheduled(fixedDelayString = "${transfer.archive.check-interval:1h}")
+    public void archive() {
+        try {
+            archiveBefore(LocalDateTime.now().minus(retention));
+        } catch (RuntimeException e) {
+            log.error("Transaction archiving failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Архивирует месяцы, закончившиеся не позже указанного момента.
+     *
+     * @param cutoff момент, до которого переводы считаются старыми
+     * @return записи каталога архивированных за проход месяцев
+     */
+    public synchronized List<ArchivedSegment> archiveBefore(LocalDateTime cutoff) {
+        List<ArchivedSegment> archived = new ArrayList<>();
+        Optional<LocalDateTime> oldest = archiveDao.findOldestCreatedAt();
+        if (oldest.isEmpty()) {
+            return archived;
+        }
+        for (YearMonth month = YearMonth.from(oldest.get());
+             !month.plusMonths(1).atDay(1).atStartOfDay().isAfter(cutoff);
+             month = month.plusMonths(1)) {
+            archiveMonth(month).ifPresent(archived::add);
+        }
+        return archived;
+    }
+
+    /**
+     * Переносит переводы месяца в сегмент архива. Для уже архивированного месяца ничего не делает.
+     *
+     * @param month месяц
+     * @return запись каталога или пустой результат, если в месяце нет переводов
+     */
+    public synchronized Optional<ArchivedSegment> archiveMonth(YearMonth month) {
+        Optional<ArchivedSegment> existing = findSegment(month);
+        if (existing.isPresent() && existing.get().getStatus() == ArchivedSegment.Status.ARCHIVED) {
+            return existing;
+        }
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+
+        ArchiveSegment segment;
+        try {
+            segment = writeSegment(month, from, to);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write archive segment for " + month, e);
+        }
+        if (segment == null) {
+            return Optional.empty();
+        }
+        ArchivedSegment record = new ArchivedSegment(month, segment.path().getFileName().toString(),
+                segment.rowCount(), segment.amountSum(), segment.checksum(), ArchivedSegment.Status.ARCHIVED, null);
+
+        archiveStore.publish(month, segment);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!archiveDao.markArchived(record)) {
+                    return;
+                }
+                int deleted = archiveDao.deleteRange(from, to);
+                if (deleted != segment.rowCount()) {
+                    throw new IllegalStateException(String.format(
+                            "Архивация %s прервана: в сегменте %d строк, удалено %d", month, segment.rowCount(), deleted));
+                }
+            });
+        } catch (RuntimeException e) {
+            archiveStore.unpublish(month);
+            throw e;
+        }
+        archiveStore.confirm(month);
+        log.info("Archived {} transfers of {} to {}", segment.rowCount(), month, segment.path());
+        return Optional.of(record);
+    }
+
+    /**
+     * Возвращает переводы месяца из сегмента архива в таблицу. Для неархивированного
+     * или уже восстановленного месяца ничего не делает.
+     *
+     * @param month месяц
+     * @return запись каталога или пустой результат, если месяц не архивировался
+     */
+    public synchronized Optional<ArchivedSegment> restoreMonth(YearMonth month) {
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+        Path[] restoredFile = new Path[1];
+
+        Optional<ArchivedSegment> result = transactionTemplate.execute(status -> {
+            Optional<ArchivedSegment> existing = archiveDao.findSegmentForUpdate(month);
+            if (existing.isEmpty() || existing.get().getStatus() != ArchivedSegment.Status.ARCHIVED) {
+                return existing;
+            }
+            ArchivedSegment record = existing.get();
+            ArchiveSegment segment = openVerified(record);
+
+            Set<Long> present = archiveDao.findIdsInRange(from, to);
+            List<Transaction> batch = new ArrayList<>(fetchSize);
+            segment.forEach(tx -> {
+                if (!present.contains(tx.getId())) {
+                    batch.add(tx);
+                    if (batch.size() == fetchSize) {
+                        archiveDao.insertAll(batch);
+                        batch.clear();
+                    }
+                }
+            });
+            if (!batch.isEmpty()) {
+                archiveDao.insertAll(batch);
+            }
+            archiveDao.markRestored(month);
+            record.setStatus(ArchivedSegment.Status.RESTORED);
+            restoredFile[0] = segment.path();
+            return Optional.of(record);
+        });
+
+        if (restoredFile[0] != null) {
+            archiveStore.unpublish(month);
+            try {
+                Files.deleteIfExists(restoredFile[0]);
+            } catch (IOException e) {
+                log.warn("Failed to delete restored archive segment {}: {}", restoredFile[0], e.getMessage());
+            }
+            log.info("Restored transfers of {} from archive", month);
+        }
+        return result;
+    }
+
+    /**
+     * Проверяет контрольные суммы файлов всех архивированных месяцев.
+     *
+     * @return записи каталога и результаты проверки; для восстановленных месяцев результат {@code null}
+     */
+    public List<Verification> verify() {
+        return archiveDao.findSegments().stream()
+                .map(record -> {
+                    if (record.getStatus() != ArchivedSegment.Status.ARCHIVED) {
+                        return new Verification(record, null);
+                    }
+                    try {
+                        openVerified(record);
+                        return new Verification(record, true);
+                    } catch (RuntimeException e) {
+                        log.warn("Archive segment for {} failed verification: {}", record.getMonth(), e.getMessage());
+                        return new Verification(record, false);
+                    }
+                })
+                .toList();
+    }
+
+    /**
+     * Запись каталога с результатом проверки файла.
+     *
+     * @param segment запись каталога
+     * @param valid   {@code true}, если файл совпадает с каталогом, или {@code null}, если файла нет
+     */
+    public record Verification(ArchivedSegment segment, Boolean valid) {
+    }
+
+    private Optional<ArchivedSegment> findSegment(YearMonth month) {
+        return archiveDao.findSegments().stream()
+                .filter(record -> record.getMonth().equals(month))
+                .findFirst();
+    }
+
+    /**
+     * Пишет сегмент месяца во временный файл и переименовывает его в постоянный.
+     *
+     * @return открытый сегмент или {@code null}, если в месяце нет переводов
+     */
+    private ArchiveSegment writeSegment(YearMonth month, LocalDateTime from, LocalDateTime to) throws IOException {
+        Path directory = archiveStore.directory();
+        Files.createDirectories(directory);
+        Path target = archiveStore.segmentPath(month);
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            long[] rows = new long[1];
+            try (SegmentWriter writer = new SegmentWriter(temp)) {
+                transactionTemplate.executeWithoutResult(status -> archiveDao.streamRange(from, to, fetchSize, tx -> {
+                    try {
+                        writer.append(tx);
+                        rows[0]++;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+                if (rows[0] == 0) {
+                    return null;
+                }
+                writer.finish();
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+                dir.force(true);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        ArchiveSegment segment = ArchiveSegment.open(target);
+        if (!segment.verify()) {
+            throw new IllegalStateException("Контрольная сумма сегмента архива " + target + " не совпадает");
+        }
+        return segment;
+    }
+
+    /**
+     * Открывает файл сегмента и проверяет его по записи каталога и собственной контрольной сумме.
+     */
+    private ArchiveSegment openVerified(ArchivedSegment record) {
+        Path path = archiveStore.directory().resolve(record.getFileName());
+        ArchiveSegment segment;
+        try {
+            segment = ArchiveSegment.open(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open archive segment " + path, e);
+        }
+        if (segment.checksum() != record.getChecksum() || segment.rowCount() != record.getRowCount()
+                || segment.amountSum() != record.getAmountSum() || !segment.verify()) {
+            throw new IllegalStateException("Сегмент архива " + path + " не совпадает с каталогом");
+        }
+        return segment;
+    }
+}
@@ -1,40 +1,148 @@
 package ru.dzhenbaz.P2PTransactionsTask.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.dzhenbaz.P2PTransactionsTask.admin.ArchiveEndpoint;
+import ru.dzhenbaz.P2PTransactionsTask.admin.BalanceSlotsEndpoint;
+import ru.dzhenbaz.P2PTransactionsTask.admin.ReconciliationEndpoint;
+import ru.dzhenbaz.P2PTransactionsTask.archive.ArchiveStore;
+import ru.dzhenbaz.P2PTransactionsTask.archive.TransactionArchiver;
 import ru.dzhenbaz.P2PTransactionsTask.controller.AccountController;
 import ru.dzhenbaz.P2PTransactionsTask.controller.AuthController;
+import ru.dzhenbaz.P2PTransactionsTask.controller.PayoutController;
+import ru.dzhenbaz.P2PTransactionsTask.controller.ScheduledTransferController;
 import ru.dzhenbaz.P2PTransactionsTask.controller.TransactionController;
+import ru.dzhenbaz.P2PTransactionsTask.controller.TransactionEventsController;
+import ru.dzhenbaz.P2PTransactionsTask.controller.TransactionExportController;
+import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDailyRollupDao;
 import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.IdempotencyKeyDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.OutboxDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.ReconciliationDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.ScheduledTransferDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionArchiveDao;
 import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionDao;
 import ru.dzhenbaz.P2PTransactionsTask.dao.UserDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.impl.AccountDailyRollupDaoImpl;
 import ru.dzhenbaz.P2PTransactionsTask.dao.impl.AccountDaoImpl;
+import ru.dzhenbaz.P2PTransactionsTask.dao.impl.ArchivingTransactionDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.impl.CachingAccountDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.impl.EventPublishingTransactionDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.impl.IdempotencyKeyDaoImpl;
+import ru.dzhenbaz.P2PTransactionsTask.dao.impl.LedgerCheckpointDaoImpl;
+import ru.dzhenbaz.P2PTransactionsTask.dao.impl.OutboxDaoImpl;
+import ru.dzhenbaz.P2PTransactionsTask.dao.impl.OutboxTransactionDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.impl.ReconciliationDaoImpl;
+import ru.dzhenbaz.P2PTransactionsTask.dao.impl.RollupTransactionDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.impl.ScheduledTransferDaoImpl;
+import ru.dzhenbaz.P2PTransactionsTask.dao.impl.TransactionArchiveDaoImpl;
 import ru.dzhenbaz.P2PTransactionsTask.dao.impl.TransactionDaoImpl;
 import ru.dzhenbaz.P2PTransactionsTask.dao.impl.UserDaoImpl;
 import ru.dzhenbaz.P2PTransactionsTask.exception.GlobalExceptionHandler;
+import ru.dzhenbaz.P2PTransactionsTask.events.TransferEventHub;
+import ru.dzhenbaz.P2PTransactionsTask.ledger.LedgerAccountDao;
+import ru.dzhenbaz.P2PTransactionsTask.ledger.LedgerTransactionService;
+import ru.dzhenbaz.P2PTransactionsTask.ledger.ShardedLedgerEngine;
 import ru.dzhenbaz.P2PTransactionsTask.logging.LoggingAspect;
+import ru.dzhenbaz.P2PTransactionsTask.outbox.FileOutboxSink;
+import ru.dzhenbaz.P2PTransactionsTask.outbox.HttpOutboxSink;
+import ru.dzhenbaz.P2PTransactionsTask.outbox.OutboxRelay;
+import ru.dzhenbaz.P2PTransactionsTask.outbox.OutboxSink;
+import ru.dzhenbaz.P2PTransactionsTask.outbox.QueueOutboxSink;
+import ru.dzhenbaz.P2PTransactionsTask.pipeline.GroupCommitTransferPipeline;
+import ru.dzhenbaz.P2PTransactionsTask.partition.TransactionPartitionManager;
+import ru.dzhenbaz.P2PTransactionsTask.ratelimit.RateLimiter;
+import ru.dzhenbaz.P2PTransactionsTask.reconciliation.BalanceReconciler;
+import ru.dzhenbaz.P2PTransactionsTask.retry.TransferRetryAspect;
+import ru.dzhenbaz.P2PTransactionsTask.scheduler.TransferScheduler;
 import ru.dzhenbaz.P2PTransactionsTask.security.JwtFilter;
 import ru.dzhenbaz.P2PTransactionsTask.security.JwtUtil;
+import ru.dzhenbaz.P2PTransactionsTask.service.AccountRollupService;
 import ru.dzhenbaz.P2PTransactionsTask.service.AccountService;
+import ru.dzhenbaz.P2PTransactionsTask.service.AsyncTransferService;
 import ru.dzhenbaz.P2PTransactionsTask.service.AuthService;
+import ru.dzhenbaz.P2PTransactionsTask.service.BalanceSlotService;
+import ru.dzhenbaz.P2PTransactionsTask.service.BatchTransferService;
+import ru.dzhenbaz.P2PTransactionsTask.service.IdempotencyService;
+import ru.dzhenbaz.P2PTransactionsTask.service.PayoutService;
+import ru.dzhenbaz.P2PTransactionsTask.service.ScheduledTransferService;
+import ru.dzhenbaz.P2PTransactionsTask.service.TransactionExportService;
+import ru.dzhenbaz.P2PTransactionsTask.service.TransactionHistoryService;
 import ru.dzhenbaz.P2PTransactionsTask.service.TransactionService;
 import ru.dzhenbaz.P2PTransactionsTask.service.UserService;
 
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
 @Configuration
 @EnableAspectJAutoProxy
+@EnableScheduling
 public class AppConfig {
 
     @Bean
-    public AccountDao accountDao(JdbcTemplate jdbcTemplate) {
-        return new AccountDaoImpl(jdbcTemplate);
+    public AccountDao accountDao(JdbcTemplate jdbcTemplate, ObjectProvider<ShardedLedgerEngine> ledgerEngine,
+                                 TransferProperties transferProperties, MeterRegistry meterRegistry) {
+        AccountDao accountDao = new AccountDaoImpl(jdbcTemplate);
+        TransferProperties.AccountCache cache = transferProperties.getAccountCache();
+        if (cache.isEnabled()) {
+            accountDao = new CachingAccountDao(accountDao, cache.getMaxSize(), cache.getTtl(), meterRegistry);
+        }
+        ShardedLedgerEngine engine = ledgerEngine.getIfAvailable();
+        return engine == null ? accountDao : new LedgerAccountDao(accountDao, engine);
+    }
+
+    @Bean
+    public AccountDailyRollupDao accountDailyRollupDao(JdbcTemplate jdbcTemplate) {
+        return new AccountDailyRollupDaoImpl(jdbcTemplate);
+    }
+
+    @Bean
+    public OutboxDao outboxDao(JdbcTemplate jdbcTemplate) {
+        return new OutboxDaoImpl(jdbcTemplate);
+    }
+
+    @Bean
+    public TransactionArchiveDao transactionArchiveDao(JdbcTemplate jdbcTemplate) {
+        return new TransactionArchiveDaoImpl(jdbcTemplate);
+    }
+
+    @Bean
+    public ArchiveStore archiveStore(TransactionArchiveDao transactionArchiveDao,
+                                     TransferProperties transferProperties, MeterRegistry meterRegistry) {
+        return new ArchiveStore(transactionArchiveDao, Path.of(transferProperties.getArchive().getDirectory()),
+                meterRegistry);
+    }
+
+    @Bean
+    public TransactionDao transactionDao(JdbcTemplate jdbcTemplate, AccountDailyRollupDao accountDailyRollupDao,
+                                         OutboxDao outboxDao, TransferEventHub transferEventHub,
+                                         ArchiveStore archiveStore, TransferProperties transferProperties) {
+        TransactionDao transactionDao = new RollupTransactionDao(
+                new ArchivingTransactionDao(new TransactionDaoImpl(jdbcTemplate), archiveStore),
+                accountDailyRollupDao);
+        if (transferProperties.getOutbox().isEnabled()) {
+            transactionDao = new OutboxTransactionDao(transactionDao, outboxDao);
+        }
+        return new EventPublishingTransactionDao(transactionDao, transferEventHub);
     }
 
     @Bean
-    public TransactionDao transactionDao(JdbcTemplate jdbcTemplate) {
-        return new TransactionDaoImpl(jdbcTemplate);
+    public TransferEventHub transferEventHub(TransferProperties transferProperties, MeterRegistry meterRegistry) {
+        TransferProperties.Events events = transferProperties.getEvents();
+        return new TransferEventHub(events.getBufferSize(), events.getReplaySize(), events.getMaxSubscribers(),
+                events.getOverflowPolicy(), events.getHistoryTtl(), events.getTimeout(), events.getSenderThreads(),
+                meterRegistry);
     }
 
     @Bean
@@ -42,14 +150,24 @@ public class AppConfig {
         return new UserDaoImpl(jdbcTemplate);
     }
 
+    @Bean
+    public IdempotencyKeyDao idempotencyKeyDao(JdbcTemplate jdbcTemplate) {
+        return new IdempotencyKeyDaoImpl(jdbcTemplate);
+    }
+
+    @Bean
+    public ScheduledTransferDao scheduledTransferDao(JdbcTemplate jdbcTemplate) {
+        return new ScheduledTransferDaoImpl(jdbcTemplate);
+    }
+
     @Bean
     public GlobalExceptionHandler globalExceptionHandler() {
         return new GlobalExceptionHandler();
     }
 
     @Bean
-    public JwtUtil jwtUtil(JwtProperties props) {
-        return new JwtUtil(props.getSecret());
+    public JwtUtil jwtUtil(JwtProperties props, MeterRegistry meterRegistry) {
+        return new JwtUtil(props.getSecret(), props.getCacheSize(), meterRegistry);
     }
 
     @Bean
@@ -74,8 +192,233 @@ public class AppConfig {
     }
 
     @Bean
-    public TransactionService transactionService(AccountDao accountDao, TransactionDao transactionDao) {
-        return new TransactionService(accountDao, transactionDao);
+    @ConditionalOnProperty(prefix = "transfer", name = "mode", havingValue = "LEDGER")
+    public ShardedLedgerEngine shardedLedgerEngine(JdbcTemplate jdbcTemplate, TransactionDao transactionDao,
+                                                   PlatformTransactionManager transactionManager,
+                                                   TransferProperties transferProperties,
+                                                   MeterRegistry meterRegistry) {
+        ShardedLedgerEngine engine = new ShardedLedgerEngine(new AccountDaoImpl(jdbcTemplate), transactionDao,
+                new LedgerCheckpointDaoImpl(jdbcTemplate), transactionManager, transferProperties.getLedger(),
+                meterRegistry);
+        engine.start();
+        return engine;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "transfer.partitioning", name = "enabled", havingValue = "true",
+            matchIfMissing = true)
+    public TransactionPartitionManager transactionPartitionManager(JdbcTemplate jdbcTemplate,
+                                                                   TransferProperties transferProperties) {
+        TransferProperties.Partitioning partitioning = transferProperties.getPartitioning();
+        return new TransactionPartitionManager(jdbcTemplate, partitioning.getMonthsAhead(),
+                partitioning.getRetainMonths());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "transfer.outbox.file", name = "enabled", havingValue = "true")
+    public FileOutboxSink fileOutboxSink(TransferProperties transferProperties, ObjectMapper objectMapper) {
+        return new FileOutboxSink(Path.of(transferProperties.getOutbox().getFile().getPath()), objectMapper);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "transfer.outbox.queue", name = "enabled", havingValue = "true")
+    public QueueOutboxSink queueOutboxSink(TransferProperties transferProperties) {
+        return new QueueOutboxSink(transferProperties.getOutbox().getQueue().getCapacity());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "transfer.outbox.http", name = "enabled", havingValue = "true")
+    public HttpOutboxSink httpOutboxSink(TransferProperties transferProperties, ObjectMapper objectMapper) {
+        TransferProperties.Outbox.Http http = transferProperties.getOutbox().getHttp();
+        return new HttpOutboxSink(URI.create(http.getUrl()), http.getTimeout(), objectMapper);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "transfer.outbox", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public OutboxRelay outboxRelay(OutboxDao outboxDao, PlatformTransactionManager transactionManager,
+                                   ObjectProvider<OutboxSink> sinks, TransferProperties transferProperties,
+                                   MeterRegistry meterRegistry) {
+        return new OutboxRelay(outboxDao, transactionManager, sinks.orderedStream().toList(),
+                transferProperties.getOutbox().getBatchSize(), meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "transfer.archive", name = "enabled", havingValue = "true")
+    public TransactionArchiver transactionArchiver(TransactionArchiveDao transactionArchiveDao,
+                                                   ArchiveStore archiveStore,
+                                                   PlatformTransactionManager transactionManager,
+                                                   TransferProperties transferProperties) {
+        TransferProperties.Archive archive = transferProperties.getArchive();
+        return new TransactionArchiver(transactionArchiveDao, archiveStore, transactionManager,
+                archive.getRetention(), archive.getFetchSize());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "transfer.archive", name = "enabled", havingValue = "true")
+    public ArchiveEndpoint archiveEndpoint(TransactionArchiver transactionArchiver) {
+        return new ArchiveEndpoint(transactionArchiver);
+    }
+
+    @Bean
+    public ReconciliationDao reconciliationDao(JdbcTemplate jdbcTemplate) {
+        return new ReconciliationDaoImpl(jdbcTemplate);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "transfer.reconciliation", name = "enabled", havingValue = "true",
+            matchIfMissing = true)
+    public BalanceReconciler balanceReconciler(ReconciliationDao reconciliationDao,
+                                               TransactionArchiveDao transactionArchiveDao, ArchiveStore archiveStore,
+                                               PlatformTransactionManager transactionManager,
+                                               TransferProperties transferProperties, MeterRegistry meterRegistry) {
+        TransferProperties.Reconciliation reconciliation = transferProperties.getReconciliation();
+        return new BalanceReconciler(reconciliationDao, transactionArchiveDao, archiveStore, transactionManager,
+                reconciliation.getParallelism(), reconciliation.getRangeSize(), reconciliation.getFetchSize(),
+                reconciliation.getMaxReportedDrifts(), meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "transfer.reconciliation", name = "enabled", havingValue = "true",
+            matchIfMissing = true)
+    public ReconciliationEndpoint reconciliationEndpoint(BalanceReconciler balanceReconciler) {
+        return new ReconciliationEndpoint(balanceReconciler);
+    }
+
+    @Bean
+    public TransactionHistoryService transactionHistoryService(AccountService accountService,
+                                                               TransactionDao transactionDao,
+                                                               TransferProperties transferProperties) {
+        TransferProperties.History history = transferProperties.getHistory();
+        return new TransactionHistoryService(accountService, transactionDao, history.getDefaultPageSize(),
+                history.getMaxPageSize());
+    }
+
+    @Bean
+    public AccountRollupService accountRollupService(AccountService accountService,
+                                                     AccountDailyRollupDao accountDailyRollupDao,
+                                                     TransferProperties transferProperties) {
+        return new AccountRollupService(accountService, accountDailyRollupDao,
+                transferProperties.getRollup().getMaxDays());
+    }
+
+    @Bean
+    public TransactionExportService transactionExportService(AccountService accountService,
+                                                             TransactionDao transactionDao,
+                                                             PlatformTransactionManager transactionManager,
+                                                             TransferProperties transferProperties) {
+        return new TransactionExportService(accountService, transactionDao, transactionManager,
+                transferProperties.getExport().getFetchSize());
+    }
+
+    @Bean
+    public BalanceSlotService balanceSlotService(AccountDao accountDao, TransferProperties transferProperties) {
+        return new BalanceSlotService(accountDao, transferProperties.getBalanceSlots().getMaxSlots(),
+                transferProperties.getMode());
+    }
+
+    @Bean
+    public BalanceSlotsEndpoint balanceSlotsEndpoint(BalanceSlotService balanceSlotService) {
+        return new BalanceSlotsEndpoint(balanceSlotService);
+    }
+
+    @Bean
+    public TransactionService transactionService(AccountDao accountDao, TransactionDao transactionDao,
+                                                 TransferProperties transferProperties,
+                                                 ObjectProvider<ShardedLedgerEngine> ledgerEngine) {
+        ShardedLedgerEngine engine = ledgerEngine.getIfAvailable();
+        if (engine != null) {
+            return new LedgerTransactionService(accountDao, transactionDao, engine);
+        }
+        return new TransactionService(accountDao, transactionDao, transferProperties.getMode());
+    }
+
+    @Bean
+    public BatchTransferService batchTransferService(AccountDao accountDao, TransactionDao transactionDao,
+                                                     TransferProperties transferProperties) {
+        return new BatchTransferService(accountDao, transactionDao, transferProperties.getBatch().getMaxSize(),
+                transferProperties.getMode());
+    }
+
+    @Bean
+    public PayoutService payoutService(AccountDao accountDao, TransactionDao transactionDao,
+                                       PlatformTransactionManager transactionManager,
+                                       TransferProperties transferProperties) {
+        TransferProperties.Payout payout = transferProperties.getPayout();
+        return new PayoutService(accountDao, transactionDao, transactionManager, payout.getMaxRecipients(),
+                payout.getChunkSize(), transferProperties.getMode());
+    }
+
+    @Bean
+    public IdempotencyService idempotencyService(IdempotencyKeyDao idempotencyKeyDao,
+                                                 PlatformTransactionManager transactionManager,
+                                                 TransferProperties transferProperties) {
+        TransferProperties.Idempotency idempotency = transferProperties.getIdempotency();
+        return new IdempotencyService(idempotencyKeyDao, transactionManager, idempotency.getCacheSize(),
+                idempotency.getTtl(), transferProperties.getMode());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "transfer.group-commit", name = "enabled", havingValue = "true")
+    public GroupCommitTransferPipeline groupCommitTransferPipeline(TransactionService transactionService,
+                                                                   PlatformTransactionManager transactionManager,
+                                                                   TransferProperties transferProperties,
+                                                                   MeterRegistry meterRegistry) {
+        TransferProperties.GroupCommit groupCommit = transferProperties.getGroupCommit();
+        return new GroupCommitTransferPipeline(transactionService, transactionManager,
+                groupCommit.getPartitions(), groupCommit.getMaxBatchSize(), groupCommit.getMaxWait(),
+                groupCommit.getQueueCapacity(), meterRegistry);
+    }
+
+    @Bean
+    public AsyncTransferService asyncTransferService(TransactionService transactionService,
+                                                     ObjectProvider<GroupCommitTransferPipeline> groupCommitPipeline,
+                                                     TransferProperties transferProperties,
+                                                     MeterRegistry meterRegistry) {
+        TransferProperties.Async async = transferProperties.getAsync();
+        return new AsyncTransferService(transactionService, groupCommitPipeline.getIfAvailable(),
+                async.getMaxConcurrency(), async.getQueueCapacity(), async.getStatusCacheSize(),
+                async.getStatusTtl(), meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "transfer.scheduler", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public TransferScheduler transferScheduler(ScheduledTransferDao scheduledTransferDao,
+                                               TransactionService transactionService,
+                                               PlatformTransactionManager transactionManager,
+                                               TransferProperties transferProperties,
+                                               MeterRegistry meterRegistry) {
+        TransferProperties.Scheduler scheduler = transferProperties.getScheduler();
+        TransferScheduler transferScheduler = new TransferScheduler(scheduledTransferDao, transactionService,
+                transactionManager, scheduler.getTick(), scheduler.getWheelSize(), scheduler.getLoadWindow(),
+                scheduler.getLoadInterval(), scheduler.getBatchSize(), scheduler.getLoadLimit(), meterRegistry);
+        transferScheduler.start();
+        return transferScheduler;
+    }
+
+    @Bean
+    public ScheduledTransferService scheduledTransferService(ScheduledTransferDao scheduledTransferDao,
+                                                             AccountDao accountDao,
+                                                             ObjectProvider<TransferScheduler> transferScheduler) {
+        return new ScheduledTransferService(scheduledTransferDao, accountDao, transferScheduler.getIfAvailable());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "transfer.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public RateLimiter rateLimiter(TransferProperties transferProperties, MeterRegistry meterRegistry) {
+        TransferProperties.RateLimit rateLimit = transferProperties.getRateLimit();
+        Map<Long, RateLimiter.Tier> userTiers = new HashMap<>();
+        rateLimit.getUserTiers().forEach((userId, tierName) -> userTiers.put(userId, tier(rateLimit, tierName)));
+        return new RateLimiter(tier(rateLimit, rateLimit.getDefaultTier()), userTiers, rateLimit.getMaxKeys(),
+                meterRegistry);
+    }
+
+    private static RateLimiter.Tier tier(TransferProperties.RateLimit rateLimit, String name) {
+        TransferProperties.RateLimit.Tier tier = rateLimit.getTiers().get(name);
+        if (tier == null) {
+            throw new IllegalStateException("Unknown rate limit tier: " + name);
+        }
+        return new RateLimiter.Tier(tier.getUserRate(), tier.getUserBurst(), tier.getAccountRate(),
+                tier.getAccountBurst());
     }
 
     @Bean
@@ -84,17 +427,54 @@ public class AppConfig {
     }
 
     @Bean
-    public AccountController accountController(AccountService accountService, JwtUtil jwtUtil) {
-        return new AccountController(accountService, jwtUtil);
+    public AccountController accountController(AccountService accountService,
+                                               TransactionHistoryService transactionHistoryService,
+                                               AccountRollupService accountRollupService) {
+        return new AccountController(accountService, transactionHistoryService, accountRollupService);
     }
 
     @Bean
-    public TransactionController transactionController(TransactionService transactionService, JwtUtil jwtUtil) {
-        return new TransactionController(transactionService, jwtUtil);
+    public TransactionEventsController transactionEventsController(AccountService accountService,
+                                                                   TransferEventHub transferEventHub) {
+        return new TransactionEventsController(accountService, transferEventHub);
+    }
+
+    @Bean
+    public TransactionExportController transactionExportController(TransactionExportService transactionExportService) {
+        return new TransactionExportController(transactionExportService);
+    }
+
+    @Bean
+    public TransactionController transactionController(TransactionService transactionService,
+                                                       BatchTransferService batchTransferService,
+                                                       ObjectProvider<GroupCommitTransferPipeline> groupCommitPipeline,
+                                                       IdempotencyService idempotencyService,
+                                                       AsyncTransferService asyncTransferService,
+                                                       ObjectProvider<RateLimiter> rateLimiter) {
+        return new TransactionController(transactionService, batchTransferService,
+                groupCommitPipeline.getIfAvailable(), idempotencyService, asyncTransferService,
+                rateLimiter.getIfAvailable());
+    }
+
+    @Bean
+    public PayoutController payoutController(PayoutService payoutService, ObjectMapper objectMapper) {
+        return new PayoutController(payoutService, objectMapper);
+    }
+
+    @Bean
+    public ScheduledTransferController scheduledTransferController(ScheduledTransferService scheduledTransferService) {
+        return new ScheduledTransferController(scheduledTransferService);
     }
 
     @Bean
     public LoggingAspect loggingAspect() {
         return new LoggingAspect();
     }
+
+    @Bean
+    public TransferRetryAspect transferRetryAspect(TransferProperties transferProperties, MeterRegistry meterRegistry) {
+        TransferProperties.Retry retry = transferProperties.getRetry();
+        return new TransferRetryAspect(retry.getMaxAttempts(), retry.getInitialBackoff(), retry.getMaxBackoff(),
+                meterRegistry);
+    }
 }
@@ -10,6 +10,11 @@ import org.springframework.context.annotation.Configuration;
 public class JwtProperties {
     private String secret;
 
+    /**
+     * Максимальное число проверенных токенов в кэше {@code JwtUtil}; {@code 0} отключает кэш.
+     */
+    private long cacheSize = 10_000;
+
     public String getSecret() {
         return secret;
     }
@@ -17,4 +22,12 @@ public class JwtProperties {
     public void setSecret(String secret) {
         this.secret = secret;
     }
+
+    public long getCacheSize() {
+        return cacheSize;
+    }
+
+    public void setCacheSize(long cacheSize) {
+        this.cacheSize = cacheSize;
+    }
 }
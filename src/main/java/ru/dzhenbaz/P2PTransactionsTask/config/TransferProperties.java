@@ -0,0 +1,1501 @@
+package ru.dzhenbaz.P2PTransactionsTask.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import ru.dzhenbaz.P2PTransactionsTask.events.OverflowPolicy;
+import ru.dzhenbaz.P2PTransactionsTask.service.TransferMode;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Настройки исполнения переводов (префикс {@code transfer}).
+ *
+ * @author Dzhenbaz
+ */
+@Configuration
+@EnableConfigurationProperties
+@ConfigurationProperties(prefix = "transfer")
+public class TransferProperties {
+
+    /**
+     * Режим исполнения подтверждённого перевода.
+     */
+    private TransferMode mode = TransferMode.READ_MODIFY_WRITE;
+
+    /**
+     * Политика повтора переводов при взаимной блокировке или ошибке сериализации.
+     */
+    private final Retry retry = new Retry();
+
+    /**
+     * Настройки пакетных переводов.
+     */
+    private final Batch batch = new Batch();
+
+    /**
+     * Настройки конвейера группового коммита.
+     */
+    private final GroupCommit groupCommit = new GroupCommit();
+
+    /**
+     * Настройки шардированного леджера (режим {@link TransferMode#LEDGER}).
+     */
+    private final Ledger ledger = new Ledger();
+
+    /**
+     * Настройки слотов баланса для счетов с большим числом входящих переводов.
+     */
+    private final BalanceSlots balanceSlots = new BalanceSlots();
+
+    /**
+     * Настройки дедупликации переводов по {@code Idempotency-Key}.
+     */
+    private final Idempotency idempotency = new Idempotency();
+
+    /**
+     * Настройки асинхронной подачи переводов.
+     */
+    private final Async async = new Async();
+
+    /**
+     * Настройки планировщика отложенных и регулярных переводов.
+     */
+    private final Scheduler scheduler = new Scheduler();
+
+    /**
+     * Настройки массовых выплат.
+     */
+    private final Payout payout = new Payout();
+
+    /**
+     * Настройки ограничения частоты переводов.
+     */
+    private final RateLimit rateLimit = new RateLimit();
+
+    /**
+     * Настройки кэша счетов.
+     */
+    private final AccountCache accountCache = new AccountCache();
+
+    /**
+     * Настройки истории переводов.
+     */
+    private final History history = new History();
+
+    /**
+     * Настройки выгрузки истории переводов.
+     */
+    private final Export export = new Export();
+
+    /**
+     * Настройки секционирования таблицы переводов.
+     */
+    private final Partitioning partitioning = new Partitioning();
+
+    /**
+     * Настройки дневных итогов по счетам.
+     */
+    private final Rollup rollup = new Rollup();
+
+    /**
+     * Настройки рассылки событий о переводах.
+     */
+    private final Events events = new Events();
+
+    /**
+     * Настройки исходящей очереди событий о переводах.
+     */
+    private final Outbox outbox = new Outbox();
+
+    /**
+     * Настройки архива старых переводов.
+     */
+    private final Archive archive = new Archive();
+
+    /**
+     * Настройки сверки балансов с историей переводов.
+     */
+    private final Reconciliation reconciliation = new Reconciliation();
+
+    public TransferMode getMode() {
+        return mode;
+    }
+
+    public void setMode(TransferMode mode) {
+        this.mode = mode;
+    }
+
+    public Retry getRetry() {
+        return retry;
+    }
+
+    public Batch getBatch() {
+        return batch;
+    }
+
+    public GroupCommit getGroupCommit() {
+        return groupCommit;
+    }
+
+    public Ledger getLedger() {
+        return ledger;
+    }
+
+    public BalanceSlots getBalanceSlots() {
+        return balanceSlots;
+    }
+
+    public Idempotency getIdempotency() {
+        return idempotency;
+    }
+
+    public Async getAsync() {
+        return async;
+    }
+
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    public Payout getPayout() {
+        return payout;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public AccountCache getAccountCache() {
+        return accountCache;
+    }
+
+    public History getHistory() {
+        return history;
+    }
+
+    public Export getExport() {
+        return export;
+    }
+
+    public Partitioning getPartitioning() {
+        return partitioning;
+    }
+
+    public Rollup getRollup() {
+        return rollup;
+    }
+
+    public Events getEvents() {
+        return events;
+    }
+
+    public Outbox getOutbox() {
+        return outbox;
+    }
+
+    public Archive getArchive() {
+        return archive;
+    }
+
+    public Reconciliation getReconciliation() {
+        return reconciliation;
+    }
+
+    /**
+     * Настройки повтора (префикс {@code transfer.retry}).
+     * <p>Пауза перед попыткой {@code n} выбирается случайно из
+     * {@code [0, min(maxBackoff, initialBackoff * 2^(n-1))]}.</p>
+     */
+    public static class Retry {
+
+        /**
+         * Максимальное число попыток, включая первую.
+         */
+        private int maxAttempts = 3;
+
+        /**
+         * Верхняя граница паузы перед первым повтором.
+         */
+        private Duration initialBackoff = Duration.ofMillis(10);
+
+        /**
+         * Максимальная пауза между попытками.
+         */
+        private Duration maxBackoff = Duration.ofMillis(200);
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+    }
+
+    /**
+     * Настройки пакетных переводов (префикс {@code transfer.batch}).
+     */
+    public static class Batch {
+
+        /**
+         * Максимальное число переводов в одном пакете.
+         */
+        private int maxSize = 1000;
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
+
+    /**
+     * Настройки конвейера группового коммита (префикс {@code transfer.group-commit}).
+     * <p>Группа закрывается, когда набрано {@code maxBatchSize} переводов или
+     * с момента прихода первого перевода группы прошло {@code maxWait}.</p>
+     */
+    public static class GroupCommit {
+
+        /**
+         * Включает конвейер перед {@code TransactionService}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Число разделов; у каждого раздела свой поток-писатель.
+         * Перевод попадает в раздел по идентификатору счёта-источника.
+         */
+        private int partitions = 4;
+
+        /**
+         * Максимальное число переводов в одной транзакции БД.
+         */
+        private int maxBatchSize = 64;
+
+        /**
+         * Максимальное время ожидания пополнения группы.
+         */
+        private Duration maxWait = Duration.ofMillis(2);
+
+        /**
+         * Ёмкость очереди каждого раздела.
+         */
+        private int queueCapacity = 10_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getPartitions() {
+            return partitions;
+        }
+
+        public void setPartitions(int partitions) {
+            this.partitions = partitions;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    /**
+     * Настройки шардированного леджера (префикс {@code transfer.ledger}).
+     */
+    public static class Ledger {
+
+        /**
+         * Число шардов; у каждого шарда свой поток-владелец балансов.
+         */
+        private int shards = 4;
+
+        /**
+         * Ёмкость кольцевого буфера каждого шарда и журнала (округляется до степени двойки).
+         */
+        private int ringCapacity = 8192;
+
+        /**
+         * Каталог сегментов журнала.
+         */
+        private String journalDir = "data/ledger";
+
+        /**
+         * Размер сегмента журнала, после которого открывается следующий.
+         */
+        private DataSize journalSegmentSize = DataSize.ofMegabytes(64);
+
+        /**
+         * Максимальное число переводов, сохраняемых одним {@code fsync}.
+         */
+        private int journalBatchSize = 512;
+
+        /**
+         * Максимальное число переводов в одной транзакции асинхронной записи в БД.
+         */
+        private int writeBehindBatchSize = 1000;
+
+        /**
+         * Время ожидания новых записей потоком асинхронной записи.
+         */
+        private Duration writeBehindInterval = Duration.ofMillis(50);
+
+        /**
+         * Ёмкость очереди асинхронной записи; при её заполнении журнал ждёт БД.
+         */
+        private int writeBehindQueueCapacity = 100_000;
+
+        public int getShards() {
+            return shards;
+        }
+
+        public void setShards(int shards) {
+            this.shards = shards;
+        }
+
+        public int getRingCapacity() {
+            return ringCapacity;
+        }
+
+        public void setRingCapacity(int ringCapacity) {
+            this.ringCapacity = ringCapacity;
+        }
+
+        public String getJournalDir() {
+            return journalDir;
+        }
+
+        public void setJournalDir(String journalDir) {
+            this.journalDir = journalDir;
+        }
+
+        public DataSize getJournalSegmentSize() {
+            return journalSegmentSize;
+        }
+
+        public void setJournalSegmentSize(DataSize journalSegmentSize) {
+            this.journalSegmentSize = journalSegmentSize;
+        }
+
+        public int getJournalBatchSize() {
+            return journalBatchSize;
+        }
+
+        public void setJournalBatchSize(int journalBatchSize) {
+            this.journalBatchSize = journalBatchSize;
+        }
+
+        public int getWriteBehindBatchSize() {
+            return writeBehindBatchSize;
+        }
+
+        public void setWriteBehindBatchSize(int writeBehindBatchSize) {
+            this.writeBehindBatchSize = writeBehindBatchSize;
+        }
+
+        public Duration getWriteBehindInterval() {
+            return writeBehindInterval;
+        }
+
+        public void setWriteBehindInterval(Duration writeBehindInterval) {
+            this.writeBehindInterval = writeBehindInterval;
+        }
+
+        public int getWriteBehindQueueCapacity() {
+            return writeBehindQueueCapacity;
+        }
+
+        public void setWriteBehindQueueCapacity(int writeBehindQueueCapacity) {
+            this.writeBehindQueueCapacity = writeBehindQueueCapacity;
+        }
+    }
+
+    /**
+     * Настройки слотов баланса (префикс {@code transfer.balance-slots}).
+     */
+    public static class BalanceSlots {
+
+        /**
+         * Максимальное число слотов на один счёт.
+         */
+        private int maxSlots = 64;
+
+        public int getMaxSlots() {
+            return maxSlots;
+        }
+
+        public void setMaxSlots(int maxSlots) {
+            this.maxSlots = maxSlots;
+        }
+    }
+
+    /**
+     * Настройки ключей идемпотентности (префикс {@code transfer.idempotency}).
+     */
+    public static class Idempotency {
+
+        /**
+         * Максимальное число ключей в кэше в памяти.
+         */
+        private long cacheSize = 100_000;
+
+        /**
+         * Время хранения ключа в кэше и в БД.
+         */
+        private Duration ttl = Duration.ofHours(24);
+
+        /**
+         * Интервал удаления устаревших ключей из БД.
+         */
+        private Duration purgeInterval = Duration.ofHours(1);
+
+        public long getCacheSize() {
+            return cacheSize;
+        }
+
+        public void setCacheSize(long cacheSize) {
+            this.cacheSize = cacheSize;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public Duration getPurgeInterval() {
+            return purgeInterval;
+        }
+
+        public void setPurgeInterval(Duration purgeInterval) {
+            this.purgeInterval = purgeInterval;
+        }
+    }
+
+    /**
+     * Настройки асинхронных переводов (префикс {@code transfer.async}).
+     */
+    public static class Async {
+
+        /**
+         * Максимальное число одновременно исполняемых асинхронных переводов.
+         * Должно быть меньше размера пула соединений JDBC.
+         */
+        private int maxConcurrency = 8;
+
+        /**
+         * Ёмкость очереди переводов, ожидающих исполнения.
+         */
+        private int queueCapacity = 1000;
+
+        /**
+         * Максимальное число хранимых состояний переводов.
+         */
+        private long statusCacheSize = 100_000;
+
+        /**
+         * Время хранения состояния перевода.
+         */
+        private Duration statusTtl = Duration.ofHours(1);
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public long getStatusCacheSize() {
+            return statusCacheSize;
+        }
+
+        public void setStatusCacheSize(long statusCacheSize) {
+            this.statusCacheSize = statusCacheSize;
+        }
+
+        public Duration getStatusTtl() {
+            return statusTtl;
+        }
+
+        public void setStatusTtl(Duration statusTtl) {
+            this.statusTtl = statusTtl;
+        }
+    }
+
+    /**
+     * Настройки планировщика переводов (префикс {@code transfer.scheduler}).
+     */
+    public static class Scheduler {
+
+        /**
+         * Включает исполнение запланированных переводов в этом экземпляре приложения.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Шаг колеса таймеров и период проверки наступивших переводов.
+         */
+        private Duration tick = Duration.ofSeconds(1);
+
+        /**
+         * Число ячеек на уровне колеса таймеров.
+         */
+        private int wheelSize = 60;
+
+        /**
+         * Ширина окна, загружаемого из БД в колесо таймеров.
+         */
+        private Duration loadWindow = Duration.ofMinutes(5);
+
+        /**
+         * Период загрузки окна. Должен быть меньше {@code loadWindow}.
+         */
+        private Duration loadInterval = Duration.ofMinutes(1);
+
+        /**
+         * Максимальное число переводов, исполняемых за один тик.
+         */
+        private int batchSize = 500;
+
+        /**
+         * Максимальное число переводов, загружаемых из БД за раз.
+         */
+        private int loadLimit = 100_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getTick() {
+            return tick;
+        }
+
+        public void setTick(Duration tick) {
+            this.tick = tick;
+        }
+
+        public int getWheelSize() {
+            return wheelSize;
+        }
+
+        public void setWheelSize(int wheelSize) {
+            this.wheelSize = wheelSize;
+        }
+
+        public Duration getLoadWindow() {
+            return loadWindow;
+        }
+
+        public void setLoadWindow(Duration loadWindow) {
+            this.loadWindow = loadWindow;
+        }
+
+        public Duration getLoadInterval() {
+            return loadInterval;
+        }
+
+        public void setLoadInterval(Duration loadInterval) {
+            this.loadInterval = loadInterval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getLoadLimit() {
+            return loadLimit;
+        }
+
+        public void setLoadLimit(int loadLimit) {
+            this.loadLimit = loadLimit;
+        }
+    }
+
+    /**
+     * Настройки массовых выплат (префикс {@code transfer.payout}).
+     */
+    public static class Payout {
+
+        /**
+         * Максимальное число получателей в одной выплате.
+         */
+        private int maxRecipients = 10_000;
+
+        /**
+         * Число получателей в порции, записываемой одним пакетом JDBC.
+         */
+        private int chunkSize = 500;
+
+        public int getMaxRecipients() {
+            return maxRecipients;
+        }
+
+        public void setMaxRecipients(int maxRecipients) {
+            this.maxRecipients = maxRecipients;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    /**
+     * Настройки ограничения частоты переводов (префикс {@code transfer.rate-limit}).
+     */
+    public static class RateLimit {
+
+        /**
+         * Включает ограничение частоты.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Тариф пользователей, не указанных в {@code userTiers}.
+         */
+        private String defaultTier = "standard";
+
+        /**
+         * Тарифы по имени.
+         */
+        private Map<String, Tier> tiers = new HashMap<>(Map.of("standard", new Tier()));
+
+        /**
+         * Имя тарифа по идентификатору пользователя.
+         */
+        private Map<Long, String> userTiers = new HashMap<>();
+
+        /**
+         * Максимальное число хранимых корзин каждого вида (пользователи, счета).
+         */
+        private int maxKeys = 1_000_000;
+
+        /**
+         * Период удаления наполнившихся (простаивающих) корзин.
+         */
+        private Duration sweepInterval = Duration.ofMinutes(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDefaultTier() {
+            return defaultTier;
+        }
+
+        public void setDefaultTier(String defaultTier) {
+            this.defaultTier = defaultTier;
+        }
+
+        public Map<String, Tier> getTiers() {
+            return tiers;
+        }
+
+        public void setTiers(Map<String, Tier> tiers) {
+            this.tiers = tiers;
+        }
+
+        public Map<Long, String> getUserTiers() {
+            return userTiers;
+        }
+
+        public void setUserTiers(Map<Long, String> userTiers) {
+            this.userTiers = userTiers;
+        }
+
+        public int getMaxKeys() {
+            return maxKeys;
+        }
+
+        public void setMaxKeys(int maxKeys) {
+            this.maxKeys = maxKeys;
+        }
+
+        public Duration getSweepInterval() {
+            return sweepInterval;
+        }
+
+        public void setSweepInterval(Duration sweepInterval) {
+            this.sweepInterval = sweepInterval;
+        }
+
+        /**
+         * Лимиты тарифа.
+         */
+        public static class Tier {
+
+            /**
+             * Переводов в секунду на пользователя.
+             */
+            private double userRate = 50;
+
+            /**
+             * Допустимый всплеск переводов пользователя.
+             */
+            private int userBurst = 100;
+
+            /**
+             * Переводов в секунду со счёта-источника.
+             */
+            private double accountRate = 20;
+
+            /**
+             * Допустимый всплеск переводов со счёта-источника.
+             */
+            private int accountBurst = 40;
+
+            public double getUserRate() {
+                return userRate;
+            }
+
+            public void setUserRate(double userRate) {
+                this.userRate = userRate;
+            }
+
+            public int getUserBurst() {
+                return userBurst;
+            }
+
+            public void setUserBurst(int userBurst) {
+                this.userBurst = userBurst;
+            }
+
+            public double getAccountRate() {
+                return accountRate;
+            }
+
+            public void setAccountRate(double accountRate) {
+                this.accountRate = accountRate;
+            }
+
+            public int getAccountBurst() {
+                return accountBurst;
+            }
+
+            public void setAccountBurst(int accountBurst) {
+                this.accountBurst = accountBurst;
+            }
+        }
+    }
+
+    /**
+     * Настройки кэша счетов (префикс {@code transfer.account-cache}).
+     */
+    public static class AccountCache {
+
+        /**
+         * Включает кэширование чтения счетов вне транзакций. По умолчанию выключено:
+         * изменения, сделанные другими экземплярами приложения, видны только через {@code ttl}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Максимальное число счетов в кэше.
+         */
+        private long maxSize = 100_000;
+
+        /**
+         * Время жизни записи кэша.
+         */
+        private Duration ttl = Duration.ofSeconds(30);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+    /**
+     * Настройки истории переводов (префикс {@code transfer.history}).
+     */
+    public static class History {
+
+        /**
+         * Размер страницы, если клиент его не указал.
+         */
+        private int defaultPageSize = 50;
+
+        /**
+         * Максимальный размер страницы.
+         */
+        private int maxPageSize = 500;
+
+        public int getDefaultPageSize() {
+            return defaultPageSize;
+        }
+
+        public void setDefaultPageSize(int defaultPageSize) {
+            this.defaultPageSize = defaultPageSize;
+        }
+
+        public int getMaxPageSize() {
+            return maxPageSize;
+        }
+
+        public void setMaxPageSize(int maxPageSize) {
+            this.maxPageSize = maxPageSize;
+        }
+    }
+
+    /**
+     * Настройки выгрузки истории переводов (префикс {@code transfer.export}).
+     */
+    public static class Export {
+
+        /**
+         * Число строк, получаемых от БД за одно обращение курсора.
+         */
+        private int fetchSize = 1000;
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+    }
+
+    /**
+     * Настройки обслуживания месячных секций таблицы {@code transactions}
+     * (префикс {@code transfer.partitioning}). Действуют только в PostgreSQL.
+     */
+    public static class Partitioning {
+
+        /**
+         * Включает создание и отсоединение секций.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Число будущих месяцев, для которых секции создаются заранее.
+         */
+        private int monthsAhead = 3;
+
+        /**
+         * Число хранимых месяцев, включая текущий; более старые секции отсоединяются.
+         * {@code 0} — секции не отсоединяются.
+         */
+        private int retainMonths = 0;
+
+        /**
+         * Период проверки секций.
+         */
+        private Duration checkInterval = Duration.ofHours(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMonthsAhead() {
+            return monthsAhead;
+        }
+
+        public void setMonthsAhead(int monthsAhead) {
+            this.monthsAhead = monthsAhead;
+        }
+
+        public int getRetainMonths() {
+            return retainMonths;
+        }
+
+        public void setRetainMonths(int retainMonths) {
+            this.retainMonths = retainMonths;
+        }
+
+        public Duration getCheckInterval() {
+            return checkInterval;
+        }
+
+        public void setCheckInterval(Duration checkInterval) {
+            this.checkInterval = checkInterval;
+        }
+    }
+
+    /**
+     * Настройки дневных итогов по счетам (префикс {@code transfer.rollup}).
+     */
+    public static class Rollup {
+
+        /**
+         * Максимальная длина запрашиваемого периода в днях.
+         */
+        private int maxDays = 366;
+
+        public int getMaxDays() {
+            return maxDays;
+        }
+
+        public void setMaxDays(int maxDays) {
+            this.maxDays = maxDays;
+        }
+    }
+
+    /**
+     * Настройки рассылки событий о переводах по Server-Sent Events (префикс {@code transfer.events}).
+     */
+    public static class Events {
+
+        /**
+         * Ёмкость буфера событий одного подписчика.
+         */
+        private int bufferSize = 256;
+
+        /**
+         * Число последних событий счёта, доступных клиенту при переподключении с {@code Last-Event-ID}.
+         */
+        private int replaySize = 256;
+
+        /**
+         * Максимальное число одновременных подписчиков.
+         */
+        private int maxSubscribers = 10000;
+
+        /**
+         * Поведение при переполнении буфера подписчика.
+         */
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DISCONNECT;
+
+        /**
+         * Время хранения истории событий счёта после ухода последнего подписчика.
+         */
+        private Duration historyTtl = Duration.ofMinutes(5);
+
+        /**
+         * Период отправки пульса подписчикам.
+         */
+        private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+        /**
+         * Максимальная длительность одного подключения; затем клиент переподключается.
+         */
+        private Duration timeout = Duration.ofMinutes(30);
+
+        /**
+         * Число потоков, отправляющих события подписчикам.
+         */
+        private int senderThreads = 2;
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public int getReplaySize() {
+            return replaySize;
+        }
+
+        public void setReplaySize(int replaySize) {
+            this.replaySize = replaySize;
+        }
+
+        public int getMaxSubscribers() {
+            return maxSubscribers;
+        }
+
+        public void setMaxSubscribers(int maxSubscribers) {
+            this.maxSubscribers = maxSubscribers;
+        }
+
+        public OverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+        }
+
+        public Duration getHistoryTtl() {
+            return historyTtl;
+        }
+
+        public void setHistoryTtl(Duration historyTtl) {
+            this.historyTtl = historyTtl;
+        }
+
+        public Duration getHeartbeatInterval() {
+            return heartbeatInterval;
+        }
+
+        public void setHeartbeatInterval(Duration heartbeatInterval) {
+            this.heartbeatInterval = heartbeatInterval;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public int getSenderThreads() {
+            return senderThreads;
+        }
+
+        public void setSenderThreads(int senderThreads) {
+            this.senderThreads = senderThreads;
+        }
+    }
+
+    /**
+     * Настройки исходящей очереди событий о переводах и её ретранслятора (префикс {@code transfer.outbox}).
+     */
+    public static class Outbox {
+
+        /**
+         * Включает запись событий в очередь и ретранслятор.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Пауза между проходами ретранслятора.
+         */
+        private Duration pollInterval = Duration.ofMillis(500);
+
+        /**
+         * Максимальное число событий в одной пачке.
+         */
+        private int batchSize = 500;
+
+        /**
+         * Получатель, дописывающий события в локальный файл.
+         */
+        private final File file = new File();
+
+        /**
+         * Получатель, передающий события в очередь в памяти.
+         */
+        private final Queue queue = new Queue();
+
+        /**
+         * Получатель, отправляющий события по HTTP.
+         */
+        private final Http http = new Http();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public Queue getQueue() {
+            return queue;
+        }
+
+        public Http getHttp() {
+            return http;
+        }
+
+        /**
+         * Настройки получателя-файла (префикс {@code transfer.outbox.file}).
+         */
+        public static class File {
+
+            /**
+             * Включает получателя.
+             */
+            private boolean enabled = false;
+
+            /**
+             * Путь к файлу NDJSON.
+             */
+            private String path = "outbox/transfers.ndjson";
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public String getPath() {
+                return path;
+            }
+
+            public void setPath(String path) {
+                this.path = path;
+            }
+        }
+
+        /**
+         * Настройки получателя-очереди в памяти (префикс {@code transfer.outbox.queue}).
+         */
+        public static class Queue {
+
+            /**
+             * Включает получателя.
+             */
+            private boolean enabled = false;
+
+            /**
+             * Ёмкость очереди.
+             */
+            private int capacity = 10000;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getCapacity() {
+                return capacity;
+            }
+
+            public void setCapacity(int capacity) {
+                this.capacity = capacity;
+            }
+        }
+
+        /**
+         * Настройки HTTP-получателя (префикс {@code transfer.outbox.http}).
+         */
+        public static class Http {
+
+            /**
+             * Включает получателя.
+             */
+            private boolean enabled = false;
+
+            /**
+             * Адрес, на который отправляются пачки событий.
+             */
+            private String url = "http://localhost:8089/transfers";
+
+            /**
+             * Тайм-аут соединения и ответа.
+             */
+            private Duration timeout = Duration.ofSeconds(5);
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public String getUrl() {
+                return url;
+            }
+
+            public void setUrl(String url) {
+                this.url = url;
+            }
+
+            public Duration getTimeout() {
+                return timeout;
+            }
+
+            public void setTimeout(Duration timeout) {
+                this.timeout = timeout;
+            }
+        }
+    }
+
+    /**
+     * Настройки архива старых переводов (префикс {@code transfer.archive}).
+     */
+    public static class Archive {
+
+        /**
+         * Включает перенос старых переводов в архив. Чтение архивированных месяцев работает
+         * и при выключенном переносе.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Каталог файлов сегментов; должен быть общим для всех экземпляров приложения.
+         */
+        private String directory = "data/archive";
+
+        /**
+         * Возраст, после которого переводы переносятся в архив. Архивируются только целые месяцы.
+         */
+        private Duration retention = Duration.ofDays(90);
+
+        /**
+         * Период запуска архивации.
+         */
+        private Duration checkInterval = Duration.ofHours(1);
+
+        /**
+         * Период перечитывания каталога архива.
+         */
+        private Duration refreshInterval = Duration.ofMinutes(1);
+
+        /**
+         * Число строк, получаемых от БД за одно обращение при архивации и вставляемых одним пакетом
+         * при восстановлении.
+         */
+        private int fetchSize = 1000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+
+        public Duration getCheckInterval() {
+            return checkInterval;
+        }
+
+        public void setCheckInterval(Duration checkInterval) {
+            this.checkInterval = checkInterval;
+        }
+
+        public Duration getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+    }
+
+    /**
+     * Настройки сверки балансов с историей переводов (префикс {@code transfer.reconciliation}).
+     */
+    public static class Reconciliation {
+
+        /**
+         * Включает сверку.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Задержка первой сверки после старта приложения.
+         */
+        private Duration initialDelay = Duration.ofHours(1);
+
+        /**
+         * Пауза между окончанием сверки и началом следующей.
+         */
+        private Duration interval = Duration.ofHours(24);
+
+        /**
+         * Число потоков сверки; {@code 0} — по числу процессоров. Не должно превышать размер пула соединений.
+         */
+        private int parallelism = 0;
+
+        /**
+         * Максимальное число идентификаторов счетов в диапазоне, проверяемом в одной транзакции.
+         */
+        private int rangeSize = 10_000;
+
+        /**
+         * Число строк, получаемых от БД за одно обращение.
+         */
+        private int fetchSize = 1000;
+
+        /**
+         * Максимальное число расхождений в отчёте.
+         */
+        private int maxReportedDrifts = 100;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getInitialDelay() {
+            return initialDelay;
+        }
+
+        public void setInitialDelay(Duration initialDelay) {
+            this.initialDelay = initialDelay;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getRangeSize() {
+            return rangeSize;
+        }
+
+        public void setRangeSize(int rangeSize) {
+            this.rangeSize = rangeSize;
+        }
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+
+        public int getMaxReportedDrifts() {
+            return maxReportedDrifts;
+        }
+
+        public void setMaxReportedDrifts(int maxReportedDrifts) {
+            this.maxReportedDrifts = maxReportedDrifts;
+        }
+    }
+}
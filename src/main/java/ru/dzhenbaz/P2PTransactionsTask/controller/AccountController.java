@@ -7,11 +7,17 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import ru.dzhenbaz.P2PTransactionsTask.dto.CreateAccountRequest;
-import ru.dzhenbaz.P2PTransactionsTask.security.JwtUtil;
+import ru.dzhenbaz.P2PTransactionsTask.security.UserPrincipal;
+import ru.dzhenbaz.P2PTransactionsTask.service.AccountRollupService;
 import ru.dzhenbaz.P2PTransactionsTask.service.AccountService;
+import ru.dzhenbaz.P2PTransactionsTask.service.TransactionHistoryService;
+
+import java.time.LocalDate;
 
 /**
  * Контроллер для управления банковскими счетами пользователя.
@@ -25,6 +31,8 @@ import ru.dzhenbaz.P2PTransactionsTask.service.AccountService;
  *     <li>POST {@code /accounts} — создать счёт</li>
  *     <li>GET {@code /accounts} — получить все открытые счета</li>
  *     <li>GET {@code /accounts/{accountId}} — получить конкретный счёт</li>
+ *     <li>GET {@code /accounts/{accountId}/transactions} — получить историю переводов постранично</li>
+ *     <li>GET {@code /accounts/{accountId}/rollup} — получить итоги переводов по дням за период</li>
  *     <li>POST {@code /accounts/{accountId}/close} — закрыть счёт</li>
  * </ul>
  * </p>
@@ -38,34 +46,27 @@ import ru.dzhenbaz.P2PTransactionsTask.service.AccountService;
 public class AccountController {
 
     private final AccountService accountService;
-    private final JwtUtil jwtUtil;
+    private final TransactionHistoryService transactionHistoryService;
+    private final AccountRollupService accountRollupService;
 
     /**
-     * Конструктор с внедрением сервисов счётов и утилиты JWT.
+     * Конструктор с внедрением сервисов счётов.
      *
-     * @param accountService сервис управления счетами
-     * @param jwtUtil        утилита для извлечения userId из JWT
+     * @param accountService            сервис управления счетами
+     * @param transactionHistoryService сервис истории переводов
+     * @param accountRollupService      сервис дневных итогов переводов
      */
-    public AccountController(AccountService accountService, JwtUtil jwtUtil) {
+    public AccountController(AccountService accountService, TransactionHistoryService transactionHistoryService,
+                             AccountRollupService accountRollupService) {
         this.accountService = accountService;
-        this.jwtUtil = jwtUtil;
-    }
-
-    /**
-     * Извлекает userId из заголовка Authorization (Bearer JWT).
-     *
-     * @param authHeader заголовок Authorization
-     * @return идентификатор пользователя
-     */
-    private Long extractUserId(String authHeader) {
-        String token = authHeader.replace("Bearer ", "");
-        return jwtUtil.validateTokenAndRetrieveClaim(token);
+        this.transactionHistoryService = transactionHistoryService;
+        this.accountRollupService = accountRollupService;
     }
 
     /**
      * Создаёт новый банковский счёт с указанным начальным балансом.
      *
-     * @param authHeader заголовок Authorization с JWT
+     * @param principal  аутентифицированный пользователь
      * @param request    DTO с балансом
      * @return HTTP 200 и сообщение об успехе
      */
@@ -80,9 +81,9 @@ public class AccountController {
             @ApiResponse(responseCode = "401", description = "Пользователь не авторизован")
     })
     @PostMapping
-    public ResponseEntity<?> createAccount(@Parameter(hidden = true) @RequestHeader("Authorization") String authHeader,
+    public ResponseEntity<?> createAccount(@Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal principal,
                                            @RequestBody @Valid CreateAccountRequest request) {
-        Long userId = extractUserId(authHeader);
+        Long userId = principal.userId();
         accountService.createAccount(userId, request.getInitialBalance());
         return ResponseEntity.ok("Счёт создан");
     }
@@ -90,7 +91,7 @@ public class AccountController {
     /**
      * Получает список всех открытых счетов текущего пользователя.
      *
-     * @param authHeader заголовок Authorization с JWT
+     * @param principal  аутентифицированный пользователь
      * @return список DTO с информацией о счетах
      */
     @Operation(
@@ -103,15 +104,15 @@ public class AccountController {
             @ApiResponse(responseCode = "401", description = "Пользователь не авторизован")
     })
     @GetMapping
-    public ResponseEntity<?> getAllAccounts(@Parameter(hidden = true) @RequestHeader("Authorization") String authHeader) {
-        Long userId = extractUserId(authHeader);
+    public ResponseEntity<?> getAllAccounts(@Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal principal) {
+        Long userId = principal.userId();
         return ResponseEntity.ok(accountService.getAllForUser(userId));
     }
 
     /**
      * Получает конкретный счёт по ID, если он принадлежит пользователю и не закрыт.
      *
-     * @param authHeader заголовок Authorization с JWT
+     * @param principal  аутентифицированный пользователь
      * @param accountId  идентификатор счёта
      * @return DTO с данными счёта
      */
@@ -126,16 +127,74 @@ public class AccountController {
             @ApiResponse(responseCode = "400", description = "Счёт закрыт")
     })
     @GetMapping("/{accountId}")
-    public ResponseEntity<?> getAccount(@Parameter(hidden = true) @RequestHeader("Authorization") String authHeader,
+    public ResponseEntity<?> getAccount(@Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal principal,
                                         @PathVariable Long accountId) {
-        Long userId = extractUserId(authHeader);
+        Long userId = principal.userId();
         return ResponseEntity.ok(accountService.getAccountDtoById(userId, accountId));
     }
 
+    /**
+     * Возвращает страницу истории переводов по счёту, от новых к старым.
+     *
+     * @param principal  аутентифицированный пользователь
+     * @param accountId  идентификатор счёта
+     * @param cursor     курсор из предыдущей страницы; без него возвращается первая страница
+     * @param limit      размер страницы
+     * @return страница переводов и курсор следующей
+     */
+    @Operation(
+            summary = "История переводов по счёту",
+            description = "Возвращает входящие и исходящие переводы счёта от новых к старым. "
+                    + "Для следующей страницы передайте nextCursor из ответа"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Страница истории"),
+            @ApiResponse(responseCode = "400", description = "Некорректный курсор или размер страницы"),
+            @ApiResponse(responseCode = "403", description = "Счёт не принадлежит пользователю"),
+            @ApiResponse(responseCode = "404", description = "Счёт не найден")
+    })
+    @GetMapping("/{accountId}/transactions")
+    public ResponseEntity<?> getTransactions(@Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal principal,
+                                             @PathVariable Long accountId,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) Integer limit) {
+        Long userId = principal.userId();
+        return ResponseEntity.ok(transactionHistoryService.getHistory(userId, accountId, cursor, limit));
+    }
+
+    /**
+     * Возвращает итоги переводов по счёту по дням и за весь период.
+     *
+     * @param principal  аутентифицированный пользователь
+     * @param accountId  идентификатор счёта
+     * @param from       первый день периода включительно
+     * @param to         последний день периода включительно
+     * @return итоги по дням и суммарные итоги
+     */
+    @Operation(
+            summary = "Итоги переводов по счёту",
+            description = "Возвращает число и сумму входящих и исходящих переводов счёта по дням "
+                    + "и за весь период. Границы периода включаются"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Итоги за период"),
+            @ApiResponse(responseCode = "400", description = "Некорректный или слишком длинный период"),
+            @ApiResponse(responseCode = "403", description = "Счёт не принадлежит пользователю"),
+            @ApiResponse(responseCode = "404", description = "Счёт не найден")
+    })
+    @GetMapping("/{accountId}/rollup")
+    public ResponseEntity<?> getRollup(@Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal principal,
+                                       @PathVariable Long accountId,
+                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        Long userId = principal.userId();
+        return ResponseEntity.ok(accountRollupService.getRollup(userId, accountId, from, to));
+    }
+
     /**
      * Закрывает счёт пользователя по его ID.
      *
-     * @param authHeader заголовок Authorization с JWT
+     * @param principal  аутентифицированный пользователь
      * @param accountId  идентификатор счёта
      * @return HTTP 200 и сообщение об успешном закрытии
      */
@@ -150,9 +209,9 @@ public class AccountController {
             @ApiResponse(responseCode = "400", description = "Счёт уже закрыт")
     })
     @PostMapping("/{accountId}/close")
-    public ResponseEntity<?> closeAccount(@Parameter(hidden = true) @RequestHeader("Authorization") String authHeader,
+    public ResponseEntity<?> closeAccount(@Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal principal,
                                           @PathVariable Long accountId) {
-        Long userId = extractUserId(authHeader);
+        Long userId = principal.userId();
         accountService.closeAccount(userId, accountId);
         return ResponseEntity.ok("Счёт закрыт");
     }
@@ -0,0 +1,139 @@
+package ru.dzhenbaz.P2PTransactionsTask.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.dzhenbaz.P2PTransactionsTask.dto.BatchTransferItemResult;
+import ru.dzhenbaz.P2PTransactionsTask.dto.PayoutRequest;
+import ru.dzhenbaz.P2PTransactionsTask.dto.PayoutResponse;
+import ru.dzhenbaz.P2PTransactionsTask.exception.BadRequestException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.NotFoundException;
+import ru.dzhenbaz.P2PTransactionsTask.security.UserPrincipal;
+import ru.dzhenbaz.P2PTransactionsTask.service.PayoutService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Контроллер массовых выплат.
+ * <p>
+ * Результат выплаты передаётся потоком в формате NDJSON: по строке
+ * {@link BatchTransferItemResult} на каждого получателя по мере обработки порций и последней
+ * строкой итог {@link PayoutResponse}. Изменения фиксируются только вместе с итогом,
+ * у которого {@code applied = true}.
+ * </p>
+ *
+ * <p>Доступные маршруты:
+ * <ul>
+ *     <li>POST {@code /transactions/payout} — выплата с одного счёта многим получателям</li>
+ * </ul>
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+@Slf4j
+@SecurityRequirement(name = "BearerAuth")
+@Tag(name = "3. Переводы", description = "Операции перевода между счетами (P2P)")
+@RestController // создание бина все равно вручную, аннотация метит класс как контроллер для тестов и сваггера
+@RequestMapping("/transactions/payout")
+public class PayoutController {
+
+    /**
+     * Тип содержимого потока результатов.
+     */
+    public static final String NDJSON = "application/x-ndjson";
+
+    private final PayoutService payoutService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Конструктор с внедрением зависимостей.
+     *
+     * @param payoutService сервис массовых выплат
+     * @param objectMapper  сериализатор строк потока
+     */
+    public PayoutController(PayoutService payoutService, ObjectMapper objectMapper) {
+        this.payoutService = payoutService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Выполняет массовую выплату. Заведомо неисполнимая выплата отклоняется обычным ответом 400/404
+     * до начала потока.
+     *
+     * @param principal  аутентифицированный пользователь
+     * @param request    счёт-источник и получатели
+     * @return поток результатов по получателям и итог выплаты
+     */
+    @Operation(
+            summary = "Массовая выплата",
+            description = "Переводит средства с одного счёта многим получателям. Результаты передаются "
+                    + "потоком NDJSON: строка на каждого получателя и итоговая строка"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Поток результатов выплаты"),
+            @ApiResponse(responseCode = "400", description = "Некорректный запрос или недостаточно средств"),
+            @ApiResponse(responseCode = "404", description = "Счёт отправителя не найден"),
+            @ApiResponse(responseCode = "401", description = "Пользователь не авторизован")
+    })
+    @PostMapping(produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> payout(
+            @Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal principal,
+            @RequestBody @Valid PayoutRequest request) {
+        Long userId = principal.userId();
+        payoutService.validate(userId, request);
+
+        StreamingResponseBody body = out -> {
+            PayoutResponse summary;
+            try {
+                summary = payoutService.payout(userId, request, results -> {
+                    for (BatchTransferItemResult result : results) {
+                        writeLine(out, result);
+                    }
+                    flush(out);
+                });
+            } catch (BadRequestException | NotFoundException e) {
+                summary = new PayoutResponse(false, 0, request.getRecipients().size(), 0, e.getMessage());
+            } catch (UncheckedIOException e) {
+                log.warn("Payout stream of user {} closed by client, payout rolled back", userId);
+                return;
+            } catch (RuntimeException e) {
+                log.error("Payout of user {} failed: {}", userId, e.getMessage(), e);
+                summary = new PayoutResponse(false, 0, request.getRecipients().size(), 0,
+                        "Внутренняя ошибка сервера");
+            }
+            writeLine(out, summary);
+            flush(out);
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    private void writeLine(OutputStream out, Object value) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void flush(OutputStream out) {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package ru.dzhenbaz.P2PTransactionsTask.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import ru.dzhenbaz.P2PTransactionsTask.dto.ScheduledTransferRequest;
+import ru.dzhenbaz.P2PTransactionsTask.security.UserPrincipal;
+import ru.dzhenbaz.P2PTransactionsTask.service.ScheduledTransferService;
+
+/**
+ * Контроллер для управления отложенными и регулярными переводами.
+ *
+ * <p>Доступные маршруты:
+ * <ul>
+ *     <li>POST {@code /transactions/scheduled} — запланировать перевод</li>
+ *     <li>GET {@code /transactions/scheduled} — получить запланированные переводы</li>
+ *     <li>DELETE {@code /transactions/scheduled/{id}} — отменить перевод</li>
+ * </ul>
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+@SecurityRequirement(name = "BearerAuth")
+@Tag(name = "4. Запланированные переводы", description = "Отложенные и регулярные переводы между счетами")
+@RestController // создание бина все равно вручную, аннотация метит класс как контроллер для тестов и сваггера
+@RequestMapping("/transactions/scheduled")
+public class ScheduledTransferController {
+
+    private final ScheduledTransferService scheduledTransferService;
+
+    /**
+     * Конструктор с внедрением сервиса запланированных переводов.
+     *
+     * @param scheduledTransferService сервис запланированных переводов
+     */
+    public ScheduledTransferController(ScheduledTransferService scheduledTransferService) {
+        this.scheduledTransferService = scheduledTransferService;
+    }
+
+    /**
+     * Планирует однократный или регулярный перевод.
+     *
+     * @param principal  аутентифицированный пользователь
+     * @param request    параметры перевода и расписания
+     * @return созданный запланированный перевод
+     */
+    @Operation(
+            summary = "Запланировать перевод",
+            description = "Создаёт отложенный перевод или регулярный перевод (DAILY, WEEKLY, MONTHLY). "
+                    + "Остаток и статусы счетов проверяются в момент исполнения"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Перевод запланирован"),
+            @ApiResponse(responseCode = "400", description = "Некорректный запрос"),
+            @ApiResponse(responseCode = "404", description = "Один из счетов не найден"),
+            @ApiResponse(responseCode = "401", description = "Пользователь не авторизован")
+    })
+    @PostMapping
+    public ResponseEntity<?> create(@Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal principal,
+                                    @RequestBody @Valid ScheduledTransferRequest request) {
+        Long userId = principal.userId();
+        return ResponseEntity.ok(scheduledTransferService.create(userId, request));
+    }
+
+    /**
+     * Возвращает запланированные переводы пользователя.
+     *
+     * @param principal  аутентифицированный пользователь
+     * @return список запланированных переводов
+     */
+    @Operation(
+            summary = "Получить запланированные переводы",
+            description = "Возвращает запланированные переводы пользователя с ближайшим временем исполнения "
+                    + "и причиной отказа последнего запуска"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Список запланированных переводов"),
+            @ApiResponse(responseCode = "401", description = "Пользователь не авторизован")
+    })
+    @GetMapping
+    public ResponseEntity<?> getAll(@Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal principal) {
+        Long userId = principal.userId();
+        return ResponseEntity.ok(scheduledTransferService.getAllForUser(userId));
+    }
+
+    /**
+     * Отменяет запланированный перевод.
+     *
+     * @param principal  аутентифицированный пользователь
+     * @param id         идентификатор запланированного перевода
+     * @return HTTP 200 и сообщение об отмене
+     */
+    @Operation(
+            summary = "Отменить запланированный перевод",
+            description = "Отменяет будущие запуски перевода"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Перевод отменён"),
+            @ApiResponse(responseCode = "400", description = "Перевод уже завершён или отменён"),
+            @ApiResponse(responseCode = "404", description = "Перевод не найден")
+    })
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> cancel(@Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal principal,
+                                    @PathVariable Long id) {
+        Long userId = principal.userId();
+        scheduledTransferService.cancel(userId, id);
+        return ResponseEntity.ok("Запланированный перевод отменён");
+    }
+}
@@ -7,10 +7,21 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import ru.dzhenbaz.P2PTransactionsTask.dto.BatchMode;
+import ru.dzhenbaz.P2PTransactionsTask.dto.BatchTransferRequest;
+import ru.dzhenbaz.P2PTransactionsTask.dto.BatchTransferResponse;
 import ru.dzhenbaz.P2PTransactionsTask.dto.TransferRequest;
-import ru.dzhenbaz.P2PTransactionsTask.security.JwtUtil;
+import ru.dzhenbaz.P2PTransactionsTask.dto.TransferStatusResponse;
+import ru.dzhenbaz.P2PTransactionsTask.pipeline.GroupCommitTransferPipeline;
+import ru.dzhenbaz.P2PTransactionsTask.ratelimit.RateLimiter;
+import ru.dzhenbaz.P2PTransactionsTask.security.UserPrincipal;
+import ru.dzhenbaz.P2PTransactionsTask.service.AsyncTransferService;
+import ru.dzhenbaz.P2PTransactionsTask.service.BatchTransferService;
+import ru.dzhenbaz.P2PTransactionsTask.service.IdempotencyService;
 import ru.dzhenbaz.P2PTransactionsTask.service.TransactionService;
 
 /**
@@ -22,9 +33,12 @@ import ru.dzhenbaz.P2PTransactionsTask.service.TransactionService;
  *
  * <p>Все запросы требуют авторизации через JWT, из которого извлекается {@code userId}.</p>
  *
- * <p>Доступный маршрут:
+ * <p>Доступные маршруты:
  * <ul>
  *     <li>POST {@code /transactions/transfer} — выполнить или подтвердить перевод</li>
+ *     <li>POST {@code /transactions/transfer/async} — подать подтверждённый перевод на асинхронное исполнение</li>
+ *     <li>GET {@code /transactions/{id}/status} — получить состояние асинхронного перевода</li>
+ *     <li>POST {@code /transactions/batch} — проверить или выполнить пакет переводов</li>
  * </ul>
  * </p>
  *
@@ -37,53 +51,170 @@ import ru.dzhenbaz.P2PTransactionsTask.service.TransactionService;
 public class TransactionController {
 
     private final TransactionService transactionService;
-    private final JwtUtil jwtUtil;
+    private final BatchTransferService batchTransferService;
+    private final GroupCommitTransferPipeline groupCommitPipeline;
+    private final IdempotencyService idempotencyService;
+    private final AsyncTransferService asyncTransferService;
+    private final RateLimiter rateLimiter;
 
     /**
      * Конструктор с внедрением зависимостей.
      *
-     * @param transactionService сервис для выполнения перевода
-     * @param jwtUtil            утилита для извлечения userId из JWT
+     * @param transactionService   сервис для выполнения перевода
+     * @param batchTransferService сервис для выполнения пакетных переводов
+     * @param groupCommitPipeline  конвейер группового коммита или {@code null}, если он отключён
+     * @param idempotencyService    сервис дедупликации по {@code Idempotency-Key}
+     * @param asyncTransferService  сервис асинхронной подачи переводов
+     * @param rateLimiter          ограничитель частоты переводов или {@code null}, если он отключён
      */
-    public TransactionController(TransactionService transactionService, JwtUtil jwtUtil) {
+    public TransactionController(TransactionService transactionService, BatchTransferService batchTransferService,
+                                 GroupCommitTransferPipeline groupCommitPipeline,
+                                 IdempotencyService idempotencyService, AsyncTransferService asyncTransferService,
+                                 RateLimiter rateLimiter) {
         this.transactionService = transactionService;
-        this.jwtUtil = jwtUtil;
+        this.batchTransferService = batchTransferService;
+        this.groupCommitPipeline = groupCommitPipeline;
+        this.idempotencyService = idempotencyService;
+        this.asyncTransferService = asyncTransferService;
+        this.rateLimiter = rateLimiter;
     }
 
     /**
      * Выполняет или подтверждает перевод между счётами.
+     * <p>Подтверждённый перевод с заголовком {@code Idempotency-Key} выполняется не более одного раза:
+     * повтор возвращает ответ первого успешного выполнения. Такой перевод выполняется напрямую
+     * в транзакции ключа, минуя групповой коммит, иначе списание и ключ фиксировались бы раздельно.
+     * В режиме {@code LEDGER} запрос с ключом отклоняется с 503.</p>
      *
-     * @param authHeader заголовок Authorization с JWT
-     * @param request    объект перевода
+     * @param principal      аутентифицированный пользователь
+     * @param idempotencyKey необязательный ключ идемпотентности
+     * @param request        объект перевода
      * @return сообщение об успехе или подтверждении
      */
     @Operation(
             summary = "Выполнить или подтвердить перевод",
-            description = "Осуществляет P2P-перевод между счетами. Если флаг подтверждения отключён, вернёт сообщение для подтверждения перевода."
+            description = "Осуществляет P2P-перевод между счетами. Если флаг подтверждения отключён, вернёт сообщение для подтверждения перевода. "
+                    + "Повтор подтверждённого перевода с тем же заголовком Idempotency-Key возвращает исходный ответ без повторного списания."
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Перевод выполнен или требуется подтверждение"),
             @ApiResponse(responseCode = "400", description = "Невалидный запрос, недостаточно средств или счёт закрыт"),
             @ApiResponse(responseCode = "401", description = "Пользователь не авторизован"),
             @ApiResponse(responseCode = "404", description = "Один из счетов не найден"),
-            @ApiResponse(responseCode = "403", description = "Счёт не принадлежит пользователю")
+            @ApiResponse(responseCode = "403", description = "Счёт не принадлежит пользователю"),
+            @ApiResponse(responseCode = "409", description = "Idempotency-Key уже использован для другого перевода"),
+            @ApiResponse(responseCode = "429", description = "Превышен лимит частоты переводов"),
+            @ApiResponse(responseCode = "503", description = "Idempotency-Key не поддерживается в режиме LEDGER")
     })
     @PostMapping("/transfer")
-    public ResponseEntity<?> transfer(@Parameter(hidden = true) @RequestHeader("Authorization") String authHeader,
+    public ResponseEntity<?> transfer(@Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal principal,
+                                      @Parameter(description = "Ключ идемпотентности подтверждённого перевода")
+                                      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
                                       @RequestBody @Valid TransferRequest request) {
-        Long userId = extractUserId(authHeader);
-        String message = transactionService.transfer(userId, request);
-        return ResponseEntity.ok(message);
+        Long userId = principal.userId();
+        checkRateLimit(userId, request.getFromAccountId());
+        if (idempotencyKey != null && request.isConfirm()) {
+            return ResponseEntity.ok(idempotencyService.execute(userId, idempotencyKey, request,
+                    () -> transactionService.transfer(userId, request)));
+        }
+        return ResponseEntity.ok(executeTransfer(userId, request));
+    }
+
+    /**
+     * Принимает подтверждённый перевод к асинхронному исполнению.
+     *
+     * @param principal  аутентифицированный пользователь
+     * @param request    объект перевода
+     * @return HTTP 202 с идентификатором перевода для опроса состояния
+     */
+    @Operation(
+            summary = "Асинхронный перевод",
+            description = "Принимает подтверждённый перевод и сразу возвращает его идентификатор. "
+                    + "Результат доступен через GET /transactions/{id}/status."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Перевод принят к исполнению"),
+            @ApiResponse(responseCode = "400", description = "Невалидный или неподтверждённый запрос"),
+            @ApiResponse(responseCode = "401", description = "Пользователь не авторизован"),
+            @ApiResponse(responseCode = "429", description = "Превышен лимит частоты переводов"),
+            @ApiResponse(responseCode = "503", description = "Очередь переводов переполнена")
+    })
+    @PostMapping("/transfer/async")
+    public ResponseEntity<?> transferAsync(@Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal principal,
+                                           @RequestBody @Valid TransferRequest request) {
+        Long userId = principal.userId();
+        checkRateLimit(userId, request.getFromAccountId());
+        TransferStatusResponse status = asyncTransferService.submit(userId, request);
+        return ResponseEntity.accepted()
+                .header("Location", "/transactions/" + status.getId() + "/status")
+                .body(status);
+    }
+
+    /**
+     * Возвращает состояние асинхронного перевода.
+     *
+     * @param principal  аутентифицированный пользователь
+     * @param id         идентификатор асинхронного перевода
+     * @return состояние перевода
+     */
+    @Operation(summary = "Состояние асинхронного перевода")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Состояние перевода"),
+            @ApiResponse(responseCode = "401", description = "Пользователь не авторизован"),
+            @ApiResponse(responseCode = "404", description = "Перевод не найден или устарел")
+    })
+    @GetMapping("/{id}/status")
+    public ResponseEntity<?> transferStatus(@Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal principal,
+                                            @PathVariable String id) {
+        Long userId = principal.userId();
+        return ResponseEntity.ok(asyncTransferService.getStatus(userId, id));
+    }
+
+    /**
+     * Проверяет или выполняет пакет переводов в одной транзакции БД.
+     *
+     * @param principal  аутентифицированный пользователь
+     * @param request    пакет переводов
+     * @return результаты по каждому переводу пакета
+     */
+    @Operation(
+            summary = "Пакетный перевод",
+            description = "Проверяет пакет переводов одним чтением счетов и, при confirm = true, исполняет его. "
+                    + "В режиме ALL_OR_NOTHING пакет исполняется только целиком, в режиме BEST_EFFORT — "
+                    + "исполняются все корректные переводы."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Пакет проверен или исполнен, результаты по переводам"),
+            @ApiResponse(responseCode = "400", description = "Невалидный запрос или пакет ALL_OR_NOTHING отклонён"),
+            @ApiResponse(responseCode = "401", description = "Пользователь не авторизован"),
+            @ApiResponse(responseCode = "429", description = "Превышен лимит частоты переводов")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<?> transferBatch(@Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal principal,
+                                           @RequestBody @Valid BatchTransferRequest request) {
+        Long userId = principal.userId();
+        checkRateLimit(userId, null);
+        BatchTransferResponse response = batchTransferService.transferBatch(userId, request);
+        boolean rejectedAsWhole = request.isConfirm() && request.getMode() != BatchMode.BEST_EFFORT
+                && response.getRejected() > 0;
+        return ResponseEntity.status(rejectedAsWhole ? HttpStatus.BAD_REQUEST : HttpStatus.OK).body(response);
     }
 
     /**
-     * Извлекает userId из JWT-токена в заголовке Authorization.
+     * Проверяет лимиты частоты до обращения к счетам.
      *
-     * @param authHeader заголовок Authorization
-     * @return идентификатор пользователя
+     * @param userId        идентификатор пользователя
+     * @param fromAccountId идентификатор счёта-источника или {@code null}, если лимит счёта не проверяется
      */
-    private Long extractUserId(String authHeader) {
-        String token = authHeader.replace("Bearer ", "");
-        return jwtUtil.validateTokenAndRetrieveClaim(token);
+    private void checkRateLimit(Long userId, Long fromAccountId) {
+        if (rateLimiter != null) {
+            rateLimiter.check(userId, fromAccountId);
+        }
+    }
+
+    private String executeTransfer(Long userId, TransferRequest request) {
+        return groupCommitPipeline != null && request.isConfirm()
+                ? groupCommitPipeline.transfer(userId, request)
+                : transactionService.transfer(userId, request);
     }
 }
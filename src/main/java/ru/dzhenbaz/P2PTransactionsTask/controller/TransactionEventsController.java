@@ -0,0 +1,83 @@
+package ru.dzhenbaz.P2PTransactionsTask.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.dzhenbaz.P2PTransactionsTask.events.TransferEventHub;
+import ru.dzhenbaz.P2PTransactionsTask.security.UserPrincipal;
+import ru.dzhenbaz.P2PTransactionsTask.service.AccountService;
+
+/**
+ * Контроллер потока событий о переводах по счёту.
+ * <p>
+ * Клиент держит одно соединение Server-Sent Events и получает событие {@code transfer}
+ * о каждом входящем и исходящем переводе сразу после его фиксации, вместо периодического
+ * опроса счетов.
+ * </p>
+ *
+ * <p>Доступные маршруты:
+ * <ul>
+ *     <li>GET {@code /accounts/{accountId}/events} — подписаться на переводы по счёту</li>
+ * </ul>
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+@SecurityRequirement(name = "BearerAuth")
+@Tag(name = "2. Счета", description = "Операции с банковскими счетами пользователя")
+@RestController // создание бина все равно вручную, аннотация метит класс как контроллер для тестов и сваггера
+@RequestMapping("/accounts")
+public class TransactionEventsController {
+
+    private final AccountService accountService;
+    private final TransferEventHub eventHub;
+
+    /**
+     * Конструктор с внедрением зависимостей.
+     *
+     * @param accountService сервис счетов для проверки владельца
+     * @param eventHub       рассылка событий о переводах
+     */
+    public TransactionEventsController(AccountService accountService, TransferEventHub eventHub) {
+        this.accountService = accountService;
+        this.eventHub = eventHub;
+    }
+
+    /**
+     * Открывает поток событий о переводах по счёту. Ошибки доступа возвращаются обычным ответом
+     * до начала потока.
+     *
+     * @param principal   аутентифицированный пользователь
+     * @param accountId   идентификатор счёта
+     * @param lastEventId идентификатор последнего полученного события при переподключении
+     * @return поток событий
+     */
+    @Operation(
+            summary = "Поток переводов по счёту",
+            description = "Передаёт по Server-Sent Events событие transfer о каждом проведённом переводе счёта. "
+                    + "При переподключении с Last-Event-ID пропущенные события досылаются; если это "
+                    + "невозможно, приходит событие reset, и историю нужно перечитать"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Поток событий"),
+            @ApiResponse(responseCode = "403", description = "Счёт не принадлежит пользователю"),
+            @ApiResponse(responseCode = "404", description = "Счёт не найден"),
+            @ApiResponse(responseCode = "401", description = "Пользователь не авторизован"),
+            @ApiResponse(responseCode = "503", description = "Слишком много подписчиков")
+    })
+    @GetMapping(value = "/{accountId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal principal,
+                             @PathVariable Long accountId,
+                             @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        Long userId = principal.userId();
+        accountService.getAccountById(userId, accountId);
+        return eventHub.subscribe(accountId, lastEventId);
+    }
+}
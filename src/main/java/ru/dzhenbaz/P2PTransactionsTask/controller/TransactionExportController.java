@@ -0,0 +1,129 @@
+package ru.dzhenbaz.P2PTransactionsTask.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.dzhenbaz.P2PTransactionsTask.dto.ExportFormat;
+import ru.dzhenbaz.P2PTransactionsTask.exception.BadRequestException;
+import ru.dzhenbaz.P2PTransactionsTask.security.UserPrincipal;
+import ru.dzhenbaz.P2PTransactionsTask.service.TransactionExportService;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Контроллер выгрузки истории переводов по счёту.
+ * <p>
+ * История передаётся потоком в формате NDJSON или CSV, при необходимости сжатым gzip,
+ * по мере чтения строк из БД. Объём памяти на выгрузку ограничен буфером вывода
+ * и не зависит от числа переводов.
+ * </p>
+ *
+ * <p>Доступные маршруты:
+ * <ul>
+ *     <li>GET {@code /accounts/{accountId}/transactions/export} — выгрузить историю переводов счёта</li>
+ * </ul>
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+@Slf4j
+@SecurityRequirement(name = "BearerAuth")
+@Tag(name = "2. Счета", description = "Операции с банковскими счетами пользователя")
+@RestController // создание бина все равно вручную, аннотация метит класс как контроллер для тестов и сваггера
+@RequestMapping("/accounts")
+public class TransactionExportController {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final TransactionExportService exportService;
+
+    /**
+     * Конструктор с внедрением зависимостей.
+     *
+     * @param exportService сервис выгрузки истории
+     */
+    public TransactionExportController(TransactionExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    /**
+     * Выгружает всю историю переводов по счёту в порядке проведения. Ошибки доступа
+     * возвращаются обычным ответом до начала потока.
+     *
+     * @param principal  аутентифицированный пользователь
+     * @param accountId  идентификатор счёта
+     * @param from       начало периода включительно; без него — с первого перевода
+     * @param to         конец периода не включительно; без него — по последний перевод
+     * @param format     формат выгрузки
+     * @param gzip       сжать выгрузку gzip
+     * @return поток с историей переводов
+     */
+    @Operation(
+            summary = "Выгрузить историю переводов",
+            description = "Передаёт потоком входящие и исходящие переводы счёта от старых к новым "
+                    + "в формате NDJSON или CSV, при необходимости сжатые gzip. Период можно ограничить "
+                    + "параметрами from и to"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Поток истории переводов"),
+            @ApiResponse(responseCode = "400", description = "Некорректный период"),
+            @ApiResponse(responseCode = "403", description = "Счёт не принадлежит пользователю"),
+            @ApiResponse(responseCode = "404", description = "Счёт не найден"),
+            @ApiResponse(responseCode = "401", description = "Пользователь не авторизован")
+    })
+    @GetMapping("/{accountId}/transactions/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal principal,
+            @PathVariable Long accountId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        Long userId = principal.userId();
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new BadRequestException("Начало периода должно быть раньше конца");
+        }
+        exportService.checkAccess(userId, accountId);
+
+        StreamingResponseBody body = out -> {
+            GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(compressed != null ? compressed : out,
+                    StandardCharsets.UTF_8), BUFFER_SIZE);
+            try {
+                exportService.export(accountId, from, to, format, writer);
+            } catch (UncheckedIOException e) {
+                log.warn("Export of account {} closed by client", accountId);
+                return;
+            }
+            writer.flush();
+            if (compressed != null) {
+                compressed.finish();
+            }
+        };
+
+        String filename = "account-" + accountId + "-transactions." + format.getExtension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : format.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+}
@@ -0,0 +1,39 @@
+package ru.dzhenbaz.P2PTransactionsTask.dao;
+
+import ru.dzhenbaz.P2PTransactionsTask.model.AccountDailyRollup;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DAO-интерфейс для дневных итогов переводов по счетам ({@code account_daily_rollup}).
+ *
+ * @author Dzhenbaz
+ */
+public interface AccountDailyRollupDao {
+
+    /**
+     * Прибавляет приращения к дневным итогам одним пакетом JDBC, создавая недостающие строки.
+     * <p>Строки обновляются в переданном порядке; чтобы параллельные транзакции не блокировали
+     * друг друга взаимно, приращения должны быть упорядочены по {@code (accountId, date)}.</p>
+     *
+     * @param deltas приращения итогов
+     */
+    void addAll(List<AccountDailyRollup> deltas);
+
+    /**
+     * Возвращает дневные итоги счёта за период. Дни без переводов в результат не входят.
+     *
+     * @param accountId идентификатор счёта
+     * @param from      первый день периода включительно
+     * @param to        последний день периода включительно
+     * @return итоги по дням в порядке возрастания даты
+     */
+    List<AccountDailyRollup> findByAccountId(Long accountId, LocalDate from, LocalDate to);
+
+    /**
+     * Удаляет все итоги.
+     * <p>Используется преимущественно в тестах.</p>
+     */
+    void deleteAll();
+}
@@ -1,8 +1,11 @@
 package ru.dzhenbaz.P2PTransactionsTask.dao;
 
 import ru.dzhenbaz.P2PTransactionsTask.model.Account;
+import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -13,6 +16,10 @@ import java.util.Optional;
  * согласно требованиям задания (без JPA).
  * </p>
  *
+ * <p>Баланс счёта может быть разделён на слоты ({@code account_balance_slots}), чтобы
+ * конкурентные зачисления не упирались в одну строку. Методы чтения возвращают
+ * суммарный баланс, а методы изменения баланса учитывают слоты сами.</p>
+ *
  * @author Dzhenbaz
  */
 public interface AccountDao {
@@ -32,6 +39,32 @@ public interface AccountDao {
      */
     Optional<Account> findById(Long id);
 
+    /**
+     * Находит счёт по идентификатору и блокирует его строку до конца транзакции
+     * ({@code SELECT ... FOR UPDATE}).
+     *
+     * @param id идентификатор счёта
+     * @return {@code Optional} с заблокированным счётом или пустой, если не найден
+     */
+    Optional<Account> findByIdForUpdate(Long id);
+
+    /**
+     * Находит счета по набору идентификаторов одним запросом.
+     *
+     * @param ids идентификаторы счетов
+     * @return найденные счета; отсутствующие идентификаторы пропускаются
+     */
+    List<Account> findAllByIds(Collection<Long> ids);
+
+    /**
+     * Находит счета по набору идентификаторов одним запросом и блокирует их строки
+     * в порядке возрастания идентификатора до конца транзакции.
+     *
+     * @param ids идентификаторы счетов
+     * @return найденные счета, отсортированные по идентификатору
+     */
+    List<Account> findAllByIdsForUpdate(Collection<Long> ids);
+
     /**
      * Возвращает список счетов, принадлежащих пользователю.
      *
@@ -42,12 +75,84 @@ public interface AccountDao {
 
     /**
      * Обновляет баланс счёта.
+     * <p>Для счёта со слотами задаёт суммарный баланс: основная строка получает
+     * {@code newBalance} за вычетом текущей суммы слотов.</p>
      *
      * @param accountId идентификатор счёта
      * @param newBalance новый баланс в копейках
      */
     void updateBalance(Long accountId, Long newBalance);
 
+    /**
+     * Атомарно списывает сумму со счёта одним условным {@code UPDATE}.
+     * <p>Списание выполняется, только если счёт открыт, принадлежит пользователю
+     * и на нём достаточно средств. Баланс вычисляется в БД относительно текущего значения.
+     * Если счёт разделён на слоты и основной строки не хватает, слоты сводятся в неё
+     * под блокировкой, и списание повторяется.</p>
+     *
+     * @param accountId идентификатор счёта-источника
+     * @param userId    идентификатор владельца счёта
+     * @param amount    сумма списания в копейках
+     * @return {@code true}, если строка обновлена; {@code false}, если условие не выполнено
+     */
+    boolean debitIfSufficient(Long accountId, Long userId, Long amount);
+
+    /**
+     * Атомарно зачисляет сумму на счёт одним условным {@code UPDATE}, если счёт открыт.
+     * Для счёта со слотами сумма зачисляется в случайный слот.
+     *
+     * @param accountId идентификатор счёта-получателя
+     * @param amount    сумма зачисления в копейках
+     * @return {@code true}, если строка обновлена; {@code false}, если счёт не найден или закрыт
+     */
+    boolean creditIfOpen(Long accountId, Long amount);
+
+    /**
+     * Применяет к балансам изменения, вызванные переводами, одним пакетом JDBC:
+     * по одному относительному списанию и зачислению на каждый перевод.
+     * <p>Проверки средств и статусов не выполняются — вызывающий код обязан
+     * заранее проверить переводы по заблокированным строкам.</p>
+     *
+     * @param transfers переводы, изменения которых нужно применить
+     */
+    void applyTransfers(List<Transaction> transfers);
+
+    /**
+     * Применяет к балансам готовые изменения одним пакетом JDBC: по одному относительному
+     * обновлению на счёт. Используется для проведения пакета переводов по чистым позициям.
+     * <p>Проверки средств и статусов не выполняются — вызывающий код обязан заранее
+     * проверить результат по заблокированным строкам.</p>
+     *
+     * @param deltas изменения балансов в копейках по идентификатору счёта
+     */
+    void applyBalanceDeltas(Map<Long, Long> deltas);
+
+    /**
+     * Сводит балансы слотов счёта в основную строку. Строка счёта и его слоты блокируются
+     * до конца текущей транзакции; вызывать следует внутри транзакции.
+     *
+     * @param accountId идентификатор счёта
+     * @return перенесённая из слотов сумма в копейках
+     */
+    long consolidateBalanceSlots(Long accountId);
+
+    /**
+     * Сводит слоты счёта в основную строку и пересоздаёт их в заданном количестве.
+     * Вызывать следует внутри транзакции.
+     *
+     * @param accountId идентификатор счёта
+     * @param slotCount число слотов; {@code 0} отключает разделение баланса
+     */
+    void resizeBalanceSlots(Long accountId, int slotCount);
+
+    /**
+     * Возвращает балансы слотов счёта в порядке номеров слотов.
+     *
+     * @param accountId идентификатор счёта
+     * @return балансы слотов; пустой список, если баланс не разделён
+     */
+    List<Long> findBalanceSlots(Long accountId);
+
     /**
      * Помечает счёт как закрытый.
      *
@@ -0,0 +1,49 @@
+package ru.dzhenbaz.P2PTransactionsTask.dao;
+
+import ru.dzhenbaz.P2PTransactionsTask.model.IdempotencyRecord;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * DAO-интерфейс для хранения результатов запросов с ключом идемпотентности.
+ *
+ * @author Dzhenbaz
+ */
+public interface IdempotencyKeyDao {
+
+    /**
+     * Занимает ключ, вставляя строку без ответа. Вставка того же ключа в параллельной
+     * транзакции ожидает её завершения и затем завершается ошибкой уникальности.
+     *
+     * @param record ключ, отпечаток запроса и время
+     * @throws org.springframework.dao.DuplicateKeyException если ключ уже занят
+     */
+    void insert(IdempotencyRecord record);
+
+    /**
+     * Сохраняет ответ для занятого ключа.
+     *
+     * @param userId   идентификатор пользователя
+     * @param key      ключ идемпотентности
+     * @param response ответ на запрос
+     */
+    void complete(Long userId, String key, String response);
+
+    /**
+     * Находит сохранённый результат по ключу.
+     *
+     * @param userId идентификатор пользователя
+     * @param key    ключ идемпотентности
+     * @return сохранённый результат или пустой {@code Optional}
+     */
+    Optional<IdempotencyRecord> find(Long userId, String key);
+
+    /**
+     * Удаляет ключи, созданные раньше указанного момента.
+     *
+     * @param threshold граница по времени создания
+     * @return число удалённых строк
+     */
+    int deleteOlderThan(LocalDateTime threshold);
+}
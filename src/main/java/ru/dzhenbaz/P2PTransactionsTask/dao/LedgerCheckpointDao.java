@@ -0,0 +1,28 @@
+package ru.dzhenbaz.P2PTransactionsTask.dao;
+
+/**
+ * DAO-интерфейс контрольной точки журнала леджера.
+ * <p>
+ * Хранит номер последней записи журнала, изменения которой уже перенесены
+ * в таблицы {@code accounts} и {@code transactions}. Контрольная точка сдвигается
+ * в той же транзакции БД, что и перенос, поэтому каждая запись применяется ровно один раз.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+public interface LedgerCheckpointDao {
+
+    /**
+     * Возвращает номер последней перенесённой в БД записи журнала.
+     *
+     * @return номер записи; {@code 0}, если записи ещё не переносились
+     */
+    long getLastSeq();
+
+    /**
+     * Сдвигает контрольную точку вперёд. Меньший номер игнорируется.
+     *
+     * @param seq номер последней перенесённой записи
+     */
+    void advance(long seq);
+}
@@ -0,0 +1,103 @@
+package ru.dzhenbaz.P2PTransactionsTask.dao;
+
+import ru.dzhenbaz.P2PTransactionsTask.model.OutboxEvent;
+import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * DAO-интерфейс исходящей очереди событий о переводах ({@code transfer_outbox})
+ * и смещений её потребителей ({@code outbox_offsets}).
+ * <p>
+ * Строка смещения потребителя служит и его блокировкой: её держит тот экземпляр приложения,
+ * который сейчас доставляет события этому потребителю. Строка {@link #SEQUENCER} хранит
+ * последний присвоенный номер события.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+public interface OutboxDao {
+
+    /**
+     * Имя служебной строки смещений, хранящей последний присвоенный номер события.
+     */
+    String SEQUENCER = "$sequencer";
+
+    /**
+     * Добавляет в очередь события о переводах одним пакетом JDBC. Номера событиям не присваиваются.
+     *
+     * @param txs проведённые переводы
+     */
+    void saveAll(List<Transaction> txs);
+
+    /**
+     * Создаёт строку смещения потребителя с нулевым смещением, если её ещё нет.
+     *
+     * @param consumer имя потребителя
+     */
+    void registerConsumer(String consumer);
+
+    /**
+     * Блокирует строку смещения потребителя до конца транзакции
+     * ({@code SELECT ... FOR UPDATE SKIP LOCKED}).
+     *
+     * @param consumer имя потребителя
+     * @return смещение или пустой результат, если строка заблокирована другой транзакцией или отсутствует
+     */
+    Optional<Long> lockOffset(String consumer);
+
+    /**
+     * Сохраняет смещение потребителя. Вызывать следует в транзакции, заблокировавшей строку.
+     *
+     * @param consumer имя потребителя
+     * @param lastSeq  номер последнего обработанного события
+     */
+    void updateOffset(String consumer, long lastSeq);
+
+    /**
+     * Возвращает идентификаторы зафиксированных событий без номера в порядке добавления.
+     *
+     * @param limit максимальное число событий
+     * @return идентификаторы строк
+     */
+    List<Long> findUnsequencedIds(int limit);
+
+    /**
+     * Присваивает событиям последовательные номера одним пакетом JDBC.
+     *
+     * @param ids      идентификаторы строк в порядке нумерации
+     * @param firstSeq номер первого события
+     */
+    void assignSeq(List<Long> ids, long firstSeq);
+
+    /**
+     * Возвращает события с номерами больше заданного в порядке номеров.
+     *
+     * @param afterSeq номер, после которого читать
+     * @param limit    максимальное число событий
+     * @return события
+     */
+    List<OutboxEvent> findAfter(long afterSeq, int limit);
+
+    /**
+     * Удаляет события, обработанные всеми зарегистрированными потребителями.
+     *
+     * @return число удалённых событий
+     */
+    int deleteConsumed();
+
+    /**
+     * Удаляет строку смещения потребителя. Пока строка есть, события, не обработанные
+     * этим потребителем, не удаляются.
+     *
+     * @param consumer имя потребителя
+     */
+    void deleteConsumer(String consumer);
+
+    /**
+     * Удаляет все события из очереди.
+     * <p>Используется преимущественно в тестах.</p>
+     */
+    void deleteAll();
+}
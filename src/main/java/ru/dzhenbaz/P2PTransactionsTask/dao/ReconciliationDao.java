@@ -0,0 +1,78 @@
+package ru.dzhenbaz.P2PTransactionsTask.dao;
+
+/**
+ * DAO-интерфейс сверки балансов счетов с историей переводов.
+ * <p>
+ * Все методы работают с диапазоном идентификаторов счетов {@code [fromId, toId)} и передают строки
+ * обработчику по одной, не создавая объектов на строку. Чтобы балансы и переводы были прочитаны
+ * из одного снимка БД, методы вызываются в одной транзакции с уровнем изоляции
+ * {@code REPEATABLE READ}.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+public interface ReconciliationDao {
+
+    /**
+     * Обработчик суммы перевода по счёту.
+     */
+    @FunctionalInterface
+    interface AmountConsumer {
+
+        /**
+         * @param accountId идентификатор счёта
+         * @param amount    сумма перевода в копейках
+         */
+        void accept(long accountId, long amount);
+    }
+
+    /**
+     * Обработчик балансов счёта.
+     */
+    @FunctionalInterface
+    interface BalanceConsumer {
+
+        /**
+         * @param accountId      идентификатор счёта
+         * @param openingBalance начальный баланс
+         * @param balance        текущий баланс, включая слоты
+         */
+        void accept(long accountId, long openingBalance, long balance);
+    }
+
+    /**
+     * Возвращает наибольший идентификатор счёта.
+     *
+     * @return идентификатор или {@code 0}, если счетов нет
+     */
+    long findMaxAccountId();
+
+    /**
+     * Передаёт начальный и текущий балансы счетов диапазона.
+     *
+     * @param fromId   начало диапазона включительно
+     * @param toId     конец диапазона не включительно
+     * @param consumer обработчик
+     */
+    void streamBalances(long fromId, long toId, BalanceConsumer consumer);
+
+    /**
+     * Передаёт суммы переводов, списанных со счетов диапазона.
+     *
+     * @param fromId    начало диапазона включительно
+     * @param toId      конец диапазона не включительно
+     * @param fetchSize число строк, получаемых от БД за одно обращение
+     * @param consumer  обработчик; получает счёт-источник
+     */
+    void streamDebits(long fromId, long toId, int fetchSize, AmountConsumer consumer);
+
+    /**
+     * Передаёт суммы переводов, зачисленных на счета диапазона.
+     *
+     * @param fromId    начало диапазона включительно
+     * @param toId      конец диапазона не включительно
+     * @param fetchSize число строк, получаемых от БД за одно обращение
+     * @param consumer  обработчик; получает счёт-получатель
+     */
+    void streamCredits(long fromId, long toId, int fetchSize, AmountConsumer consumer);
+}
@@ -0,0 +1,79 @@
+package ru.dzhenbaz.P2PTransactionsTask.dao;
+
+import ru.dzhenbaz.P2PTransactionsTask.model.ScheduledTransfer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * DAO-интерфейс для работы с запланированными переводами.
+ *
+ * @author Dzhenbaz
+ */
+public interface ScheduledTransferDao {
+
+    /**
+     * Сохраняет новый запланированный перевод.
+     *
+     * @param transfer запланированный перевод
+     * @return идентификатор созданной записи
+     */
+    Long save(ScheduledTransfer transfer);
+
+    /**
+     * Находит запланированный перевод по идентификатору.
+     *
+     * @param id идентификатор
+     * @return {@code Optional} с найденным переводом или пустой
+     */
+    Optional<ScheduledTransfer> findById(Long id);
+
+    /**
+     * Возвращает запланированные переводы пользователя.
+     *
+     * @param userId идентификатор пользователя
+     * @return переводы пользователя, отсортированные по идентификатору
+     */
+    List<ScheduledTransfer> findByUserId(Long userId);
+
+    /**
+     * Возвращает активные переводы, ближайшее исполнение которых раньше указанного момента.
+     * Использует индекс {@code (active, next_run_at)}, поэтому читает только окно,
+     * а не всю таблицу.
+     *
+     * @param until граница окна (не включительно)
+     * @param limit максимальное число записей
+     * @return переводы в порядке времени исполнения
+     */
+    List<ScheduledTransfer> findDueBefore(LocalDateTime until, int limit);
+
+    /**
+     * Фиксирует обработку запуска: сдвигает время исполнения, только если запуск
+     * ещё не обработан (условное обновление по ожидаемому {@code next_run_at}).
+     *
+     * @param id              идентификатор перевода
+     * @param expectedRunAt   время обрабатываемого запуска
+     * @param nextRunAt       время следующего запуска; для завершённого перевода не меняется
+     * @param active          останется ли перевод активным
+     * @param lastError       причина отказа или {@code null}
+     * @return {@code true}, если запуск обработан этим вызовом; {@code false}, если он уже
+     *         обработан другим исполнителем или перевод отменён
+     */
+    boolean advance(Long id, LocalDateTime expectedRunAt, LocalDateTime nextRunAt, boolean active, String lastError);
+
+    /**
+     * Отменяет запланированный перевод пользователя.
+     *
+     * @param id     идентификатор перевода
+     * @param userId идентификатор владельца
+     * @return {@code true}, если перевод был активен и отменён
+     */
+    boolean cancel(Long id, Long userId);
+
+    /**
+     * Удаляет все запланированные переводы.
+     * <p>Используется преимущественно в тестах.</p>
+     */
+    void deleteAll();
+}
@@ -0,0 +1,106 @@
+package ru.dzhenbaz.P2PTransactionsTask.dao;
+
+import ru.dzhenbaz.P2PTransactionsTask.model.ArchivedSegment;
+import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * DAO-интерфейс архива переводов: каталог сегментов ({@code archive_segments}) и операции
+ * над таблицей {@code transactions}, которыми месяц переносится в архив и возвращается обратно.
+ * <p>
+ * Строки удаляются и вставляются напрямую, минуя {@link TransactionDao} и его декораторы:
+ * перенос в архив не является новым переводом, поэтому не должен менять дневные итоги,
+ * исходящую очередь и подписчиков событий.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+public interface TransactionArchiveDao {
+
+    /**
+     * Возвращает время создания самого старого перевода в таблице.
+     *
+     * @return время или пустой результат, если таблица пуста
+     */
+    Optional<LocalDateTime> findOldestCreatedAt();
+
+    /**
+     * Передаёт переводы из диапазона в порядке возрастания {@code (created_at, id)}, не накапливая их в памяти.
+     * Для PostgreSQL вызывать следует внутри транзакции, иначе драйвер не использует курсор.
+     *
+     * @param from      начало диапазона включительно
+     * @param to        конец диапазона не включительно
+     * @param fetchSize число строк, получаемых от БД за одно обращение
+     * @param consumer  обработчик строк
+     */
+    void streamRange(LocalDateTime from, LocalDateTime to, int fetchSize, Consumer<Transaction> consumer);
+
+    /**
+     * Возвращает идентификаторы переводов из диапазона.
+     *
+     * @param from начало диапазона включительно
+     * @param to   конец диапазона не включительно
+     * @return идентификаторы
+     */
+    Set<Long> findIdsInRange(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Удаляет переводы из диапазона.
+     *
+     * @param from начало диапазона включительно
+     * @param to   конец диапазона не включительно
+     * @return число удалённых строк
+     */
+    int deleteRange(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Вставляет переводы с их исходными идентификаторами одним пакетом JDBC.
+     *
+     * @param txs переводы
+     */
+    void insertAll(List<Transaction> txs);
+
+    /**
+     * Возвращает записи каталога в порядке месяцев.
+     *
+     * @return записи каталога
+     */
+    List<ArchivedSegment> findSegments();
+
+    /**
+     * Возвращает запись каталога за месяц и блокирует её до конца транзакции.
+     *
+     * @param month месяц
+     * @return запись или пустой результат, если месяц не архивировался
+     */
+    Optional<ArchivedSegment> findSegmentForUpdate(YearMonth month);
+
+    /**
+     * Отмечает месяц как архивированный: создаёт запись каталога или обновляет запись
+     * восстановленного месяца.
+     *
+     * @param segment запись каталога
+     * @return {@code false}, если месяц уже отмечен как архивированный
+     */
+    boolean markArchived(ArchivedSegment segment);
+
+    /**
+     * Отмечает архивированный месяц как восстановленный.
+     *
+     * @param month месяц
+     * @return {@code false}, если месяц не был отмечен как архивированный
+     */
+    boolean markRestored(YearMonth month);
+
+    /**
+     * Удаляет все записи каталога.
+     * <p>Как правило, используется в тестах или при очистке среды.</p>
+     */
+    void deleteSegments();
+}
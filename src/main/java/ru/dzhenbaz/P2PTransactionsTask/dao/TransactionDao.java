@@ -2,7 +2,9 @@ package ru.dzhenbaz.P2PTransactionsTask.dao;
 
 import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * DAO-интерфейс для работы с транзакциями.
@@ -22,6 +24,13 @@ public interface TransactionDao {
      */
     void save(Transaction tx);
 
+    /**
+     * Сохраняет несколько транзакций одним пакетом JDBC.
+     *
+     * @param txs транзакции для сохранения
+     */
+    void saveAll(List<Transaction> txs);
+
     /**
      * Возвращает все транзакции, связанные с указанным счётом.
      * Не используется, возможно понадобится при расширении
@@ -32,6 +41,37 @@ public interface TransactionDao {
      */
     List<Transaction> findAllByAccountId(Long accountId);
 
+    /**
+     * Возвращает страницу переводов по счёту, входящих и исходящих, в порядке убывания
+     * {@code (created_at, id)}.
+     * <p>Пагинация по ключу: следующая страница начинается строго после последней строки
+     * предыдущей, поэтому стоимость запроса зависит от размера страницы, а не от глубины истории.
+     * Курсор задаёт и верхнюю границу по времени, так что секции с более новыми строками не читаются.</p>
+     *
+     * @param accountId       идентификатор счёта
+     * @param beforeCreatedAt время создания последней строки предыдущей страницы или {@code null} для первой
+     * @param beforeId        идентификатор последней строки предыдущей страницы или {@code null} для первой
+     * @param limit           максимальное число строк
+     * @return переводы страницы
+     */
+    List<Transaction> findPageByAccountId(Long accountId, LocalDateTime beforeCreatedAt, Long beforeId, int limit);
+
+    /**
+     * Передаёт переводы по счёту, входящие и исходящие, в порядке возрастания
+     * {@code (created_at, id)}, не накапливая их в памяти.
+     * <p>Строки читаются курсором БД порциями по {@code fetchSize}. Чтобы драйвер PostgreSQL
+     * использовал курсор, вызывать следует внутри транзакции (с выключенным autocommit).
+     * Границы по времени позволяют БД не читать секции таблицы вне диапазона.</p>
+     *
+     * @param accountId идентификатор счёта
+     * @param from      начало диапазона включительно или {@code null}
+     * @param to        конец диапазона не включительно или {@code null}
+     * @param fetchSize число строк, получаемых от БД за одно обращение
+     * @param consumer  обработчик строк; вызывается для каждой строки по порядку
+     */
+    void streamByAccountId(Long accountId, LocalDateTime from, LocalDateTime to, int fetchSize,
+                           Consumer<Transaction> consumer);
+
     /**
      * Удаляет все транзакции из базы данных.
      * <p>Как правило, используется в тестах или при очистке среды.</p>
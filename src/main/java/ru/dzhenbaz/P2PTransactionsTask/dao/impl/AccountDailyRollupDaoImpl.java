@@ -0,0 +1,116 @@
+package ru.dzhenbaz.P2PTransactionsTask.dao.impl;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDailyRollupDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.mapper.AccountDailyRollupRowMapper;
+import ru.dzhenbaz.P2PTransactionsTask.model.AccountDailyRollup;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Реализация интерфейса {@link AccountDailyRollupDao} с использованием {@link JdbcTemplate}.
+ * <p>
+ * Приращения применяются атомарным upsert'ом: в PostgreSQL — {@code INSERT ... ON CONFLICT DO UPDATE},
+ * в остальных СУБД (H2 в тестах) — стандартным {@code MERGE}. Значения прибавляются к текущим
+ * в БД, поэтому параллельные транзакции не теряют обновлений друг друга.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+public class AccountDailyRollupDaoImpl implements AccountDailyRollupDao {
+
+    private static final String POSTGRES_UPSERT =
+            "INSERT INTO account_daily_rollup "
+                    + "(account_id, rollup_date, sent_count, sent_amount, received_count, received_amount) "
+                    + "VALUES (?, ?, ?, ?, ?, ?) "
+                    + "ON CONFLICT (account_id, rollup_date) DO UPDATE SET "
+                    + "sent_count = account_daily_rollup.sent_count + EXCLUDED.sent_count, "
+                    + "sent_amount = account_daily_rollup.sent_amount + EXCLUDED.sent_amount, "
+                    + "received_count = account_daily_rollup.received_count + EXCLUDED.received_count, "
+                    + "received_amount = account_daily_rollup.received_amount + EXCLUDED.received_amount";
+
+    private static final String STANDARD_MERGE =
+            "MERGE INTO account_daily_rollup r USING (VALUES (CAST(? AS BIGINT), CAST(? AS DATE), "
+                    + "CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT))) "
+                    + "AS d(account_id, rollup_date, sent_count, sent_amount, received_count, received_amount) "
+                    + "ON r.account_id = d.account_id AND r.rollup_date = d.rollup_date "
+                    + "WHEN MATCHED THEN UPDATE SET "
+                    + "sent_count = r.sent_count + d.sent_count, "
+                    + "sent_amount = r.sent_amount + d.sent_amount, "
+                    + "received_count = r.received_count + d.received_count, "
+                    + "received_amount = r.received_amount + d.received_amount "
+                    + "WHEN NOT MATCHED THEN INSERT "
+                    + "(account_id, rollup_date, sent_count, sent_amount, received_count, received_amount) "
+                    + "VALUES (d.account_id, d.rollup_date, d.sent_count, d.sent_amount, d.received_count, "
+                    + "d.received_amount)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AccountDailyRollupRowMapper rowMapper = new AccountDailyRollupRowMapper();
+
+    private volatile String upsertSql;
+
+    /**
+     * Конструктор с внедрением зависимости {@link JdbcTemplate}.
+     *
+     * @param jdbcTemplate компонент для выполнения SQL-запросов
+     */
+    public AccountDailyRollupDaoImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Прибавляет приращения к дневным итогам одним вызовом {@link JdbcTemplate#batchUpdate}.
+     *
+     * @param deltas приращения итогов, упорядоченные по {@code (accountId, date)}
+     */
+    @Override
+    public void addAll(List<AccountDailyRollup> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(upsertSql(), deltas.stream()
+                .map(d -> new Object[]{d.getAccountId(), Date.valueOf(d.getDate()), d.getSentCount(),
+                        d.getSentAmount(), d.getReceivedCount(), d.getReceivedAmount()})
+                .toList());
+    }
+
+    /**
+     * Возвращает дневные итоги счёта за период по первичному ключу {@code (account_id, rollup_date)}.
+     *
+     * @param accountId идентификатор счёта
+     * @param from      первый день периода включительно
+     * @param to        последний день периода включительно
+     * @return итоги по дням в порядке возрастания даты
+     */
+    @Override
+    public List<AccountDailyRollup> findByAccountId(Long accountId, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(
+                "SELECT * FROM account_daily_rollup WHERE account_id = ? AND rollup_date BETWEEN ? AND ? "
+                        + "ORDER BY rollup_date",
+                rowMapper,
+                accountId, Date.valueOf(from), Date.valueOf(to)
+        );
+    }
+
+    /**
+     * Удаляет все итоги из таблицы.
+     */
+    @Override
+    public void deleteAll() {
+        jdbcTemplate.update("DELETE FROM account_daily_rollup");
+    }
+
+    private String upsertSql() {
+        String sql = upsertSql;
+        if (sql == null) {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+            sql = "PostgreSQL".equals(product) ? POSTGRES_UPSERT : STANDARD_MERGE;
+            upsertSql = sql;
+        }
+        return sql;
+    }
+}
@@ -1,12 +1,20 @@
 package ru.dzhenbaz.P2PTransactionsTask.dao.impl;
 
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
 import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDao;
 import ru.dzhenbaz.P2PTransactionsTask.dao.mapper.AccountRowMapper;
 import ru.dzhenbaz.P2PTransactionsTask.model.Account;
+import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
 
 /**
  * Реализация интерфейса {@link AccountDao} с использованием {@link JdbcTemplate}.
@@ -17,11 +25,21 @@ import java.util.Optional;
  *
  * <p>Использует {@link AccountRowMapper} для маппинга строк БД в объекты {@link Account}.</p>
  *
+ * <p>Для счетов с {@code balance_slots > 0} зачисления распределяются по строкам
+ * {@code account_balance_slots}. Перед списанием по заблокированной строке слоты сводятся
+ * в основную строку, поэтому абсолютные и пакетные обновления баланса остаются корректными.</p>
+ *
  * @author Dzhenbaz
  */
 public class AccountDaoImpl implements AccountDao {
 
+    private static final String SELECT_WITH_SLOTS =
+            "SELECT a.id, a.user_id, a.is_closed, a.created_at, a.balance + CASE WHEN a.balance_slots > 0 " +
+                    "THEN (SELECT COALESCE(SUM(s.balance), 0) FROM account_balance_slots s " +
+                    "WHERE s.account_id = a.id) ELSE 0 END AS balance FROM accounts a ";
+
     private final JdbcTemplate jdbcTemplate;
+
     private final AccountRowMapper rowMapper = new AccountRowMapper();
 
     /**
@@ -35,15 +53,18 @@ public class AccountDaoImpl implements AccountDao {
 
     /**
      * Сохраняет новый счёт в базе данных.
+     * <p>Начальный баланс дополнительно сохраняется в {@code opening_balance}: от него сверка
+     * отсчитывает историю переводов.</p>
      *
      * @param account объект счёта для сохранения
      */
     @Override
     public void save(Account account) {
         jdbcTemplate.update(
-                "INSERT INTO accounts (user_id, balance, is_closed, created_at) VALUES (?, ?, ?, ?)",
+                "INSERT INTO accounts (user_id, balance, opening_balance, is_closed, created_at) VALUES (?, ?, ?, ?, ?)",
                 account.getUserId(),
                 account.getBalance(),
+                account.getBalance(),
                 account.isClosed(),
                 account.getCreatedAt()
         );
@@ -57,11 +78,51 @@ public class AccountDaoImpl implements AccountDao {
      */
     @Override
     public Optional<Account> findById(Long id) {
-        return jdbcTemplate.query("SELECT * FROM accounts WHERE id = ?", rowMapper, id)
+        return jdbcTemplate.query(SELECT_WITH_SLOTS + "WHERE a.id = ?", rowMapper, id)
                 .stream()
                 .findFirst();
     }
 
+    /**
+     * Находит счёт по идентификатору и блокирует строку до конца текущей транзакции.
+     * Слоты баланса, если они есть, сводятся в основную строку.
+     *
+     * @param id идентификатор счёта
+     * @return {@code Optional} с заблокированным счётом или пустой, если не найден
+     */
+    @Override
+    public Optional<Account> findByIdForUpdate(Long id) {
+        return lockConsolidated("SELECT * FROM accounts WHERE id = ? FOR UPDATE", ps -> ps.setLong(1, id))
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Находит счета по набору идентификаторов одним запросом ({@code WHERE id = ANY(?)}).
+     *
+     * @param ids идентификаторы счетов
+     * @return найденные счета
+     */
+    @Override
+    public List<Account> findAllByIds(Collection<Long> ids) {
+        return jdbcTemplate.query(SELECT_WITH_SLOTS + "WHERE a.id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("BIGINT", ids.toArray())),
+                rowMapper);
+    }
+
+    /**
+     * Находит и блокирует счета по набору идентификаторов в порядке возрастания идентификатора.
+     * Слоты баланса заблокированных счетов сводятся в основные строки.
+     *
+     * @param ids идентификаторы счетов
+     * @return найденные счета, отсортированные по идентификатору
+     */
+    @Override
+    public List<Account> findAllByIdsForUpdate(Collection<Long> ids) {
+        return lockConsolidated("SELECT * FROM accounts WHERE id = ANY(?) ORDER BY id FOR UPDATE",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("BIGINT", ids.toArray())));
+    }
+
     /**
      * Возвращает все активные (не закрытые) счета пользователя.
      *
@@ -70,18 +131,166 @@ public class AccountDaoImpl implements AccountDao {
      */
     @Override
     public List<Account> findByUserId(Long userId) {
-        return jdbcTemplate.query("SELECT * FROM accounts WHERE user_id = ? AND is_closed = false", rowMapper, userId);
+        return jdbcTemplate.query(SELECT_WITH_SLOTS + "WHERE a.user_id = ? AND a.is_closed = false",
+                rowMapper, userId);
     }
 
     /**
-     * Обновляет баланс указанного счёта.
+     * Обновляет суммарный баланс указанного счёта.
      *
      * @param accountId идентификатор счёта
      * @param newBalance новый баланс в копейках
      */
     @Override
     public void updateBalance(Long accountId, Long newBalance) {
-        jdbcTemplate.update("UPDATE accounts SET balance = ? WHERE id = ?", newBalance, accountId);
+        jdbcTemplate.update(
+                "UPDATE accounts SET balance = ? - CASE WHEN balance_slots > 0 " +
+                        "THEN (SELECT COALESCE(SUM(s.balance), 0) FROM account_balance_slots s " +
+                        "WHERE s.account_id = accounts.id) ELSE 0 END WHERE id = ?",
+                newBalance, accountId);
+    }
+
+    /**
+     * Списывает сумму со счёта, если он открыт, принадлежит пользователю и на нём достаточно средств.
+     *
+     * @param accountId идентификатор счёта-источника
+     * @param userId    идентификатор владельца счёта
+     * @param amount    сумма списания в копейках
+     * @return {@code true}, если списание выполнено
+     */
+    @Override
+    public boolean debitIfSufficient(Long accountId, Long userId, Long amount) {
+        if (debitMainRow(accountId, userId, amount)) {
+            return true;
+        }
+        return consolidateBalanceSlots(accountId) > 0 && debitMainRow(accountId, userId, amount);
+    }
+
+    /**
+     * Зачисляет сумму на счёт, если он открыт. Для счёта со слотами сумма
+     * зачисляется в случайный слот, не затрагивая основную строку.
+     *
+     * @param accountId идентификатор счёта-получателя
+     * @param amount    сумма зачисления в копейках
+     * @return {@code true}, если зачисление выполнено
+     */
+    @Override
+    public boolean creditIfOpen(Long accountId, Long amount) {
+        if (jdbcTemplate.update(
+                "UPDATE accounts SET balance = balance + ? WHERE id = ? AND is_closed = false AND balance_slots = 0",
+                amount, accountId
+        ) == 1) {
+            return true;
+        }
+        return jdbcTemplate.update(
+                "UPDATE account_balance_slots SET balance = balance + ? WHERE account_id = ? AND slot = MOD(?, " +
+                        "(SELECT NULLIF(a.balance_slots, 0) FROM accounts a WHERE a.id = ? AND a.is_closed = false))",
+                amount, accountId, ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE), accountId
+        ) == 1;
+    }
+
+    /**
+     * Применяет изменения балансов от переводов одним вызовом {@link JdbcTemplate#batchUpdate}.
+     * Слоты списываемых счетов предварительно сводятся в основные строки.
+     *
+     * @param transfers переводы, изменения которых нужно применить
+     */
+    @Override
+    public void applyTransfers(List<Transaction> transfers) {
+        TreeSet<Long> debited = new TreeSet<>();
+        transfers.forEach(tx -> debited.add(tx.getFromAccountId()));
+        jdbcTemplate.query("SELECT id FROM accounts WHERE id = ANY(?) AND balance_slots > 0 ORDER BY id",
+                        ps -> ps.setArray(1, ps.getConnection().createArrayOf("BIGINT", debited.toArray())),
+                        (rs, rowNum) -> rs.getLong("id"))
+                .forEach(this::consolidateBalanceSlots);
+
+        List<Object[]> args = new ArrayList<>(transfers.size() * 2);
+        for (Transaction tx : transfers) {
+            args.add(new Object[]{-tx.getAmount(), tx.getFromAccountId()});
+            args.add(new Object[]{tx.getAmount(), tx.getToAccountId()});
+        }
+        jdbcTemplate.batchUpdate("UPDATE accounts SET balance = balance + ? WHERE id = ?", args);
+    }
+
+    /**
+     * Применяет изменения балансов одним вызовом {@link JdbcTemplate#batchUpdate}.
+     * Слоты счетов с отрицательным изменением предварительно сводятся в основные строки.
+     *
+     * @param deltas изменения балансов в копейках по идентификатору счёта
+     */
+    @Override
+    public void applyBalanceDeltas(Map<Long, Long> deltas) {
+        TreeSet<Long> debited = new TreeSet<>();
+        deltas.forEach((accountId, delta) -> {
+            if (delta < 0) {
+                debited.add(accountId);
+            }
+        });
+        if (!debited.isEmpty()) {
+            jdbcTemplate.query("SELECT id FROM accounts WHERE id = ANY(?) AND balance_slots > 0 ORDER BY id",
+                            ps -> ps.setArray(1, ps.getConnection().createArrayOf("BIGINT", debited.toArray())),
+                            (rs, rowNum) -> rs.getLong("id"))
+                    .forEach(this::consolidateBalanceSlots);
+        }
+
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((accountId, delta) -> args.add(new Object[]{delta, accountId}));
+        jdbcTemplate.batchUpdate("UPDATE accounts SET balance = balance + ? WHERE id = ?", args);
+    }
+
+    /**
+     * Сводит балансы слотов счёта в основную строку под блокировкой строки счёта и его слотов.
+     *
+     * @param accountId идентификатор счёта
+     * @return перенесённая из слотов сумма в копейках
+     */
+    @Override
+    public long consolidateBalanceSlots(Long accountId) {
+        List<Integer> slotCount = jdbcTemplate.queryForList(
+                "SELECT balance_slots FROM accounts WHERE id = ? FOR UPDATE", Integer.class, accountId);
+        if (slotCount.isEmpty() || slotCount.get(0) == 0) {
+            return 0;
+        }
+        long moved = jdbcTemplate.queryForList(
+                        "SELECT balance FROM account_balance_slots WHERE account_id = ? FOR UPDATE",
+                        Long.class, accountId)
+                .stream()
+                .mapToLong(Long::longValue)
+                .sum();
+        if (moved > 0) {
+            jdbcTemplate.update("UPDATE account_balance_slots SET balance = 0 WHERE account_id = ?", accountId);
+            jdbcTemplate.update("UPDATE accounts SET balance = balance + ? WHERE id = ?", moved, accountId);
+        }
+        return moved;
+    }
+
+    /**
+     * Сводит слоты счёта в основную строку и пересоздаёт их в заданном количестве.
+     *
+     * @param accountId идентификатор счёта
+     * @param slotCount число слотов; {@code 0} отключает разделение баланса
+     */
+    @Override
+    public void resizeBalanceSlots(Long accountId, int slotCount) {
+        consolidateBalanceSlots(accountId);
+        jdbcTemplate.update("DELETE FROM account_balance_slots WHERE account_id = ?", accountId);
+        jdbcTemplate.batchUpdate("INSERT INTO account_balance_slots (account_id, slot, balance) VALUES (?, ?, 0)",
+                IntStream.range(0, slotCount)
+                        .mapToObj(slot -> new Object[]{accountId, slot})
+                        .toList());
+        jdbcTemplate.update("UPDATE accounts SET balance_slots = ? WHERE id = ?", slotCount, accountId);
+    }
+
+    /**
+     * Возвращает балансы слотов счёта в порядке номеров слотов.
+     *
+     * @param accountId идентификатор счёта
+     * @return балансы слотов
+     */
+    @Override
+    public List<Long> findBalanceSlots(Long accountId) {
+        return jdbcTemplate.queryForList(
+                "SELECT balance FROM account_balance_slots WHERE account_id = ? ORDER BY slot", Long.class, accountId);
     }
 
     /**
@@ -94,6 +303,36 @@ public class AccountDaoImpl implements AccountDao {
         jdbcTemplate.update("UPDATE accounts SET is_closed = true WHERE id = ?", accountId);
     }
 
+    private boolean debitMainRow(Long accountId, Long userId, Long amount) {
+        return jdbcTemplate.update(
+                "UPDATE accounts SET balance = balance - ? " +
+                        "WHERE id = ? AND user_id = ? AND balance >= ? AND is_closed = false",
+                amount, accountId, userId, amount
+        ) == 1;
+    }
+
+    /**
+     * Блокирует строки счетов запросом {@code FOR UPDATE} и сводит в них слоты баланса.
+     *
+     * @param sql    запрос с {@code FOR UPDATE} по таблице {@code accounts}
+     * @param setter установка параметров запроса
+     * @return заблокированные счета с суммарными балансами
+     */
+    private List<Account> lockConsolidated(String sql, PreparedStatementSetter setter) {
+        List<Account> slotted = new ArrayList<>();
+        List<Account> accounts = jdbcTemplate.query(sql, setter, (rs, rowNum) -> {
+            Account account = rowMapper.mapRow(rs, rowNum);
+            if (rs.getInt("balance_slots") > 0) {
+                slotted.add(account);
+            }
+            return account;
+        });
+        for (Account account : slotted) {
+            account.setBalance(account.getBalance() + consolidateBalanceSlots(account.getId()));
+        }
+        return accounts;
+    }
+
     /**
      * Удаляет все счета из таблицы.
      * Используется, как правило, в тестах.
@@ -0,0 +1,148 @@
+package ru.dzhenbaz.P2PTransactionsTask.dao.impl;
+
+import ru.dzhenbaz.P2PTransactionsTask.archive.ArchiveSegment;
+import ru.dzhenbaz.P2PTransactionsTask.archive.ArchiveStore;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionDao;
+import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.function.Consumer;
+
+/**
+ * Декоратор {@link TransactionDao}, дополняющий чтение переводов по счёту строками из архива.
+ * <p>
+ * Архивированные месяцы читаются только из сегментов {@link ArchiveStore}, остальные — из БД.
+ * Строки архивированного месяца, ещё не удалённые из таблицы в момент архивации, из результата БД
+ * отбрасываются, поэтому перевод не попадает в ответ дважды. Пока архив пуст, все вызовы
+ * передаются делегату без изменений.
+ * </p>
+ *
+ * <p>Страница собирается из страницы БД и страницы архива того же размера: любая строка из первых
+ * {@code limit} объединения входит в первые {@code limit} своего источника. Страница архива читается
+ * с курсора в обратном порядке и не декодирует больше блоков, чем нужно для {@code limit} строк. Выгрузка идёт по месяцам
+ * в порядке времени: промежутки между архивированными месяцами запрашиваются у БД отдельными
+ * диапазонами, поэтому порядок {@code (created_at, id)} сохраняется без сортировки.</p>
+ *
+ * @author Dzhenbaz
+ */
+public class ArchivingTransactionDao implements TransactionDao {
+
+    private static final Comparator<Transaction> NEWEST_FIRST =
+            Comparator.comparing(Transaction::getCreatedAt).thenComparing(Transaction::getId).reversed();
+
+    private final TransactionDao delegate;
+    private final ArchiveStore archiveStore;
+
+    /**
+     * Конструктор с внедрением зависимостей.
+     *
+     * @param delegate     DAO переводов, работающее с БД
+     * @param archiveStore открытые сегменты архива
+     */
+    public ArchivingTransactionDao(TransactionDao delegate, ArchiveStore archiveStore) {
+        this.delegate = delegate;
+        this.archiveStore = archiveStore;
+    }
+
+    @Override
+    public void save(Transaction tx) {
+        delegate.save(tx);
+    }
+
+    @Override
+    public void saveAll(List<Transaction> txs) {
+        delegate.saveAll(txs);
+    }
+
+    @Override
+    public List<Transaction> findAllByAccountId(Long accountId) {
+        NavigableMap<YearMonth, ArchiveSegment> segments = archiveStore.segments();
+        if (segments.isEmpty()) {
+            return delegate.findAllByAccountId(accountId);
+        }
+        List<Transaction> result = live(delegate.findAllByAccountId(accountId), segments);
+        for (ArchiveSegment segment : segments.values()) {
+            segment.forEachByAccountId(accountId, null, null, result::add);
+        }
+        result.sort(NEWEST_FIRST);
+        return result;
+    }
+
+    @Override
+    public List<Transaction> findPageByAccountId(Long accountId, LocalDateTime beforeCreatedAt, Long beforeId,
+                                                 int limit) {
+        NavigableMap<YearMonth, ArchiveSegment> segments = archiveStore.segments();
+        if (segments.isEmpty()) {
+            return delegate.findPageByAccountId(accountId, beforeCreatedAt, beforeId, limit);
+        }
+        List<Transaction> result = live(delegate.findPageByAccountId(accountId, beforeCreatedAt, beforeId, limit),
+                segments);
+        boolean cursor = beforeCreatedAt != null && beforeId != null;
+        NavigableMap<YearMonth, ArchiveSegment> candidates = cursor
+                ? segments.headMap(YearMonth.from(beforeCreatedAt), true)
+                : segments;
+        int archived = 0;
+        for (ArchiveSegment segment : candidates.descendingMap().values()) {
+            archived += segment.forEachByAccountIdDescending(accountId, cursor ? beforeCreatedAt : null,
+                    cursor ? beforeId : null, limit - archived, result::add);
+            if (archived == limit) {
+                break;
+            }
+        }
+        result.sort(NEWEST_FIRST);
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    @Override
+    public void streamByAccountId(Long accountId, LocalDateTime from, LocalDateTime to, int fetchSize,
+                                  Consumer<Transaction> consumer) {
+        NavigableMap<YearMonth, ArchiveSegment> segments = archiveStore.segments();
+        LocalDateTime position = from;
+        for (Map.Entry<YearMonth, ArchiveSegment> entry : segments.entrySet()) {
+            LocalDateTime monthStart = entry.getKey().atDay(1).atStartOfDay();
+            LocalDateTime monthEnd = entry.getKey().plusMonths(1).atDay(1).atStartOfDay();
+            if (to != null && !monthStart.isBefore(to)) {
+                break;
+            }
+            if (from != null && !monthEnd.isAfter(from)) {
+                continue;
+            }
+            if (position == null || position.isBefore(monthStart)) {
+                delegate.streamByAccountId(accountId, position, monthStart, fetchSize, consumer);
+            }
+            entry.getValue().forEachByAccountId(accountId, from, to, consumer);
+            position = monthEnd;
+        }
+        if (to == null || position == null || position.isBefore(to)) {
+            delegate.streamByAccountId(accountId, position, to, fetchSize, consumer);
+        }
+    }
+
+    /**
+     * Удаляет все переводы из БД и весь архив.
+     */
+    @Override
+    public void deleteAll() {
+        delegate.deleteAll();
+        archiveStore.clear();
+    }
+
+    /**
+     * Отбрасывает строки БД, относящиеся к архивированным месяцам.
+     */
+    private static List<Transaction> live(List<Transaction> rows, NavigableMap<YearMonth, ArchiveSegment> segments) {
+        List<Transaction> result = new ArrayList<>(rows.size());
+        for (Transaction tx : rows) {
+            if (!segments.containsKey(YearMonth.from(tx.getCreatedAt()))) {
+                result.add(tx);
+            }
+        }
+        return result;
+    }
+}
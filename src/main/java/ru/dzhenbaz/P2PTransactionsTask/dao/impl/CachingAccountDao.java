@@ -0,0 +1,207 @@
+package ru.dzhenbaz.P2PTransactionsTask.dao.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDao;
+import ru.dzhenbaz.P2PTransactionsTask.model.Account;
+import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Декоратор {@link AccountDao}, кэширующий {@link #findById(Long)}.
+ * <p>
+ * Кэш ограничен по размеру и времени жизни записи. Из кэша читаются только запросы вне транзакции
+ * (например, {@code GET /accounts/{id}} и предварительные проверки); внутри транзакции, в том числе
+ * при переводе, счёт всегда читается из БД и в кэш не попадает, поэтому незафиксированные или
+ * устаревшие балансы не используются для списаний.
+ * </p>
+ *
+ * <p>Любое изменение счёта через DAO удаляет его из кэша сразу и повторно после завершения
+ * транзакции: так значение, прочитанное параллельным запросом до фиксации, не переживает её.
+ * Загрузка выполняется атомарно для ключа, поэтому удаление не может обогнать её.
+ * Вызывающий код получает копии счетов и может их изменять.</p>
+ *
+ * <p>Удаление из кэша локально: изменения, сделанные другим экземпляром приложения
+ * с той же БД, видны здесь не позже чем через {@code ttl}.</p>
+ *
+ * <p>Статистика попаданий, промахов и вытеснений публикуется в метриках {@code cache.*}
+ * с тегом {@code cache=accounts}.</p>
+ *
+ * @author Dzhenbaz
+ */
+public class CachingAccountDao implements AccountDao {
+
+    private final AccountDao delegate;
+    private final Cache<Long, Account> cache;
+
+    /**
+     * Конструктор с внедрением зависимостей.
+     *
+     * @param delegate      DAO счетов, работающее с БД
+     * @param maxSize       максимальное число счетов в кэше
+     * @param ttl           время жизни записи
+     * @param meterRegistry реестр метрик
+     */
+    public CachingAccountDao(AccountDao delegate, long maxSize, Duration ttl, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "accounts");
+    }
+
+    @Override
+    public void save(Account account) {
+        delegate.save(account);
+        if (account.getId() != null) {
+            invalidate(account.getId());
+        }
+    }
+
+    @Override
+    public Optional<Account> findById(Long id) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return delegate.findById(id);
+        }
+        return Optional.ofNullable(cache.get(id, key -> delegate.findById(key).orElse(null)))
+                .map(CachingAccountDao::copy);
+    }
+
+    @Override
+    public Optional<Account> findByIdForUpdate(Long id) {
+        return delegate.findByIdForUpdate(id);
+    }
+
+    @Override
+    public List<Account> findAllByIds(Collection<Long> ids) {
+        return delegate.findAllByIds(ids);
+    }
+
+    @Override
+    public List<Account> findAllByIdsForUpdate(Collection<Long> ids) {
+        return delegate.findAllByIdsForUpdate(ids);
+    }
+
+    @Override
+    public List<Account> findByUserId(Long userId) {
+        return delegate.findByUserId(userId);
+    }
+
+    @Override
+    public void updateBalance(Long accountId, Long newBalance) {
+        delegate.updateBalance(accountId, newBalance);
+        invalidate(accountId);
+    }
+
+    @Override
+    public boolean debitIfSufficient(Long accountId, Long userId, Long amount) {
+        boolean debited = delegate.debitIfSufficient(accountId, userId, amount);
+        if (debited) {
+            invalidate(accountId);
+        }
+        return debited;
+    }
+
+    @Override
+    public boolean creditIfOpen(Long accountId, Long amount) {
+        boolean credited = delegate.creditIfOpen(accountId, amount);
+        if (credited) {
+            invalidate(accountId);
+        }
+        return credited;
+    }
+
+    @Override
+    public void applyTransfers(List<Transaction> transfers) {
+        delegate.applyTransfers(transfers);
+        Set<Long> accountIds = new HashSet<>();
+        for (Transaction transfer : transfers) {
+            accountIds.add(transfer.getFromAccountId());
+            accountIds.add(transfer.getToAccountId());
+        }
+        invalidate(accountIds);
+    }
+
+    @Override
+    public void applyBalanceDeltas(Map<Long, Long> deltas) {
+        delegate.applyBalanceDeltas(deltas);
+        invalidate(Set.copyOf(deltas.keySet()));
+    }
+
+    @Override
+    public long consolidateBalanceSlots(Long accountId) {
+        long moved = delegate.consolidateBalanceSlots(accountId);
+        invalidate(accountId);
+        return moved;
+    }
+
+    @Override
+    public void resizeBalanceSlots(Long accountId, int slotCount) {
+        delegate.resizeBalanceSlots(accountId, slotCount);
+        invalidate(accountId);
+    }
+
+    @Override
+    public List<Long> findBalanceSlots(Long accountId) {
+        return delegate.findBalanceSlots(accountId);
+    }
+
+    @Override
+    public void closeAccount(Long accountId) {
+        delegate.closeAccount(accountId);
+        invalidate(accountId);
+    }
+
+    @Override
+    public void deleteAll() {
+        delegate.deleteAll();
+        cache.invalidateAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidateAll();
+                }
+            });
+        }
+    }
+
+    private void invalidate(Long accountId) {
+        invalidate(Set.of(accountId));
+    }
+
+    /**
+     * Удаляет счета из кэша сейчас и, если идёт транзакция, после её завершения.
+     *
+     * @param accountIds идентификаторы счетов
+     */
+    private void invalidate(Set<Long> accountIds) {
+        cache.invalidateAll(accountIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidateAll(accountIds);
+                }
+            });
+        }
+    }
+
+    private static Account copy(Account account) {
+        return new Account(account.getId(), account.getUserId(), account.getBalance(), account.isClosed(),
+                account.getCreatedAt());
+    }
+}
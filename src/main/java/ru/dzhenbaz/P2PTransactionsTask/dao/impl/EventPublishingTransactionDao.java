@@ -0,0 +1,84 @@
+package ru.dzhenbaz.P2PTransactionsTask.dao.impl;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionDao;
+import ru.dzhenbaz.P2PTransactionsTask.events.TransferEventHub;
+import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Декоратор {@link TransactionDao}, публикующий записанные переводы в {@link TransferEventHub}.
+ * <p>
+ * Если запись идёт в транзакции, переводы публикуются после её фиксации: подписчики
+ * не узнают об откатившихся переводах. Вне транзакции переводы публикуются сразу.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+public class EventPublishingTransactionDao implements TransactionDao {
+
+    private final TransactionDao delegate;
+    private final TransferEventHub eventHub;
+
+    /**
+     * Конструктор с внедрением зависимостей.
+     *
+     * @param delegate DAO переводов
+     * @param eventHub рассылка событий о переводах
+     */
+    public EventPublishingTransactionDao(TransactionDao delegate, TransferEventHub eventHub) {
+        this.delegate = delegate;
+        this.eventHub = eventHub;
+    }
+
+    @Override
+    public void save(Transaction tx) {
+        delegate.save(tx);
+        publishAfterCommit(List.of(tx));
+    }
+
+    @Override
+    public void saveAll(List<Transaction> txs) {
+        delegate.saveAll(txs);
+        publishAfterCommit(List.copyOf(txs));
+    }
+
+    @Override
+    public List<Transaction> findAllByAccountId(Long accountId) {
+        return delegate.findAllByAccountId(accountId);
+    }
+
+    @Override
+    public List<Transaction> findPageByAccountId(Long accountId, LocalDateTime beforeCreatedAt, Long beforeId,
+                                                 int limit) {
+        return delegate.findPageByAccountId(accountId, beforeCreatedAt, beforeId, limit);
+    }
+
+    @Override
+    public void streamByAccountId(Long accountId, LocalDateTime from, LocalDateTime to, int fetchSize,
+                                  Consumer<Transaction> consumer) {
+        delegate.streamByAccountId(accountId, from, to, fetchSize, consumer);
+    }
+
+    @Override
+    public void deleteAll() {
+        delegate.deleteAll();
+    }
+
+    private void publishAfterCommit(List<Transaction> txs) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eventHub.publish(txs);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eventHub.publish(txs);
+            }
+        });
+    }
+}
@@ -0,0 +1,93 @@
+package ru.dzhenbaz.P2PTransactionsTask.dao.impl;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.dzhenbaz.P2PTransactionsTask.dao.IdempotencyKeyDao;
+import ru.dzhenbaz.P2PTransactionsTask.model.IdempotencyRecord;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Реализация интерфейса {@link IdempotencyKeyDao} с использованием {@link JdbcTemplate}.
+ * <p>
+ * Работает с таблицей {@code idempotency_keys}, первичный ключ которой — пара
+ * {@code (user_id, idem_key)}.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+public class IdempotencyKeyDaoImpl implements IdempotencyKeyDao {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Конструктор с внедрением зависимости {@link JdbcTemplate}.
+     *
+     * @param jdbcTemplate компонент для выполнения SQL-запросов
+     */
+    public IdempotencyKeyDaoImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Занимает ключ, вставляя строку без ответа.
+     *
+     * @param record ключ, отпечаток запроса и время
+     */
+    @Override
+    public void insert(IdempotencyRecord record) {
+        jdbcTemplate.update(
+                "INSERT INTO idempotency_keys (user_id, idem_key, fingerprint, created_at) VALUES (?, ?, ?, ?)",
+                record.getUserId(),
+                record.getKey(),
+                record.getFingerprint(),
+                record.getCreatedAt()
+        );
+    }
+
+    /**
+     * Сохраняет ответ для занятого ключа.
+     *
+     * @param userId   идентификатор пользователя
+     * @param key      ключ идемпотентности
+     * @param response ответ на запрос
+     */
+    @Override
+    public void complete(Long userId, String key, String response) {
+        jdbcTemplate.update("UPDATE idempotency_keys SET response = ? WHERE user_id = ? AND idem_key = ?",
+                response, userId, key);
+    }
+
+    /**
+     * Находит сохранённый результат по ключу.
+     *
+     * @param userId идентификатор пользователя
+     * @param key    ключ идемпотентности
+     * @return сохранённый результат или пустой {@code Optional}
+     */
+    @Override
+    public Optional<IdempotencyRecord> find(Long userId, String key) {
+        return jdbcTemplate.query(
+                        "SELECT * FROM idempotency_keys WHERE user_id = ? AND idem_key = ?",
+                        (rs, rowNum) -> new IdempotencyRecord(
+                                rs.getLong("user_id"),
+                                rs.getString("idem_key"),
+                                rs.getString("fingerprint"),
+                                rs.getString("response"),
+                                rs.getTimestamp("created_at").toLocalDateTime()),
+                        userId, key)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Удаляет ключи, созданные раньше указанного момента.
+     *
+     * @param threshold граница по времени создания
+     * @return число удалённых строк
+     */
+    @Override
+    public int deleteOlderThan(LocalDateTime threshold) {
+        return jdbcTemplate.update("DELETE FROM idempotency_keys WHERE created_at < ?", threshold);
+    }
+}
@@ -0,0 +1,47 @@
+package ru.dzhenbaz.P2PTransactionsTask.dao.impl;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.dzhenbaz.P2PTransactionsTask.dao.LedgerCheckpointDao;
+
+/**
+ * Реализация интерфейса {@link LedgerCheckpointDao} с использованием {@link JdbcTemplate}.
+ * <p>
+ * Контрольная точка — единственная строка таблицы {@code ledger_checkpoint} с {@code id = 1}.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+public class LedgerCheckpointDaoImpl implements LedgerCheckpointDao {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Конструктор с внедрением зависимости {@link JdbcTemplate}.
+     *
+     * @param jdbcTemplate компонент для выполнения SQL-запросов
+     */
+    public LedgerCheckpointDaoImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Возвращает номер последней перенесённой в БД записи журнала.
+     *
+     * @return номер записи
+     */
+    @Override
+    public long getLastSeq() {
+        Long seq = jdbcTemplate.queryForObject("SELECT last_seq FROM ledger_checkpoint WHERE id = 1", Long.class);
+        return seq == null ? 0 : seq;
+    }
+
+    /**
+     * Сдвигает контрольную точку вперёд.
+     *
+     * @param seq номер последней перенесённой записи
+     */
+    @Override
+    public void advance(long seq) {
+        jdbcTemplate.update("UPDATE ledger_checkpoint SET last_seq = ? WHERE id = 1 AND last_seq < ?", seq, seq);
+    }
+}
@@ -0,0 +1,121 @@
+package ru.dzhenbaz.P2PTransactionsTask.dao.impl;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.dzhenbaz.P2PTransactionsTask.dao.OutboxDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.mapper.OutboxEventRowMapper;
+import ru.dzhenbaz.P2PTransactionsTask.model.OutboxEvent;
+import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Реализация интерфейса {@link OutboxDao} с использованием {@link JdbcTemplate}.
+ *
+ * @author Dzhenbaz
+ */
+public class OutboxDaoImpl implements OutboxDao {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OutboxEventRowMapper rowMapper = new OutboxEventRowMapper();
+
+    /**
+     * Конструктор с внедрением зависимости {@link JdbcTemplate}.
+     *
+     * @param jdbcTemplate компонент для выполнения SQL-запросов
+     */
+    public OutboxDaoImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void saveAll(List<Transaction> txs) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO transfer_outbox (from_account_id, to_account_id, amount, created_at) VALUES (?, ?, ?, ?)",
+                txs.stream()
+                        .map(tx -> new Object[]{tx.getFromAccountId(), tx.getToAccountId(), tx.getAmount(),
+                                tx.getCreatedAt()})
+                        .toList()
+        );
+    }
+
+    /**
+     * Создаёт строку смещения потребителя. Одновременная регистрация тем же именем
+     * с другого экземпляра приложения не считается ошибкой.
+     *
+     * @param consumer имя потребителя
+     */
+    @Override
+    public void registerConsumer(String consumer) {
+        try {
+            jdbcTemplate.update(
+                    "INSERT INTO outbox_offsets (consumer, last_seq, updated_at) SELECT ?, 0, CURRENT_TIMESTAMP "
+                            + "WHERE NOT EXISTS (SELECT 1 FROM outbox_offsets WHERE consumer = ?)",
+                    consumer, consumer);
+        } catch (DuplicateKeyException e) {
+            // строку уже создал другой экземпляр
+        }
+    }
+
+    @Override
+    public Optional<Long> lockOffset(String consumer) {
+        return jdbcTemplate.queryForList(
+                "SELECT last_seq FROM outbox_offsets WHERE consumer = ? FOR UPDATE SKIP LOCKED",
+                Long.class, consumer
+        ).stream().findFirst();
+    }
+
+    @Override
+    public void updateOffset(String consumer, long lastSeq) {
+        jdbcTemplate.update("UPDATE outbox_offsets SET last_seq = ?, updated_at = CURRENT_TIMESTAMP WHERE consumer = ?",
+                lastSeq, consumer);
+    }
+
+    @Override
+    public List<Long> findUnsequencedIds(int limit) {
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM transfer_outbox WHERE seq IS NULL ORDER BY id LIMIT ?", Long.class, limit);
+    }
+
+    @Override
+    public void assignSeq(List<Long> ids, long firstSeq) {
+        List<Object[]> args = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            args.add(new Object[]{firstSeq + i, ids.get(i)});
+        }
+        jdbcTemplate.batchUpdate("UPDATE transfer_outbox SET seq = ? WHERE id = ?", args);
+    }
+
+    @Override
+    public List<OutboxEvent> findAfter(long afterSeq, int limit) {
+        return jdbcTemplate.query(
+                "SELECT * FROM transfer_outbox WHERE seq > ? ORDER BY seq LIMIT ?", rowMapper, afterSeq, limit);
+    }
+
+    /**
+     * Удаляет события с номерами не больше наименьшего смещения потребителей.
+     * Если потребителей нет, удаляются все пронумерованные события.
+     *
+     * @return число удалённых событий
+     */
+    @Override
+    public int deleteConsumed() {
+        return jdbcTemplate.update(
+                "DELETE FROM transfer_outbox WHERE seq <= (SELECT COALESCE(MIN(last_seq), "
+                        + "(SELECT last_seq FROM outbox_offsets WHERE consumer = ?)) "
+                        + "FROM outbox_offsets WHERE consumer <> ?)",
+                SEQUENCER, SEQUENCER);
+    }
+
+    @Override
+    public void deleteConsumer(String consumer) {
+        jdbcTemplate.update("DELETE FROM outbox_offsets WHERE consumer = ?", consumer);
+    }
+
+    @Override
+    public void deleteAll() {
+        jdbcTemplate.update("DELETE FROM transfer_outbox");
+    }
+}
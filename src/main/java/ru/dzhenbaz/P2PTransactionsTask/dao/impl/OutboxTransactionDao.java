@@ -0,0 +1,72 @@
+package ru.dzhenbaz.P2PTransactionsTask.dao.impl;
+
+import ru.dzhenbaz.P2PTransactionsTask.dao.OutboxDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionDao;
+import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Декоратор {@link TransactionDao}, добавляющий записанные переводы в исходящую очередь
+ * ({@link OutboxDao}) в той же транзакции БД.
+ * <p>
+ * Событие попадает в очередь тогда и только тогда, когда зафиксирован перевод. Перевод
+ * не ждёт доставки: к нему добавляется лишь одна пакетная вставка, а доставкой занимается
+ * {@link ru.dzhenbaz.P2PTransactionsTask.outbox.OutboxRelay}.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+public class OutboxTransactionDao implements TransactionDao {
+
+    private final TransactionDao delegate;
+    private final OutboxDao outboxDao;
+
+    /**
+     * Конструктор с внедрением зависимостей.
+     *
+     * @param delegate  DAO переводов
+     * @param outboxDao DAO исходящей очереди
+     */
+    public OutboxTransactionDao(TransactionDao delegate, OutboxDao outboxDao) {
+        this.delegate = delegate;
+        this.outboxDao = outboxDao;
+    }
+
+    @Override
+    public void save(Transaction tx) {
+        delegate.save(tx);
+        outboxDao.saveAll(List.of(tx));
+    }
+
+    @Override
+    public void saveAll(List<Transaction> txs) {
+        delegate.saveAll(txs);
+        outboxDao.saveAll(txs);
+    }
+
+    @Override
+    public List<Transaction> findAllByAccountId(Long accountId) {
+        return delegate.findAllByAccountId(accountId);
+    }
+
+    @Override
+    public List<Transaction> findPageByAccountId(Long accountId, LocalDateTime beforeCreatedAt, Long beforeId,
+                                                 int limit) {
+        return delegate.findPageByAccountId(accountId, beforeCreatedAt, beforeId, limit);
+    }
+
+    @Override
+    public void streamByAccountId(Long accountId, LocalDateTime from, LocalDateTime to, int fetchSize,
+                                  Consumer<Transaction> consumer) {
+        delegate.streamByAccountId(accountId, from, to, fetchSize, consumer);
+    }
+
+    @Override
+    public void deleteAll() {
+        delegate.deleteAll();
+        outboxDao.deleteAll();
+    }
+}
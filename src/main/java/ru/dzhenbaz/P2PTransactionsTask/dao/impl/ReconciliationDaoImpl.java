@@ -0,0 +1,73 @@
+package ru.dzhenbaz.P2PTransactionsTask.dao.impl;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import ru.dzhenbaz.P2PTransactionsTask.dao.ReconciliationDao;
+
+import java.sql.PreparedStatement;
+
+/**
+ * Реализация интерфейса {@link ReconciliationDao} с использованием {@link JdbcTemplate}.
+ * <p>
+ * Переводы читаются по индексам {@code (from_account_id, ...)} и {@code (to_account_id, ...)}
+ * курсором порциями по {@code fetchSize}; из строки берутся только счёт и сумма.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+public class ReconciliationDaoImpl implements ReconciliationDao {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Конструктор с внедрением зависимости {@link JdbcTemplate}.
+     *
+     * @param jdbcTemplate компонент для выполнения SQL-запросов
+     */
+    public ReconciliationDaoImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public long findMaxAccountId() {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM accounts", Long.class);
+        return max != null ? max : 0L;
+    }
+
+    @Override
+    public void streamBalances(long fromId, long toId, BalanceConsumer consumer) {
+        jdbcTemplate.query(
+                "SELECT a.id, a.opening_balance, a.balance + CASE WHEN a.balance_slots > 0 "
+                        + "THEN (SELECT COALESCE(SUM(s.balance), 0) FROM account_balance_slots s "
+                        + "WHERE s.account_id = a.id) ELSE 0 END AS balance "
+                        + "FROM accounts a WHERE a.id >= ? AND a.id < ?",
+                (RowCallbackHandler) rs -> consumer.accept(rs.getLong(1), rs.getLong(2), rs.getLong(3)),
+                fromId, toId
+        );
+    }
+
+    @Override
+    public void streamDebits(long fromId, long toId, int fetchSize, AmountConsumer consumer) {
+        stream("SELECT from_account_id, amount FROM transactions WHERE from_account_id >= ? AND from_account_id < ?",
+                fromId, toId, fetchSize, consumer);
+    }
+
+    @Override
+    public void streamCredits(long fromId, long toId, int fetchSize, AmountConsumer consumer) {
+        stream("SELECT to_account_id, amount FROM transactions WHERE to_account_id >= ? AND to_account_id < ?",
+                fromId, toId, fetchSize, consumer);
+    }
+
+    private void stream(String sql, long fromId, long toId, int fetchSize, AmountConsumer consumer) {
+        jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(sql);
+                    ps.setFetchSize(fetchSize);
+                    ps.setLong(1, fromId);
+                    ps.setLong(2, toId);
+                    return ps;
+                },
+                (RowCallbackHandler) rs -> consumer.accept(rs.getLong(1), rs.getLong(2))
+        );
+    }
+}
@@ -0,0 +1,109 @@
+package ru.dzhenbaz.P2PTransactionsTask.dao.impl;
+
+import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDailyRollupDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionDao;
+import ru.dzhenbaz.P2PTransactionsTask.model.AccountDailyRollup;
+import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Декоратор {@link TransactionDao}, поддерживающий дневные итоги по счетам
+ * ({@link AccountDailyRollupDao}).
+ * <p>
+ * Каждая запись переводов сопровождается приращением итогов счёта-отправителя и счёта-получателя
+ * за день перевода. Приращения выполняются в той же транзакции, что и вставка переводов, поэтому
+ * итоги всегда согласованы с таблицей {@code transactions}. Все пути записи переводов (одиночные,
+ * пакетные, выплаты, групповой коммит, леджер) проходят через {@link TransactionDao}.
+ * </p>
+ *
+ * <p>Переводы пакета сначала сворачиваются в памяти до одного приращения на пару
+ * {@code (счёт, день)}; приращения применяются в порядке {@code (accountId, date)}, так что
+ * транзакции блокируют строки итогов в одном порядке и не образуют взаимных блокировок.</p>
+ *
+ * @author Dzhenbaz
+ */
+public class RollupTransactionDao implements TransactionDao {
+
+    private static final Comparator<AccountDailyRollup> KEY_ORDER = Comparator
+            .comparing(AccountDailyRollup::getAccountId)
+            .thenComparing(AccountDailyRollup::getDate);
+
+    private final TransactionDao delegate;
+    private final AccountDailyRollupDao rollupDao;
+
+    /**
+     * Конструктор с внедрением зависимостей.
+     *
+     * @param delegate  DAO переводов, работающее с БД
+     * @param rollupDao DAO дневных итогов
+     */
+    public RollupTransactionDao(TransactionDao delegate, AccountDailyRollupDao rollupDao) {
+        this.delegate = delegate;
+        this.rollupDao = rollupDao;
+    }
+
+    @Override
+    public void save(Transaction tx) {
+        delegate.save(tx);
+        rollupDao.addAll(deltas(List.of(tx)));
+    }
+
+    @Override
+    public void saveAll(List<Transaction> txs) {
+        delegate.saveAll(txs);
+        rollupDao.addAll(deltas(txs));
+    }
+
+    @Override
+    public List<Transaction> findAllByAccountId(Long accountId) {
+        return delegate.findAllByAccountId(accountId);
+    }
+
+    @Override
+    public List<Transaction> findPageByAccountId(Long accountId, LocalDateTime beforeCreatedAt, Long beforeId,
+                                                 int limit) {
+        return delegate.findPageByAccountId(accountId, beforeCreatedAt, beforeId, limit);
+    }
+
+    @Override
+    public void streamByAccountId(Long accountId, LocalDateTime from, LocalDateTime to, int fetchSize,
+                                  Consumer<Transaction> consumer) {
+        delegate.streamByAccountId(accountId, from, to, fetchSize, consumer);
+    }
+
+    @Override
+    public void deleteAll() {
+        delegate.deleteAll();
+        rollupDao.deleteAll();
+    }
+
+    /**
+     * Сворачивает переводы в приращения дневных итогов.
+     *
+     * @param txs переводы
+     * @return приращения, упорядоченные по {@code (accountId, date)}
+     */
+    static List<AccountDailyRollup> deltas(List<Transaction> txs) {
+        Map<AccountDailyRollup, AccountDailyRollup> byKey = new TreeMap<>(KEY_ORDER);
+        for (Transaction tx : txs) {
+            LocalDate date = tx.getCreatedAt().toLocalDate();
+            AccountDailyRollup sent = byKey.computeIfAbsent(
+                    new AccountDailyRollup(tx.getFromAccountId(), date, 0, 0, 0, 0), key -> key);
+            sent.setSentCount(sent.getSentCount() + 1);
+            sent.setSentAmount(sent.getSentAmount() + tx.getAmount());
+            AccountDailyRollup received = byKey.computeIfAbsent(
+                    new AccountDailyRollup(tx.getToAccountId(), date, 0, 0, 0, 0), key -> key);
+            received.setReceivedCount(received.getReceivedCount() + 1);
+            received.setReceivedAmount(received.getReceivedAmount() + tx.getAmount());
+        }
+        return new ArrayList<>(byKey.values());
+    }
+}
@@ -0,0 +1,99 @@
+package ru.dzhenbaz.P2PTransactionsTask.dao.impl;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import ru.dzhenbaz.P2PTransactionsTask.dao.ScheduledTransferDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.mapper.ScheduledTransferRowMapper;
+import ru.dzhenbaz.P2PTransactionsTask.model.ScheduledTransfer;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Реализация интерфейса {@link ScheduledTransferDao} с использованием {@link JdbcTemplate}.
+ * <p>
+ * Работает с таблицей {@code scheduled_transfers}. Маппинг выполняется
+ * с помощью {@link ScheduledTransferRowMapper}.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+public class ScheduledTransferDaoImpl implements ScheduledTransferDao {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ScheduledTransferRowMapper rowMapper = new ScheduledTransferRowMapper();
+
+    /**
+     * Конструктор с внедрением зависимости {@link JdbcTemplate}.
+     *
+     * @param jdbcTemplate компонент для выполнения SQL-запросов
+     */
+    public ScheduledTransferDaoImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Long save(ScheduledTransfer transfer) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO scheduled_transfers (user_id, from_account_id, to_account_id, amount, recurrence, " +
+                            "first_run_at, next_run_at, run_count, active, created_at) " +
+                            "VALUES (?, ?, ?, ?, ?, ?, ?, 0, true, ?)",
+                    new String[]{"id"});
+            ps.setLong(1, transfer.getUserId());
+            ps.setLong(2, transfer.getFromAccountId());
+            ps.setLong(3, transfer.getToAccountId());
+            ps.setLong(4, transfer.getAmount());
+            ps.setString(5, transfer.getRecurrence().name());
+            ps.setTimestamp(6, Timestamp.valueOf(transfer.getFirstRunAt()));
+            ps.setTimestamp(7, Timestamp.valueOf(transfer.getNextRunAt()));
+            ps.setTimestamp(8, Timestamp.valueOf(transfer.getCreatedAt()));
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+
+    @Override
+    public Optional<ScheduledTransfer> findById(Long id) {
+        return jdbcTemplate.query("SELECT * FROM scheduled_transfers WHERE id = ?", rowMapper, id)
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public List<ScheduledTransfer> findByUserId(Long userId) {
+        return jdbcTemplate.query("SELECT * FROM scheduled_transfers WHERE user_id = ? ORDER BY id", rowMapper, userId);
+    }
+
+    @Override
+    public List<ScheduledTransfer> findDueBefore(LocalDateTime until, int limit) {
+        return jdbcTemplate.query(
+                "SELECT * FROM scheduled_transfers WHERE active = true AND next_run_at < ? ORDER BY next_run_at LIMIT ?",
+                rowMapper, until, limit);
+    }
+
+    @Override
+    public boolean advance(Long id, LocalDateTime expectedRunAt, LocalDateTime nextRunAt, boolean active,
+                           String lastError) {
+        return jdbcTemplate.update(
+                "UPDATE scheduled_transfers SET next_run_at = ?, run_count = run_count + 1, active = ?, last_error = ? " +
+                        "WHERE id = ? AND active = true AND next_run_at = ?",
+                nextRunAt, active, lastError, id, expectedRunAt) == 1;
+    }
+
+    @Override
+    public boolean cancel(Long id, Long userId) {
+        return jdbcTemplate.update("UPDATE scheduled_transfers SET active = false WHERE id = ? AND user_id = ? AND active = true",
+                id, userId) == 1;
+    }
+
+    @Override
+    public void deleteAll() {
+        jdbcTemplate.update("DELETE FROM scheduled_transfers");
+    }
+}
@@ -0,0 +1,133 @@
+package ru.dzhenbaz.P2PTransactionsTask.dao.impl;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionArchiveDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.mapper.ArchivedSegmentRowMapper;
+import ru.dzhenbaz.P2PTransactionsTask.dao.mapper.TransactionRowMapper;
+import ru.dzhenbaz.P2PTransactionsTask.model.ArchivedSegment;
+import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Реализация интерфейса {@link TransactionArchiveDao} с использованием {@link JdbcTemplate}.
+ *
+ * @author Dzhenbaz
+ */
+public class TransactionArchiveDaoImpl implements TransactionArchiveDao {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionRowMapper transactionRowMapper = new TransactionRowMapper();
+    private final ArchivedSegmentRowMapper segmentRowMapper = new ArchivedSegmentRowMapper();
+
+    /**
+     * Конструктор с внедрением зависимости {@link JdbcTemplate}.
+     *
+     * @param jdbcTemplate компонент для выполнения SQL-запросов
+     */
+    public TransactionArchiveDaoImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<LocalDateTime> findOldestCreatedAt() {
+        return Optional.ofNullable(jdbcTemplate.queryForObject(
+                "SELECT MIN(created_at) FROM transactions", LocalDateTime.class));
+    }
+
+    @Override
+    public void streamRange(LocalDateTime from, LocalDateTime to, int fetchSize, Consumer<Transaction> consumer) {
+        jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(
+                            "SELECT * FROM transactions WHERE created_at >= ? AND created_at < ? ORDER BY created_at, id");
+                    ps.setFetchSize(fetchSize);
+                    ps.setTimestamp(1, Timestamp.valueOf(from));
+                    ps.setTimestamp(2, Timestamp.valueOf(to));
+                    return ps;
+                },
+                (RowCallbackHandler) rs -> consumer.accept(transactionRowMapper.mapRow(rs, rs.getRow()))
+        );
+    }
+
+    @Override
+    public Set<Long> findIdsInRange(LocalDateTime from, LocalDateTime to) {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM transactions WHERE created_at >= ? AND created_at < ?", Long.class, from, to));
+    }
+
+    @Override
+    public int deleteRange(LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.update("DELETE FROM transactions WHERE created_at >= ? AND created_at < ?", from, to);
+    }
+
+    @Override
+    public void insertAll(List<Transaction> txs) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO transactions (id, from_account_id, to_account_id, amount, created_at) VALUES (?, ?, ?, ?, ?)",
+                txs.stream()
+                        .map(tx -> new Object[]{tx.getId(), tx.getFromAccountId(), tx.getToAccountId(), tx.getAmount(),
+                                tx.getCreatedAt()})
+                        .toList()
+        );
+    }
+
+    @Override
+    public List<ArchivedSegment> findSegments() {
+        return jdbcTemplate.query("SELECT * FROM archive_segments ORDER BY archive_month", segmentRowMapper);
+    }
+
+    @Override
+    public Optional<ArchivedSegment> findSegmentForUpdate(YearMonth month) {
+        return jdbcTemplate.query("SELECT * FROM archive_segments WHERE archive_month = ? FOR UPDATE",
+                segmentRowMapper, month.toString()).stream().findFirst();
+    }
+
+    /**
+     * Обновляет запись восстановленного месяца, а если записи нет — создаёт её.
+     * Одновременная архивация того же месяца другим экземпляром приложения завершается
+     * {@link org.springframework.dao.DuplicateKeyException} в одной из транзакций.
+     *
+     * @param segment запись каталога
+     * @return {@code false}, если месяц уже отмечен как архивированный
+     */
+    @Override
+    public boolean markArchived(ArchivedSegment segment) {
+        String month = segment.getMonth().toString();
+        int updated = jdbcTemplate.update(
+                "UPDATE archive_segments SET file_name = ?, row_count = ?, amount_sum = ?, checksum = ?,"
+                        + " status = 'ARCHIVED', updated_at = CURRENT_TIMESTAMP WHERE archive_month = ? AND status = 'RESTORED'",
+                segment.getFileName(), segment.getRowCount(), segment.getAmountSum(), segment.getChecksum(), month);
+        if (updated > 0) {
+            return true;
+        }
+        return jdbcTemplate.update(
+                "INSERT INTO archive_segments (archive_month, file_name, row_count, amount_sum, checksum, status, updated_at)"
+                        + " SELECT ?, ?, ?, ?, ?, 'ARCHIVED', CURRENT_TIMESTAMP"
+                        + " WHERE NOT EXISTS (SELECT 1 FROM archive_segments WHERE archive_month = ?)",
+                month, segment.getFileName(), segment.getRowCount(), segment.getAmountSum(), segment.getChecksum(),
+                month) > 0;
+    }
+
+    @Override
+    public boolean markRestored(YearMonth month) {
+        return jdbcTemplate.update(
+                "UPDATE archive_segments SET status = 'RESTORED', updated_at = CURRENT_TIMESTAMP"
+                        + " WHERE archive_month = ? AND status = 'ARCHIVED'",
+                month.toString()) > 0;
+    }
+
+    @Override
+    public void deleteSegments() {
+        jdbcTemplate.update("DELETE FROM archive_segments");
+    }
+}
@@ -1,11 +1,16 @@
 package ru.dzhenbaz.P2PTransactionsTask.dao.impl;
 
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionDao;
 import ru.dzhenbaz.P2PTransactionsTask.dao.mapper.TransactionRowMapper;
 import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
 
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Реализация интерфейса {@link TransactionDao} с использованием {@link JdbcTemplate}.
@@ -48,6 +53,22 @@ public class TransactionDaoImpl implements TransactionDao {
         );
     }
 
+    /**
+     * Сохраняет несколько транзакций одним вызовом {@link JdbcTemplate#batchUpdate}.
+     *
+     * @param txs транзакции для сохранения
+     */
+    @Override
+    public void saveAll(List<Transaction> txs) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO transactions (from_account_id, to_account_id, amount, created_at) VALUES (?, ?, ?, ?)",
+                txs.stream()
+                        .map(tx -> new Object[]{tx.getFromAccountId(), tx.getToAccountId(), tx.getAmount(),
+                                tx.getCreatedAt()})
+                        .toList()
+        );
+    }
+
     /**
      * Возвращает список всех транзакций, связанных с указанным счётом (входящих и исходящих).
      * <p>Результат отсортирован по дате создания в порядке убывания (последние первыми).</p>
@@ -65,6 +86,96 @@ public class TransactionDaoImpl implements TransactionDao {
         );
     }
 
+    /**
+     * Возвращает страницу переводов по счёту.
+     * <p>Исходящие и входящие переводы выбираются отдельными подзапросами по индексам
+     * {@code (from_account_id, created_at, id)} и {@code (to_account_id, created_at, id)},
+     * каждый не больше {@code limit} строк, и объединяются. Условие {@code OR} по двум колонкам
+     * не позволило бы БД пройти по индексу в нужном порядке. Отдельное условие
+     * {@code created_at <= ?} дублирует сравнение строк: по сравнению строк PostgreSQL
+     * не отсекает секции таблицы.</p>
+     *
+     * @param accountId       идентификатор счёта
+     * @param beforeCreatedAt время создания последней строки предыдущей страницы или {@code null}
+     * @param beforeId        идентификатор последней строки предыдущей страницы или {@code null}
+     * @param limit           максимальное число строк
+     * @return переводы страницы
+     */
+    @Override
+    public List<Transaction> findPageByAccountId(Long accountId, LocalDateTime beforeCreatedAt, Long beforeId,
+                                                 int limit) {
+        if (beforeCreatedAt == null || beforeId == null) {
+            return jdbcTemplate.query(
+                    "SELECT * FROM ("
+                            + "(SELECT * FROM transactions WHERE from_account_id = ?"
+                            + " ORDER BY created_at DESC, id DESC LIMIT ?)"
+                            + " UNION ALL "
+                            + "(SELECT * FROM transactions WHERE to_account_id = ?"
+                            + " ORDER BY created_at DESC, id DESC LIMIT ?)"
+                            + ") t ORDER BY created_at DESC, id DESC LIMIT ?",
+                    rowMapper,
+                    accountId, limit, accountId, limit, limit
+            );
+        }
+        return jdbcTemplate.query(
+                "SELECT * FROM ("
+                        + "(SELECT * FROM transactions WHERE from_account_id = ? AND created_at <= ?"
+                        + " AND (created_at, id) < (?, ?)"
+                        + " ORDER BY created_at DESC, id DESC LIMIT ?)"
+                        + " UNION ALL "
+                        + "(SELECT * FROM transactions WHERE to_account_id = ? AND created_at <= ?"
+                        + " AND (created_at, id) < (?, ?)"
+                        + " ORDER BY created_at DESC, id DESC LIMIT ?)"
+                        + ") t ORDER BY created_at DESC, id DESC LIMIT ?",
+                rowMapper,
+                accountId, beforeCreatedAt, beforeCreatedAt, beforeId, limit,
+                accountId, beforeCreatedAt, beforeCreatedAt, beforeId, limit,
+                limit
+        );
+    }
+
+    /**
+     * Передаёт переводы по счёту обработчику по одной строке.
+     * <p>Исходящие и входящие переводы объединяются {@code UNION ALL}; при индексах
+     * {@code (from_account_id, created_at, id)} и {@code (to_account_id, created_at, id)} БД
+     * сливает два упорядоченных прохода по индексам без сортировки всей истории. Границы
+     * по {@code created_at} отсекают секции вне диапазона. Строки обрабатываются
+     * {@link RowCallbackHandler} и не накапливаются в списке.</p>
+     *
+     * @param accountId идентификатор счёта
+     * @param from      начало диапазона включительно или {@code null}
+     * @param to        конец диапазона не включительно или {@code null}
+     * @param fetchSize число строк, получаемых от БД за одно обращение
+     * @param consumer  обработчик строк
+     */
+    @Override
+    public void streamByAccountId(Long accountId, LocalDateTime from, LocalDateTime to, int fetchSize,
+                                  Consumer<Transaction> consumer) {
+        String bounds = (from != null ? " AND created_at >= ?" : "") + (to != null ? " AND created_at < ?" : "");
+        String sql = "SELECT * FROM transactions WHERE from_account_id = ?" + bounds
+                + " UNION ALL "
+                + "SELECT * FROM transactions WHERE to_account_id = ?" + bounds
+                + " ORDER BY created_at, id";
+        jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(sql);
+                    ps.setFetchSize(fetchSize);
+                    int index = 1;
+                    for (int part = 0; part < 2; part++) {
+                        ps.setLong(index++, accountId);
+                        if (from != null) {
+                            ps.setTimestamp(index++, Timestamp.valueOf(from));
+                        }
+                        if (to != null) {
+                            ps.setTimestamp(index++, Timestamp.valueOf(to));
+                        }
+                    }
+                    return ps;
+                },
+                (RowCallbackHandler) rs -> consumer.accept(rowMapper.mapRow(rs, rs.getRow()))
+        );
+    }
+
     /**
      * Удаляет все транзакции из таблицы.
      * Используется в тестовой или отладочной среде.
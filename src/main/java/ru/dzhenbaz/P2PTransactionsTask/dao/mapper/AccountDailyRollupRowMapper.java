@@ -0,0 +1,28 @@
+package ru.dzhenbaz.P2PTransactionsTask.dao.mapper;
+
+import org.springframework.jdbc.core.RowMapper;
+import ru.dzhenbaz.P2PTransactionsTask.model.AccountDailyRollup;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * {@link RowMapper} для преобразования строки из таблицы {@code account_daily_rollup}
+ * в объект {@link AccountDailyRollup}.
+ *
+ * @author Dzhenbaz
+ */
+public class AccountDailyRollupRowMapper implements RowMapper<AccountDailyRollup> {
+
+    @Override
+    public AccountDailyRollup mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new AccountDailyRollup(
+                rs.getLong("account_id"),
+                rs.getDate("rollup_date").toLocalDate(),
+                rs.getLong("sent_count"),
+                rs.getLong("sent_amount"),
+                rs.getLong("received_count"),
+                rs.getLong("received_amount")
+        );
+    }
+}
@@ -0,0 +1,32 @@
+package ru.dzhenbaz.P2PTransactionsTask.dao.mapper;
+
+import org.springframework.jdbc.core.RowMapper;
+import ru.dzhenbaz.P2PTransactionsTask.model.ArchivedSegment;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+
+/**
+ * {@link RowMapper} для преобразования строки из таблицы {@code archive_segments}
+ * в объект {@link ArchivedSegment}.
+ *
+ * @author Dzhenbaz
+ */
+public class ArchivedSegmentRowMapper implements RowMapper<ArchivedSegment> {
+
+    @Override
+    public ArchivedSegment mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        return new ArchivedSegment(
+                YearMonth.parse(rs.getString("archive_month")),
+                rs.getString("file_name"),
+                rs.getLong("row_count"),
+                rs.getLong("amount_sum"),
+                rs.getLong("checksum"),
+                ArchivedSegment.Status.valueOf(rs.getString("status")),
+                updatedAt != null ? updatedAt.toLocalDateTime() : null
+        );
+    }
+}
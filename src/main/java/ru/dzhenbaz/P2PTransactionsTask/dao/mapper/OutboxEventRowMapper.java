@@ -0,0 +1,27 @@
+package ru.dzhenbaz.P2PTransactionsTask.dao.mapper;
+
+import org.springframework.jdbc.core.RowMapper;
+import ru.dzhenbaz.P2PTransactionsTask.model.OutboxEvent;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * {@link RowMapper} для преобразования строки из таблицы {@code transfer_outbox}
+ * в объект {@link OutboxEvent}.
+ *
+ * @author Dzhenbaz
+ */
+public class OutboxEventRowMapper implements RowMapper<OutboxEvent> {
+
+    @Override
+    public OutboxEvent mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new OutboxEvent(
+                rs.getLong("seq"),
+                rs.getLong("from_account_id"),
+                rs.getLong("to_account_id"),
+                rs.getLong("amount"),
+                rs.getTimestamp("created_at").toLocalDateTime()
+        );
+    }
+}
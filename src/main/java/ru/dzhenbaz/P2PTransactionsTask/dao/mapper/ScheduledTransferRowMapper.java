@@ -0,0 +1,34 @@
+package ru.dzhenbaz.P2PTransactionsTask.dao.mapper;
+
+import org.springframework.jdbc.core.RowMapper;
+import ru.dzhenbaz.P2PTransactionsTask.dto.Recurrence;
+import ru.dzhenbaz.P2PTransactionsTask.model.ScheduledTransfer;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * {@link RowMapper} для преобразования строки из таблицы {@code scheduled_transfers}
+ * в объект {@link ScheduledTransfer}.
+ *
+ * @author Dzhenbaz
+ */
+public class ScheduledTransferRowMapper implements RowMapper<ScheduledTransfer> {
+    @Override
+    public ScheduledTransfer mapRow(ResultSet rs, int rowNum) throws SQLException {
+        ScheduledTransfer transfer = new ScheduledTransfer();
+        transfer.setId(rs.getLong("id"));
+        transfer.setUserId(rs.getLong("user_id"));
+        transfer.setFromAccountId(rs.getLong("from_account_id"));
+        transfer.setToAccountId(rs.getLong("to_account_id"));
+        transfer.setAmount(rs.getLong("amount"));
+        transfer.setRecurrence(Recurrence.valueOf(rs.getString("recurrence")));
+        transfer.setFirstRunAt(rs.getTimestamp("first_run_at").toLocalDateTime());
+        transfer.setNextRunAt(rs.getTimestamp("next_run_at").toLocalDateTime());
+        transfer.setRunCount(rs.getInt("run_count"));
+        transfer.setActive(rs.getBoolean("active"));
+        transfer.setLastError(rs.getString("last_error"));
+        transfer.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        return transfer;
+    }
+}
@@ -0,0 +1,59 @@
+package ru.dzhenbaz.P2PTransactionsTask.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO с итогами переводов по счёту за период.
+ *
+ * <p><b>Примечание:</b> суммы передаются в копейках.</p>
+ *
+ * @author Dzhenbaz
+ */
+@Getter
+@AllArgsConstructor
+public class AccountRollupResponse {
+
+    /**
+     * Идентификатор счёта.
+     */
+    private Long accountId;
+
+    /**
+     * Первый день периода включительно.
+     */
+    private LocalDate from;
+
+    /**
+     * Последний день периода включительно.
+     */
+    private LocalDate to;
+
+    /**
+     * Итоги по дням в порядке возрастания даты; дни без переводов пропускаются.
+     */
+    private List<DailyRollupResponse> days;
+
+    /**
+     * Число исходящих переводов за период.
+     */
+    private long sentCount;
+
+    /**
+     * Сумма исходящих переводов за период.
+     */
+    private long sentAmount;
+
+    /**
+     * Число входящих переводов за период.
+     */
+    private long receivedCount;
+
+    /**
+     * Сумма входящих переводов за период.
+     */
+    private long receivedAmount;
+}
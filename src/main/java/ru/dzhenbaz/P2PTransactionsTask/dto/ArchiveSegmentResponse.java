@@ -0,0 +1,47 @@
+package ru.dzhenbaz.P2PTransactionsTask.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.dzhenbaz.P2PTransactionsTask.model.ArchivedSegment;
+
+/**
+ * DTO с состоянием месяца в архиве переводов.
+ *
+ * <p><b>Примечание:</b> сумма передаётся в копейках.</p>
+ *
+ * @author Dzhenbaz
+ */
+@Getter
+@AllArgsConstructor
+public class ArchiveSegmentResponse {
+
+    /**
+     * Месяц в формате {@code yyyy-MM}.
+     */
+    private String month;
+
+    /**
+     * Состояние месяца в архиве.
+     */
+    private ArchivedSegment.Status status;
+
+    /**
+     * Число переводов в сегменте.
+     */
+    private long rowCount;
+
+    /**
+     * Сумма переводов.
+     */
+    private long amountSum;
+
+    /**
+     * Контрольная сумма CRC32 файла сегмента.
+     */
+    private long checksum;
+
+    /**
+     * Результат проверки файла или {@code null}, если проверка не выполнялась.
+     */
+    private Boolean valid;
+}
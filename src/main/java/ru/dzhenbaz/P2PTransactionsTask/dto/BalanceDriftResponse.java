@@ -0,0 +1,36 @@
+package ru.dzhenbaz.P2PTransactionsTask.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * DTO с расхождением баланса счёта и истории его переводов.
+ *
+ * <p><b>Примечание:</b> суммы передаются в копейках.</p>
+ *
+ * @author Dzhenbaz
+ */
+@Getter
+@AllArgsConstructor
+public class BalanceDriftResponse {
+
+    /**
+     * Идентификатор счёта.
+     */
+    private Long accountId;
+
+    /**
+     * Баланс, рассчитанный по начальному балансу и переводам.
+     */
+    private long expectedBalance;
+
+    /**
+     * Сохранённый баланс, включая слоты.
+     */
+    private long actualBalance;
+
+    /**
+     * Разница {@code actualBalance - expectedBalance}.
+     */
+    private long drift;
+}
@@ -0,0 +1,33 @@
+package ru.dzhenbaz.P2PTransactionsTask.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * DTO с состоянием разделения баланса счёта на слоты.
+ *
+ * <p><b>Примечание:</b> суммы передаются в копейках.</p>
+ *
+ * @author Dzhenbaz
+ */
+@Getter
+@AllArgsConstructor
+public class BalanceSlotsResponse {
+
+    /**
+     * Идентификатор счёта.
+     */
+    private Long accountId;
+
+    /**
+     * Суммарный баланс счёта: основная строка и все слоты.
+     */
+    private Long balance;
+
+    /**
+     * Балансы слотов в порядке номеров; пустой список, если разделение отключено.
+     */
+    private List<Long> slots;
+}
@@ -0,0 +1,29 @@
+package ru.dzhenbaz.P2PTransactionsTask.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Режим исполнения пакета переводов.
+ *
+ * @author Dzhenbaz
+ */
+@Schema(description = "Режим исполнения пакета переводов")
+public enum BatchMode {
+
+    /**
+     * Пакет исполняется только целиком: при ошибке хотя бы в одном переводе не выполняется ни один.
+     */
+    ALL_OR_NOTHING,
+
+    /**
+     * Исполняются все корректные переводы, ошибочные отклоняются.
+     */
+    BEST_EFFORT,
+
+    /**
+     * Многосторонний неттинг: пакет исполняется только целиком, достаточность средств проверяется
+     * по чистой позиции каждого счёта после всех переводов пакета, а баланс каждого затронутого
+     * счёта изменяется одной записью. Каждый перевод сохраняется в истории отдельно.
+     */
+    NETTING
+}
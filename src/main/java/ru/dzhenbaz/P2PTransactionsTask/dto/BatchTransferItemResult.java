@@ -0,0 +1,39 @@
+package ru.dzhenbaz.P2PTransactionsTask.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Результат обработки одного перевода из пакета.
+ *
+ * @author Dzhenbaz
+ */
+@Getter
+@AllArgsConstructor
+@Schema(description = "Результат перевода из пакета")
+public class BatchTransferItemResult {
+
+    /**
+     * Статус перевода в пакете.
+     */
+    public enum Status {
+        /** Перевод выполнен. */
+        COMPLETED,
+        /** Перевод прошёл проверку, пакет не подтверждён. */
+        VALIDATED,
+        /** Перевод корректен, но не выполнен, так как пакет отклонён целиком. */
+        SKIPPED,
+        /** Перевод отклонён. */
+        REJECTED
+    }
+
+    @Schema(description = "Порядковый номер перевода в пакете (с нуля)", example = "0")
+    private int index;
+
+    @Schema(description = "Статус перевода", example = "COMPLETED")
+    private Status status;
+
+    @Schema(description = "Причина отклонения", example = "Недостаточно средств")
+    private String message;
+}
@@ -0,0 +1,49 @@
+package ru.dzhenbaz.P2PTransactionsTask.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO-запрос на пакетный перевод средств.
+ * <p>
+ * Содержит список переводов, режим исполнения пакета и флаг подтверждения.
+ * Флаг {@code confirm} отдельных переводов в пакете не учитывается:
+ * подтверждается пакет целиком.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Запрос на пакетный перевод средств")
+public class BatchTransferRequest {
+
+    /**
+     * Переводы пакета. Порядок важен: переводы проверяются последовательно
+     * с учётом балансов, изменённых предыдущими переводами пакета.
+     */
+    @Schema(description = "Список переводов", required = true)
+    @NotEmpty(message = "Пакет не может быть пустым")
+    private List<@Valid @NotNull TransferRequest> transfers;
+
+    /**
+     * Режим исполнения пакета.
+     */
+    @Schema(description = "Режим исполнения пакета", example = "ALL_OR_NOTHING")
+    private BatchMode mode = BatchMode.ALL_OR_NOTHING;
+
+    /**
+     * Флаг подтверждения пакета.
+     * {@code false} — пакет только проверяется, {@code true} — исполняется.
+     */
+    @Schema(description = "Флаг подтверждения пакета", example = "false")
+    private boolean confirm;
+}
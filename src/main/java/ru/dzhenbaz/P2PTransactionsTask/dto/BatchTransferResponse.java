@@ -0,0 +1,30 @@
+package ru.dzhenbaz.P2PTransactionsTask.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * DTO-ответ на пакетный перевод с результатами по каждому переводу.
+ *
+ * @author Dzhenbaz
+ */
+@Getter
+@AllArgsConstructor
+@Schema(description = "Результат пакетного перевода")
+public class BatchTransferResponse {
+
+    @Schema(description = "Были ли изменения записаны в БД", example = "true")
+    private boolean applied;
+
+    @Schema(description = "Число выполненных переводов", example = "2")
+    private int completed;
+
+    @Schema(description = "Число отклонённых переводов", example = "0")
+    private int rejected;
+
+    @Schema(description = "Результаты по переводам в порядке запроса")
+    private List<BatchTransferItemResult> results;
+}
@@ -0,0 +1,43 @@
+package ru.dzhenbaz.P2PTransactionsTask.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * DTO с итогами переводов по счёту за один день.
+ *
+ * <p><b>Примечание:</b> суммы передаются в копейках.</p>
+ *
+ * @author Dzhenbaz
+ */
+@Getter
+@AllArgsConstructor
+public class DailyRollupResponse {
+
+    /**
+     * День.
+     */
+    private LocalDate date;
+
+    /**
+     * Число исходящих переводов.
+     */
+    private long sentCount;
+
+    /**
+     * Сумма исходящих переводов.
+     */
+    private long sentAmount;
+
+    /**
+     * Число входящих переводов.
+     */
+    private long receivedCount;
+
+    /**
+     * Сумма входящих переводов.
+     */
+    private long receivedAmount;
+}
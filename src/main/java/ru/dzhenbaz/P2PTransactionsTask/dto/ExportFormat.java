@@ -0,0 +1,44 @@
+package ru.dzhenbaz.P2PTransactionsTask.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Формат выгрузки истории переводов.
+ *
+ * @author Dzhenbaz
+ */
+@Schema(description = "Формат выгрузки истории переводов")
+public enum ExportFormat {
+
+    /**
+     * JSON-объект на строку ({@code application/x-ndjson}).
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+
+    /**
+     * CSV с заголовком ({@code text/csv}).
+     */
+    CSV("text/csv", "csv");
+
+    private final String mediaType;
+    private final String extension;
+
+    ExportFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    /**
+     * @return тип содержимого выгрузки без сжатия
+     */
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * @return расширение файла выгрузки без сжатия
+     */
+    public String getExtension() {
+        return extension;
+    }
+}
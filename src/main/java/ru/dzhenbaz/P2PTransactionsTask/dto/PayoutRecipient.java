@@ -0,0 +1,35 @@
+package ru.dzhenbaz.P2PTransactionsTask.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Получатель массовой выплаты.
+ *
+ * @author Dzhenbaz
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Получатель выплаты")
+public class PayoutRecipient {
+
+    /**
+     * Идентификатор счёта-получателя.
+     */
+    @Schema(description = "ID счёта получателя", example = "2", required = true)
+    @NotNull(message = "Необходимо указать id счета-получателя")
+    private Long toAccountId;
+
+    /**
+     * Сумма выплаты (в копейках).
+     */
+    @Schema(description = "Сумма выплаты в копейках", example = "10000", required = true)
+    @NotNull(message = "Необходимо указать сумму перевода")
+    @Min(value = 1, message = "Сумма должна быть положительной")
+    private Long amount;
+}
@@ -0,0 +1,37 @@
+package ru.dzhenbaz.P2PTransactionsTask.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO-запрос на массовую выплату с одного счёта многим получателям.
+ *
+ * @author Dzhenbaz
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Запрос на массовую выплату")
+public class PayoutRequest {
+
+    /**
+     * Идентификатор счёта, с которого производится выплата.
+     */
+    @Schema(description = "ID счёта, с которого производится выплата", example = "1", required = true)
+    @NotNull(message = "Необходимо указать id счета-отправителя")
+    private Long fromAccountId;
+
+    /**
+     * Получатели выплаты.
+     */
+    @Schema(description = "Список получателей", required = true)
+    @NotEmpty(message = "Список получателей не может быть пустым")
+    private List<@Valid @NotNull PayoutRecipient> recipients;
+}
@@ -0,0 +1,31 @@
+package ru.dzhenbaz.P2PTransactionsTask.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Итог массовой выплаты. Передаётся последней строкой потока результатов.
+ *
+ * @author Dzhenbaz
+ */
+@Getter
+@AllArgsConstructor
+@Schema(description = "Итог массовой выплаты")
+public class PayoutResponse {
+
+    @Schema(description = "Были ли изменения записаны в БД", example = "true")
+    private boolean applied;
+
+    @Schema(description = "Число выполненных выплат", example = "998")
+    private int completed;
+
+    @Schema(description = "Число отклонённых выплат", example = "2")
+    private int rejected;
+
+    @Schema(description = "Списанная со счёта сумма в копейках", example = "9980000")
+    private long debited;
+
+    @Schema(description = "Причина отказа, если выплата не записана", example = "Недостаточно средств")
+    private String message;
+}
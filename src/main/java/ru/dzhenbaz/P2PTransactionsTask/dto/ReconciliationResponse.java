@@ -0,0 +1,52 @@
+package ru.dzhenbaz.P2PTransactionsTask.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO с результатом сверки балансов счетов с историей переводов.
+ *
+ * @author Dzhenbaz
+ */
+@Getter
+@AllArgsConstructor
+public class ReconciliationResponse {
+
+    /**
+     * Время начала сверки.
+     */
+    private LocalDateTime startedAt;
+
+    /**
+     * Время окончания сверки.
+     */
+    private LocalDateTime finishedAt;
+
+    /**
+     * Число проверенных счетов.
+     */
+    private long accountsChecked;
+
+    /**
+     * Число прочитанных записей о переводах (каждый перевод читается дважды: как списание и как зачисление).
+     */
+    private long transfersScanned;
+
+    /**
+     * Число счетов с расхождением.
+     */
+    private long driftCount;
+
+    /**
+     * Диапазоны счетов, которые не удалось проверить.
+     */
+    private long failedRanges;
+
+    /**
+     * Первые найденные расхождения в порядке идентификаторов счетов.
+     */
+    private List<BalanceDriftResponse> drifts;
+}
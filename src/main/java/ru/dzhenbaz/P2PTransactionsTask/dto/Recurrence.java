@@ -0,0 +1,52 @@
+package ru.dzhenbaz.P2PTransactionsTask.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+/**
+ * Периодичность запланированного перевода.
+ *
+ * @author Dzhenbaz
+ */
+@Schema(description = "Периодичность запланированного перевода")
+public enum Recurrence {
+
+    /**
+     * Однократный перевод.
+     */
+    NONE,
+
+    /**
+     * Ежедневный перевод.
+     */
+    DAILY,
+
+    /**
+     * Еженедельный перевод.
+     */
+    WEEKLY,
+
+    /**
+     * Ежемесячный перевод. Для дат после 28-го числа в коротких месяцах
+     * используется последний день месяца.
+     */
+    MONTHLY;
+
+    /**
+     * Вычисляет момент запуска с номером {@code run}, отсчитывая от первого запуска,
+     * чтобы сдвиги в коротких месяцах не накапливались.
+     *
+     * @param firstRunAt момент первого запуска
+     * @param run        номер запуска, начиная с 0
+     * @return момент запуска или {@code null} для однократного перевода при {@code run > 0}
+     */
+    public LocalDateTime runAt(LocalDateTime firstRunAt, int run) {
+        return switch (this) {
+            case NONE -> run == 0 ? firstRunAt : null;
+            case DAILY -> firstRunAt.plusDays(run);
+            case WEEKLY -> firstRunAt.plusWeeks(run);
+            case MONTHLY -> firstRunAt.plusMonths(run);
+        };
+    }
+}
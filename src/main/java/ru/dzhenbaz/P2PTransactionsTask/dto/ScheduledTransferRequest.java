@@ -0,0 +1,57 @@
+package ru.dzhenbaz.P2PTransactionsTask.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO-запрос на создание запланированного перевода.
+ *
+ * @author Dzhenbaz
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Запрос на создание отложенного или регулярного перевода")
+public class ScheduledTransferRequest {
+
+    /**
+     * Идентификатор счёта-отправителя.
+     */
+    @Schema(description = "ID счёта, с которого осуществляется перевод", example = "1", required = true)
+    @NotNull(message = "Необходимо указать id счета-отправителя")
+    private Long fromAccountId;
+
+    /**
+     * Идентификатор счёта-получателя.
+     */
+    @Schema(description = "ID счёта, на который осуществляется перевод", example = "2", required = true)
+    @NotNull(message = "Необходимо указать id счета-получателя")
+    private Long toAccountId;
+
+    /**
+     * Сумма перевода (в копейках).
+     */
+    @NotNull(message = "Необходимо указать сумму перевода")
+    @Min(value = 1, message = "Сумма должна быть положительной")
+    @Schema(description = "Сумма перевода в копейках", example = "10000", required = true)
+    private Long amount;
+
+    /**
+     * Момент первого исполнения.
+     */
+    @NotNull(message = "Необходимо указать время перевода")
+    @Schema(description = "Дата и время первого исполнения", example = "2030-01-01T10:00:00", required = true)
+    private LocalDateTime runAt;
+
+    /**
+     * Периодичность перевода.
+     */
+    @Schema(description = "Периодичность перевода", example = "MONTHLY")
+    private Recurrence recurrence = Recurrence.NONE;
+}
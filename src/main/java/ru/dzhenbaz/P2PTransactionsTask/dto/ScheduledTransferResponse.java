@@ -0,0 +1,63 @@
+package ru.dzhenbaz.P2PTransactionsTask.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO с информацией о запланированном переводе.
+ *
+ * <p><b>Примечание:</b> сумма передаётся в копейках.</p>
+ *
+ * @author Dzhenbaz
+ */
+@Getter
+@AllArgsConstructor
+public class ScheduledTransferResponse {
+
+    /**
+     * Идентификатор запланированного перевода.
+     */
+    private Long id;
+
+    /**
+     * Идентификатор счёта-источника.
+     */
+    private Long fromAccountId;
+
+    /**
+     * Идентификатор счёта-получателя.
+     */
+    private Long toAccountId;
+
+    /**
+     * Сумма перевода в копейках.
+     */
+    private Long amount;
+
+    /**
+     * Периодичность перевода.
+     */
+    private Recurrence recurrence;
+
+    /**
+     * Момент ближайшего исполнения.
+     */
+    private LocalDateTime nextRunAt;
+
+    /**
+     * Число обработанных запусков.
+     */
+    private int runCount;
+
+    /**
+     * Флаг активности.
+     */
+    private boolean active;
+
+    /**
+     * Причина отказа последнего запуска или {@code null}.
+     */
+    private String lastError;
+}
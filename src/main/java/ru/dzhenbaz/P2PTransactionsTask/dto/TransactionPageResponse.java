@@ -0,0 +1,26 @@
+package ru.dzhenbaz.P2PTransactionsTask.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Страница истории переводов по счёту.
+ *
+ * @author Dzhenbaz
+ */
+@Getter
+@AllArgsConstructor
+public class TransactionPageResponse {
+
+    /**
+     * Переводы страницы, от новых к старым.
+     */
+    private List<TransactionResponse> items;
+
+    /**
+     * Курсор следующей страницы или {@code null}, если страница последняя.
+     */
+    private String nextCursor;
+}
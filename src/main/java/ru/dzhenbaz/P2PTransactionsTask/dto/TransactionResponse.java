@@ -0,0 +1,43 @@
+package ru.dzhenbaz.P2PTransactionsTask.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO с информацией о проведённом переводе.
+ *
+ * <p><b>Примечание:</b> сумма передаётся в копейках.</p>
+ *
+ * @author Dzhenbaz
+ */
+@Getter
+@AllArgsConstructor
+public class TransactionResponse {
+
+    /**
+     * Идентификатор перевода.
+     */
+    private Long id;
+
+    /**
+     * Идентификатор счёта-источника.
+     */
+    private Long fromAccountId;
+
+    /**
+     * Идентификатор счёта-получателя.
+     */
+    private Long toAccountId;
+
+    /**
+     * Сумма перевода в копейках.
+     */
+    private Long amount;
+
+    /**
+     * Момент проведения перевода.
+     */
+    private LocalDateTime createdAt;
+}
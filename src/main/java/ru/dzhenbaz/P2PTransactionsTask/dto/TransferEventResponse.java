@@ -0,0 +1,38 @@
+package ru.dzhenbaz.P2PTransactionsTask.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO события о проведённом переводе, передаваемого подписчикам счёта.
+ *
+ * <p><b>Примечание:</b> сумма передаётся в копейках.</p>
+ *
+ * @author Dzhenbaz
+ */
+@Getter
+@AllArgsConstructor
+public class TransferEventResponse {
+
+    /**
+     * Идентификатор счёта-источника.
+     */
+    private Long fromAccountId;
+
+    /**
+     * Идентификатор счёта-получателя.
+     */
+    private Long toAccountId;
+
+    /**
+     * Сумма перевода.
+     */
+    private Long amount;
+
+    /**
+     * Время проведения перевода.
+     */
+    private LocalDateTime createdAt;
+}
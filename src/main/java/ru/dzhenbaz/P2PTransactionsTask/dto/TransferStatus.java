@@ -0,0 +1,24 @@
+package ru.dzhenbaz.P2PTransactionsTask.dto;
+
+/**
+ * Состояние асинхронно поданного перевода.
+ *
+ * @author Dzhenbaz
+ */
+public enum TransferStatus {
+
+    /**
+     * Перевод принят и ожидает исполнения или исполняется.
+     */
+    PENDING,
+
+    /**
+     * Перевод выполнен.
+     */
+    COMPLETED,
+
+    /**
+     * Перевод отклонён или завершился ошибкой.
+     */
+    FAILED
+}
@@ -0,0 +1,34 @@
+package ru.dzhenbaz.P2PTransactionsTask.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * DTO с состоянием асинхронно поданного перевода.
+ *
+ * @author Dzhenbaz
+ */
+@Getter
+@AllArgsConstructor
+@Schema(description = "Состояние асинхронного перевода")
+public class TransferStatusResponse {
+
+    /**
+     * Идентификатор асинхронного перевода.
+     */
+    @Schema(description = "Идентификатор асинхронного перевода", example = "3f0c8a52-6c1e-4a8e-9f59-0e4a7c1d2b11")
+    private String id;
+
+    /**
+     * Текущее состояние перевода.
+     */
+    @Schema(description = "Состояние перевода", example = "PENDING")
+    private TransferStatus status;
+
+    /**
+     * Результат перевода или причина отказа; {@code null}, пока перевод не завершён.
+     */
+    @Schema(description = "Результат перевода или причина отказа", example = "Перевод выполнен")
+    private String message;
+}
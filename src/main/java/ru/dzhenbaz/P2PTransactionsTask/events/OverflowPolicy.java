@@ -0,0 +1,22 @@
+package ru.dzhenbaz.P2PTransactionsTask.events;
+
+/**
+ * Поведение {@link TransferEventHub} при переполнении буфера подписчика,
+ * который не успевает принимать события.
+ *
+ * @author Dzhenbaz
+ */
+public enum OverflowPolicy {
+
+    /**
+     * Отбросить самое старое событие буфера. Перед следующим событием подписчик получает
+     * событие {@code reset}: часть переводов пропущена, историю нужно перечитать.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Закрыть поток подписчика. Клиент переподключается с {@code Last-Event-ID}
+     * и получает пропущенные события из истории счёта.
+     */
+    DISCONNECT
+}
@@ -0,0 +1,424 @@
+package ru.dzhenbaz.P2PTransactionsTask.events;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.dzhenbaz.P2PTransactionsTask.dto.TransferEventResponse;
+import ru.dzhenbaz.P2PTransactionsTask.exception.ServiceUnavailableException;
+import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Внутрипроцессная рассылка событий о проведённых переводах подписчикам счетов по Server-Sent Events.
+ * <p>
+ * Подписчик — открытый {@link SseEmitter}: запрос переведён в асинхронный режим и не занимает поток,
+ * пока событий нет. События доставляются небольшим общим пулом отправителей; у каждого подписчика
+ * свой ограниченный буфер, и публикация никогда не ждёт медленного клиента. При переполнении
+ * буфера действует {@link OverflowPolicy}.
+ * </p>
+ *
+ * <p>По каждому счёту с подписчиками хранится ограниченная история последних событий. Идентификатор
+ * события имеет вид {@code <эпоха>-<номер>}: номер растёт монотонно в пределах экземпляра приложения,
+ * эпоха меняется при перезапуске. Клиент, переподключившийся с заголовком {@code Last-Event-ID},
+ * получает пропущенные события из истории; если они уже вытеснены или эпоха другая, первым
+ * приходит событие {@code reset}, и историю переводов нужно перечитать через
+ * {@code GET /accounts/{accountId}/transactions}. История счёта без подписчиков удаляется через
+ * {@code historyTtl}.</p>
+ *
+ * <p>Рассылка локальна: подписчик получает только переводы, проведённые этим экземпляром приложения.</p>
+ *
+ * <p>Метрики: {@code transfer.events.subscribers} — число подписчиков,
+ * {@code transfer.events.overflows} — переполнения буферов подписчиков.</p>
+ *
+ * @author Dzhenbaz
+ */
+@Slf4j
+public class TransferEventHub implements AutoCloseable {
+
+    private static final String TRANSFER_EVENT = "transfer";
+    private static final String RESET_EVENT = "reset";
+    private static final String RESET_MESSAGE = "Часть событий пропущена, запросите историю переводов";
+
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentHashMap<Long, Channel> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final int bufferSize;
+    private final int replaySize;
+    private final int maxSubscribers;
+    private final OverflowPolicy overflowPolicy;
+    private final long historyTtlNanos;
+    private final long timeoutMillis;
+    private final ExecutorService sender;
+    private final Counter overflows;
+
+    /**
+     * Событие с номером, присвоенным при публикации.
+     */
+    private record Event(long seq, TransferEventResponse payload) {
+    }
+
+    /**
+     * Конструктор.
+     *
+     * @param bufferSize     ёмкость буфера подписчика
+     * @param replaySize     число последних событий счёта, доступных при переподключении
+     * @param maxSubscribers максимальное число одновременных подписчиков
+     * @param overflowPolicy поведение при переполнении буфера подписчика
+     * @param historyTtl     время хранения истории счёта после ухода последнего подписчика
+     * @param timeout        максимальная длительность одного подключения
+     * @param senderThreads  число потоков-отправителей
+     * @param meterRegistry  реестр метрик
+     */
+    public TransferEventHub(int bufferSize, int replaySize, int maxSubscribers, OverflowPolicy overflowPolicy,
+                            Duration historyTtl, Duration timeout, int senderThreads,
+                            MeterRegistry meterRegistry) {
+        this.bufferSize = Math.max(1, bufferSize);
+        this.replaySize = Math.max(0, replaySize);
+        this.maxSubscribers = maxSubscribers;
+        this.overflowPolicy = overflowPolicy;
+        this.historyTtlNanos = historyTtl.toNanos();
+        this.timeoutMillis = timeout.toMillis();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(Math.max(1, senderThreads), runnable -> {
+            Thread thread = new Thread(runnable, "transfer-events-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.overflows = Counter.builder("transfer.events.overflows")
+                .description("Переполнения буферов подписчиков на события переводов")
+                .tag("policy", overflowPolicy.name())
+                .register(meterRegistry);
+        Gauge.builder("transfer.events.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Число подписчиков на события переводов")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Подписывает клиента на события счёта. Доступ к счёту должен быть проверен вызывающим кодом.
+     *
+     * @param accountId   идентификатор счёта
+     * @param lastEventId значение заголовка {@code Last-Event-ID} или {@code null} для новой подписки
+     * @return поток событий
+     * @throws ServiceUnavailableException если достигнуто максимальное число подписчиков
+     */
+    public SseEmitter subscribe(Long accountId, String lastEventId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ServiceUnavailableException("Слишком много подписок на события, повторите позже");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(accountId, emitter);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        emitter.onTimeout(emitter::complete);
+
+        long resumeAfter = parseLastEventId(lastEventId);
+        while (true) {
+            Channel channel = channels.computeIfAbsent(accountId, id -> new Channel(id, sequence.get()));
+            synchronized (channel) {
+                if (channel.removed) {
+                    continue;
+                }
+                if (lastEventId != null) {
+                    if (resumeAfter < channel.floor) {
+                        subscriber.offerReset();
+                    }
+                    for (Event event : channel.history) {
+                        if (event.seq() > resumeAfter) {
+                            subscriber.offer(event);
+                        }
+                    }
+                }
+                channel.subscribers.add(subscriber);
+                channel.lastActivity = System.nanoTime();
+            }
+            return emitter;
+        }
+    }
+
+    /**
+     * Публикует проведённые переводы подписчикам счетов-источников и счетов-получателей.
+     * Не блокируется на подписчиках; для счетов без подписчиков почти ничего не стоит.
+     *
+     * @param txs проведённые переводы
+     */
+    public void publish(List<Transaction> txs) {
+        for (Transaction tx : txs) {
+            TransferEventResponse payload = new TransferEventResponse(tx.getFromAccountId(), tx.getToAccountId(),
+                    tx.getAmount(), tx.getCreatedAt());
+            publish(tx.getFromAccountId(), payload);
+            if (!tx.getToAccountId().equals(tx.getFromAccountId())) {
+                publish(tx.getToAccountId(), payload);
+            }
+        }
+    }
+
+    private void publish(Long accountId, TransferEventResponse payload) {
+        Channel channel = channels.get(accountId);
+        if (channel == null) {
+            return;
+        }
+        synchronized (channel) {
+            if (channel.removed) {
+                return;
+            }
+            Event event = new Event(sequence.incrementAndGet(), payload);
+            if (replaySize > 0) {
+                channel.history.addLast(event);
+                if (channel.history.size() > replaySize) {
+                    channel.floor = channel.history.removeFirst().seq();
+                }
+            } else {
+                channel.floor = event.seq();
+            }
+            for (Subscriber subscriber : channel.subscribers) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    /**
+     * Отправляет подписчикам комментарий-пульс, чтобы прокси не закрывали простаивающие
+     * соединения, а разорванные обнаруживались, и удаляет устаревшую историю счетов без подписчиков.
+     */
+    @Scheduled(fixedDelayString = "${transfer.events.heartbeat-interval:15s}")
+    public void maintain() {
+        long now = System.nanoTime();
+        for (Channel channel : channels.values()) {
+            synchronized (channel) {
+                if (channel.subscribers.isEmpty()) {
+                    if (now - channel.lastActivity > historyTtlNanos) {
+                        channel.removed = true;
+                        channels.remove(channel.accountId, channel);
+                    }
+                    continue;
+                }
+                for (Subscriber subscriber : channel.subscribers) {
+                    subscriber.requestHeartbeat();
+                }
+            }
+        }
+    }
+
+    /**
+     * Возвращает текущее число подписчиков.
+     *
+     * @return число подписчиков
+     */
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    /**
+     * Закрывает потоки всех подписчиков и останавливает отправителей.
+     */
+    @Override
+    public void close() {
+        sender.shutdownNow();
+        for (Channel channel : channels.values()) {
+            List<Subscriber> subscribers;
+            synchronized (channel) {
+                subscribers = new ArrayList<>(channel.subscribers);
+            }
+            subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscriber.markUnsubscribed()) {
+            return;
+        }
+        subscriberCount.decrementAndGet();
+        Channel channel = channels.get(subscriber.accountId);
+        if (channel != null) {
+            synchronized (channel) {
+                channel.subscribers.remove(subscriber);
+                channel.lastActivity = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * Разбирает {@code Last-Event-ID}. Идентификатор чужой эпохи или некорректный
+     * считается предшествующим всей истории.
+     *
+     * @param lastEventId значение заголовка
+     * @return номер последнего полученного события
+     */
+    private long parseLastEventId(String lastEventId) {
+        if (lastEventId == null) {
+            return 0;
+        }
+        int separator = lastEventId.indexOf('-');
+        try {
+            if (separator > 0 && Long.parseLong(lastEventId.substring(0, separator)) == epoch) {
+                return Long.parseLong(lastEventId.substring(separator + 1));
+            }
+        } catch (NumberFormatException e) {
+            log.debug("Malformed Last-Event-ID: {}", lastEventId);
+        }
+        return -1;
+    }
+
+    private String eventId(Event event) {
+        return epoch + "-" + event.seq();
+    }
+
+    /**
+     * Подписчики и последние события одного счёта. Все поля защищены монитором канала.
+     */
+    private static final class Channel {
+
+        private final Long accountId;
+        private final ArrayDeque<Event> history = new ArrayDeque<>();
+        private final List<Subscriber> subscribers = new ArrayList<>();
+
+        /**
+         * Номер, до которого включительно события счёта неизвестны (вытеснены или были до создания канала).
+         */
+        private long floor;
+        private long lastActivity = System.nanoTime();
+        private boolean removed;
+
+        private Channel(Long accountId, long floor) {
+            this.accountId = accountId;
+            this.floor = floor;
+        }
+    }
+
+    /**
+     * Подписчик с ограниченным буфером. Буфер и флаги защищены монитором подписчика;
+     * в каждый момент его буфер разбирает не больше одной задачи отправителя.
+     */
+    private final class Subscriber {
+
+        private final Long accountId;
+        private final SseEmitter emitter;
+        private final ArrayDeque<Event> buffer = new ArrayDeque<>();
+        private boolean reset;
+        private boolean heartbeat;
+        private boolean scheduled;
+        private boolean closing;
+        private boolean unsubscribed;
+
+        private Subscriber(Long accountId, SseEmitter emitter) {
+            this.accountId = accountId;
+            this.emitter = emitter;
+        }
+
+        private synchronized void offer(Event event) {
+            if (closing) {
+                return;
+            }
+            if (buffer.size() >= bufferSize) {
+                overflows.increment();
+                if (overflowPolicy == OverflowPolicy.DISCONNECT) {
+                    log.debug("Disconnecting slow event subscriber of account {}", accountId);
+                    buffer.clear();
+                    closing = true;
+                    schedule();
+                    return;
+                }
+                buffer.pollFirst();
+                reset = true;
+            }
+            buffer.addLast(event);
+            schedule();
+        }
+
+        private synchronized void offerReset() {
+            reset = true;
+            schedule();
+        }
+
+        private synchronized void requestHeartbeat() {
+            heartbeat = true;
+            schedule();
+        }
+
+        private synchronized boolean markUnsubscribed() {
+            if (unsubscribed) {
+                return false;
+            }
+            unsubscribed = true;
+            closing = true;
+            buffer.clear();
+            return true;
+        }
+
+        private void schedule() {
+            if (scheduled || unsubscribed) {
+                return;
+            }
+            scheduled = true;
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                scheduled = false;
+            }
+        }
+
+        /**
+         * Отправляет накопленные события, пока буфер не опустеет.
+         */
+        private void drain() {
+            while (true) {
+                Event event = null;
+                boolean sendReset = false;
+                boolean sendHeartbeat = false;
+                synchronized (this) {
+                    if (closing) {
+                        if (unsubscribed) {
+                            scheduled = false;
+                            return;
+                        }
+                    } else if (reset) {
+                        reset = false;
+                        sendReset = true;
+                    } else if ((event = buffer.pollFirst()) == null) {
+                        if (!heartbeat) {
+                            scheduled = false;
+                            return;
+                        }
+                        heartbeat = false;
+                        sendHeartbeat = true;
+                    }
+                }
+                try {
+                    if (event != null) {
+                        emitter.send(SseEmitter.event()
+                                .id(eventId(event))
+                                .name(TRANSFER_EVENT)
+                                .data(event.payload(), MediaType.APPLICATION_JSON));
+                    } else if (sendReset) {
+                        emitter.send(SseEmitter.event().name(RESET_EVENT).data(RESET_MESSAGE));
+                    } else if (sendHeartbeat) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        emitter.complete();
+                        unsubscribe(this);
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Event subscriber of account {} is gone: {}", accountId, e.getMessage());
+                    unsubscribe(this);
+                }
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package ru.dzhenbaz.P2PTransactionsTask.exception;
 
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -76,6 +78,53 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body("Некорректное тело запроса");
     }
 
+    /**
+     * Обработка конфликта блокировок, не разрешившегося за допустимое число повторов.
+     *
+     * @param ex исключение
+     * @return HTTP 409 с предложением повторить запрос
+     */
+    @ExceptionHandler(PessimisticLockingFailureException.class)
+    public ResponseEntity<?> handleLockConflict(PessimisticLockingFailureException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", "Счёт занят другой операцией, повторите запрос"));
+    }
+
+    /**
+     * Обработка повторного использования ключа идемпотентности для другого перевода.
+     *
+     * @param ex исключение
+     * @return HTTP 409 с описанием конфликта
+     */
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<?> handleIdempotencyConflict(IdempotencyConflictException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", ex.getMessage()));
+    }
+
+    /**
+     * Обработка временной перегрузки сервиса.
+     *
+     * @param ex исключение
+     * @return HTTP 503 с предложением повторить запрос позже
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<?> handleServiceUnavailable(ServiceUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", ex.getMessage()));
+    }
+
+    /**
+     * Обработка превышения лимита частоты запросов.
+     *
+     * @param ex исключение
+     * @return HTTP 429 с заголовком {@code Retry-After}
+     */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<?> handleRateLimitExceeded(RateLimitExceededException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(Map.of("error", ex.getMessage()));
+    }
+
     /**
      * Обработка всех неожиданных исключений.
      *
@@ -0,0 +1,23 @@
+package ru.dzhenbaz.P2PTransactionsTask.exception;
+
+/**
+ * Исключение, выбрасываемое при конфликте ключа идемпотентности.
+ * <p>
+ * Возникает, если ключ уже использован для перевода с другими параметрами.
+ * </p>
+ *
+ * <p>Обычно сопровождается возвратом HTTP-статуса 409 (Conflict).</p>
+ *
+ * @author Dzhenbaz
+ */
+public class IdempotencyConflictException extends RuntimeException {
+
+    /**
+     * Создаёт исключение с указанным сообщением.
+     *
+     * @param message описание ошибки, отображаемое клиенту
+     */
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
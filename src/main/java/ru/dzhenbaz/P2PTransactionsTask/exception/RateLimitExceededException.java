@@ -0,0 +1,33 @@
+package ru.dzhenbaz.P2PTransactionsTask.exception;
+
+/**
+ * Исключение, выбрасываемое при превышении лимита частоты запросов.
+ *
+ * <p>Обычно сопровождается возвратом HTTP-статуса 429 (Too Many Requests)
+ * с заголовком {@code Retry-After}.</p>
+ *
+ * @author Dzhenbaz
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    /**
+     * Создаёт исключение с указанным сообщением и временем до повтора. Стек вызовов не заполняется:
+     * отказ по лимиту — штатный исход, и под нагрузкой он не должен стоить дороже самой проверки.
+     *
+     * @param message           описание ошибки, отображаемое клиенту
+     * @param retryAfterSeconds через сколько секунд запрос может быть принят
+     */
+    public RateLimitExceededException(String message, long retryAfterSeconds) {
+        super(message, null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * @return через сколько секунд запрос может быть принят
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,21 @@
+package ru.dzhenbaz.P2PTransactionsTask.exception;
+
+/**
+ * Исключение, выбрасываемое, когда сервис временно не может принять запрос,
+ * например, при переполнении очереди асинхронных переводов.
+ *
+ * <p>Обычно сопровождается возвратом HTTP-статуса 503 (Service Unavailable).</p>
+ *
+ * @author Dzhenbaz
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    /**
+     * Создаёт исключение с указанным сообщением.
+     *
+     * @param message описание ошибки, отображаемое клиенту
+     */
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,25 @@
+package ru.dzhenbaz.P2PTransactionsTask.ledger;
+
+/**
+ * Состояние счёта в памяти шарда.
+ * <p>
+ * Изменяется только потоком шарда-владельца; поля {@code volatile},
+ * чтобы остальные потоки могли читать последний баланс без блокировок.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+final class LedgerAccount {
+
+    final Long id;
+    final Long userId;
+    volatile long balance;
+    volatile boolean closed;
+
+    LedgerAccount(Long id, Long userId, long balance, boolean closed) {
+        this.id = id;
+        this.userId = userId;
+        this.balance = balance;
+        this.closed = closed;
+    }
+}
@@ -0,0 +1,142 @@
+package ru.dzhenbaz.P2PTransactionsTask.ledger;
+
+import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDao;
+import ru.dzhenbaz.P2PTransactionsTask.exception.ServiceUnavailableException;
+import ru.dzhenbaz.P2PTransactionsTask.model.Account;
+import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Декоратор {@link AccountDao} для режима {@code LEDGER}.
+ * <p>
+ * Таблица {@code accounts} обновляется леджером асинхронно, поэтому при чтении баланс
+ * счёта, загруженного в память, подменяется значением из {@link ShardedLedgerEngine}.
+ * Закрытие счёта сначала применяется в леджере, затем в БД.
+ * </p>
+ *
+ * <p>Прямое изменение балансов в обход леджера, включая перераскладку по слотам, запрещено.
+ * Сервисы, которым оно нужно, отклоняют запросы в этом режиме до начала работы; любой другой
+ * вызов изменяющих методов получает {@link ServiceUnavailableException} (HTTP 503), а не
+ * внутреннюю ошибку. Сам леджер пишет балансы через DAO без этого декоратора.</p>
+ *
+ * @author Dzhenbaz
+ */
+public class LedgerAccountDao implements AccountDao {
+
+    private final AccountDao delegate;
+    private final ShardedLedgerEngine engine;
+
+    /**
+     * Конструктор с внедрением зависимостей.
+     *
+     * @param delegate DAO счетов, работающее напрямую с БД
+     * @param engine   леджер, владеющий актуальными балансами
+     */
+    public LedgerAccountDao(AccountDao delegate, ShardedLedgerEngine engine) {
+        this.delegate = delegate;
+        this.engine = engine;
+    }
+
+    @Override
+    public void save(Account account) {
+        delegate.save(account);
+    }
+
+    @Override
+    public Optional<Account> findById(Long id) {
+        return delegate.findById(id).map(this::withLedgerBalance);
+    }
+
+    @Override
+    public Optional<Account> findByIdForUpdate(Long id) {
+        return delegate.findByIdForUpdate(id).map(this::withLedgerBalance);
+    }
+
+    @Override
+    public List<Account> findAllByIds(Collection<Long> ids) {
+        return withLedgerBalances(delegate.findAllByIds(ids));
+    }
+
+    @Override
+    public List<Account> findAllByIdsForUpdate(Collection<Long> ids) {
+        return withLedgerBalances(delegate.findAllByIdsForUpdate(ids));
+    }
+
+    @Override
+    public List<Account> findByUserId(Long userId) {
+        return withLedgerBalances(delegate.findByUserId(userId));
+    }
+
+    @Override
+    public void updateBalance(Long accountId, Long newBalance) {
+        throw ledgerOwnsBalances();
+    }
+
+    @Override
+    public boolean debitIfSufficient(Long accountId, Long userId, Long amount) {
+        throw ledgerOwnsBalances();
+    }
+
+    @Override
+    public boolean creditIfOpen(Long accountId, Long amount) {
+        throw ledgerOwnsBalances();
+    }
+
+    @Override
+    public void applyTransfers(List<Transaction> transfers) {
+        throw ledgerOwnsBalances();
+    }
+
+    @Override
+    public void applyBalanceDeltas(Map<Long, Long> deltas) {
+        throw ledgerOwnsBalances();
+    }
+
+    @Override
+    public long consolidateBalanceSlots(Long accountId) {
+        throw ledgerOwnsBalances();
+    }
+
+    @Override
+    public void resizeBalanceSlots(Long accountId, int slotCount) {
+        throw ledgerOwnsBalances();
+    }
+
+    @Override
+    public List<Long> findBalanceSlots(Long accountId) {
+        return delegate.findBalanceSlots(accountId);
+    }
+
+    @Override
+    public void closeAccount(Long accountId) {
+        engine.markClosed(accountId);
+        delegate.closeAccount(accountId);
+    }
+
+    @Override
+    public void deleteAll() {
+        delegate.deleteAll();
+    }
+
+    private Account withLedgerBalance(Account account) {
+        OptionalLong balance = engine.balanceOf(account.getId());
+        if (balance.isPresent()) {
+            account.setBalance(balance.getAsLong());
+        }
+        return account;
+    }
+
+    private List<Account> withLedgerBalances(List<Account> accounts) {
+        accounts.forEach(this::withLedgerBalance);
+        return accounts;
+    }
+
+    private ServiceUnavailableException ledgerOwnsBalances() {
+        return new ServiceUnavailableException("Балансы в режиме LEDGER изменяются только через леджер");
+    }
+}
@@ -0,0 +1,43 @@
+package ru.dzhenbaz.P2PTransactionsTask.ledger;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Команда шарду. Один и тот же объект перевода последовательно проходит этапы
+ * {@link Type#TRANSFER} → {@link Type#CREDIT} (или {@link Type#REFUND}) между шардами.
+ *
+ * @author Dzhenbaz
+ */
+final class LedgerCommand {
+
+    /**
+     * Этап обработки команды.
+     */
+    enum Type {
+        /** Проверка и списание на шарде счёта-источника. */
+        TRANSFER,
+        /** Зачисление на шарде счёта-получателя. */
+        CREDIT,
+        /** Возврат зарезервированной суммы на шард счёта-источника после отказа в зачислении. */
+        REFUND,
+        /** Пометка счёта как закрытого. */
+        CLOSE
+    }
+
+    Type type;
+    final Long userId;
+    final Long fromId;
+    final Long toId;
+    final long amount;
+    final CompletableFuture<String> result;
+    RuntimeException failure;
+
+    LedgerCommand(Type type, Long userId, Long fromId, Long toId, long amount, CompletableFuture<String> result) {
+        this.type = type;
+        this.userId = userId;
+        this.fromId = fromId;
+        this.toId = toId;
+        this.amount = amount;
+        this.result = result;
+    }
+}
@@ -0,0 +1,39 @@
+package ru.dzhenbaz.P2PTransactionsTask.ledger;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Запись журнала: проведённый в памяти перевод.
+ * <p>
+ * Номер {@code seq} присваивается журналом при записи и монотонно возрастает.
+ * У записей, прочитанных из файла при восстановлении, {@code result} отсутствует.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+final class LedgerEntry {
+
+    /**
+     * Размер записи в файле: шесть {@code long} и CRC32.
+     */
+    static final int RECORD_SIZE = 6 * Long.BYTES + Integer.BYTES;
+
+    long seq;
+    final long userId;
+    final long fromId;
+    final long toId;
+    final long amount;
+    final long createdAtMillis;
+    final CompletableFuture<String> result;
+
+    LedgerEntry(long seq, long userId, long fromId, long toId, long amount, long createdAtMillis,
+                CompletableFuture<String> result) {
+        this.seq = seq;
+        this.userId = userId;
+        this.fromId = fromId;
+        this.toId = toId;
+        this.amount = amount;
+        this.createdAtMillis = createdAtMillis;
+        this.result = result;
+    }
+}
@@ -0,0 +1,281 @@
+package ru.dzhenbaz.P2PTransactionsTask.ledger;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Локальный журнал упреждающей записи леджера.
+ * <p>
+ * Шарды передают проведённые в памяти переводы через {@link MpscRingBuffer}; поток журнала
+ * забирает их пачкой, дописывает в конец текущего сегмента и выполняет один {@code fsync}
+ * на всю пачку. Только после этого переводы подтверждаются клиентам и передаются
+ * на асинхронную запись в БД.
+ * </p>
+ *
+ * <p>Журнал состоит из сегментов {@code journal-<первый номер>.log}. Заполненный сегмент
+ * закрывается, а после переноса всех его записей в БД удаляется. Каждая запись имеет
+ * фиксированный размер и контрольную сумму CRC32, поэтому при восстановлении оборванный
+ * хвост отбрасывается.</p>
+ *
+ * <p>После первой ошибки записи журнал больше не пишет: состояние файла после неудачного
+ * {@code fsync} не определено, поэтому все последующие переводы завершаются ошибкой.</p>
+ *
+ * @author Dzhenbaz
+ */
+@Slf4j
+final class LedgerJournal {
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final MpscRingBuffer<LedgerEntry> inbox;
+    private final int maxBatchSize;
+    private final LedgerWriteBehind writeBehind;
+    private final ShardedLedgerEngine engine;
+    private final ByteBuffer buffer;
+    private final CRC32 crc = new CRC32();
+    private final Deque<Segment> sealed = new ArrayDeque<>();
+    private final Timer fsyncTimer;
+    private final DistributionSummary batchSizeSummary;
+    private final Thread thread;
+    private FileChannel channel;
+    private long currentStartSeq;
+    private long nextSeq;
+    private IllegalStateException failure;
+    private volatile boolean running = true;
+
+    LedgerJournal(Path directory, long segmentBytes, long nextSeq, int ringCapacity, int maxBatchSize,
+                  LedgerWriteBehind writeBehind, ShardedLedgerEngine engine, MeterRegistry meterRegistry)
+            throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.nextSeq = nextSeq;
+        this.inbox = new MpscRingBuffer<>(ringCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.writeBehind = writeBehind;
+        this.engine = engine;
+        this.buffer = ByteBuffer.allocateDirect(maxBatchSize * LedgerEntry.RECORD_SIZE);
+        this.fsyncTimer = Timer.builder("ledger.journal.fsync")
+                .description("Time to write and fsync one journal batch")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("ledger.journal.batch_size")
+                .description("Transfers made durable by one fsync")
+                .register(meterRegistry);
+        this.channel = openSegment(nextSeq);
+        this.thread = new Thread(this::run, "ledger-journal");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Читает все целые записи всех сегментов журнала в порядке номеров.
+     * Чтение сегмента останавливается на первой оборванной или повреждённой записи.
+     *
+     * @param directory каталог журнала
+     * @return записи в порядке записи; пустой список, если каталога нет
+     * @throws IOException при ошибке чтения файлов
+     */
+    static List<LedgerEntry> readAll(Path directory) throws IOException {
+        List<LedgerEntry> entries = new ArrayList<>();
+        ByteBuffer record = ByteBuffer.allocate(LedgerEntry.RECORD_SIZE);
+        CRC32 crc = new CRC32();
+        for (Path segment : segments(directory)) {
+            try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ)) {
+                while (true) {
+                    record.clear();
+                    while (record.hasRemaining() && in.read(record) > 0) {
+                        // дочитываем запись целиком
+                    }
+                    if (record.hasRemaining()) {
+                        break;
+                    }
+                    record.flip();
+                    crc.reset();
+                    crc.update(record.array(), 0, LedgerEntry.RECORD_SIZE - Integer.BYTES);
+                    LedgerEntry entry = new LedgerEntry(record.getLong(), record.getLong(), record.getLong(),
+                            record.getLong(), record.getLong(), record.getLong(), null);
+                    if ((int) crc.getValue() != record.getInt()) {
+                        log.warn("Ledger journal segment {} has a corrupt record, ignoring its tail", segment);
+                        break;
+                    }
+                    entries.add(entry);
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Удаляет все сегменты журнала. Вызывается после того, как восстановление
+     * перенесло их записи в БД.
+     *
+     * @param directory каталог журнала
+     * @throws IOException при ошибке удаления
+     */
+    static void deleteAll(Path directory) throws IOException {
+        for (Path segment : segments(directory)) {
+            Files.delete(segment);
+        }
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(segments::add);
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Передаёт проведённый перевод в журнал. Вызывается потоками шардов.
+     *
+     * @param entry запись журнала
+     */
+    void append(LedgerEntry entry) {
+        int idle = 0;
+        while (!inbox.offer(entry)) {
+            ShardedLedgerEngine.idle(++idle);
+        }
+    }
+
+    /**
+     * Дописывает оставшиеся записи, останавливает поток и закрывает текущий сегмент.
+     */
+    void close() throws InterruptedException, IOException {
+        running = false;
+        thread.join();
+        channel.close();
+    }
+
+    private void run() {
+        List<LedgerEntry> batch = new ArrayList<>(maxBatchSize);
+        int idle = 0;
+        while (running || !inbox.isEmpty()) {
+            LedgerEntry entry;
+            while (batch.size() < maxBatchSize && (entry = inbox.poll()) != null) {
+                batch.add(entry);
+            }
+            deleteFlushedSegments();
+            if (batch.isEmpty()) {
+                ShardedLedgerEngine.idle(++idle);
+                continue;
+            }
+            idle = 0;
+            if (failure == null) {
+                try {
+                    fsyncTimer.record(() -> write(batch));
+                } catch (UncheckedIOException e) {
+                    log.error("Ledger journal write failed, ledger stops accepting transfers", e);
+                    failure = new IllegalStateException("Журнал переводов недоступен", e);
+                    engine.fail();
+                }
+            }
+            if (failure != null) {
+                batch.forEach(failed -> failed.result.completeExceptionally(failure));
+                batch.clear();
+                continue;
+            }
+            batchSizeSummary.record(batch.size());
+            for (LedgerEntry written : batch) {
+                written.result.complete("Перевод выполнен");
+            }
+            writeBehind.enqueue(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<LedgerEntry> batch) {
+        buffer.clear();
+        for (LedgerEntry entry : batch) {
+            entry.seq = nextSeq++;
+            int start = buffer.position();
+            buffer.putLong(entry.seq)
+                    .putLong(entry.userId)
+                    .putLong(entry.fromId)
+                    .putLong(entry.toId)
+                    .putLong(entry.amount)
+                    .putLong(entry.createdAtMillis);
+            crc.reset();
+            crc.update(buffer.duplicate().position(start).limit(buffer.position()));
+            buffer.putInt((int) crc.getValue());
+        }
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            if (channel.size() >= segmentBytes) {
+                channel.close();
+                sealed.add(new Segment(segmentPath(currentStartSeq), nextSeq - 1));
+                channel = openSegment(nextSeq);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private FileChannel openSegment(long startSeq) throws IOException {
+        Files.createDirectories(directory);
+        currentStartSeq = startSeq;
+        FileChannel segment = FileChannel.open(segmentPath(startSeq),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            log.debug("Directory fsync is not supported for {}", directory);
+        }
+        return segment;
+    }
+
+    private Path segmentPath(long startSeq) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, startSeq, SEGMENT_SUFFIX));
+    }
+
+    private void deleteFlushedSegments() {
+        long flushedSeq = writeBehind.flushedSeq();
+        while (!sealed.isEmpty() && sealed.peekFirst().lastSeq() <= flushedSeq) {
+            Segment segment = sealed.pollFirst();
+            try {
+                Files.deleteIfExists(segment.path());
+            } catch (IOException e) {
+                log.warn("Failed to delete flushed ledger journal segment {}", segment.path(), e);
+            }
+        }
+    }
+
+    /**
+     * Закрытый сегмент журнала.
+     *
+     * @param path    путь к файлу
+     * @param lastSeq номер последней записи сегмента
+     */
+    private record Segment(Path path, long lastSeq) {
+    }
+}
@@ -0,0 +1,203 @@
+package ru.dzhenbaz.P2PTransactionsTask.ledger;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.dzhenbaz.P2PTransactionsTask.exception.BadRequestException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.NotFoundException;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Шард леджера: владеет балансами части счетов и изменяет их в единственном потоке.
+ * <p>
+ * Внешние команды поступают через ограниченный {@link MpscRingBuffer}, а сообщения
+ * от других шардов (зачисление, возврат) — через неограниченный почтовый ящик.
+ * Раздельные очереди исключают взаимную блокировку двух шардов, ожидающих
+ * места в буферах друг друга.
+ * </p>
+ *
+ * <p>Межшардовый перевод резервирует сумму на счёте-источнике, затем шард получателя
+ * зачисляет её и передаёт перевод в журнал; при отказе в зачислении сумма возвращается
+ * на шард источника. Внутри шарда перевод проводится сразу.</p>
+ *
+ * @author Dzhenbaz
+ */
+@Slf4j
+final class LedgerShard implements Runnable {
+
+    private final int index;
+    private final ShardedLedgerEngine engine;
+    private final MpscRingBuffer<LedgerCommand> inbox;
+    private final Queue<LedgerCommand> mailbox = new ConcurrentLinkedQueue<>();
+    private final Map<Long, LedgerAccount> accounts = new ConcurrentHashMap<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    LedgerShard(int index, ShardedLedgerEngine engine, int ringCapacity) {
+        this.index = index;
+        this.engine = engine;
+        this.inbox = new MpscRingBuffer<>(ringCapacity);
+        this.thread = new Thread(this, "ledger-shard-" + index);
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Передаёт внешнюю команду шарду, ожидая освобождения места в буфере.
+     *
+     * @param command команда
+     */
+    void submit(LedgerCommand command) {
+        int idle = 0;
+        while (!inbox.offer(command)) {
+            ShardedLedgerEngine.idle(++idle);
+        }
+    }
+
+    /**
+     * Передаёт сообщение от другого шарда. Никогда не блокирует отправителя.
+     *
+     * @param command команда
+     */
+    void forward(LedgerCommand command) {
+        mailbox.add(command);
+    }
+
+    /**
+     * Возвращает загруженное в память состояние счёта; безопасно для любых потоков.
+     *
+     * @param accountId идентификатор счёта
+     * @return состояние счёта или {@code null}, если счёт ещё не загружался
+     */
+    LedgerAccount peek(Long accountId) {
+        return accounts.get(accountId);
+    }
+
+    @Override
+    public void run() {
+        int idle = 0;
+        while (running || !mailbox.isEmpty() || !inbox.isEmpty()) {
+            LedgerCommand command = mailbox.poll();
+            if (command == null) {
+                command = inbox.poll();
+            }
+            if (command == null) {
+                ShardedLedgerEngine.idle(++idle);
+                continue;
+            }
+            idle = 0;
+            dispatch(command);
+        }
+    }
+
+    void stop() throws InterruptedException {
+        running = false;
+        thread.join();
+    }
+
+    private void dispatch(LedgerCommand command) {
+        switch (command.type) {
+            case TRANSFER -> {
+                try {
+                    debit(command);
+                } catch (RuntimeException e) {
+                    command.result.completeExceptionally(e);
+                }
+            }
+            case CREDIT -> {
+                try {
+                    credit(command);
+                } catch (RuntimeException e) {
+                    refund(command, e);
+                }
+            }
+            case REFUND -> {
+                LedgerAccount from = accounts.get(command.fromId);
+                from.balance += command.amount;
+                command.result.completeExceptionally(command.failure);
+            }
+            case CLOSE -> {
+                LedgerAccount account = accounts.get(command.fromId);
+                if (account != null) {
+                    account.closed = true;
+                }
+                command.result.complete(null);
+            }
+        }
+    }
+
+    private void debit(LedgerCommand command) {
+        LedgerAccount from = load(command.fromId);
+        if (from == null) {
+            throw new NotFoundException("Счёт отправителя не найден");
+        }
+        if (!from.userId.equals(command.userId)) {
+            throw new BadRequestException("Счёт не принадлежит пользователю");
+        }
+
+        LedgerShard target = engine.shardFor(command.toId);
+        if (target != this) {
+            if (from.closed) {
+                throw new BadRequestException("Один из счетов закрыт");
+            }
+            if (from.balance < command.amount) {
+                throw new BadRequestException("Недостаточно средств");
+            }
+            from.balance -= command.amount;
+            command.type = LedgerCommand.Type.CREDIT;
+            target.forward(command);
+            return;
+        }
+
+        LedgerAccount to = load(command.toId);
+        if (to == null) {
+            throw new NotFoundException("Счёт получателя не найден");
+        }
+        if (from.closed || to.closed) {
+            throw new BadRequestException("Один из счетов закрыт");
+        }
+        if (from.balance < command.amount) {
+            throw new BadRequestException("Недостаточно средств");
+        }
+        from.balance -= command.amount;
+        to.balance += command.amount;
+        engine.journal(command);
+    }
+
+    private void credit(LedgerCommand command) {
+        LedgerAccount to = load(command.toId);
+        if (to == null) {
+            refund(command, new NotFoundException("Счёт получателя не найден"));
+            return;
+        }
+        if (to.closed) {
+            refund(command, new BadRequestException("Один из счетов закрыт"));
+            return;
+        }
+        to.balance += command.amount;
+        engine.journal(command);
+    }
+
+    private void refund(LedgerCommand command, RuntimeException failure) {
+        command.type = LedgerCommand.Type.REFUND;
+        command.failure = failure;
+        engine.shardFor(command.fromId).forward(command);
+    }
+
+    private LedgerAccount load(Long accountId) {
+        LedgerAccount account = accounts.get(accountId);
+        if (account == null) {
+            account = engine.loadAccount(accountId);
+            if (account != null) {
+                accounts.put(accountId, account);
+                log.debug("Shard {} loaded account {}", index, accountId);
+            }
+        }
+        return account;
+    }
+}
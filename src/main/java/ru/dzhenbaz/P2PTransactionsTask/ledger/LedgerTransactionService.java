@@ -0,0 +1,77 @@
+package ru.dzhenbaz.P2PTransactionsTask.ledger;
+
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionDao;
+import ru.dzhenbaz.P2PTransactionsTask.dto.TransferRequest;
+import ru.dzhenbaz.P2PTransactionsTask.exception.BadRequestException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.NotFoundException;
+import ru.dzhenbaz.P2PTransactionsTask.service.TransactionService;
+import ru.dzhenbaz.P2PTransactionsTask.service.TransferMode;
+
+import java.util.concurrent.CompletionException;
+
+/**
+ * {@link TransactionService} для режима {@link TransferMode#LEDGER}.
+ * <p>
+ * Подтверждённый перевод передаётся в {@link ShardedLedgerEngine} и не открывает
+ * транзакцию БД: вызов возвращается после записи перевода в журнал леджера.
+ * Неподтверждённый перевод проверяется как обычно, по балансам из леджера
+ * (см. {@link LedgerAccountDao}).
+ * </p>
+ *
+ * <p>Запись перевода в {@code transactions} и связанные с ней записи — событие outbox,
+ * суточные агрегаты счёта и уведомления подписчиков — делаются не в коммите перевода,
+ * а позже, в транзакции переноса журнала в БД ({@link LedgerWriteBehind}). До переноса
+ * история счёта и внешние получатели событий отстают от ответа клиенту.</p>
+ *
+ * @author Dzhenbaz
+ */
+public class LedgerTransactionService extends TransactionService {
+
+    private final ShardedLedgerEngine engine;
+
+    /**
+     * Конструктор с внедрением зависимостей.
+     *
+     * @param accountDao     DAO счетов с балансами из леджера
+     * @param transactionDao DAO для работы с транзакциями
+     * @param engine         леджер, проводящий подтверждённые переводы
+     */
+    public LedgerTransactionService(AccountDao accountDao, TransactionDao transactionDao, ShardedLedgerEngine engine) {
+        super(accountDao, transactionDao, TransferMode.LEDGER);
+        this.engine = engine;
+    }
+
+    /**
+     * Выполняет перевод средств между счетами через леджер.
+     *
+     * @param userId  идентификатор пользователя-отправителя (владелец счёта-источника)
+     * @param request объект запроса на перевод
+     * @return результат операции в виде строки
+     *
+     * @throws BadRequestException если сумма отрицательная, счёт закрыт, перевод в самого себя
+     *                             или недостаточно средств
+     * @throws NotFoundException если счёт-источник или счёт-получатель не существует
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public String transfer(Long userId, TransferRequest request) {
+        if (!request.isConfirm()) {
+            return super.transfer(userId, request);
+        }
+
+        validateRequest(request);
+
+        try {
+            return engine.transfer(userId, request.getFromAccountId(), request.getToAccountId(),
+                    request.getAmount()).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
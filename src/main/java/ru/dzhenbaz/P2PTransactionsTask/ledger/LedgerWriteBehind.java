@@ -0,0 +1,169 @@
+package ru.dzhenbaz.P2PTransactionsTask.ledger;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.LedgerCheckpointDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionDao;
+import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Асинхронный перенос записей журнала в таблицы {@code accounts} и {@code transactions}.
+ * <p>
+ * Поток забирает записи пачками и в одной транзакции БД применяет изменения балансов,
+ * вставляет транзакции и сдвигает контрольную точку журнала. При ошибке БД пачка
+ * сохраняется и повторяется с паузой, а записи остаются в журнале до успешного переноса.
+ * </p>
+ *
+ * <p>Транзакции вставляются через общий {@link TransactionDao} приложения, поэтому события
+ * outbox и суточные агрегаты по переводам леджера пишутся здесь, в транзакции пачки, а подписчики
+ * уведомляются после её коммита — не при подтверждении перевода клиенту.</p>
+ *
+ * @author Dzhenbaz
+ */
+@Slf4j
+final class LedgerWriteBehind {
+
+    private static final Duration RETRY_PAUSE = Duration.ofSeconds(1);
+
+    private final AccountDao accountDao;
+    private final TransactionDao transactionDao;
+    private final LedgerCheckpointDao checkpointDao;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<LedgerEntry> queue;
+    private final int batchSize;
+    private final Duration interval;
+    private final Thread thread;
+    private volatile long flushedSeq;
+    private volatile boolean running = true;
+
+    LedgerWriteBehind(AccountDao accountDao, TransactionDao transactionDao, LedgerCheckpointDao checkpointDao,
+                      TransactionTemplate transactionTemplate, int queueCapacity, int batchSize, Duration interval) {
+        this.accountDao = accountDao;
+        this.transactionDao = transactionDao;
+        this.checkpointDao = checkpointDao;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.interval = interval;
+        this.thread = new Thread(this::run, "ledger-write-behind");
+        this.thread.setDaemon(true);
+    }
+
+    void start(long flushedSeq) {
+        this.flushedSeq = flushedSeq;
+        thread.start();
+    }
+
+    /**
+     * Передаёт сохранённые в журнал записи на перенос в БД. Блокирует поток журнала,
+     * если перенос отстал на всю ёмкость очереди.
+     *
+     * @param entries записи журнала
+     */
+    void enqueue(List<LedgerEntry> entries) {
+        try {
+            for (LedgerEntry entry : entries) {
+                queue.put(entry);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Возвращает номер последней перенесённой в БД записи.
+     *
+     * @return номер записи
+     */
+    long flushedSeq() {
+        return flushedSeq;
+    }
+
+    /**
+     * Возвращает число записей, ожидающих переноса.
+     *
+     * @return размер очереди
+     */
+    int backlog() {
+        return queue.size();
+    }
+
+    /**
+     * Синхронно переносит записи в БД одной транзакцией вместе со сдвигом контрольной точки.
+     *
+     * @param entries записи журнала в порядке номеров
+     */
+    void flush(List<LedgerEntry> entries) {
+        List<Transaction> transfers = new ArrayList<>(entries.size());
+        for (LedgerEntry entry : entries) {
+            transfers.add(new Transaction(null, entry.fromId, entry.toId, entry.amount,
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.createdAtMillis), ZoneId.systemDefault())));
+        }
+        long lastSeq = entries.get(entries.size() - 1).seq;
+        transactionTemplate.executeWithoutResult(status -> {
+            accountDao.applyTransfers(transfers);
+            transactionDao.saveAll(transfers);
+            checkpointDao.advance(lastSeq);
+        });
+        flushedSeq = lastSeq;
+    }
+
+    /**
+     * Переносит оставшиеся записи и останавливает поток. Если БД недоступна,
+     * поток завершается после первой неудачной попытки — записи восстановятся из журнала.
+     */
+    void close() throws InterruptedException {
+        running = false;
+        thread.join();
+    }
+
+    private void run() {
+        List<LedgerEntry> pending = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty() || !pending.isEmpty()) {
+            try {
+                if (pending.isEmpty()) {
+                    LedgerEntry first = queue.poll(interval.toMillis(), TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    pending.add(first);
+                    queue.drainTo(pending, batchSize - 1);
+                }
+                flush(pending);
+                pending.clear();
+            } catch (DataAccessException | TransactionException e) {
+                if (!running) {
+                    log.warn("Ledger write-behind stopped with {} unflushed entries; they stay in the journal",
+                            pending.size() + queue.size());
+                    return;
+                }
+                log.warn("Ledger write-behind flush of {} entries failed, retrying", pending.size(), e);
+                sleep(RETRY_PAUSE);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void sleep(Duration pause) {
+        try {
+            Thread.sleep(pause.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package ru.dzhenbaz.P2PTransactionsTask.ledger;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ограниченный lock-free кольцевой буфер «много производителей — один потребитель».
+ * <p>
+ * Каждая ячейка хранит порядковый номер, по которому производитель определяет,
+ * свободна ли она, а потребитель — опубликован ли в ней элемент. Производители
+ * резервируют позицию через CAS по хвосту, потребитель читает без синхронизации.
+ * </p>
+ *
+ * @param <E> тип элементов
+ * @author Dzhenbaz
+ */
+public final class MpscRingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final Object[] items;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    /**
+     * Создаёт буфер заданной ёмкости, округлённой вверх до степени двойки.
+     *
+     * @param requestedCapacity желаемая ёмкость
+     */
+    public MpscRingBuffer(int requestedCapacity) {
+        int cap = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.capacity = cap;
+        this.mask = cap - 1;
+        this.items = new Object[cap];
+        this.sequences = new AtomicLongArray(cap);
+        for (int i = 0; i < cap; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Добавляет элемент, если в буфере есть место. Безопасен для вызова из любых потоков.
+     *
+     * @param item элемент
+     * @return {@code false}, если буфер заполнен
+     */
+    public boolean offer(E item) {
+        long pos = tail.get();
+        while (true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    items[index] = item;
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Извлекает следующий элемент. Вызывается только потоком-потребителем.
+     *
+     * @return элемент или {@code null}, если буфер пуст
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        int index = (int) (head & mask);
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        E item = (E) items[index];
+        items[index] = null;
+        sequences.set(index, head + capacity);
+        head++;
+        return item;
+    }
+
+    /**
+     * Проверяет, пуст ли буфер, с точки зрения потока-потребителя.
+     *
+     * @return {@code true}, если опубликованных элементов нет
+     */
+    public boolean isEmpty() {
+        return sequences.get((int) (head & mask)) != head + 1;
+    }
+
+    /**
+     * Возвращает ёмкость буфера.
+     *
+     * @return ёмкость
+     */
+    public int capacity() {
+        return capacity;
+    }
+}
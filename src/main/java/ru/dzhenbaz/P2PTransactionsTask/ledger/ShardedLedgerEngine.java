@@ -0,0 +1,233 @@
+package ru.dzhenbaz.P2PTransactionsTask.ledger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.dzhenbaz.P2PTransactionsTask.config.TransferProperties;
+import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.LedgerCheckpointDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionDao;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Шардированный леджер в памяти для режима {@code transfer.mode = LEDGER}.
+ * <p>
+ * Балансы счетов разделены по шардам по идентификатору счёта; каждым шардом владеет
+ * один поток ({@link LedgerShard}), поэтому проверки и изменения балансов не требуют
+ * блокировок. Перевод подтверждается после записи в локальный журнал ({@link LedgerJournal})
+ * с групповым {@code fsync}, а таблицы {@code accounts} и {@code transactions} обновляются
+ * асинхронно ({@link LedgerWriteBehind}) вместе с событиями outbox, суточными агрегатами
+ * и уведомлениями подписчиков.
+ * </p>
+ *
+ * <p>Счёт загружается из БД при первом обращении и далее живёт в памяти шарда.
+ * При запуске записи журнала после контрольной точки переносятся в БД, поэтому таблицы
+ * вместе с хвостом журнала полностью восстанавливают состояние леджера.</p>
+ *
+ * @author Dzhenbaz
+ */
+@Slf4j
+public class ShardedLedgerEngine implements AutoCloseable {
+
+    private static final int SPIN_ROUNDS = 100;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+
+    private final AccountDao accountDao;
+    private final LedgerCheckpointDao checkpointDao;
+    private final TransferProperties.Ledger settings;
+    private final MeterRegistry meterRegistry;
+    private final LedgerShard[] shards;
+    private final LedgerWriteBehind writeBehind;
+    private final AtomicLong inFlight = new AtomicLong();
+    private final Counter completed;
+    private final Counter rejected;
+    private LedgerJournal journal;
+    private volatile boolean accepting;
+    private volatile boolean failed;
+
+    /**
+     * Создаёт леджер. Потоки запускаются методом {@link #start()}.
+     *
+     * @param accountDao         DAO счетов без учёта леджера — источник начальных балансов
+     * @param transactionDao     DAO транзакций для асинхронной записи
+     * @param checkpointDao      DAO контрольной точки журнала
+     * @param transactionManager менеджер транзакций для асинхронной записи
+     * @param settings           настройки леджера
+     * @param meterRegistry      реестр метрик
+     */
+    public ShardedLedgerEngine(AccountDao accountDao, TransactionDao transactionDao,
+                               LedgerCheckpointDao checkpointDao, PlatformTransactionManager transactionManager,
+                               TransferProperties.Ledger settings, MeterRegistry meterRegistry) {
+        this.accountDao = accountDao;
+        this.checkpointDao = checkpointDao;
+        this.settings = settings;
+        this.meterRegistry = meterRegistry;
+        this.shards = new LedgerShard[settings.getShards()];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new LedgerShard(i, this, settings.getRingCapacity());
+        }
+        this.writeBehind = new LedgerWriteBehind(accountDao, transactionDao, checkpointDao,
+                new TransactionTemplate(transactionManager), settings.getWriteBehindQueueCapacity(),
+                settings.getWriteBehindBatchSize(), settings.getWriteBehindInterval());
+        this.completed = Counter.builder("ledger.transfers")
+                .tag("outcome", "completed")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("ledger.transfers")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+        Gauge.builder("ledger.write_behind.backlog", writeBehind, LedgerWriteBehind::backlog)
+                .description("Journaled transfers not yet written to the database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Переносит в БД хвост журнала после контрольной точки и запускает потоки леджера.
+     */
+    public void start() {
+        Path directory = Path.of(settings.getJournalDir());
+        long checkpoint = checkpointDao.getLastSeq();
+        long lastSeq = checkpoint;
+        try {
+            List<LedgerEntry> tail = LedgerJournal.readAll(directory).stream()
+                    .filter(entry -> entry.seq > checkpoint)
+                    .toList();
+            int chunk = settings.getWriteBehindBatchSize();
+            for (int from = 0; from < tail.size(); from += chunk) {
+                writeBehind.flush(tail.subList(from, Math.min(tail.size(), from + chunk)));
+            }
+            if (!tail.isEmpty()) {
+                lastSeq = tail.get(tail.size() - 1).seq;
+                log.info("Ledger recovered {} journaled transfers after checkpoint {}", tail.size(), checkpoint);
+            }
+            LedgerJournal.deleteAll(directory);
+            journal = new LedgerJournal(directory, settings.getJournalSegmentSize().toBytes(), lastSeq + 1,
+                    settings.getRingCapacity(), settings.getJournalBatchSize(), writeBehind, this, meterRegistry);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to recover ledger journal from " + directory, e);
+        }
+
+        writeBehind.start(lastSeq);
+        journal.start();
+        for (LedgerShard shard : shards) {
+            shard.start();
+        }
+        accepting = true;
+        log.info("Ledger started with {} shards, journal in {}", shards.length, directory.toAbsolutePath());
+    }
+
+    /**
+     * Передаёт перевод шарду счёта-источника. Проверки соответствуют
+     * {@code TransactionService}; сумма и различие счетов должны быть проверены вызывающим.
+     *
+     * @param userId идентификатор владельца счёта-источника
+     * @param fromId идентификатор счёта-источника
+     * @param toId   идентификатор счёта-получателя
+     * @param amount сумма перевода в копейках
+     * @return результат, завершающийся после записи перевода в журнал или с исключением отказа
+     */
+    public CompletableFuture<String> transfer(Long userId, Long fromId, Long toId, long amount) {
+        if (!accepting) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Леджер переводов недоступен"));
+        }
+        CompletableFuture<String> result = new CompletableFuture<>();
+        inFlight.incrementAndGet();
+        result.whenComplete((message, error) -> {
+            inFlight.decrementAndGet();
+            (error == null ? completed : rejected).increment();
+        });
+        shardFor(fromId).submit(new LedgerCommand(LedgerCommand.Type.TRANSFER, userId, fromId, toId, amount, result));
+        return result;
+    }
+
+    /**
+     * Возвращает баланс счёта из памяти леджера.
+     *
+     * @param accountId идентификатор счёта
+     * @return баланс или пустое значение, если счёт не загружен в память или леджер остановлен по ошибке
+     */
+    public OptionalLong balanceOf(Long accountId) {
+        LedgerAccount account = failed ? null : shardFor(accountId).peek(accountId);
+        return account == null ? OptionalLong.empty() : OptionalLong.of(account.balance);
+    }
+
+    /**
+     * Помечает счёт закрытым в памяти леджера и ждёт, пока шард применит изменение.
+     * После возврата шард больше не зачисляет средства на этот счёт и не списывает с него.
+     *
+     * @param accountId идентификатор счёта
+     */
+    public void markClosed(Long accountId) {
+        if (!accepting) {
+            return;
+        }
+        CompletableFuture<String> done = new CompletableFuture<>();
+        shardFor(accountId).submit(new LedgerCommand(LedgerCommand.Type.CLOSE, null, accountId, null, 0, done));
+        done.join();
+    }
+
+    /**
+     * Прекращает приём переводов, дожидается завершения начатых, сбрасывает журнал
+     * и переносит оставшиеся записи в БД.
+     */
+    @Override
+    public void close() throws InterruptedException, IOException {
+        accepting = false;
+        long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT_MILLIS;
+        while (inFlight.get() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        for (LedgerShard shard : shards) {
+            shard.stop();
+        }
+        journal.close();
+        writeBehind.close();
+        log.info("Ledger stopped at checkpoint {}", writeBehind.flushedSeq());
+    }
+
+    LedgerShard shardFor(Long accountId) {
+        return shards[(int) Math.floorMod(accountId, (long) shards.length)];
+    }
+
+    LedgerAccount loadAccount(Long accountId) {
+        return accountDao.findById(accountId)
+                .map(a -> new LedgerAccount(a.getId(), a.getUserId(), a.getBalance(), a.isClosed()))
+                .orElse(null);
+    }
+
+    void journal(LedgerCommand command) {
+        journal.append(new LedgerEntry(0, command.userId, command.fromId, command.toId, command.amount,
+                System.currentTimeMillis(), command.result));
+    }
+
+    void fail() {
+        failed = true;
+        accepting = false;
+    }
+
+    /**
+     * Ожидание потока, которому нечего делать: сначала короткое активное ожидание,
+     * затем парковка на {@link #IDLE_PARK_NANOS}.
+     *
+     * @param idleRounds число подряд пустых итераций
+     */
+    static void idle(int idleRounds) {
+        if (idleRounds < SPIN_ROUNDS) {
+            Thread.onSpinWait();
+        } else {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+}
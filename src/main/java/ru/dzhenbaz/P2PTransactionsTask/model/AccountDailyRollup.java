@@ -0,0 +1,34 @@
+package ru.dzhenbaz.P2PTransactionsTask.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Дневные итоги переводов по счёту.
+ * <p>
+ * Соответствует строке таблицы {@code account_daily_rollup}: число и сумма исходящих
+ * и входящих переводов счёта за день. Суммы указываются в копейках.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountDailyRollup {
+
+    private Long accountId;
+
+    private LocalDate date;
+
+    private long sentCount;
+
+    private long sentAmount;
+
+    private long receivedCount;
+
+    private long receivedAmount;
+}
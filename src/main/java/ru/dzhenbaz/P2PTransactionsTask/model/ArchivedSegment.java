@@ -0,0 +1,76 @@
+package ru.dzhenbaz.P2PTransactionsTask.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * Запись каталога архива переводов.
+ * <p>
+ * Соответствует строке таблицы {@code archive_segments}: переводы одного месяца перенесены
+ * из таблицы {@code transactions} в файл сегмента или восстановлены из него обратно.
+ * Число строк, сумма и контрольная сумма файла позволяют проверить сегмент перед чтением
+ * и восстановлением.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ArchivedSegment {
+
+    /**
+     * Состояние месяца в архиве.
+     */
+    public enum Status {
+
+        /**
+         * Переводы месяца хранятся в файле сегмента и удалены из таблицы.
+         */
+        ARCHIVED,
+
+        /**
+         * Переводы месяца возвращены в таблицу.
+         */
+        RESTORED
+    }
+
+    /**
+     * Месяц, переводы которого хранит сегмент.
+     */
+    private YearMonth month;
+
+    /**
+     * Имя файла сегмента в каталоге архива.
+     */
+    private String fileName;
+
+    /**
+     * Число переводов в сегменте.
+     */
+    private long rowCount;
+
+    /**
+     * Сумма переводов в копейках.
+     */
+    private long amountSum;
+
+    /**
+     * Контрольная сумма CRC32 файла сегмента.
+     */
+    private long checksum;
+
+    /**
+     * Состояние месяца в архиве.
+     */
+    private Status status;
+
+    /**
+     * Время последнего изменения записи.
+     */
+    private LocalDateTime updatedAt;
+}
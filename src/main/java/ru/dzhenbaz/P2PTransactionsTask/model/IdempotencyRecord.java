@@ -0,0 +1,47 @@
+package ru.dzhenbaz.P2PTransactionsTask.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Модель сохранённого результата запроса с ключом идемпотентности.
+ * <p>
+ * Ключ уникален в пределах пользователя. Отпечаток запроса позволяет отличить повтор
+ * того же перевода от повторного использования ключа для другого перевода.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class IdempotencyRecord {
+
+    /**
+     * Идентификатор пользователя, отправившего запрос.
+     */
+    private Long userId;
+
+    /**
+     * Значение заголовка {@code Idempotency-Key}.
+     */
+    private String key;
+
+    /**
+     * Отпечаток параметров перевода.
+     */
+    private String fingerprint;
+
+    /**
+     * Ответ, возвращённый на первый запрос.
+     */
+    private String response;
+
+    /**
+     * Дата и время первого запроса.
+     */
+    private LocalDateTime createdAt;
+}
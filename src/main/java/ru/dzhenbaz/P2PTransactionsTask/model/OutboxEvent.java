@@ -0,0 +1,48 @@
+package ru.dzhenbaz.P2PTransactionsTask.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Событие о проведённом переводе в исходящей очереди (outbox).
+ * <p>
+ * Соответствует строке таблицы {@code transfer_outbox}. Строка записывается в той же транзакции БД,
+ * что и перевод; номер {@code seq} присваивается позже ретранслятором и задаёт порядок доставки.
+ * Получатели могут отбрасывать повторы по {@code seq}.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboxEvent {
+
+    /**
+     * Номер события в порядке доставки.
+     */
+    private Long seq;
+
+    /**
+     * Идентификатор счёта-источника.
+     */
+    private Long fromAccountId;
+
+    /**
+     * Идентификатор счёта-получателя.
+     */
+    private Long toAccountId;
+
+    /**
+     * Сумма перевода в копейках.
+     */
+    private Long amount;
+
+    /**
+     * Время проведения перевода.
+     */
+    private LocalDateTime createdAt;
+}
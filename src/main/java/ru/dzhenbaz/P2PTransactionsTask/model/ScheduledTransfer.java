@@ -0,0 +1,86 @@
+package ru.dzhenbaz.P2PTransactionsTask.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.dzhenbaz.P2PTransactionsTask.dto.Recurrence;
+
+import java.time.LocalDateTime;
+
+/**
+ * Модель запланированного (отложенного или регулярного) перевода.
+ * <p>
+ * Поле {@code nextRunAt} — момент ближайшего исполнения. После каждого исполнения
+ * оно сдвигается на следующий период в той же транзакции БД, что и сам перевод,
+ * поэтому один и тот же запуск не может быть исполнен дважды.
+ * </p>
+ *
+ * <p><b>Важно:</b> сумма перевода указана в копейках.</p>
+ *
+ * @author Dzhenbaz
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ScheduledTransfer {
+
+    /**
+     * Уникальный идентификатор запланированного перевода.
+     */
+    private Long id;
+
+    /**
+     * Идентификатор пользователя — владельца счёта-источника.
+     */
+    private Long userId;
+
+    /**
+     * Идентификатор счёта-источника.
+     */
+    private Long fromAccountId;
+
+    /**
+     * Идентификатор счёта-получателя.
+     */
+    private Long toAccountId;
+
+    /**
+     * Сумма перевода в копейках.
+     */
+    private Long amount;
+
+    /**
+     * Периодичность перевода.
+     */
+    private Recurrence recurrence;
+
+    /**
+     * Момент первого исполнения; от него отсчитываются следующие.
+     */
+    private LocalDateTime firstRunAt;
+
+    /**
+     * Момент ближайшего исполнения.
+     */
+    private LocalDateTime nextRunAt;
+
+    /**
+     * Число уже обработанных запусков.
+     */
+    private int runCount;
+
+    /**
+     * Флаг активности. Однократный перевод после исполнения и отменённый перевод неактивны.
+     */
+    private boolean active;
+
+    /**
+     * Причина отказа последнего запуска или {@code null}, если он выполнен.
+     */
+    private String lastError;
+
+    /**
+     * Дата и время создания.
+     */
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,149 @@
+package ru.dzhenbaz.P2PTransactionsTask.netting;
+
+/**
+ * Хеш-таблица {@code long → long} с открытой адресацией и линейным пробированием.
+ * <p>
+ * Ключи и значения хранятся в примитивных массивах, поэтому накопление сумм по счетам
+ * не создаёт объектов на каждую операцию. Удаление не поддерживается: таблица
+ * рассчитана на один проход по пакету. Не потокобезопасна.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+public class LongLongHashMap {
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private long[] values;
+    private boolean[] used;
+    private int size;
+
+    /**
+     * Операция над парой ключ–значение.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+
+        /**
+         * @param key   ключ
+         * @param value значение
+         */
+        void accept(long key, long value);
+    }
+
+    /**
+     * Создаёт таблицу, вмещающую ожидаемое число ключей без перестроения.
+     *
+     * @param expectedSize ожидаемое число ключей
+     */
+    public LongLongHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Прибавляет {@code delta} к значению ключа; отсутствующий ключ считается равным нулю.
+     *
+     * @param key   ключ
+     * @param delta приращение
+     * @return новое значение
+     */
+    public long addTo(long key, long delta) {
+        int index = indexOf(key);
+        if (!used[index]) {
+            used[index] = true;
+            keys[index] = key;
+            values[index] = delta;
+            if (++size > keys.length * LOAD_FACTOR) {
+                rehash();
+            }
+            return delta;
+        }
+        return values[index] += delta;
+    }
+
+    /**
+     * Возвращает значение ключа.
+     *
+     * @param key ключ
+     * @return значение или {@code 0}, если ключа нет
+     */
+    public long get(long key) {
+        int index = indexOf(key);
+        return used[index] ? values[index] : 0;
+    }
+
+    /**
+     * Проверяет наличие ключа.
+     *
+     * @param key ключ
+     * @return {@code true}, если ключ есть в таблице
+     */
+    public boolean containsKey(long key) {
+        return used[indexOf(key)];
+    }
+
+    /**
+     * Возвращает число ключей.
+     *
+     * @return число ключей
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Обходит все пары в порядке хранения.
+     *
+     * @param consumer операция над парой
+     */
+    public void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    private int indexOf(long key) {
+        int mask = keys.length - 1;
+        int index = (int) mix(key) & mask;
+        while (used[index] && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int index = indexOf(oldKeys[i]);
+                used[index] = true;
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        used = new boolean[capacity];
+    }
+
+    /**
+     * Перемешивает биты ключа (финализатор MurmurHash3), чтобы последовательные
+     * идентификаторы счетов не образовывали длинных цепочек.
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return key;
+    }
+}
@@ -0,0 +1,87 @@
+package ru.dzhenbaz.P2PTransactionsTask.netting;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Чистые позиции счетов по набору переводов (многосторонний неттинг).
+ * <p>
+ * Каждый перевод уменьшает позицию счёта-источника и увеличивает позицию счёта-получателя.
+ * Итоговая позиция — изменение баланса счёта после проведения всех переводов; встречные
+ * и циклические переводы взаимно погашаются. Сумма всех позиций всегда равна нулю.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+public class NetPositions {
+
+    private final LongLongHashMap positions;
+
+    /**
+     * Создаёт пустой набор позиций.
+     *
+     * @param expectedAccounts ожидаемое число счетов
+     */
+    public NetPositions(int expectedAccounts) {
+        this.positions = new LongLongHashMap(expectedAccounts);
+    }
+
+    /**
+     * Учитывает перевод в позициях счетов.
+     *
+     * @param fromAccountId идентификатор счёта-источника
+     * @param toAccountId   идентификатор счёта-получателя
+     * @param amount        сумма перевода в копейках
+     */
+    public void add(long fromAccountId, long toAccountId, long amount) {
+        positions.addTo(fromAccountId, -amount);
+        positions.addTo(toAccountId, amount);
+    }
+
+    /**
+     * Исключает ранее учтённый перевод из позиций счетов.
+     *
+     * @param fromAccountId идентификатор счёта-источника
+     * @param toAccountId   идентификатор счёта-получателя
+     * @param amount        сумма перевода в копейках
+     */
+    public void remove(long fromAccountId, long toAccountId, long amount) {
+        positions.addTo(fromAccountId, amount);
+        positions.addTo(toAccountId, -amount);
+    }
+
+    /**
+     * Возвращает чистую позицию счёта.
+     *
+     * @param accountId идентификатор счёта
+     * @return изменение баланса счёта в копейках; {@code 0}, если счёт не участвует
+     */
+    public long positionOf(long accountId) {
+        return positions.get(accountId);
+    }
+
+    /**
+     * Возвращает число счетов, затронутых переводами.
+     *
+     * @return число счетов
+     */
+    public int accountCount() {
+        return positions.size();
+    }
+
+    /**
+     * Возвращает ненулевые позиции в порядке возрастания идентификатора счёта —
+     * в том же порядке, в котором счета блокируются.
+     *
+     * @return изменения балансов по счетам
+     */
+    public Map<Long, Long> nonZeroPositions() {
+        Map<Long, Long> result = new TreeMap<>();
+        positions.forEach((accountId, position) -> {
+            if (position != 0) {
+                result.put(accountId, position);
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,65 @@
+package ru.dzhenbaz.P2PTransactionsTask.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.dzhenbaz.P2PTransactionsTask.model.OutboxEvent;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Получатель, дописывающий события в локальный файл в формате NDJSON (одно событие JSON на строку).
+ * <p>
+ * Пачка записывается одним вызовом и сбрасывается на диск до возврата, поэтому подтверждённые
+ * события не теряются при сбое. После сбоя между записью и сохранением смещения последняя пачка
+ * может оказаться в файле дважды.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+public class FileOutboxSink implements OutboxSink {
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Конструктор.
+     *
+     * @param path         путь к файлу
+     * @param objectMapper сериализатор JSON
+     */
+    public FileOutboxSink(Path path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String name() {
+        return "file";
+    }
+
+    @Override
+    public synchronized void deliver(List<OutboxEvent> events) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (OutboxEvent event : events) {
+            lines.append(objectMapper.writeValueAsString(event)).append('\n');
+        }
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package ru.dzhenbaz.P2PTransactionsTask.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.dzhenbaz.P2PTransactionsTask.model.OutboxEvent;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Получатель, отправляющий пачку событий JSON-массивом в {@code POST}-запросе на заданный адрес.
+ * <p>
+ * Пачка считается доставленной при ответе 2xx. Повторная отправка той же пачки возможна,
+ * получатель должен отбрасывать события с уже обработанным {@code seq}.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+public class HttpOutboxSink implements OutboxSink {
+
+    private final URI url;
+    private final Duration timeout;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+
+    /**
+     * Конструктор.
+     *
+     * @param url          адрес получателя
+     * @param timeout      тайм-аут соединения и ответа
+     * @param objectMapper сериализатор JSON
+     */
+    public HttpOutboxSink(URI url, Duration timeout, ObjectMapper objectMapper) {
+        this.url = url;
+        this.timeout = timeout;
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public String name() {
+        return "http";
+    }
+
+    @Override
+    public void deliver(List<OutboxEvent> events) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(url)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(events)))
+                .build();
+        HttpResponse<Void> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while delivering outbox events");
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Outbox HTTP sink responded with status " + response.statusCode());
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package ru.dzhenbaz.P2PTransactionsTask.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.dzhenbaz.P2PTransactionsTask.dao.OutboxDao;
+import ru.dzhenbaz.P2PTransactionsTask.model.OutboxEvent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ретранслятор исходящей очереди переводов ({@code transfer_outbox}) в получателей {@link OutboxSink}.
+ * <p>
+ * Каждый проход состоит из трёх шагов, каждый в своей короткой транзакции:
+ * <ol>
+ *     <li>нумерация: зафиксированным событиям без номера присваиваются следующие номера
+ *     в порядке добавления. Незафиксированные строки не видны и получат номер позже,
+ *     поэтому в последовательности номеров не бывает пропусков;</li>
+ *     <li>доставка: для каждого получателя читаются события после его смещения, передаются
+ *     получателю, и смещение сдвигается на последнее доставленное событие;</li>
+ *     <li>очистка: удаляются события, доставленные всем зарегистрированным получателям.</li>
+ * </ol>
+ * </p>
+ *
+ * <p>Нумерацию и доставку каждому получателю в любой момент выполняет не больше одного экземпляра
+ * приложения: перед шагом блокируется соответствующая строка {@code outbox_offsets}
+ * ({@code FOR UPDATE SKIP LOCKED}), и экземпляры, не получившие блокировку, пропускают шаг.
+ * Поэтому получатель видит события строго в порядке номеров. Переводы, списывающие с одного счёта,
+ * выполняются под блокировкой его строки и фиксируются по очереди, так что события по счёту
+ * нумеруются в порядке фиксации.</p>
+ *
+ * <p>Смещение сохраняется в той же транзакции, что держит блокировку, и только после успешной
+ * доставки, поэтому после сбоя доставка продолжается с сохранённого смещения: каждое событие
+ * доставляется хотя бы один раз. Переводы ретранслятора не ждут.</p>
+ *
+ * <p>Метрики: {@code transfer.outbox.delivered} и {@code transfer.outbox.failures} с тегом
+ * {@code sink}, {@code transfer.outbox.lag} — число пронумерованных, но не доставленных получателю событий
+ * по данным последнего прохода этого экземпляра.</p>
+ *
+ * @author Dzhenbaz
+ */
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxDao outboxDao;
+    private final TransactionTemplate transactionTemplate;
+    private final List<Target> targets;
+    private final int batchSize;
+    private final AtomicLong lastAssignedSeq = new AtomicLong();
+
+    private volatile boolean registered;
+
+    /**
+     * Получатель со своими метриками.
+     */
+    private record Target(OutboxSink sink, AtomicLong offset, Counter delivered, Counter failures) {
+    }
+
+    /**
+     * Конструктор.
+     *
+     * @param outboxDao          DAO исходящей очереди
+     * @param transactionManager менеджер транзакций
+     * @param sinks              получатели событий
+     * @param batchSize          максимальное число событий в одной пачке
+     * @param meterRegistry      реестр метрик
+     */
+    public OutboxRelay(OutboxDao outboxDao, PlatformTransactionManager transactionManager, List<OutboxSink> sinks,
+                       int batchSize, MeterRegistry meterRegistry) {
+        this.outboxDao = outboxDao;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+        this.targets = sinks.stream()
+                .map(sink -> {
+                    Target target = new Target(sink, new AtomicLong(),
+                            Counter.builder("transfer.outbox.delivered")
+                                    .description("События исходящей очереди, доставленные получателю")
+                                    .tag("sink", sink.name())
+                                    .register(meterRegistry),
+                            Counter.builder("transfer.outbox.failures")
+                                    .description("Неудачные попытки доставки пачки получателю")
+                                    .tag("sink", sink.name())
+                                    .register(meterRegistry));
+                    Gauge.builder("transfer.outbox.lag", target,
+                                    t -> Math.max(0, lastAssignedSeq.get() - t.offset().get()))
+                            .description("События, ещё не доставленные получателю")
+                            .tag("sink", sink.name())
+                            .register(meterRegistry);
+                    return target;
+                })
+                .toList();
+    }
+
+    /**
+     * Выполняет один проход: нумерует новые события, доставляет их всем получателям
+     * и удаляет доставленные.
+     */
+    @Scheduled(fixedDelayString = "${transfer.outbox.poll-interval:500ms}")
+    public void relay() {
+        if (!registered) {
+            targets.forEach(target -> outboxDao.registerConsumer(target.sink().name()));
+            registered = true;
+        }
+        int sequenced;
+        do {
+            sequenced = sequence();
+        } while (sequenced == batchSize);
+
+        for (Target target : targets) {
+            try {
+                int delivered;
+                do {
+                    delivered = deliver(target);
+                } while (delivered == batchSize);
+            } catch (RuntimeException e) {
+                target.failures().increment();
+                log.warn("Outbox delivery to sink '{}' failed, will retry: {}", target.sink().name(), e.getMessage());
+            }
+        }
+        int deleted = outboxDao.deleteConsumed();
+        if (deleted > 0) {
+            log.debug("Deleted {} consumed outbox events", deleted);
+        }
+    }
+
+    /**
+     * Нумерует очередную пачку зафиксированных событий без номера.
+     *
+     * @return число пронумерованных событий
+     */
+    private int sequence() {
+        Integer count = transactionTemplate.execute(status -> {
+            Optional<Long> last = outboxDao.lockOffset(OutboxDao.SEQUENCER);
+            if (last.isEmpty()) {
+                return 0;
+            }
+            lastAssignedSeq.set(last.get());
+            List<Long> ids = outboxDao.findUnsequencedIds(batchSize);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            long lastSeq = last.get() + ids.size();
+            outboxDao.assignSeq(ids, last.get() + 1);
+            outboxDao.updateOffset(OutboxDao.SEQUENCER, lastSeq);
+            lastAssignedSeq.set(lastSeq);
+            return ids.size();
+        });
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Доставляет получателю очередную пачку событий после его смещения.
+     *
+     * @param target получатель
+     * @return число доставленных событий
+     */
+    private int deliver(Target target) {
+        String name = target.sink().name();
+        Integer count = transactionTemplate.execute(status -> {
+            Optional<Long> offset = outboxDao.lockOffset(name);
+            if (offset.isEmpty()) {
+                return 0;
+            }
+            target.offset().set(offset.get());
+            List<OutboxEvent> events = outboxDao.findAfter(offset.get(), batchSize);
+            if (events.isEmpty()) {
+                return 0;
+            }
+            try {
+                target.sink().deliver(events);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            long lastSeq = events.get(events.size() - 1).getSeq();
+            outboxDao.updateOffset(name, lastSeq);
+            target.offset().set(lastSeq);
+            target.delivered().increment(events.size());
+            return events.size();
+        });
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,36 @@
+package ru.dzhenbaz.P2PTransactionsTask.outbox;
+
+import ru.dzhenbaz.P2PTransactionsTask.model.OutboxEvent;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Получатель событий исходящей очереди переводов.
+ * <p>
+ * {@link OutboxRelay} передаёт получателю события пачками в порядке номеров и сдвигает его смещение
+ * только после успешного возврата из {@link #deliver}. При ошибке или сбое процесса пачка будет
+ * доставлена повторно (at-least-once), поэтому получатель должен выдерживать повторы —
+ * например, отбрасывать события с уже обработанным {@code seq}.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+public interface OutboxSink {
+
+    /**
+     * Возвращает имя получателя, под которым хранится его смещение. Имя не должно меняться
+     * между запусками, иначе доставка начнётся заново.
+     *
+     * @return имя получателя
+     */
+    String name();
+
+    /**
+     * Доставляет пачку событий.
+     *
+     * @param events события в порядке номеров
+     * @throws IOException если доставка не удалась
+     */
+    void deliver(List<OutboxEvent> events) throws IOException;
+}
@@ -0,0 +1,56 @@
+package ru.dzhenbaz.P2PTransactionsTask.outbox;
+
+import ru.dzhenbaz.P2PTransactionsTask.model.OutboxEvent;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Получатель, передающий события в ограниченную очередь в памяти для потребителей
+ * внутри приложения.
+ * <p>
+ * Пачка принимается целиком или не принимается вовсе: если в очереди нет места, доставка
+ * завершается ошибкой и повторяется при следующем проходе ретранслятора. Событие считается
+ * доставленным, как только попало в очередь: при остановке процесса непрочитанные события
+ * теряются вместе с потребителем.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+public class QueueOutboxSink implements OutboxSink {
+
+    private final BlockingQueue<OutboxEvent> queue;
+
+    /**
+     * Конструктор.
+     *
+     * @param capacity ёмкость очереди
+     */
+    public QueueOutboxSink(int capacity) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public String name() {
+        return "queue";
+    }
+
+    @Override
+    public synchronized void deliver(List<OutboxEvent> events) throws IOException {
+        if (queue.remainingCapacity() < events.size()) {
+            throw new IOException("Outbox queue is full");
+        }
+        queue.addAll(events);
+    }
+
+    /**
+     * Возвращает очередь, из которой потребители забирают события.
+     *
+     * @return очередь событий
+     */
+    public BlockingQueue<OutboxEvent> queue() {
+        return queue;
+    }
+}
@@ -0,0 +1,153 @@
+package ru.dzhenbaz.P2PTransactionsTask.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Обслуживание месячных секций таблицы {@code transactions} в PostgreSQL.
+ * <p>
+ * Таблица секционирована по диапазону {@code created_at} миграцией
+ * {@code v7_partition_transactions.yml}; секции называются {@code transactions_pYYYYMM}.
+ * Менеджер периодически создаёт секции на {@code monthsAhead} месяцев вперёд, чтобы вставки
+ * всегда попадали в существующую секцию: секции {@code DEFAULT} нет, и перевод с датой вне
+ * секций был бы отклонён.
+ * </p>
+ *
+ * <p>Если задан {@code retainMonths}, секции старше этого числа месяцев отсоединяются
+ * ({@code DETACH PARTITION}) и остаются отдельными таблицами-архивами: их строки больше
+ * не видны в истории и выгрузке, но сохраняются в БД и могут быть присоединены обратно.</p>
+ *
+ * <p>В других СУБД (H2 в тестах) и для несекционированной таблицы менеджер ничего не делает.</p>
+ *
+ * @author Dzhenbaz
+ */
+@Slf4j
+public class TransactionPartitionManager {
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("transactions_p(\\d{6})");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final int retainMonths;
+
+    private volatile Boolean supported;
+
+    /**
+     * Конструктор с внедрением зависимостей.
+     *
+     * @param jdbcTemplate компонент для выполнения SQL-запросов
+     * @param monthsAhead  число будущих месяцев, для которых секции создаются заранее
+     * @param retainMonths число хранимых месяцев, включая текущий; {@code 0} — не отсоединять секции
+     */
+    public TransactionPartitionManager(JdbcTemplate jdbcTemplate, int monthsAhead, int retainMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.retainMonths = retainMonths;
+    }
+
+    /**
+     * Создаёт недостающие будущие секции и отсоединяет устаревшие. Первый запуск выполняется
+     * при старте приложения.
+     */
+    @Scheduled(fixedDelayString = "${transfer.partitioning.check-interval:1h}")
+    public void maintain() {
+        if (!isSupported()) {
+            return;
+        }
+        try {
+            maintain(YearMonth.now());
+        } catch (DataAccessException e) {
+            log.error("Transaction partition maintenance failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Приводит набор секций в соответствие с текущим месяцем.
+     *
+     * @param current текущий месяц
+     */
+    void maintain(YearMonth current) {
+        Set<YearMonth> existing = findPartitions();
+
+        for (YearMonth month = current; !month.isAfter(current.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+            if (!existing.contains(month)) {
+                jdbcTemplate.execute(String.format(
+                        "CREATE TABLE IF NOT EXISTS %s PARTITION OF transactions FOR VALUES FROM ('%s') TO ('%s')",
+                        partitionName(month), month.atDay(1), month.plusMonths(1).atDay(1)));
+                log.info("Created transaction partition {}", partitionName(month));
+            }
+        }
+
+        if (retainMonths > 0) {
+            YearMonth oldestRetained = current.minusMonths(retainMonths - 1L);
+            for (YearMonth month : existing) {
+                if (month.isBefore(oldestRetained)) {
+                    jdbcTemplate.execute("ALTER TABLE transactions DETACH PARTITION " + partitionName(month));
+                    log.info("Detached transaction partition {} for archiving", partitionName(month));
+                }
+            }
+        }
+    }
+
+    /**
+     * Возвращает месяцы присоединённых секций.
+     *
+     * @return месяцы секций в порядке возрастания
+     */
+    Set<YearMonth> findPartitions() {
+        List<String> names = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i "
+                        + "JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "JOIN pg_class p ON p.oid = i.inhparent "
+                        + "WHERE p.relname = 'transactions'",
+                String.class);
+        Set<YearMonth> months = new TreeSet<>();
+        List<String> unknown = new ArrayList<>();
+        for (String name : names) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (matcher.matches()) {
+                months.add(YearMonth.parse(matcher.group(1), SUFFIX));
+            } else {
+                unknown.add(name);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            log.warn("Ignoring transaction partitions with unexpected names: {}", unknown);
+        }
+        return months;
+    }
+
+    private boolean isSupported() {
+        Boolean result = supported;
+        if (result == null) {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+            result = "PostgreSQL".equals(product) && Integer.valueOf(1).equals(jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM pg_partitioned_table pt "
+                            + "JOIN pg_class c ON c.oid = pt.partrelid WHERE c.relname = 'transactions'",
+                    Integer.class));
+            if (!result) {
+                log.info("Table transactions is not partitioned ({}), partition maintenance disabled", product);
+            }
+            supported = result;
+        }
+        return result;
+    }
+
+    private static String partitionName(YearMonth month) {
+        return "transactions_p" + month.format(SUFFIX);
+    }
+}
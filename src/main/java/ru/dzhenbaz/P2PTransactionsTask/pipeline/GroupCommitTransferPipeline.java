@@ -0,0 +1,258 @@
+package ru.dzhenbaz.P2PTransactionsTask.pipeline;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.dzhenbaz.P2PTransactionsTask.dto.TransferRequest;
+import ru.dzhenbaz.P2PTransactionsTask.service.TransactionService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Конвейер группового коммита перед {@link TransactionService}.
+ * <p>
+ * Подтверждённые переводы распределяются по разделам по идентификатору счёта-источника.
+ * У каждого раздела один поток-писатель: он собирает переводы, пришедшие в пределах
+ * временного окна или до заданного размера группы, и проводит их в одной транзакции БД.
+ * Таким образом стоимость коммита (и fsync) делится между всеми переводами группы.
+ * </p>
+ *
+ * <p>Каждый перевод выполняется через {@link TransactionService#transfer} внутри собственной
+ * точки сохранения, поэтому отказ одного перевода откатывает только его. Future вызывающего
+ * завершается после коммита общей транзакции. При конфликте блокировок вся группа повторяется.</p>
+ *
+ * <p>Если очередь раздела переполнена, перевод выполняется напрямую в потоке вызывающего.</p>
+ *
+ * <p>Метрики: {@code transfer.group_commit.batch_size} — размер группы,
+ * {@code transfer.group_commit.queue_wait} — время ожидания перевода в очереди,
+ * {@code transfer.group_commit.commit} — длительность проведения группы.</p>
+ *
+ * @author Dzhenbaz
+ */
+@Slf4j
+public class GroupCommitTransferPipeline implements AutoCloseable {
+
+    private static final int MAX_GROUP_ATTEMPTS = 3;
+
+    private final TransactionService transactionService;
+    private final TransactionTemplate groupTemplate;
+    private final TransactionTemplate itemTemplate;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final List<BlockingQueue<PendingTransfer>> queues;
+    private final List<Thread> writers;
+    private final DistributionSummary batchSize;
+    private final Timer queueWait;
+    private final Timer commitTimer;
+
+    private volatile boolean running = true;
+
+    /**
+     * Перевод, ожидающий проведения в составе группы.
+     */
+    private record PendingTransfer(Long userId, TransferRequest request, CompletableFuture<String> result,
+                                   long enqueuedAt) {
+    }
+
+    /**
+     * Создаёт конвейер и запускает потоки-писатели разделов.
+     *
+     * @param transactionService сервис переводов
+     * @param transactionManager менеджер транзакций для групповой транзакции и точек сохранения
+     * @param partitions         число разделов
+     * @param maxBatchSize       максимальный размер группы
+     * @param maxWait            максимальное время ожидания пополнения группы
+     * @param queueCapacity      ёмкость очереди раздела
+     * @param meterRegistry      реестр метрик
+     */
+    public GroupCommitTransferPipeline(TransactionService transactionService,
+                                       PlatformTransactionManager transactionManager,
+                                       int partitions, int maxBatchSize, Duration maxWait, int queueCapacity,
+                                       MeterRegistry meterRegistry) {
+        this.transactionService = transactionService;
+        this.groupTemplate = new TransactionTemplate(transactionManager);
+        this.itemTemplate = new TransactionTemplate(transactionManager);
+        this.itemTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.batchSize = DistributionSummary.builder("transfer.group_commit.batch_size")
+                .description("Число переводов в одной групповой транзакции")
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("transfer.group_commit.queue_wait")
+                .description("Время ожидания перевода в очереди раздела")
+                .register(meterRegistry);
+        this.commitTimer = Timer.builder("transfer.group_commit.commit")
+                .description("Длительность проведения группы переводов")
+                .register(meterRegistry);
+
+        int count = Math.max(1, partitions);
+        this.queues = new ArrayList<>(count);
+        this.writers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BlockingQueue<PendingTransfer> queue = new ArrayBlockingQueue<>(queueCapacity);
+            queues.add(queue);
+            Thread writer = new Thread(() -> runWriter(queue), "group-commit-" + i);
+            writer.setDaemon(true);
+            writers.add(writer);
+            writer.start();
+        }
+    }
+
+    /**
+     * Ставит подтверждённый перевод в очередь раздела.
+     *
+     * @param userId  идентификатор пользователя-отправителя
+     * @param request запрос на перевод
+     * @return future с результатом перевода, завершаемый после коммита группы
+     */
+    public CompletableFuture<String> submit(Long userId, TransferRequest request) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        int partition = Math.floorMod(Long.hashCode(request.getFromAccountId()), queues.size());
+        PendingTransfer pending = new PendingTransfer(userId, request, result, System.nanoTime());
+        if (!running || !queues.get(partition).offer(pending)) {
+            log.warn("Group commit queue {} is full, executing transfer directly", partition);
+            try {
+                result.complete(transactionService.transfer(userId, request));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Проводит перевод через конвейер и ожидает коммита группы.
+     * Исключение перевода пробрасывается без обёртки.
+     *
+     * @param userId  идентификатор пользователя-отправителя
+     * @param request запрос на перевод
+     * @return результат операции в виде строки
+     */
+    public String transfer(Long userId, TransferRequest request) {
+        try {
+            return submit(userId, request).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Цикл потока-писателя раздела: собирает группу и проводит её.
+     *
+     * @param queue очередь раздела
+     */
+    private void runWriter(BlockingQueue<PendingTransfer> queue) {
+        List<PendingTransfer> group = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingTransfer first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (group.size() < maxBatchSize) {
+                    queue.drainTo(group, maxBatchSize - group.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (group.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingTransfer next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                }
+                commitGroup(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (RuntimeException e) {
+                log.error("Group commit writer failed: {}", e.getMessage(), e);
+                group.forEach(p -> p.result().completeExceptionally(e));
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    /**
+     * Проводит группу переводов в одной транзакции и завершает future вызывающих после коммита.
+     *
+     * @param group переводы группы
+     */
+    private void commitGroup(List<PendingTransfer> group) {
+        long dequeuedAt = System.nanoTime();
+        group.forEach(p -> queueWait.record(dequeuedAt - p.enqueuedAt(), TimeUnit.NANOSECONDS));
+        batchSize.record(group.size());
+
+        Object[] outcomes = new Object[group.size()];
+        for (int attempt = 1; ; attempt++) {
+            try {
+                commitTimer.record(() -> groupTemplate.executeWithoutResult(status -> {
+                    for (int i = 0; i < group.size(); i++) {
+                        outcomes[i] = applyOne(group.get(i));
+                    }
+                }));
+                break;
+            } catch (PessimisticLockingFailureException e) {
+                if (attempt >= MAX_GROUP_ATTEMPTS) {
+                    throw e;
+                }
+                log.info("Lock conflict in group of {} transfers on attempt {}, retrying", group.size(), attempt);
+            }
+        }
+
+        for (int i = 0; i < group.size(); i++) {
+            CompletableFuture<String> result = group.get(i).result();
+            if (outcomes[i] instanceof RuntimeException e) {
+                result.completeExceptionally(e);
+            } else {
+                result.complete((String) outcomes[i]);
+            }
+        }
+    }
+
+    /**
+     * Проводит один перевод группы в точке сохранения.
+     * Бизнес-ошибка откатывает только этот перевод; конфликт блокировок прерывает всю группу.
+     *
+     * @param pending перевод
+     * @return строка-результат или исключение отказа
+     */
+    private Object applyOne(PendingTransfer pending) {
+        try {
+            return itemTemplate.execute(status -> transactionService.transfer(pending.userId(), pending.request()));
+        } catch (PessimisticLockingFailureException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    /**
+     * Останавливает приём переводов; потоки-писатели проводят оставшиеся в очередях переводы и завершаются.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        for (Thread writer : writers) {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package ru.dzhenbaz.P2PTransactionsTask.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import ru.dzhenbaz.P2PTransactionsTask.exception.RateLimitExceededException;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничитель частоты переводов по пользователю и по счёту-источнику.
+ * <p>
+ * Для каждого пользователя и каждого счёта-источника хранится {@link TokenBucket} в ограниченной
+ * таблице {@link TokenBucketMap}. Проверка существующего ключа — чтение из
+ * {@link java.util.concurrent.ConcurrentHashMap} и один {@code compareAndSet}: без блокировок
+ * и без обращения к БД. Наполнившиеся корзины периодически удаляются, поэтому память
+ * не растёт с числом когда-либо активных ключей.
+ * </p>
+ *
+ * <p>Лимиты задаются тарифами ({@link Tier}); тариф пользователя определяется по настройке
+ * {@code transfer.rate-limit.user-tiers}, по умолчанию — {@code default-tier}. Корзина счёта
+ * создаётся с лимитами тарифа пользователя, первым обратившегося к счёту.</p>
+ *
+ * @author Dzhenbaz
+ */
+@Slf4j
+public class RateLimiter {
+
+    /**
+     * Лимиты тарифа: скорость (в секунду) и допустимый всплеск.
+     *
+     * @param userRate     переводов в секунду на пользователя
+     * @param userBurst    всплеск на пользователя
+     * @param accountRate  переводов в секунду на счёт-источник
+     * @param accountBurst всплеск на счёт-источник
+     */
+    public record Tier(double userRate, int userBurst, double accountRate, int accountBurst) {
+    }
+
+    private final Tier defaultTier;
+    private final Map<Long, Tier> userTiers;
+    private final TokenBucketMap userBuckets;
+    private final TokenBucketMap accountBuckets;
+    private final Counter userRejections;
+    private final Counter accountRejections;
+
+    /**
+     * Конструктор.
+     *
+     * @param defaultTier   тариф по умолчанию
+     * @param userTiers     тарифы отдельных пользователей
+     * @param maxKeys       максимальное число корзин каждого вида (пользователи, счета)
+     * @param meterRegistry реестр метрик
+     */
+    public RateLimiter(Tier defaultTier, Map<Long, Tier> userTiers, int maxKeys, MeterRegistry meterRegistry) {
+        this.defaultTier = defaultTier;
+        this.userTiers = Map.copyOf(userTiers);
+        this.userBuckets = new TokenBucketMap(maxKeys);
+        this.accountBuckets = new TokenBucketMap(maxKeys);
+        this.userRejections = Counter.builder("transfer.rate_limit.rejected")
+                .description("Переводы, отклонённые ограничителем частоты")
+                .tag("scope", "user")
+                .register(meterRegistry);
+        this.accountRejections = Counter.builder("transfer.rate_limit.rejected")
+                .description("Переводы, отклонённые ограничителем частоты")
+                .tag("scope", "account")
+                .register(meterRegistry);
+        Gauge.builder("transfer.rate_limit.keys", this, limiter -> limiter.userBuckets.size()
+                        + limiter.accountBuckets.size())
+                .description("Число хранимых корзин токенов")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Проверяет лимиты пользователя и, если указан, счёта-источника. Если запрос отклонён по лимиту
+     * счёта, токен пользователя возвращается. Отсутствие корзины (таблица переполнена активными
+     * ключами) считается отказом.
+     *
+     * @param userId        идентификатор пользователя
+     * @param fromAccountId идентификатор счёта-источника или {@code null}
+     * @throws RateLimitExceededException если лимит превышен
+     */
+    public void check(Long userId, Long fromAccountId) {
+        long now = System.nanoTime();
+        Tier tier = userTiers.getOrDefault(userId, defaultTier);
+
+        long wait = userBuckets.tryAcquire(userId, now,
+                t -> new TokenBucket(tier.userRate(), tier.userBurst(), t));
+        if (wait > 0) {
+            userRejections.increment();
+            throw new RateLimitExceededException("Слишком много переводов, повторите позже", toSeconds(wait));
+        }
+
+        if (fromAccountId != null) {
+            wait = accountBuckets.tryAcquire(fromAccountId, now,
+                    t -> new TokenBucket(tier.accountRate(), tier.accountBurst(), t));
+            if (wait > 0) {
+                userBuckets.refund(userId, now);
+                accountRejections.increment();
+                log.debug("Rate limit hit for account {} by user {}", fromAccountId, userId);
+                throw new RateLimitExceededException("Слишком много переводов со счёта, повторите позже",
+                        toSeconds(wait));
+            }
+        }
+    }
+
+    /**
+     * Удаляет наполнившиеся корзины.
+     */
+    @Scheduled(fixedDelayString = "${transfer.rate-limit.sweep-interval:1m}",
+            initialDelayString = "${transfer.rate-limit.sweep-interval:1m}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        int evicted = userBuckets.evictFull(now) + accountBuckets.evictFull(now);
+        if (evicted > 0) {
+            log.debug("Evicted {} idle rate limit buckets", evicted);
+        }
+    }
+
+    private static long toSeconds(long nanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+}
@@ -0,0 +1,87 @@
+package ru.dzhenbaz.P2PTransactionsTask.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Корзина токенов без блокировок.
+ * <p>
+ * Состояние корзины — одно число: теоретическое время прихода следующего запроса
+ * (алгоритм GCRA, эквивалентный корзине токенов). Запрос принимается, если это время
+ * опережает текущее не больше чем на {@code burst - 1} интервалов, и сдвигает его на один
+ * интервал. Обновление выполняется одним {@code compareAndSet}, поэтому проверка не берёт
+ * блокировок и не создаёт объектов.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+public final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * Создаёт полную корзину.
+     *
+     * @param ratePerSecond скорость пополнения, токенов в секунду
+     * @param burst         ёмкость корзины
+     * @param nowNanos      текущее время по {@link System#nanoTime()}
+     */
+    public TokenBucket(double ratePerSecond, int burst, long nowNanos) {
+        if (ratePerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("ratePerSecond and burst must be positive");
+        }
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        this.toleranceNanos = intervalNanos * (burst - 1);
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Пытается взять токен.
+     *
+     * @param nowNanos текущее время по {@link System#nanoTime()}
+     * @return {@code 0}, если токен взят; иначе время в наносекундах до появления токена
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long base = tat - nowNanos > 0 ? tat : nowNanos;
+            long waitNanos = base - toleranceNanos - nowNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrival.compareAndSet(tat, base + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Возвращает взятый токен. Корзина не наполняется сверх ёмкости.
+     *
+     * @param nowNanos текущее время по {@link System#nanoTime()}
+     */
+    public void refund(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            if (tat - nowNanos <= 0) {
+                return;
+            }
+            long next = tat - intervalNanos - nowNanos > 0 ? tat - intervalNanos : nowNanos;
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Проверяет, полна ли корзина. Полную корзину можно удалить без изменения поведения:
+     * новая корзина для того же ключа будет такой же.
+     *
+     * @param nowNanos текущее время по {@link System#nanoTime()}
+     * @return {@code true}, если корзина полна
+     */
+    public boolean isFull(long nowNanos) {
+        return theoreticalArrival.get() - nowNanos <= 0;
+    }
+}
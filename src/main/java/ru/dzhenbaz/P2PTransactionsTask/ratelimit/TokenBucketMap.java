@@ -0,0 +1,185 @@
+package ru.dzhenbaz.P2PTransactionsTask.ratelimit;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ограниченная по размеру таблица корзин токенов.
+ * <p>
+ * Чтение существующей корзины — один {@code get} из {@link ConcurrentHashMap} без блокировок.
+ * Устаревают корзины, которые успели наполниться: такая корзина ничем не отличается от новой,
+ * поэтому её удаление не меняет лимитов. Полные корзины удаляются периодической очисткой
+ * ({@link #evictFull(long)}). При достижении {@code maxKeys} новый ключ не запускает полный обход:
+ * один поток проверяет не больше {@link #EVICTION_SAMPLE} записей, продолжая с места, где остановилась
+ * прошлая проверка, а остальные потоки сразу получают отказ. Если места так и нет, новый ключ
+ * не получает корзину, и вызывающий код должен отклонить запрос.
+ * </p>
+ *
+ * <p>Корзина удаляется, только если она всё ещё полна и всё ещё хранится под своим ключом. Поток,
+ * успевший получить корзину до удаления, после взятия токена проверяет, что она не отсоединена
+ * от таблицы, и иначе повторяет взятие из актуальной корзины ({@link #tryAcquire}), поэтому
+ * удаление не даёт превысить всплеск.</p>
+ *
+ * @author Dzhenbaz
+ */
+public class TokenBucketMap {
+
+    /**
+     * Число записей, проверяемых при попытке освободить место для нового ключа.
+     */
+    static final int EVICTION_SAMPLE = 64;
+
+    private static final long REJECT_WAIT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Фабрика корзины для нового ключа.
+     */
+    @FunctionalInterface
+    public interface BucketFactory {
+
+        /**
+         * @param nowNanos текущее время по {@link System#nanoTime()}
+         * @return новая полная корзина
+         */
+        TokenBucket create(long nowNanos);
+    }
+
+    private final ConcurrentHashMap<Long, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final int maxKeys;
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    /**
+     * Позиция выборочной очистки; используется только потоком, захватившим {@code evicting}.
+     */
+    private Iterator<Map.Entry<Long, TokenBucket>> evictionCursor;
+
+    /**
+     * @param maxKeys максимальное число хранимых корзин
+     */
+    public TokenBucketMap(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Возвращает корзину ключа, создавая её при необходимости.
+     *
+     * @param key      ключ
+     * @param nowNanos текущее время по {@link System#nanoTime()}
+     * @param factory  фабрика корзины для нового ключа
+     * @return корзина или {@code null}, если таблица заполнена непустыми корзинами
+     */
+    public TokenBucket get(Long key, long nowNanos, BucketFactory factory) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxKeys) {
+            evictSample(nowNanos);
+            if (buckets.size() >= maxKeys) {
+                return null;
+            }
+        }
+        return buckets.computeIfAbsent(key, k -> factory.create(nowNanos));
+    }
+
+    /**
+     * Берёт токен из корзины ключа. Если корзину удалили из таблицы, пока из неё брали токен,
+     * взятие повторяется из корзины, хранящейся под ключом сейчас.
+     *
+     * @param key      ключ
+     * @param nowNanos текущее время по {@link System#nanoTime()}
+     * @param factory  фабрика корзины для нового ключа
+     * @return {@code 0}, если токен взят; иначе время в наносекундах до повтора
+     */
+    public long tryAcquire(Long key, long nowNanos, BucketFactory factory) {
+        while (true) {
+            TokenBucket bucket = get(key, nowNanos, factory);
+            if (bucket == null) {
+                return REJECT_WAIT_NANOS;
+            }
+            long wait = bucket.tryAcquire(nowNanos);
+            if (buckets.get(key) == bucket) {
+                return wait;
+            }
+        }
+    }
+
+    /**
+     * Возвращает токен, взятый {@link #tryAcquire}, если запрос в итоге не был принят.
+     *
+     * @param key      ключ
+     * @param nowNanos текущее время по {@link System#nanoTime()}
+     */
+    public void refund(Long key, long nowNanos) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            bucket.refund(nowNanos);
+        }
+    }
+
+    /**
+     * Удаляет полные корзины. Одновременно выполняется не больше одной очистки.
+     *
+     * @param nowNanos текущее время по {@link System#nanoTime()}
+     * @return число удалённых корзин
+     */
+    public int evictFull(long nowNanos) {
+        if (!evicting.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            int evicted = 0;
+            for (Map.Entry<Long, TokenBucket> entry : buckets.entrySet()) {
+                if (evictIfFull(entry, nowNanos)) {
+                    evicted++;
+                }
+            }
+            return evicted;
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    /**
+     * @return число хранимых корзин
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * Проверяет не больше {@link #EVICTION_SAMPLE} записей с позиции прошлой проверки и удаляет
+     * полные корзины. Если очистка уже выполняется другим потоком, сразу возвращает управление.
+     */
+    private void evictSample(long nowNanos) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            boolean restarted = false;
+            for (int checked = 0; checked < EVICTION_SAMPLE; checked++) {
+                if (evictionCursor == null || !evictionCursor.hasNext()) {
+                    if (restarted) {
+                        return;
+                    }
+                    evictionCursor = buckets.entrySet().iterator();
+                    restarted = true;
+                    if (!evictionCursor.hasNext()) {
+                        return;
+                    }
+                }
+                evictIfFull(evictionCursor.next(), nowNanos);
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private boolean evictIfFull(Map.Entry<Long, TokenBucket> entry, long nowNanos) {
+        TokenBucket bucket = entry.getValue();
+        return bucket.isFull(nowNanos) && buckets.remove(entry.getKey(), bucket);
+    }
+}
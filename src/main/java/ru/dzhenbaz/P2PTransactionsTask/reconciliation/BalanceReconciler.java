@@ -0,0 +1,357 @@
+package ru.dzhenbaz.P2PTransactionsTask.reconciliation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.dzhenbaz.P2PTransactionsTask.archive.ArchiveSegment;
+import ru.dzhenbaz.P2PTransactionsTask.archive.ArchiveStore;
+import ru.dzhenbaz.P2PTransactionsTask.dao.ReconciliationDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionArchiveDao;
+import ru.dzhenbaz.P2PTransactionsTask.dto.BalanceDriftResponse;
+import ru.dzhenbaz.P2PTransactionsTask.dto.ReconciliationResponse;
+import ru.dzhenbaz.P2PTransactionsTask.model.ArchivedSegment;
+import ru.dzhenbaz.P2PTransactionsTask.netting.LongLongHashMap;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Сверка балансов счетов с историей переводов.
+ * <p>
+ * Для каждого счёта ожидаемый баланс равен начальному ({@code accounts.opening_balance}) плюс
+ * зачисления и минус списания, включая переводы, перенесённые в архив. Ожидаемый баланс
+ * сравнивается с сохранённым, включая слоты; расхождения попадают в отчёт и журнал.
+ * </p>
+ *
+ * <p>Пространство идентификаторов счетов {@code [1, max(id)]} делится пополам задачами
+ * {@link RecursiveTask} до диапазонов не больше {@code rangeSize} счетов, которые выполняются
+ * в собственном {@link ForkJoinPool} на {@code parallelism} потоков. Диапазон проверяется
+ * в отдельной транзакции только для чтения с уровнем изоляции {@code REPEATABLE READ}: балансы
+ * и переводы читаются из одного снимка БД, поэтому переводы, проводимые во время сверки,
+ * не дают ложных расхождений. Читающая транзакция не блокирует строк, и переводы сверку не ждут.
+ * Каждый поток держит одно соединение с БД, поэтому {@code parallelism} не должен превышать
+ * размер пула соединений.</p>
+ *
+ * <p>Суммы накапливаются в примитивных массивах, индексированных смещением счёта в диапазоне.
+ * Итоги по архивированным месяцам считаются один раз за запуск в {@link LongLongHashMap}; какие
+ * месяцы архивированы, диапазон узнаёт из каталога в своём снимке.</p>
+ *
+ * <p>Метрики: {@code transfer.reconciliation.accounts} и {@code transfer.reconciliation.transfers} —
+ * проверенные счета и прочитанные записи о переводах (их скорость — пропускная способность),
+ * {@code transfer.reconciliation.progress} — доля пройденных идентификаторов текущего запуска,
+ * {@code transfer.reconciliation.drift} — число счетов с расхождением по последнему запуску,
+ * {@code transfer.reconciliation.failures} — непроверенные диапазоны,
+ * {@code transfer.reconciliation.duration} — длительность запуска.</p>
+ *
+ * @author Dzhenbaz
+ */
+@Slf4j
+public class BalanceReconciler implements AutoCloseable {
+
+    private final ReconciliationDao reconciliationDao;
+    private final TransactionArchiveDao archiveDao;
+    private final ArchiveStore archiveStore;
+    private final TransactionTemplate snapshotTransaction;
+    private final ForkJoinPool pool;
+    private final int rangeSize;
+    private final int fetchSize;
+    private final int maxReportedDrifts;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong totalIds = new AtomicLong();
+    private final AtomicLong processedIds = new AtomicLong();
+    private final AtomicLong lastDriftCount = new AtomicLong();
+    private final Counter accountsCounter;
+    private final Counter transfersCounter;
+    private final Counter failuresCounter;
+    private final Timer durationTimer;
+
+    private volatile ReconciliationResponse lastResult;
+
+    /**
+     * Итоги переводов одного архивированного месяца по счетам.
+     */
+    private record ArchiveTotals(LongLongHashMap debits, LongLongHashMap credits) {
+    }
+
+    /**
+     * Конструктор.
+     *
+     * @param reconciliationDao  DAO сверки
+     * @param archiveDao         DAO архива переводов
+     * @param archiveStore       открытые сегменты архива
+     * @param transactionManager менеджер транзакций
+     * @param parallelism        число потоков; {@code 0} — по числу процессоров
+     * @param rangeSize          максимальное число идентификаторов счетов в одном диапазоне
+     * @param fetchSize          число строк, получаемых от БД за одно обращение
+     * @param maxReportedDrifts  максимальное число расхождений в отчёте
+     * @param meterRegistry      реестр метрик
+     */
+    public BalanceReconciler(ReconciliationDao reconciliationDao, TransactionArchiveDao archiveDao,
+                             ArchiveStore archiveStore, PlatformTransactionManager transactionManager,
+                             int parallelism, int rangeSize, int fetchSize, int maxReportedDrifts,
+                             MeterRegistry meterRegistry) {
+        this.reconciliationDao = reconciliationDao;
+        this.archiveDao = archiveDao;
+        this.archiveStore = archiveStore;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTransaction.setReadOnly(true);
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+                p -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                    thread.setName("reconciliation-" + thread.getPoolIndex());
+                    return thread;
+                }, null, false);
+        this.rangeSize = Math.max(1, rangeSize);
+        this.fetchSize = fetchSize;
+        this.maxReportedDrifts = maxReportedDrifts;
+        this.accountsCounter = Counter.builder("transfer.reconciliation.accounts")
+                .description("Счета, проверенные сверкой")
+                .register(meterRegistry);
+        this.transfersCounter = Counter.builder("transfer.reconciliation.transfers")
+                .description("Записи о переводах, прочитанные сверкой")
+                .register(meterRegistry);
+        this.failuresCounter = Counter.builder("transfer.reconciliation.failures")
+                .description("Диапазоны счетов, которые сверка не смогла проверить")
+                .register(meterRegistry);
+        this.durationTimer = Timer.builder("transfer.reconciliation.duration")
+                .description("Длительность сверки")
+                .register(meterRegistry);
+        Gauge.builder("transfer.reconciliation.progress", this, BalanceReconciler::progress)
+                .description("Доля пройденных идентификаторов счетов в текущей сверке")
+                .register(meterRegistry);
+        Gauge.builder("transfer.reconciliation.drift", lastDriftCount, AtomicLong::get)
+                .description("Счета с расхождением по последней сверке")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Запускает сверку по расписанию. Если сверка уже выполняется, запуск пропускается.
+     */
+    @Scheduled(fixedDelayString = "${transfer.reconciliation.interval:24h}",
+            initialDelayString = "${transfer.reconciliation.initial-delay:1h}")
+    public void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (IllegalStateException e) {
+            log.info("Skipping scheduled reconciliation: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Balance reconciliation failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Сверяет все счета и возвращает отчёт.
+     *
+     * @return результат сверки
+     * @throws IllegalStateException если сверка уже выполняется
+     */
+    public ReconciliationResponse reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Сверка уже выполняется");
+        }
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            Timer.Sample sample = Timer.start();
+            long maxId = reconciliationDao.findMaxAccountId();
+            processedIds.set(0);
+            totalIds.set(maxId);
+
+            RangeResult result = maxId > 0
+                    ? pool.invoke(new RangeTask(1, maxId + 1, new ConcurrentHashMap<>()))
+                    : new RangeResult();
+
+            sample.stop(durationTimer);
+            lastDriftCount.set(result.driftCount);
+            ReconciliationResponse response = new ReconciliationResponse(startedAt, LocalDateTime.now(),
+                    result.accountsChecked, result.transfersScanned, result.driftCount, result.failedRanges,
+                    List.copyOf(result.drifts));
+            lastResult = response;
+            if (result.driftCount > 0 || result.failedRanges > 0) {
+                log.warn("Balance reconciliation found {} drifting accounts out of {}, {} account ranges failed",
+                        result.driftCount, result.accountsChecked, result.failedRanges);
+            } else {
+                log.info("Balance reconciliation checked {} accounts and {} transfer records, no drift",
+                        result.accountsChecked, result.transfersScanned);
+            }
+            return response;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Возвращает результат последней завершённой сверки.
+     *
+     * @return результат или {@code null}, если сверка ещё не выполнялась
+     */
+    public ReconciliationResponse lastResult() {
+        return lastResult;
+    }
+
+    /**
+     * Останавливает потоки сверки.
+     */
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    private double progress() {
+        long total = totalIds.get();
+        return total == 0 ? 0.0 : Math.min(1.0, (double) processedIds.get() / total);
+    }
+
+    /**
+     * Итоги сверки части диапазона.
+     */
+    private final class RangeResult {
+        private long accountsChecked;
+        private long transfersScanned;
+        private long driftCount;
+        private long failedRanges;
+        private final List<BalanceDriftResponse> drifts = new ArrayList<>();
+
+        void addDrift(long accountId, long expected, long actual) {
+            driftCount++;
+            if (drifts.size() < maxReportedDrifts) {
+                drifts.add(new BalanceDriftResponse(accountId, expected, actual, actual - expected));
+                log.warn("Account {} balance {} does not match its transfer history, expected {}",
+                        accountId, actual, expected);
+            }
+        }
+
+        /**
+         * Объединяет итоги с итогами следующего по порядку диапазона.
+         */
+        RangeResult merge(RangeResult next) {
+            accountsChecked += next.accountsChecked;
+            transfersScanned += next.transfersScanned;
+            driftCount += next.driftCount;
+            failedRanges += next.failedRanges;
+            for (BalanceDriftResponse drift : next.drifts) {
+                if (drifts.size() == maxReportedDrifts) {
+                    break;
+                }
+                drifts.add(drift);
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Проверка диапазона идентификаторов счетов {@code [fromId, toId)}.
+     */
+    private final class RangeTask extends RecursiveTask<RangeResult> {
+
+        private final long fromId;
+        private final long toId;
+        private final Map<ArchivedSegment, ArchiveTotals> archiveTotals;
+
+        RangeTask(long fromId, long toId, Map<ArchivedSegment, ArchiveTotals> archiveTotals) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.archiveTotals = archiveTotals;
+        }
+
+        @Override
+        protected RangeResult compute() {
+            if (toId - fromId <= rangeSize) {
+                return checkRange();
+            }
+            long middle = fromId + (toId - fromId) / 2;
+            RangeTask left = new RangeTask(fromId, middle, archiveTotals);
+            RangeTask right = new RangeTask(middle, toId, archiveTotals);
+            right.fork();
+            RangeResult result = left.compute();
+            return result.merge(right.join());
+        }
+
+        private RangeResult checkRange() {
+            try {
+                return snapshotTransaction.execute(status -> {
+                    int size = (int) (toId - fromId);
+                    long[] debits = new long[size];
+                    long[] credits = new long[size];
+                    RangeResult result = new RangeResult();
+
+                    reconciliationDao.streamDebits(fromId, toId, fetchSize, (accountId, amount) -> {
+                        debits[(int) (accountId - fromId)] += amount;
+                        result.transfersScanned++;
+                    });
+                    reconciliationDao.streamCredits(fromId, toId, fetchSize, (accountId, amount) -> {
+                        credits[(int) (accountId - fromId)] += amount;
+                        result.transfersScanned++;
+                    });
+                    for (ArchivedSegment segment : archiveDao.findSegments()) {
+                        if (segment.getStatus() == ArchivedSegment.Status.ARCHIVED) {
+                            ArchiveTotals totals = archiveTotals.computeIfAbsent(segment, this::sumArchive);
+                            addInRange(totals.debits(), debits);
+                            addInRange(totals.credits(), credits);
+                        }
+                    }
+
+                    reconciliationDao.streamBalances(fromId, toId, (accountId, openingBalance, balance) -> {
+                        int index = (int) (accountId - fromId);
+                        long expected = openingBalance + credits[index] - debits[index];
+                        result.accountsChecked++;
+                        if (expected != balance) {
+                            result.addDrift(accountId, expected, balance);
+                        }
+                    });
+                    accountsCounter.increment(result.accountsChecked);
+                    transfersCounter.increment(result.transfersScanned);
+                    return result;
+                });
+            } catch (RuntimeException e) {
+                log.error("Reconciliation of accounts [{}, {}) failed: {}", fromId, toId, e.getMessage(), e);
+                failuresCounter.increment();
+                RangeResult failed = new RangeResult();
+                failed.failedRanges = 1;
+                return failed;
+            } finally {
+                processedIds.addAndGet(toId - fromId);
+            }
+        }
+
+        private void addInRange(LongLongHashMap totals, long[] sums) {
+            totals.forEach((accountId, amount) -> {
+                if (accountId >= fromId && accountId < toId) {
+                    sums[(int) (accountId - fromId)] += amount;
+                }
+            });
+        }
+
+        private ArchiveTotals sumArchive(ArchivedSegment record) {
+            ArchiveSegment segment = archiveStore.segments().get(record.getMonth());
+            if (segment == null || segment.checksum() != record.getChecksum()) {
+                archiveStore.refresh();
+                segment = archiveStore.segments().get(record.getMonth());
+            }
+            if (segment == null || segment.checksum() != record.getChecksum()) {
+                throw new IllegalStateException("Сегмент архива за " + record.getMonth() + " недоступен");
+            }
+            LongLongHashMap debits = new LongLongHashMap(1024);
+            LongLongHashMap credits = new LongLongHashMap(1024);
+            segment.forEach(tx -> {
+                debits.addTo(tx.getFromAccountId(), tx.getAmount());
+                credits.addTo(tx.getToAccountId(), tx.getAmount());
+            });
+            return new ArchiveTotals(debits, credits);
+        }
+    }
+}
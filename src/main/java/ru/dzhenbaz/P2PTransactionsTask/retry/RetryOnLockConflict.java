@@ -0,0 +1,21 @@
+package ru.dzhenbaz.P2PTransactionsTask.retry;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Помечает метод, который следует повторить при взаимной блокировке
+ * или ошибке сериализации транзакции.
+ * <p>
+ * Обрабатывается {@link TransferRetryAspect}. Метод должен быть границей транзакции,
+ * чтобы каждая попытка выполнялась в новой транзакции.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnLockConflict {
+}
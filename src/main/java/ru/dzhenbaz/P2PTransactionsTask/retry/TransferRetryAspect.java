@@ -0,0 +1,124 @@
+package ru.dzhenbaz.P2PTransactionsTask.retry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Аспект повтора методов, помеченных {@link RetryOnLockConflict}.
+ * <p>
+ * Перехватывает {@link PessimisticLockingFailureException} (взаимная блокировка, ошибка сериализации,
+ * таймаут блокировки) и повторяет вызов с ограниченным числом попыток и случайной паузой
+ * (full jitter) с экспоненциально растущей верхней границей.
+ * </p>
+ *
+ * <p>Имеет наивысший приоритет, поэтому оборачивает транзакционный прокси: каждая попытка
+ * выполняется в собственной транзакции. Если вызов происходит внутри уже открытой транзакции,
+ * повтор не выполняется — откатить её может только внешний код.</p>
+ *
+ * <p>Метрики: {@code transfer.retry.retries} — число повторов,
+ * {@code transfer.retry.aborts} — число вызовов, исчерпавших все попытки.</p>
+ *
+ * @author Dzhenbaz
+ */
+@Aspect
+public class TransferRetryAspect implements Ordered {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final Counter retries;
+    private final Counter aborts;
+
+    /**
+     * Конструктор с параметрами политики повтора.
+     *
+     * @param maxAttempts    максимальное число попыток, включая первую
+     * @param initialBackoff верхняя граница паузы перед первым повтором
+     * @param maxBackoff     максимальная пауза между попытками
+     * @param meterRegistry  реестр метрик
+     */
+    public TransferRetryAspect(int maxAttempts, Duration initialBackoff, Duration maxBackoff,
+                               MeterRegistry meterRegistry) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = initialBackoff.toMillis();
+        this.maxBackoffMillis = maxBackoff.toMillis();
+        this.retries = Counter.builder("transfer.retry.retries")
+                .description("Повторы перевода после конфликта блокировок")
+                .register(meterRegistry);
+        this.aborts = Counter.builder("transfer.retry.aborts")
+                .description("Переводы, исчерпавшие все попытки")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Выполняет метод, повторяя его при конфликте блокировок.
+     *
+     * @param joinPoint точка соединения — помеченный метод
+     * @return результат выполнения метода
+     * @throws Throwable исключение последней попытки или исключение, не подлежащее повтору
+     */
+    @Around("@annotation(ru.dzhenbaz.P2PTransactionsTask.retry.RetryOnLockConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (PessimisticLockingFailureException e) {
+                String method = joinPoint.getSignature().toShortString();
+                if (attempt >= maxAttempts) {
+                    aborts.increment();
+                    logger.warn("Method {} aborted after {} attempts: {}", method, attempt, e.getMessage());
+                    throw e;
+                }
+                retries.increment();
+                long pause = backoffMillis(attempt);
+                logger.info("Lock conflict in {} on attempt {}, retrying in {} ms", method, attempt, pause);
+                sleep(pause, e);
+            }
+        }
+    }
+
+    /**
+     * Вычисляет случайную паузу перед повтором после попытки {@code attempt}.
+     *
+     * @param attempt номер неудачной попытки, начиная с 1
+     * @return пауза в миллисекундах
+     */
+    long backoffMillis(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private void sleep(long millis, RuntimeException cause) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
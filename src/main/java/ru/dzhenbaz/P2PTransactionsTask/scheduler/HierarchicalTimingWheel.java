@@ -0,0 +1,157 @@
+package ru.dzhenbaz.P2PTransactionsTask.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Иерархическое колесо таймеров.
+ * <p>
+ * Нижний уровень делит ближайший интервал {@code tick × wheelSize} на ячейки длиной {@code tick}.
+ * Задачи дальше этого интервала попадают на следующий уровень, ячейка которого равна всему
+ * интервалу нижнего, и так далее. Добавление задачи стоит O(число уровней), а продвижение
+ * времени обходит только прошедшие ячейки, независимо от общего числа задач. Когда время
+ * доходит до ячейки верхнего уровня, её задачи переносятся на нижние уровни.
+ * </p>
+ *
+ * <p>Задача срабатывает не раньше своего момента и не позже чем через {@code tick} после него.
+ * Не потокобезопасно: всеми вызовами управляет один поток планировщика.</p>
+ *
+ * @param <T> тип задачи
+ * @author Dzhenbaz
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final Level<T> root;
+    private long now;
+    private int size;
+
+    /**
+     * Задача с моментом срабатывания.
+     */
+    private record Entry<T>(long expirationMs, T item) {
+    }
+
+    /**
+     * Уровень колеса: кольцо ячеек одинаковой длины.
+     */
+    private static final class Level<T> {
+
+        private final long tickMs;
+        private final int wheelSize;
+        private final long intervalMs;
+        private final List<Entry<T>>[] buckets;
+        private long currentTime;
+        private Level<T> overflow;
+
+        @SuppressWarnings("unchecked")
+        private Level(long tickMs, int wheelSize, long startMs) {
+            this.tickMs = tickMs;
+            this.wheelSize = wheelSize;
+            this.intervalMs = tickMs * wheelSize;
+            this.buckets = new List[wheelSize];
+            this.currentTime = startMs - Math.floorMod(startMs, tickMs);
+        }
+
+        private Level<T> overflow() {
+            if (overflow == null) {
+                overflow = new Level<>(intervalMs, wheelSize, currentTime);
+            }
+            return overflow;
+        }
+
+        private List<Entry<T>> bucket(long timeMs) {
+            int index = (int) Math.floorMod(Math.floorDiv(timeMs, tickMs), (long) wheelSize);
+            if (buckets[index] == null) {
+                buckets[index] = new ArrayList<>();
+            }
+            return buckets[index];
+        }
+
+        /**
+         * Забирает задачи из ячеек, начало которых не позже {@code untilMs}, начиная с {@code fromMs}.
+         * Обходится не больше {@code wheelSize} ячеек: за один оборот пройдено всё кольцо.
+         */
+        private void drain(long fromMs, long untilMs, List<Entry<T>> out) {
+            for (long t = fromMs, n = 0; t <= untilMs && n < wheelSize; t += tickMs, n++) {
+                List<Entry<T>> bucket = bucket(t);
+                if (!bucket.isEmpty()) {
+                    out.addAll(bucket);
+                    bucket.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Создаёт колесо.
+     *
+     * @param tickMs    длина ячейки нижнего уровня в миллисекундах
+     * @param wheelSize число ячеек на каждом уровне
+     * @param startMs   начальное время в миллисекундах
+     */
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickMs and wheelSize must be positive");
+        }
+        this.root = new Level<>(tickMs, wheelSize, startMs);
+        this.now = startMs;
+    }
+
+    /**
+     * Добавляет задачу.
+     *
+     * @param expirationMs момент срабатывания в миллисекундах
+     * @param item         задача
+     * @return {@code true}, если задача добавлена; {@code false}, если её момент уже наступил
+     *         и исполнять её нужно сразу
+     */
+    public boolean add(long expirationMs, T item) {
+        if (expirationMs <= now) {
+            return false;
+        }
+        Level<T> level = root;
+        while (expirationMs >= level.currentTime + level.intervalMs) {
+            level = level.overflow();
+        }
+        level.bucket(expirationMs).add(new Entry<>(expirationMs, item));
+        size++;
+        return true;
+    }
+
+    /**
+     * Продвигает время и передаёт наступившие задачи в {@code due} в порядке ячеек.
+     *
+     * @param nowMs текущее время в миллисекундах; движение назад игнорируется
+     * @param due   получатель наступивших задач
+     */
+    public void advance(long nowMs, Consumer<T> due) {
+        if (nowMs <= now) {
+            return;
+        }
+        now = nowMs;
+
+        List<Entry<T>> collected = new ArrayList<>();
+        for (Level<T> level = root; level != null; level = level.overflow) {
+            long target = nowMs - Math.floorMod(nowMs, level.tickMs);
+            // Текущая ячейка нижнего уровня пересматривается на каждом шаге, верхних — только новые
+            long from = level == root ? level.currentTime : level.currentTime + level.tickMs;
+            level.drain(from, target, collected);
+            level.currentTime = target;
+        }
+
+        size -= collected.size();
+        for (Entry<T> entry : collected) {
+            if (!add(entry.expirationMs(), entry.item())) {
+                due.accept(entry.item());
+            }
+        }
+    }
+
+    /**
+     * @return число задач, ожидающих срабатывания
+     */
+    public int size() {
+        return size;
+    }
+}
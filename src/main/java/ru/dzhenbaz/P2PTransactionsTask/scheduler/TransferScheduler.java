@@ -0,0 +1,273 @@
+package ru.dzhenbaz.P2PTransactionsTask.scheduler;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.dzhenbaz.P2PTransactionsTask.dao.ScheduledTransferDao;
+import ru.dzhenbaz.P2PTransactionsTask.dto.TransferRequest;
+import ru.dzhenbaz.P2PTransactionsTask.exception.AccountClosedException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.AccountNotFoundException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.AccountOwnershipException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.BadRequestException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.NotFoundException;
+import ru.dzhenbaz.P2PTransactionsTask.model.ScheduledTransfer;
+import ru.dzhenbaz.P2PTransactionsTask.service.TransactionService;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Планировщик отложенных и регулярных переводов.
+ * <p>
+ * Раз в {@code loadInterval} читает из БД активные переводы, срок которых наступает в ближайшем
+ * окне {@code loadWindow}, и раскладывает их по {@link HierarchicalTimingWheel}. На каждом тике
+ * колесо отдаёт наступившие переводы, и за тик исполняется не больше {@code batchSize} из них;
+ * остальные остаются в очереди и учитываются метрикой {@code transfer.schedule.backlog}.
+ * </p>
+ *
+ * <p>Прогресс хранится в БД. Перед исполнением запуск фиксируется условным обновлением
+ * {@code next_run_at} (см. {@link ScheduledTransferDao#advance}) в той же транзакции, что и
+ * перевод, поэтому после перезапуска или при нескольких экземплярах приложения запуск не
+ * теряется и не исполняется дважды: незафиксированный запуск будет прочитан снова, а
+ * зафиксированный другим исполнителем пропускается.</p>
+ *
+ * <p>Бизнес-отказ перевода (недостаточно средств, счёт закрыт) записывается в {@code last_error},
+ * и регулярный перевод переходит к следующему периоду. При конфликте блокировок запуск
+ * повторяется на следующем тике.</p>
+ *
+ * @author Dzhenbaz
+ */
+@Slf4j
+public class TransferScheduler implements AutoCloseable {
+
+    private final ScheduledTransferDao scheduledTransferDao;
+    private final TransactionService transactionService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration tick;
+    private final Duration loadWindow;
+    private final Duration loadInterval;
+    private final int batchSize;
+    private final int loadLimit;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private final HierarchicalTimingWheel<ScheduledTransfer> wheel;
+    private final Set<Long> scheduled = new HashSet<>();
+    private final Queue<ScheduledTransfer> due = new ArrayDeque<>();
+    private final Queue<ScheduledTransfer> submitted = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger backlog = new AtomicInteger();
+    private final Timer lagTimer;
+    private final ScheduledExecutorService executor;
+
+    private LocalDateTime loadedUntil = LocalDateTime.MIN;
+    private long nextLoadAt;
+
+    /**
+     * Конструктор с внедрением зависимостей.
+     *
+     * @param scheduledTransferDao DAO запланированных переводов
+     * @param transactionService   сервис переводов
+     * @param transactionManager   менеджер транзакций
+     * @param tick                 шаг колеса и период проверки наступивших переводов
+     * @param wheelSize            число ячеек на уровне колеса
+     * @param loadWindow           ширина окна, загружаемого из БД в колесо
+     * @param loadInterval         период загрузки окна; должен быть меньше {@code loadWindow}
+     * @param batchSize            максимальное число переводов, исполняемых за тик
+     * @param loadLimit            максимальное число переводов, загружаемых за раз
+     * @param meterRegistry        реестр метрик
+     */
+    public TransferScheduler(ScheduledTransferDao scheduledTransferDao, TransactionService transactionService,
+                             PlatformTransactionManager transactionManager, Duration tick, int wheelSize,
+                             Duration loadWindow, Duration loadInterval, int batchSize, int loadLimit,
+                             MeterRegistry meterRegistry) {
+        this.scheduledTransferDao = scheduledTransferDao;
+        this.transactionService = transactionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tick = tick;
+        this.loadWindow = loadWindow;
+        this.loadInterval = loadInterval;
+        this.batchSize = Math.max(1, batchSize);
+        this.loadLimit = Math.max(1, loadLimit);
+        this.wheel = new HierarchicalTimingWheel<>(tick.toMillis(), wheelSize, System.currentTimeMillis());
+        this.lagTimer = Timer.builder("transfer.schedule.lag")
+                .description("Задержка исполнения запланированного перевода относительно назначенного времени")
+                .register(meterRegistry);
+        Gauge.builder("transfer.schedule.backlog", backlog, AtomicInteger::get)
+                .description("Наступившие запланированные переводы, ожидающие исполнения")
+                .register(meterRegistry);
+        this.executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "transfer-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Запускает поток планировщика.
+     */
+    public void start() {
+        long period = tick.toMillis();
+        executor.scheduleWithFixedDelay(this::safeTick, 0, period, TimeUnit.MILLISECONDS);
+        log.info("Transfer scheduler started: tick={}, window={}, loadInterval={}", tick, loadWindow, loadInterval);
+    }
+
+    /**
+     * Передаёт планировщику только что созданный перевод. Если он попадает в уже загруженное окно,
+     * он будет добавлен в колесо на ближайшем тике; иначе его прочитает следующая загрузка.
+     * Метод потокобезопасен.
+     *
+     * @param transfer сохранённый запланированный перевод
+     */
+    public void schedule(ScheduledTransfer transfer) {
+        submitted.add(transfer);
+    }
+
+    private void safeTick() {
+        try {
+            tick();
+        } catch (RuntimeException e) {
+            log.error("Transfer scheduler tick failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Один шаг планировщика: загрузка окна, продвижение колеса и исполнение наступивших переводов.
+     * Вызывается только из потока планировщика.
+     */
+    void tick() {
+        long now = System.currentTimeMillis();
+        if (now >= nextLoadAt) {
+            loadWindow(now);
+            nextLoadAt = now + loadInterval.toMillis();
+        }
+
+        ScheduledTransfer transfer;
+        while ((transfer = submitted.poll()) != null) {
+            if (transfer.getNextRunAt().isBefore(loadedUntil)) {
+                enqueue(transfer);
+            }
+        }
+
+        wheel.advance(now, due::add);
+
+        List<ScheduledTransfer> retry = new ArrayList<>();
+        for (int i = 0; i < batchSize && (transfer = due.poll()) != null; i++) {
+            if (!fire(transfer, now)) {
+                retry.add(transfer);
+            }
+        }
+        due.addAll(retry);
+        backlog.set(due.size());
+    }
+
+    private void loadWindow(long now) {
+        LocalDateTime until = toLocalDateTime(now).plus(loadWindow);
+        List<ScheduledTransfer> transfers = scheduledTransferDao.findDueBefore(until, loadLimit);
+        // Если окно не поместилось в лимит, загруженной считается только его прочитанная часть
+        loadedUntil = transfers.size() < loadLimit ? until : transfers.get(transfers.size() - 1).getNextRunAt();
+        for (ScheduledTransfer transfer : transfers) {
+            enqueue(transfer);
+        }
+        log.debug("Loaded {} scheduled transfers due before {}", transfers.size(), loadedUntil);
+    }
+
+    private void enqueue(ScheduledTransfer transfer) {
+        if (!scheduled.add(transfer.getId())) {
+            return;
+        }
+        if (!wheel.add(toEpochMilli(transfer.getNextRunAt()), transfer)) {
+            due.add(transfer);
+        }
+    }
+
+    /**
+     * Исполняет очередной запуск перевода.
+     *
+     * @return {@code false}, если запуск нужно повторить на следующем тике
+     */
+    private boolean fire(ScheduledTransfer transfer, long now) {
+        LocalDateTime runAt = transfer.getNextRunAt();
+        LocalDateTime next = transfer.getRecurrence().runAt(transfer.getFirstRunAt(), transfer.getRunCount() + 1);
+        boolean active = next != null;
+        LocalDateTime nextRunAt = active ? next : runAt;
+
+        boolean claimed;
+        try {
+            claimed = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (!scheduledTransferDao.advance(transfer.getId(), runAt, nextRunAt, active, null)) {
+                    return false;
+                }
+                transactionService.transfer(transfer.getUserId(), new TransferRequest(
+                        transfer.getFromAccountId(), transfer.getToAccountId(), transfer.getAmount(), true));
+                return true;
+            }));
+            if (!claimed) {
+                log.debug("Scheduled transfer {} run at {} already processed or cancelled", transfer.getId(), runAt);
+            } else {
+                log.info("Scheduled transfer {} executed: {} -> {}, amount {}", transfer.getId(),
+                        transfer.getFromAccountId(), transfer.getToAccountId(), transfer.getAmount());
+            }
+        } catch (PessimisticLockingFailureException e) {
+            log.warn("Scheduled transfer {} hit a lock conflict, retrying on next tick", transfer.getId());
+            return false;
+        } catch (BadRequestException | NotFoundException | AccountClosedException | AccountNotFoundException
+                 | AccountOwnershipException e) {
+            claimed = scheduledTransferDao.advance(transfer.getId(), runAt, nextRunAt, active, e.getMessage());
+            if (claimed) {
+                log.warn("Scheduled transfer {} rejected: {}", transfer.getId(), e.getMessage());
+            }
+        } catch (RuntimeException e) {
+            // Запуск не зафиксирован и будет прочитан из БД следующей загрузкой окна
+            log.error("Scheduled transfer {} failed: {}", transfer.getId(), e.getMessage(), e);
+            scheduled.remove(transfer.getId());
+            return true;
+        }
+
+        scheduled.remove(transfer.getId());
+        if (claimed) {
+            lagTimer.record(Math.max(0, now - toEpochMilli(runAt)), TimeUnit.MILLISECONDS);
+            if (active) {
+                transfer.setNextRunAt(next);
+                transfer.setRunCount(transfer.getRunCount() + 1);
+                if (next.isBefore(loadedUntil)) {
+                    enqueue(transfer);
+                }
+            }
+        }
+        return true;
+    }
+
+    private long toEpochMilli(LocalDateTime time) {
+        return time.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    private LocalDateTime toLocalDateTime(long epochMilli) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), zone);
+    }
+
+    /**
+     * Останавливает поток планировщика. Незафиксированные запуски будут прочитаны из БД
+     * после перезапуска.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
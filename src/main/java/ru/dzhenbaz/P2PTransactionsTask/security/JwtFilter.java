@@ -4,10 +4,10 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
-import ru.dzhenbaz.P2PTransactionsTask.model.User;
 import ru.dzhenbaz.P2PTransactionsTask.service.UserService;
 
 import java.io.IOException;
@@ -20,10 +20,14 @@ import java.io.IOException;
  * и устанавливает аутентификацию в {@link SecurityContextHolder}, если токен корректен.
  * </p>
  *
+ * <p>Принципалом аутентификации служит {@link UserPrincipal} с {@code userId}: токен проверяется
+ * только здесь, контроллеры берут пользователя из контекста безопасности.</p>
+ *
  * <p>Наследуется от {@link OncePerRequestFilter}, что гарантирует однократную фильтрацию запроса.</p>
  *
  * @author Dzhenbaz
  */
+@Slf4j
 public class JwtFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
@@ -58,15 +62,14 @@ public class JwtFilter extends OncePerRequestFilter {
             String token = header.substring(7);
             try {
                 Long userId = jwtUtil.validateTokenAndRetrieveClaim(token);
-                User user = userService.findById(userId).orElse(null);
-                if (user != null) {
+                if (userService.findById(userId).isPresent()) {
                     UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
-                            user, null, null
+                            new UserPrincipal(userId), null, null
                     );
                     SecurityContextHolder.getContext().setAuthentication(auth);
                 }
             } catch (Exception e) {
-                System.out.println("JWT ошибка: " + e.getMessage());
+                log.debug("JWT rejected: {}", e.getMessage());
             }
         }
 
@@ -4,8 +4,16 @@ import com.auth0.jwt.JWT;
 import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.exceptions.TokenExpiredException;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.util.Date;
 
@@ -16,16 +24,49 @@ import java.util.Date;
  * Генерирует токен с claim {@code userId} и проверяет его подпись и срок действия.
  * </p>
  *
- * <p>Алгоритм подписи — HMAC256 с секретом, загружаемым из конфигурации.</p>
+ * <p>Алгоритм подписи — HMAC256 с секретом, загружаемым из конфигурации. Алгоритм и
+ * {@link JWTVerifier} создаются один раз и используются всеми потоками.</p>
+ *
+ * <p>Успешно проверенные токены кэшируются вместе с {@code userId} и сроком действия: повторный
+ * запрос с тем же токеном не пересчитывает подпись и не разбирает JSON. Запись живёт не дольше
+ * самого токена, а при попадании срок действия проверяется заново. В кэш попадают только
+ * токены, прошедшие полную проверку, поэтому ключом служит строка токена целиком.</p>
  *
  * @author Dzhenbaz
  */
 public class JwtUtil {
 
-    private final String secret;
+    private static final String SUBJECT = "User details";
+    private static final String ISSUER = "Dzhenbaz";
+
+    private final Algorithm algorithm;
+    private final JWTVerifier verifier;
+    private final Cache<String, VerifiedToken> verified;
 
-    public JwtUtil(String secret) {
-        this.secret = secret;
+    /**
+     * Конструктор.
+     *
+     * @param secret        секрет подписи
+     * @param cacheSize     максимальное число проверенных токенов в кэше; {@code 0} отключает кэш
+     * @param meterRegistry реестр метрик
+     */
+    public JwtUtil(String secret, long cacheSize, MeterRegistry meterRegistry) {
+        this.algorithm = Algorithm.HMAC256(secret);
+        this.verifier = JWT.require(algorithm)
+                .withSubject(SUBJECT)
+                .withIssuer(ISSUER)
+                .build();
+        if (cacheSize > 0) {
+            this.verified = Caffeine.newBuilder()
+                    .maximumSize(cacheSize)
+                    .expireAfter(Expiry.<String, VerifiedToken>creating(
+                            (token, value) -> Duration.between(Instant.now(), value.expiresAt())))
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, verified, "jwt");
+        } else {
+            this.verified = null;
+        }
     }
 
     /**
@@ -38,12 +79,12 @@ public class JwtUtil {
         Date expirationDate = Date.from(ZonedDateTime.now().plusMinutes(60).toInstant());
 
         return JWT.create()
-                .withSubject("User details")
+                .withSubject(SUBJECT)
                 .withClaim("userId", userId)
                 .withIssuedAt(new Date())
-                .withIssuer("Dzhenbaz")
+                .withIssuer(ISSUER)
                 .withExpiresAt(expirationDate)
-                .sign(Algorithm.HMAC256(secret));
+                .sign(algorithm);
     }
 
     /**
@@ -54,12 +95,33 @@ public class JwtUtil {
      * @throws JWTVerificationException если токен просрочен, недействителен или имеет неправильную подпись
      */
     public Long validateTokenAndRetrieveClaim(String token) throws JWTVerificationException {
-        JWTVerifier verifier = JWT.require(Algorithm.HMAC256(secret))
-                .withSubject("User details")
-                .withIssuer("Dzhenbaz")
-                .build();
+        if (verified == null) {
+            return verifier.verify(token).getClaim("userId").asLong();
+        }
+        VerifiedToken cached = verified.getIfPresent(token);
+        if (cached != null) {
+            if (Instant.now().isBefore(cached.expiresAt())) {
+                return cached.userId();
+            }
+            verified.invalidate(token);
+            throw new TokenExpiredException("The Token has expired on " + cached.expiresAt() + ".",
+                    cached.expiresAt());
+        }
 
         DecodedJWT jwt = verifier.verify(token);
-        return jwt.getClaim("userId").asLong();
+        Long userId = jwt.getClaim("userId").asLong();
+        if (jwt.getExpiresAtAsInstant() != null) {
+            verified.put(token, new VerifiedToken(userId, jwt.getExpiresAtAsInstant()));
+        }
+        return userId;
+    }
+
+    /**
+     * Результат проверки токена.
+     *
+     * @param userId    идентификатор пользователя из claim'а
+     * @param expiresAt момент истечения токена
+     */
+    private record VerifiedToken(Long userId, Instant expiresAt) {
     }
 }
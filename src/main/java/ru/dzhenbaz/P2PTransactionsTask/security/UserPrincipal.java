@@ -0,0 +1,15 @@
+package ru.dzhenbaz.P2PTransactionsTask.security;
+
+/**
+ * Аутентифицированный пользователь запроса.
+ * <p>
+ * Создаётся {@link JwtFilter} после проверки токена и кладётся в {@code SecurityContext}.
+ * Контроллеры получают его через {@code @AuthenticationPrincipal} и не разбирают заголовок
+ * {@code Authorization} повторно.
+ * </p>
+ *
+ * @param userId идентификатор пользователя
+ * @author Dzhenbaz
+ */
+public record UserPrincipal(Long userId) {
+}
@@ -0,0 +1,84 @@
+package ru.dzhenbaz.P2PTransactionsTask.service;
+
+import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDailyRollupDao;
+import ru.dzhenbaz.P2PTransactionsTask.dto.AccountRollupResponse;
+import ru.dzhenbaz.P2PTransactionsTask.dto.DailyRollupResponse;
+import ru.dzhenbaz.P2PTransactionsTask.exception.AccountNotFoundException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.AccountOwnershipException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.BadRequestException;
+import ru.dzhenbaz.P2PTransactionsTask.model.AccountDailyRollup;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Сервис итогов переводов по счёту за период.
+ * <p>
+ * Итоги читаются из таблицы {@code account_daily_rollup}, которую поддерживает
+ * {@link ru.dzhenbaz.P2PTransactionsTask.dao.impl.RollupTransactionDao}, поэтому стоимость
+ * запроса зависит от числа дней в периоде, а не от числа переводов по счёту.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+public class AccountRollupService {
+
+    private final AccountService accountService;
+    private final AccountDailyRollupDao rollupDao;
+    private final int maxDays;
+
+    /**
+     * Конструктор с внедрением зависимостей.
+     *
+     * @param accountService сервис счетов для проверки владельца
+     * @param rollupDao      DAO дневных итогов
+     * @param maxDays        максимальная длина периода в днях
+     */
+    public AccountRollupService(AccountService accountService, AccountDailyRollupDao rollupDao, int maxDays) {
+        this.accountService = accountService;
+        this.rollupDao = rollupDao;
+        this.maxDays = maxDays;
+    }
+
+    /**
+     * Возвращает итоги переводов по счёту пользователя по дням и за весь период.
+     *
+     * @param userId    идентификатор пользователя
+     * @param accountId идентификатор счёта
+     * @param from      первый день периода включительно
+     * @param to        последний день периода включительно
+     * @return итоги по дням и суммарные итоги
+     * @throws BadRequestException       если период пуст или длиннее допустимого
+     * @throws AccountOwnershipException если счёт не принадлежит пользователю
+     * @throws AccountNotFoundException  если счёт не найден
+     */
+    public AccountRollupResponse getRollup(Long userId, Long accountId, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("Начало периода должно быть не позже конца");
+        }
+        if (ChronoUnit.DAYS.between(from, to) + 1 > maxDays) {
+            throw new BadRequestException("Период не должен превышать " + maxDays + " дн.");
+        }
+
+        accountService.getAccountById(userId, accountId);
+
+        List<AccountDailyRollup> rows = rollupDao.findByAccountId(accountId, from, to);
+        long sentCount = 0;
+        long sentAmount = 0;
+        long receivedCount = 0;
+        long receivedAmount = 0;
+        for (AccountDailyRollup row : rows) {
+            sentCount += row.getSentCount();
+            sentAmount += row.getSentAmount();
+            receivedCount += row.getReceivedCount();
+            receivedAmount += row.getReceivedAmount();
+        }
+        List<DailyRollupResponse> days = rows.stream()
+                .map(row -> new DailyRollupResponse(row.getDate(), row.getSentCount(), row.getSentAmount(),
+                        row.getReceivedCount(), row.getReceivedAmount()))
+                .toList();
+        return new AccountRollupResponse(accountId, from, to, days, sentCount, sentAmount, receivedCount,
+                receivedAmount);
+    }
+}
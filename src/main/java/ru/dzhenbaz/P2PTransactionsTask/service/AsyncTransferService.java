@@ -0,0 +1,184 @@
+package ru.dzhenbaz.P2PTransactionsTask.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.PessimisticLockingFailureException;
+import ru.dzhenbaz.P2PTransactionsTask.dto.TransferRequest;
+import ru.dzhenbaz.P2PTransactionsTask.dto.TransferStatus;
+import ru.dzhenbaz.P2PTransactionsTask.dto.TransferStatusResponse;
+import ru.dzhenbaz.P2PTransactionsTask.exception.AccountClosedException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.AccountNotFoundException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.AccountOwnershipException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.BadRequestException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.NotFoundException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.ServiceUnavailableException;
+import ru.dzhenbaz.P2PTransactionsTask.pipeline.GroupCommitTransferPipeline;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Сервис асинхронной подачи переводов.
+ * <p>
+ * Перевод принимается сразу, получает идентификатор и исполняется в отдельном пуле потоков,
+ * поэтому поток веб-сервера не ждёт {@link TransactionService#transfer} при замедлении БД.
+ * Число одновременно исполняемых переводов ограничено размером пула, чтобы асинхронные
+ * переводы не исчерпали пул соединений JDBC; ожидающие переводы стоят в ограниченной очереди,
+ * а при её переполнении подача отклоняется с {@link ServiceUnavailableException}.
+ * </p>
+ *
+ * <p>Если включён конвейер группового коммита, перевод ставится прямо в его очередь
+ * и поток пула не занимает.</p>
+ *
+ * <p>Состояния переводов хранятся в памяти в кэше с ограничением размера и временем жизни.
+ * Вытесненный или устаревший перевод больше не виден в статусе, но его результат уже
+ * отражён в балансах и истории. Состояние видно только подавшему перевод пользователю.</p>
+ *
+ * <p>Метрика {@code transfer.async.queue} — число переводов, ожидающих потока пула.</p>
+ *
+ * @author Dzhenbaz
+ */
+@Slf4j
+public class AsyncTransferService implements AutoCloseable {
+
+    private final TransactionService transactionService;
+    private final GroupCommitTransferPipeline groupCommitPipeline;
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, Entry> statuses;
+
+    /**
+     * Состояние перевода вместе с владельцем.
+     */
+    private record Entry(Long userId, TransferStatusResponse status) {
+    }
+
+    /**
+     * Конструктор с внедрением зависимостей.
+     *
+     * @param transactionService  сервис переводов
+     * @param groupCommitPipeline конвейер группового коммита или {@code null}, если он отключён
+     * @param maxConcurrency      максимальное число одновременно исполняемых переводов
+     * @param queueCapacity       ёмкость очереди ожидающих переводов
+     * @param statusCacheSize     максимальное число хранимых состояний
+     * @param statusTtl           время хранения состояния
+     * @param meterRegistry       реестр метрик
+     */
+    public AsyncTransferService(TransactionService transactionService, GroupCommitTransferPipeline groupCommitPipeline,
+                                int maxConcurrency, int queueCapacity, long statusCacheSize, Duration statusTtl,
+                                MeterRegistry meterRegistry) {
+        this.transactionService = transactionService;
+        this.groupCommitPipeline = groupCommitPipeline;
+        int threads = Math.max(1, maxConcurrency);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                task -> {
+                    Thread thread = new Thread(task, "async-transfer-" + threadNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(statusCacheSize)
+                .expireAfterWrite(statusTtl)
+                .build();
+        Gauge.builder("transfer.async.queue", executor, e -> e.getQueue().size())
+                .description("Асинхронные переводы, ожидающие исполнения")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Принимает подтверждённый перевод к асинхронному исполнению.
+     *
+     * @param userId  идентификатор пользователя-отправителя
+     * @param request запрос на перевод
+     * @return состояние {@link TransferStatus#PENDING} с идентификатором перевода
+     * @throws BadRequestException         если перевод не подтверждён
+     * @throws ServiceUnavailableException если очередь асинхронных переводов переполнена
+     */
+    public TransferStatusResponse submit(Long userId, TransferRequest request) {
+        if (!request.isConfirm()) {
+            throw new BadRequestException("Асинхронно выполняется только подтверждённый перевод");
+        }
+
+        String id = UUID.randomUUID().toString();
+        TransferStatusResponse pending = new TransferStatusResponse(id, TransferStatus.PENDING, null);
+        statuses.put(id, new Entry(userId, pending));
+
+        CompletableFuture<String> result;
+        if (groupCommitPipeline != null) {
+            result = groupCommitPipeline.submit(userId, request);
+        } else {
+            try {
+                result = CompletableFuture.supplyAsync(() -> transactionService.transfer(userId, request), executor);
+            } catch (RejectedExecutionException e) {
+                statuses.invalidate(id);
+                log.warn("Async transfer queue is full, rejecting transfer of user {}", userId);
+                throw new ServiceUnavailableException("Очередь переводов переполнена, повторите запрос позже");
+            }
+        }
+
+        result.whenComplete((message, error) -> statuses.put(id, new Entry(userId, error == null
+                ? new TransferStatusResponse(id, TransferStatus.COMPLETED, message)
+                : new TransferStatusResponse(id, TransferStatus.FAILED, failureMessage(id, error)))));
+
+        return pending;
+    }
+
+    /**
+     * Возвращает состояние асинхронного перевода.
+     *
+     * @param userId идентификатор пользователя
+     * @param id     идентификатор асинхронного перевода
+     * @return состояние перевода
+     * @throws NotFoundException если перевод не найден, устарел или подан другим пользователем
+     */
+    public TransferStatusResponse getStatus(Long userId, String id) {
+        Entry entry = statuses.getIfPresent(id);
+        if (entry == null || !entry.userId().equals(userId)) {
+            throw new NotFoundException("Перевод не найден");
+        }
+        return entry.status();
+    }
+
+    /**
+     * Формирует сообщение об отказе. Сообщения бизнес-ошибок передаются клиенту как есть,
+     * остальные ошибки скрываются за общим сообщением.
+     *
+     * @param id    идентификатор асинхронного перевода
+     * @param error исключение перевода
+     * @return сообщение для клиента
+     */
+    private static String failureMessage(String id, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof BadRequestException || cause instanceof NotFoundException
+                || cause instanceof AccountClosedException || cause instanceof AccountNotFoundException
+                || cause instanceof AccountOwnershipException) {
+            return cause.getMessage();
+        }
+        if (cause instanceof PessimisticLockingFailureException) {
+            return "Счёт занят другой операцией, повторите запрос";
+        }
+        log.error("Async transfer {} failed: {}", id, cause.getMessage(), cause);
+        return "Внутренняя ошибка сервера";
+    }
+
+    /**
+     * Останавливает приём переводов и ожидает завершения уже принятых.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
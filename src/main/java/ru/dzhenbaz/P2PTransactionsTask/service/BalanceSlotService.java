@@ -0,0 +1,138 @@
+package ru.dzhenbaz.P2PTransactionsTask.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.annotation.Transactional;
+import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDao;
+import ru.dzhenbaz.P2PTransactionsTask.dto.BalanceSlotsResponse;
+import ru.dzhenbaz.P2PTransactionsTask.exception.BadRequestException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.NotFoundException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.ServiceUnavailableException;
+import ru.dzhenbaz.P2PTransactionsTask.model.Account;
+
+/**
+ * Сервис администрирования слотов баланса.
+ * <p>
+ * Счёт, получающий много конкурентных зачислений, можно разделить на несколько слотов:
+ * зачисления распределяются по строкам слотов, а списания и чтения баланса учитывают
+ * их сумму (см. {@link AccountDao}). Любое изменение числа слотов, как и перебалансировка,
+ * сначала сводит накопленные в слотах суммы в основную строку счёта.
+ * </p>
+ *
+ * <p>В режиме {@link TransferMode#LEDGER} балансы хранит движок леджера и записывает в БД
+ * асинхронно, поэтому менять раскладку баланса по слотам нельзя: изменения отклоняются,
+ * доступен только просмотр.</p>
+ *
+ * @author Dzhenbaz
+ */
+@Slf4j
+public class BalanceSlotService {
+
+    private final AccountDao accountDao;
+    private final int maxSlots;
+    private final TransferMode mode;
+
+    /**
+     * Конструктор с внедрением зависимостей. Использует режим {@link TransferMode#READ_MODIFY_WRITE}.
+     *
+     * @param accountDao DAO для доступа к счетам
+     * @param maxSlots   максимально допустимое число слотов на счёт
+     */
+    public BalanceSlotService(AccountDao accountDao, int maxSlots) {
+        this(accountDao, maxSlots, TransferMode.READ_MODIFY_WRITE);
+    }
+
+    /**
+     * Конструктор с внедрением зависимостей и выбором режима переводов.
+     *
+     * @param accountDao DAO для доступа к счетам
+     * @param maxSlots   максимально допустимое число слотов на счёт
+     * @param mode       режим переводов приложения
+     */
+    public BalanceSlotService(AccountDao accountDao, int maxSlots, TransferMode mode) {
+        this.accountDao = accountDao;
+        this.maxSlots = maxSlots;
+        this.mode = mode;
+    }
+
+    /**
+     * Возвращает текущее состояние слотов счёта.
+     *
+     * @param accountId идентификатор счёта
+     * @return суммарный баланс и балансы слотов
+     * @throws NotFoundException если счёт не найден
+     */
+    public BalanceSlotsResponse getSlots(Long accountId) {
+        Account account = accountDao.findById(accountId)
+                .orElseThrow(() -> new NotFoundException("Счёт не найден"));
+        return new BalanceSlotsResponse(accountId, account.getBalance(), accountDao.findBalanceSlots(accountId));
+    }
+
+    /**
+     * Включает разделение баланса или меняет число слотов. Вызов с текущим числом
+     * слотов перебалансирует счёт — сводит слоты в основную строку.
+     *
+     * @param accountId идентификатор счёта
+     * @param slotCount новое число слотов
+     * @return состояние слотов после изменения
+     * @throws BadRequestException         если число слотов вне допустимого диапазона
+     * @throws NotFoundException           если счёт не найден
+     * @throws ServiceUnavailableException в режиме {@link TransferMode#LEDGER}
+     */
+    @Transactional
+    public BalanceSlotsResponse resize(Long accountId, int slotCount) {
+        requireDirectBalances();
+        if (slotCount < 1 || slotCount > maxSlots) {
+            throw new BadRequestException(String.format("Число слотов должно быть от 1 до %d", maxSlots));
+        }
+        requireAccount(accountId);
+        accountDao.resizeBalanceSlots(accountId, slotCount);
+        log.info("Account {} balance split into {} slots", accountId, slotCount);
+        return getSlots(accountId);
+    }
+
+    /**
+     * Сводит накопленные в слотах суммы в основную строку, сохраняя число слотов.
+     *
+     * @param accountId идентификатор счёта
+     * @return состояние слотов после перебалансировки
+     * @throws NotFoundException           если счёт не найден
+     * @throws ServiceUnavailableException в режиме {@link TransferMode#LEDGER}
+     */
+    @Transactional
+    public BalanceSlotsResponse rebalance(Long accountId) {
+        requireDirectBalances();
+        requireAccount(accountId);
+        long moved = accountDao.consolidateBalanceSlots(accountId);
+        log.info("Account {} rebalanced, {} moved from slots to the main balance", accountId, moved);
+        return getSlots(accountId);
+    }
+
+    /**
+     * Отключает разделение баланса: слоты сводятся в основную строку и удаляются.
+     *
+     * @param accountId идентификатор счёта
+     * @return состояние счёта после отключения
+     * @throws NotFoundException           если счёт не найден
+     * @throws ServiceUnavailableException в режиме {@link TransferMode#LEDGER}
+     */
+    @Transactional
+    public BalanceSlotsResponse disable(Long accountId) {
+        requireDirectBalances();
+        requireAccount(accountId);
+        accountDao.resizeBalanceSlots(accountId, 0);
+        log.info("Account {} balance slots disabled", accountId);
+        return getSlots(accountId);
+    }
+
+    private void requireDirectBalances() {
+        if (mode == TransferMode.LEDGER) {
+            throw new ServiceUnavailableException("Слоты баланса нельзя менять в режиме LEDGER");
+        }
+    }
+
+    private void requireAccount(Long accountId) {
+        if (accountDao.findById(accountId).isEmpty()) {
+            throw new NotFoundException("Счёт не найден");
+        }
+    }
+}
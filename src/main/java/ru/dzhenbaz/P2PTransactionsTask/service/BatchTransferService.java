@@ -0,0 +1,249 @@
+package ru.dzhenbaz.P2PTransactionsTask.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.annotation.Transactional;
+import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionDao;
+import ru.dzhenbaz.P2PTransactionsTask.dto.BatchMode;
+import ru.dzhenbaz.P2PTransactionsTask.dto.BatchTransferItemResult;
+import ru.dzhenbaz.P2PTransactionsTask.dto.BatchTransferItemResult.Status;
+import ru.dzhenbaz.P2PTransactionsTask.dto.BatchTransferRequest;
+import ru.dzhenbaz.P2PTransactionsTask.dto.BatchTransferResponse;
+import ru.dzhenbaz.P2PTransactionsTask.dto.TransferRequest;
+import ru.dzhenbaz.P2PTransactionsTask.exception.BadRequestException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.ServiceUnavailableException;
+import ru.dzhenbaz.P2PTransactionsTask.model.Account;
+import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
+import ru.dzhenbaz.P2PTransactionsTask.netting.NetPositions;
+import ru.dzhenbaz.P2PTransactionsTask.retry.RetryOnLockConflict;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Сервис пакетных P2P-переводов.
+ * <p>
+ * Все счета пакета читаются одним запросом, переводы проверяются последовательно
+ * по балансам в памяти, а изменения балансов и записи транзакций пишутся
+ * пакетами JDBC в одной транзакции БД.
+ * </p>
+ *
+ * <p>Без подтверждения пакет только проверяется. При подтверждении счета блокируются
+ * в порядке возрастания идентификатора, поэтому проверенные балансы не устаревают до записи.</p>
+ *
+ * <p>В режиме {@link BatchMode#NETTING} достаточность средств проверяется не по каждому переводу,
+ * а по чистой позиции счёта после всего пакета (см. {@link NetPositions}), и каждый затронутый
+ * счёт обновляется одной записью. Для циклического пакета число записей в {@code accounts}
+ * равно числу счетов с ненулевой позицией, а не числу переводов.</p>
+ *
+ * <p>В режиме {@link TransferMode#LEDGER} балансами владеет движок леджера, поэтому пакет можно
+ * только проверить: подтверждённый пакет отклоняется до чтения счетов.</p>
+ *
+ * @author Dzhenbaz
+ */
+@Slf4j
+public class BatchTransferService {
+
+    private final AccountDao accountDao;
+    private final TransactionDao transactionDao;
+    private final int maxBatchSize;
+    private final TransferMode mode;
+
+    /**
+     * Конструктор с внедрением зависимостей. Использует режим {@link TransferMode#READ_MODIFY_WRITE}.
+     *
+     * @param accountDao     DAO для доступа к счетам
+     * @param transactionDao DAO для работы с транзакциями
+     * @param maxBatchSize   максимальное число переводов в пакете
+     */
+    public BatchTransferService(AccountDao accountDao, TransactionDao transactionDao, int maxBatchSize) {
+        this(accountDao, transactionDao, maxBatchSize, TransferMode.READ_MODIFY_WRITE);
+    }
+
+    /**
+     * Конструктор с внедрением зависимостей и выбором режима переводов.
+     *
+     * @param accountDao     DAO для доступа к счетам
+     * @param transactionDao DAO для работы с транзакциями
+     * @param maxBatchSize   максимальное число переводов в пакете
+     * @param mode           режим переводов приложения
+     */
+    public BatchTransferService(AccountDao accountDao, TransactionDao transactionDao, int maxBatchSize,
+                                TransferMode mode) {
+        this.accountDao = accountDao;
+        this.transactionDao = transactionDao;
+        this.maxBatchSize = maxBatchSize;
+        this.mode = mode;
+    }
+
+    /**
+     * Проверяет и, при подтверждении, исполняет пакет переводов.
+     *
+     * @param userId  идентификатор пользователя — владельца счетов-источников
+     * @param request пакет переводов
+     * @return результаты по каждому переводу пакета
+     * @throws BadRequestException         если пакет превышает допустимый размер
+     * @throws ServiceUnavailableException если пакет подтверждён в режиме {@link TransferMode#LEDGER}
+     */
+    @RetryOnLockConflict
+    @Transactional
+    public BatchTransferResponse transferBatch(Long userId, BatchTransferRequest request) {
+        if (request.isConfirm() && mode == TransferMode.LEDGER) {
+            throw new ServiceUnavailableException("Пакетные переводы недоступны в режиме LEDGER");
+        }
+        List<TransferRequest> items = request.getTransfers();
+        if (items.size() > maxBatchSize) {
+            throw new BadRequestException("Пакет не может содержать более " + maxBatchSize + " переводов");
+        }
+
+        Set<Long> ids = new HashSet<>();
+        for (TransferRequest item : items) {
+            ids.add(item.getFromAccountId());
+            ids.add(item.getToAccountId());
+        }
+
+        List<Account> found = request.isConfirm()
+                ? accountDao.findAllByIdsForUpdate(ids)
+                : accountDao.findAllByIds(ids);
+
+        Map<Long, Account> accounts = new HashMap<>();
+        Map<Long, Long> balances = new HashMap<>();
+        for (Account account : found) {
+            accounts.put(account.getId(), account);
+            balances.put(account.getId(), account.getBalance());
+        }
+
+        boolean netting = request.getMode() == BatchMode.NETTING;
+        NetPositions positions = netting ? new NetPositions(ids.size()) : null;
+        List<BatchTransferItemResult> results = new ArrayList<>(items.size());
+        List<Transaction> accepted = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < items.size(); i++) {
+            TransferRequest item = items.get(i);
+            String error = validate(userId, item, accounts, netting ? null : balances);
+            if (error != null) {
+                results.add(new BatchTransferItemResult(i, Status.REJECTED, error));
+                continue;
+            }
+            if (netting) {
+                positions.add(item.getFromAccountId(), item.getToAccountId(), item.getAmount());
+            } else {
+                balances.merge(item.getFromAccountId(), -item.getAmount(), Long::sum);
+                balances.merge(item.getToAccountId(), item.getAmount(), Long::sum);
+            }
+            accepted.add(new Transaction(null, item.getFromAccountId(), item.getToAccountId(), item.getAmount(), now));
+            acceptedIndexes.add(i);
+            results.add(new BatchTransferItemResult(i, Status.VALIDATED, null));
+        }
+
+        if (netting) {
+            rejectOverdrawnLegs(positions, balances, accepted, acceptedIndexes, results);
+        }
+
+        int rejected = items.size() - accepted.size();
+
+        if (!request.isConfirm()) {
+            return new BatchTransferResponse(false, 0, rejected, results);
+        }
+
+        if (rejected > 0 && request.getMode() != BatchMode.BEST_EFFORT) {
+            acceptedIndexes.forEach(i -> results.set(i, new BatchTransferItemResult(i, Status.SKIPPED, null)));
+            log.info("User {} batch of {} transfers rejected: {} invalid", userId, items.size(), rejected);
+            return new BatchTransferResponse(false, 0, rejected, results);
+        }
+
+        if (netting) {
+            accountDao.applyBalanceDeltas(positions.nonZeroPositions());
+            transactionDao.saveAll(accepted);
+            log.debug("Netted {} transfers into {} account positions", accepted.size(), positions.accountCount());
+        } else if (!accepted.isEmpty()) {
+            accountDao.applyTransfers(accepted);
+            transactionDao.saveAll(accepted);
+        }
+        acceptedIndexes.forEach(i -> results.set(i, new BatchTransferItemResult(i, Status.COMPLETED, null)));
+
+        log.info("User {} completed batch: {} transfers applied, {} rejected", userId, accepted.size(), rejected);
+
+        return new BatchTransferResponse(!accepted.isEmpty(), accepted.size(), rejected, results);
+    }
+
+    /**
+     * Отклоняет переводы, списывающие со счетов, чистая позиция которых превышает баланс.
+     * Такие переводы убираются из списка принятых, начиная с последних.
+     * <p>Позиции пересчитываются после каждого отклонения: снятый перевод перестаёт списывать
+     * с источника и зачислять получателю. Поэтому более ранние переводы со счёта остаются, если
+     * после отклонения помещаются в баланс, а переводы со счёта, которому не хватило снятого
+     * зачисления, отклоняются на следующем проходе. Проходы повторяются, пока отклонять нечего.</p>
+     *
+     * @param positions       чистые позиции принятых переводов; изменяются вместе со списком принятых
+     * @param balances        балансы счетов пакета до проведения
+     * @param accepted        принятые переводы
+     * @param acceptedIndexes индексы принятых переводов в пакете
+     * @param results         результаты по переводам пакета
+     */
+    private void rejectOverdrawnLegs(NetPositions positions, Map<Long, Long> balances, List<Transaction> accepted,
+                                     List<Integer> acceptedIndexes, List<BatchTransferItemResult> results) {
+        boolean removed = true;
+        while (removed) {
+            removed = false;
+            for (int i = accepted.size() - 1; i >= 0; i--) {
+                Transaction leg = accepted.get(i);
+                Long fromId = leg.getFromAccountId();
+                if (balances.get(fromId) + positions.positionOf(fromId) < 0) {
+                    positions.remove(fromId, leg.getToAccountId(), leg.getAmount());
+                    int index = acceptedIndexes.get(i);
+                    results.set(index, new BatchTransferItemResult(index, Status.REJECTED, "Недостаточно средств"));
+                    accepted.remove(i);
+                    acceptedIndexes.remove(i);
+                    removed = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Проверяет перевод пакета по счетам и текущим (с учётом предыдущих переводов) балансам.
+     * Порядок проверок и сообщения совпадают с одиночным переводом.
+     *
+     * @param userId   идентификатор пользователя-отправителя
+     * @param item     перевод
+     * @param accounts счета пакета по идентификатору
+     * @param balances текущие балансы счетов пакета или {@code null}, если средства
+     *                 проверяются по чистым позициям
+     * @return описание ошибки или {@code null}, если перевод корректен
+     */
+    private String validate(Long userId, TransferRequest item, Map<Long, Account> accounts, Map<Long, Long> balances) {
+        Long amount = item.getAmount();
+        if (amount == null || amount <= 0) {
+            return "Сумма должна быть положительной";
+        }
+        if (item.getFromAccountId().equals(item.getToAccountId())) {
+            return "Нельзя переводить на тот же счёт";
+        }
+        Account from = accounts.get(item.getFromAccountId());
+        if (from == null) {
+            return "Счёт отправителя не найден";
+        }
+        if (!from.getUserId().equals(userId)) {
+            return "Счёт не принадлежит пользователю";
+        }
+        Account to = accounts.get(item.getToAccountId());
+        if (to == null) {
+            return "Счёт получателя не найден";
+        }
+        if (from.isClosed() || to.isClosed()) {
+            return "Один из счетов закрыт";
+        }
+        if (balances != null && balances.get(from.getId()) < amount) {
+            return "Недостаточно средств";
+        }
+        return null;
+    }
+}
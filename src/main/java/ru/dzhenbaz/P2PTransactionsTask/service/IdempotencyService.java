@@ -0,0 +1,221 @@
+package ru.dzhenbaz.P2PTransactionsTask.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.dzhenbaz.P2PTransactionsTask.dao.IdempotencyKeyDao;
+import ru.dzhenbaz.P2PTransactionsTask.dto.TransferRequest;
+import ru.dzhenbaz.P2PTransactionsTask.exception.BadRequestException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.IdempotencyConflictException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.ServiceUnavailableException;
+import ru.dzhenbaz.P2PTransactionsTask.model.IdempotencyRecord;
+import ru.dzhenbaz.P2PTransactionsTask.retry.RetryOnLockConflict;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Сервис дедупликации переводов по заголовку {@code Idempotency-Key}.
+ * <p>
+ * Результаты успешных переводов хранятся в двух местах: в ограниченном по размеру кэше
+ * в памяти с вытеснением по времени и в таблице {@code idempotency_keys}. Повтор, найденный
+ * в кэше, возвращает сохранённый ответ без обращения к БД.
+ * </p>
+ *
+ * <p>При промахе кэша ключ занимается вставкой строки в той же транзакции, что и перевод,
+ * а ответ записывается перед коммитом. Параллельный запрос с тем же ключом в этом экземпляре
+ * приложения ждёт результата первого; в другом экземпляре — блокируется на вставке до коммита
+ * первой транзакции и затем читает сохранённый ответ. Ответы на неуспешные запросы
+ * не сохраняются: транзакция откатывается вместе с ключом.</p>
+ *
+ * <p>Поэтому перевод обязан выполняться в транзакции ключа: вызывающий код передаёт
+ * {@link TransactionService#transfer}, а не групповой коммит или другой путь со своей транзакцией.
+ * В режиме {@link TransferMode#LEDGER} перевод проводится леджером вне транзакции БД и общего
+ * коммита с ключом не имеет, поэтому запросы с ключом в этом режиме отклоняются.</p>
+ *
+ * <p>Ключ принадлежит пользователю. Повтор ключа с другими параметрами перевода
+ * отклоняется с {@link IdempotencyConflictException}.</p>
+ *
+ * @author Dzhenbaz
+ */
+@Slf4j
+public class IdempotencyService {
+
+    /**
+     * Максимальная длина ключа идемпотентности.
+     */
+    public static final int MAX_KEY_LENGTH = 128;
+
+    private final IdempotencyKeyDao idempotencyKeyDao;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final TransferMode mode;
+    private final Cache<String, Completed> completed;
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Завершённый запрос: отпечаток и ответ.
+     */
+    private record Completed(String fingerprint, String response) {
+    }
+
+    /**
+     * Запрос, выполняющийся в этом экземпляре приложения.
+     */
+    private record InFlight(String fingerprint, CompletableFuture<String> result) {
+    }
+
+    /**
+     * Конструктор с внедрением зависимостей. Использует режим {@link TransferMode#READ_MODIFY_WRITE}.
+     *
+     * @param idempotencyKeyDao  DAO для хранения ключей
+     * @param transactionManager менеджер транзакций для общей транзакции ключа и перевода
+     * @param cacheSize          максимальное число ключей в кэше
+     * @param ttl                время хранения ключа в кэше и в БД
+     */
+    public IdempotencyService(IdempotencyKeyDao idempotencyKeyDao, PlatformTransactionManager transactionManager,
+                              long cacheSize, Duration ttl) {
+        this(idempotencyKeyDao, transactionManager, cacheSize, ttl, TransferMode.READ_MODIFY_WRITE);
+    }
+
+    /**
+     * Конструктор с внедрением зависимостей и режимом исполнения переводов.
+     *
+     * @param idempotencyKeyDao  DAO для хранения ключей
+     * @param transactionManager менеджер транзакций для общей транзакции ключа и перевода
+     * @param cacheSize          максимальное число ключей в кэше
+     * @param ttl                время хранения ключа в кэше и в БД
+     * @param mode               режим исполнения переводов; в {@link TransferMode#LEDGER} запросы отклоняются
+     */
+    public IdempotencyService(IdempotencyKeyDao idempotencyKeyDao, PlatformTransactionManager transactionManager,
+                              long cacheSize, Duration ttl, TransferMode mode) {
+        this.idempotencyKeyDao = idempotencyKeyDao;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.mode = mode;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Выполняет перевод не более одного раза для данного ключа.
+     * <p>Повтор возвращает ответ первого успешного выполнения. Конфликт блокировок
+     * откатывает и перевод, и ключ, поэтому вызов повторяется целиком
+     * (см. {@link RetryOnLockConflict}).</p>
+     *
+     * @param userId   идентификатор пользователя
+     * @param key      значение заголовка {@code Idempotency-Key}
+     * @param request  параметры перевода
+     * @param transfer выполнение перевода в текущей транзакции
+     * @return ответ на перевод
+     * @throws BadRequestException          если ключ пуст или слишком длинный
+     * @throws IdempotencyConflictException если ключ использован для другого перевода
+     * @throws ServiceUnavailableException  если переводы исполняются в режиме {@link TransferMode#LEDGER}
+     */
+    @RetryOnLockConflict
+    public String execute(Long userId, String key, TransferRequest request, Supplier<String> transfer) {
+        if (mode == TransferMode.LEDGER) {
+            throw new ServiceUnavailableException("Idempotency-Key не поддерживается в режиме LEDGER");
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException("Некорректный Idempotency-Key");
+        }
+        String fingerprint = fingerprint(request);
+        String cacheKey = userId + ":" + key;
+
+        Completed cached = completed.getIfPresent(cacheKey);
+        if (cached != null) {
+            checkFingerprint(cached.fingerprint(), fingerprint);
+            return cached.response();
+        }
+
+        InFlight mine = new InFlight(fingerprint, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(cacheKey, mine);
+        if (running != null) {
+            checkFingerprint(running.fingerprint(), fingerprint);
+            return await(running.result());
+        }
+
+        try {
+            String response = claimAndTransfer(userId, key, fingerprint, transfer);
+            completed.put(cacheKey, new Completed(fingerprint, response));
+            mine.result().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            mine.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, mine);
+        }
+    }
+
+    /**
+     * Удаляет из БД ключи старше времени хранения.
+     */
+    @Scheduled(fixedDelayString = "${transfer.idempotency.purge-interval:1h}",
+            initialDelayString = "${transfer.idempotency.purge-interval:1h}")
+    public void purgeExpired() {
+        int deleted = idempotencyKeyDao.deleteOlderThan(LocalDateTime.now().minus(ttl));
+        if (deleted > 0) {
+            log.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    private String claimAndTransfer(Long userId, String key, String fingerprint, Supplier<String> transfer) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    idempotencyKeyDao.insert(new IdempotencyRecord(userId, key, fingerprint, null,
+                            LocalDateTime.now()));
+                    String response = transfer.get();
+                    idempotencyKeyDao.complete(userId, key, response);
+                    return response;
+                });
+            } catch (DuplicateKeyException e) {
+                IdempotencyRecord stored = idempotencyKeyDao.find(userId, key).orElse(null);
+                if (stored == null && attempt == 1) {
+                    // владелец ключа откатился между вставкой и чтением — пробуем занять ключ снова
+                    continue;
+                }
+                if (stored == null || stored.getResponse() == null) {
+                    throw new IdempotencyConflictException("Запрос с этим Idempotency-Key ещё выполняется");
+                }
+                checkFingerprint(stored.getFingerprint(), fingerprint);
+                log.debug("Idempotency key {} of user {} replayed from database", key, userId);
+                return stored.getResponse();
+            }
+        }
+    }
+
+    private static String await(CompletableFuture<String> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static void checkFingerprint(String stored, String actual) {
+        if (!stored.equals(actual)) {
+            throw new IdempotencyConflictException("Idempotency-Key уже использован для другого перевода");
+        }
+    }
+
+    private static String fingerprint(TransferRequest request) {
+        return request.getFromAccountId() + ">" + request.getToAccountId() + ":" + request.getAmount();
+    }
+}
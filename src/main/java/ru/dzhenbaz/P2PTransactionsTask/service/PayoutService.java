@@ -0,0 +1,266 @@
+package ru.dzhenbaz.P2PTransactionsTask.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionDao;
+import ru.dzhenbaz.P2PTransactionsTask.dto.BatchTransferItemResult;
+import ru.dzhenbaz.P2PTransactionsTask.dto.BatchTransferItemResult.Status;
+import ru.dzhenbaz.P2PTransactionsTask.dto.PayoutRecipient;
+import ru.dzhenbaz.P2PTransactionsTask.dto.PayoutRequest;
+import ru.dzhenbaz.P2PTransactionsTask.dto.PayoutResponse;
+import ru.dzhenbaz.P2PTransactionsTask.exception.BadRequestException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.NotFoundException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.ServiceUnavailableException;
+import ru.dzhenbaz.P2PTransactionsTask.model.Account;
+import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Сервис массовых выплат с одного счёта многим получателям.
+ * <p>
+ * Счёт-источник блокируется один раз на всю выплату, и его остаток сверяется с общей суммой
+ * выплаты. Далее получатели обрабатываются порциями по {@code chunkSize}: счета порции читаются
+ * одним запросом, а зачисления, списание суммы порции и записи транзакций пишутся пакетами JDBC.
+ * </p>
+ *
+ * <p>Каждая порция выполняется во вложенной транзакции (точке сохранения) внутри общей. Если
+ * запись порции завершилась ошибкой, откатывается только она — вместе со своим списанием, поэтому
+ * остаток источника всегда равен начальному за вычетом записанных порций. Выплаты упавшей порции
+ * отклоняются, остальные порции продолжают обрабатываться.</p>
+ *
+ * <p>Не поддерживается в режиме {@link TransferMode#LEDGER}: балансами владеет движок леджера,
+ * поэтому выплата отклоняется ещё при проверке, до блокировки счёта.</p>
+ *
+ * @author Dzhenbaz
+ */
+@Slf4j
+public class PayoutService {
+
+    private final AccountDao accountDao;
+    private final TransactionDao transactionDao;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate chunkTemplate;
+    private final int maxRecipients;
+    private final int chunkSize;
+    private final TransferMode mode;
+
+    /**
+     * Конструктор с внедрением зависимостей. Использует режим {@link TransferMode#READ_MODIFY_WRITE}.
+     *
+     * @param accountDao         DAO для доступа к счетам
+     * @param transactionDao     DAO для работы с транзакциями
+     * @param transactionManager менеджер транзакций
+     * @param maxRecipients      максимальное число получателей в выплате
+     * @param chunkSize          число получателей в порции
+     */
+    public PayoutService(AccountDao accountDao, TransactionDao transactionDao,
+                         PlatformTransactionManager transactionManager, int maxRecipients, int chunkSize) {
+        this(accountDao, transactionDao, transactionManager, maxRecipients, chunkSize, TransferMode.READ_MODIFY_WRITE);
+    }
+
+    /**
+     * Конструктор с внедрением зависимостей и выбором режима переводов.
+     *
+     * @param accountDao         DAO для доступа к счетам
+     * @param transactionDao     DAO для работы с транзакциями
+     * @param transactionManager менеджер транзакций
+     * @param maxRecipients      максимальное число получателей в выплате
+     * @param chunkSize          число получателей в порции
+     * @param mode               режим переводов приложения
+     */
+    public PayoutService(AccountDao accountDao, TransactionDao transactionDao,
+                         PlatformTransactionManager transactionManager, int maxRecipients, int chunkSize,
+                         TransferMode mode) {
+        this.accountDao = accountDao;
+        this.transactionDao = transactionDao;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkTemplate = new TransactionTemplate(transactionManager);
+        this.chunkTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        this.maxRecipients = maxRecipients;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.mode = mode;
+    }
+
+    /**
+     * Проверяет выплату без блокировок: размер, владельца и статус счёта-источника и достаточность
+     * средств на общую сумму. Позволяет отклонить заведомо неисполнимую выплату до начала потока
+     * результатов.
+     *
+     * @param userId  идентификатор пользователя — владельца счёта-источника
+     * @param request запрос на выплату
+     * @throws BadRequestException         если выплата слишком велика, счёт чужой или закрыт, либо средств недостаточно
+     * @throws NotFoundException           если счёт-источник не найден
+     * @throws ServiceUnavailableException в режиме {@link TransferMode#LEDGER}
+     */
+    public void validate(Long userId, PayoutRequest request) {
+        requireDirectBalances();
+        long total = totalAmount(request);
+        Account from = accountDao.findById(request.getFromAccountId())
+                .orElseThrow(() -> new NotFoundException("Счёт отправителя не найден"));
+        checkSource(userId, from, total);
+    }
+
+    /**
+     * Исполняет выплату, передавая результаты получателей в {@code progress} после обработки каждой порции.
+     * <p>Результаты порции передаются после её записи, но фиксируются в БД только вместе со всей выплатой;
+     * итог {@link PayoutResponse#isApplied()} сообщает, записана ли она.</p>
+     *
+     * @param userId   идентификатор пользователя — владельца счёта-источника
+     * @param request  запрос на выплату
+     * @param progress получатель результатов порции, в порядке запроса
+     * @return итог выплаты
+     * @throws BadRequestException         если выплата слишком велика, счёт чужой или закрыт, либо средств недостаточно
+     * @throws NotFoundException           если счёт-источник не найден
+     * @throws ServiceUnavailableException в режиме {@link TransferMode#LEDGER}
+     */
+    public PayoutResponse payout(Long userId, PayoutRequest request,
+                                 Consumer<List<BatchTransferItemResult>> progress) {
+        requireDirectBalances();
+        long total = totalAmount(request);
+        Long fromId = request.getFromAccountId();
+
+        PayoutResponse response = transactionTemplate.execute(status -> {
+            Account from = accountDao.findByIdForUpdate(fromId)
+                    .orElseThrow(() -> new NotFoundException("Счёт отправителя не найден"));
+            checkSource(userId, from, total);
+
+            List<PayoutRecipient> recipients = request.getRecipients();
+            int completed = 0;
+            long debited = 0;
+            for (int start = 0; start < recipients.size(); start += chunkSize) {
+                List<PayoutRecipient> chunk = recipients.subList(start, Math.min(start + chunkSize, recipients.size()));
+                List<BatchTransferItemResult> results = new ArrayList<>(chunk.size());
+                debited += processChunk(fromId, start, chunk, results);
+                for (BatchTransferItemResult result : results) {
+                    if (result.getStatus() == Status.COMPLETED) {
+                        completed++;
+                    }
+                }
+                progress.accept(results);
+            }
+            return new PayoutResponse(true, completed, recipients.size() - completed, debited, null);
+        });
+
+        log.info("User {} paid out {} from account {} to {} recipients", userId, response.getDebited(), fromId,
+                response.getCompleted());
+        return response;
+    }
+
+    /**
+     * Проверяет и записывает одну порцию выплаты в точке сохранения.
+     *
+     * @return списанная сумма порции или {@code 0}, если порция не записана
+     */
+    private long processChunk(Long fromId, int offset, List<PayoutRecipient> chunk,
+                              List<BatchTransferItemResult> results) {
+        Set<Long> ids = new HashSet<>();
+        for (PayoutRecipient recipient : chunk) {
+            ids.add(recipient.getToAccountId());
+        }
+        Map<Long, Account> accounts = accountDao.findAllByIds(ids).stream()
+                .collect(Collectors.toMap(Account::getId, Function.identity()));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Transaction> legs = new ArrayList<>(chunk.size());
+        Map<Long, Long> deltas = new HashMap<>();
+        long chunkAmount = 0;
+        for (int i = 0; i < chunk.size(); i++) {
+            PayoutRecipient recipient = chunk.get(i);
+            String rejection = validateRecipient(fromId, recipient, accounts.get(recipient.getToAccountId()));
+            if (rejection != null) {
+                results.add(new BatchTransferItemResult(offset + i, Status.REJECTED, rejection));
+                continue;
+            }
+            legs.add(new Transaction(null, fromId, recipient.getToAccountId(), recipient.getAmount(), now));
+            deltas.merge(recipient.getToAccountId(), recipient.getAmount(), Long::sum);
+            chunkAmount += recipient.getAmount();
+            results.add(new BatchTransferItemResult(offset + i, Status.COMPLETED, null));
+        }
+        if (legs.isEmpty()) {
+            return 0;
+        }
+        deltas.put(fromId, -chunkAmount);
+
+        try {
+            chunkTemplate.executeWithoutResult(status -> {
+                accountDao.applyBalanceDeltas(deltas);
+                transactionDao.saveAll(legs);
+            });
+            return chunkAmount;
+        } catch (DataAccessException e) {
+            log.warn("Payout chunk at offset {} from account {} rolled back: {}", offset, fromId, e.getMessage());
+            results.replaceAll(result -> result.getStatus() == Status.COMPLETED
+                    ? new BatchTransferItemResult(result.getIndex(), Status.REJECTED,
+                    "Не удалось провести выплату, повторите запрос")
+                    : result);
+            return 0;
+        }
+    }
+
+    /**
+     * Проверяет получателя выплаты.
+     *
+     * @return причина отклонения или {@code null}, если выплата корректна
+     */
+    private static String validateRecipient(Long fromId, PayoutRecipient recipient, Account to) {
+        if (recipient.getAmount() == null || recipient.getAmount() <= 0) {
+            return "Сумма должна быть положительной";
+        }
+        if (fromId.equals(recipient.getToAccountId())) {
+            return "Нельзя переводить на тот же счёт";
+        }
+        if (to == null) {
+            return "Счёт получателя не найден";
+        }
+        if (to.isClosed()) {
+            return "Счёт получателя закрыт";
+        }
+        return null;
+    }
+
+    private void requireDirectBalances() {
+        if (mode == TransferMode.LEDGER) {
+            throw new ServiceUnavailableException("Массовые выплаты недоступны в режиме LEDGER");
+        }
+    }
+
+    private long totalAmount(PayoutRequest request) {
+        List<PayoutRecipient> recipients = request.getRecipients();
+        if (recipients.size() > maxRecipients) {
+            throw new BadRequestException("Выплата не может содержать более " + maxRecipients + " получателей");
+        }
+        long total = 0;
+        for (PayoutRecipient recipient : recipients) {
+            if (recipient.getAmount() != null && recipient.getAmount() > 0) {
+                total = Math.addExact(total, recipient.getAmount());
+            }
+        }
+        return total;
+    }
+
+    private static void checkSource(Long userId, Account from, long total) {
+        if (!from.getUserId().equals(userId)) {
+            throw new BadRequestException("Счёт не принадлежит пользователю");
+        }
+        if (from.isClosed()) {
+            throw new BadRequestException("Счёт отправителя закрыт");
+        }
+        if (from.getBalance() < total) {
+            throw new BadRequestException("Недостаточно средств");
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package ru.dzhenbaz.P2PTransactionsTask.service;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.ScheduledTransferDao;
+import ru.dzhenbaz.P2PTransactionsTask.dto.Recurrence;
+import ru.dzhenbaz.P2PTransactionsTask.dto.ScheduledTransferRequest;
+import ru.dzhenbaz.P2PTransactionsTask.dto.ScheduledTransferResponse;
+import ru.dzhenbaz.P2PTransactionsTask.exception.BadRequestException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.NotFoundException;
+import ru.dzhenbaz.P2PTransactionsTask.model.Account;
+import ru.dzhenbaz.P2PTransactionsTask.model.ScheduledTransfer;
+import ru.dzhenbaz.P2PTransactionsTask.scheduler.TransferScheduler;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Сервис управления отложенными и регулярными переводами.
+ * <p>
+ * Проверяет и сохраняет расписание перевода; исполнение выполняет {@link TransferScheduler}
+ * через обычный путь перевода, поэтому остаток и статусы счетов проверяются в момент запуска.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+@Slf4j
+public class ScheduledTransferService {
+
+    private final ScheduledTransferDao scheduledTransferDao;
+    private final AccountDao accountDao;
+    private final TransferScheduler transferScheduler;
+
+    /**
+     * Конструктор с внедрением зависимостей.
+     *
+     * @param scheduledTransferDao DAO запланированных переводов
+     * @param accountDao           DAO для доступа к счетам
+     * @param transferScheduler    планировщик или {@code null}, если в этом экземпляре он отключён
+     */
+    public ScheduledTransferService(ScheduledTransferDao scheduledTransferDao, AccountDao accountDao,
+                                    TransferScheduler transferScheduler) {
+        this.scheduledTransferDao = scheduledTransferDao;
+        this.accountDao = accountDao;
+        this.transferScheduler = transferScheduler;
+    }
+
+    /**
+     * Создаёт запланированный перевод.
+     *
+     * @param userId  идентификатор пользователя-отправителя
+     * @param request параметры перевода и расписания
+     * @return созданный перевод
+     * @throws BadRequestException если сумма не положительная, перевод в тот же счёт, время уже прошло,
+     *                             счёт не принадлежит пользователю или один из счетов закрыт
+     * @throws NotFoundException   если счёт-источник или счёт-получатель не существует
+     */
+    public ScheduledTransferResponse create(Long userId, ScheduledTransferRequest request) {
+        if (request.getAmount() == null || request.getAmount() <= 0) {
+            throw new BadRequestException("Сумма должна быть положительной");
+        }
+        if (request.getFromAccountId().equals(request.getToAccountId())) {
+            throw new BadRequestException("Нельзя переводить на тот же счёт");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (request.getRunAt().isBefore(now)) {
+            throw new BadRequestException("Время перевода уже прошло");
+        }
+
+        Account from = accountDao.findById(request.getFromAccountId())
+                .orElseThrow(() -> new NotFoundException("Счёт отправителя не найден"));
+        if (!from.getUserId().equals(userId)) {
+            throw new BadRequestException("Счёт не принадлежит пользователю");
+        }
+        Account to = accountDao.findById(request.getToAccountId())
+                .orElseThrow(() -> new NotFoundException("Счёт получателя не найден"));
+        if (from.isClosed() || to.isClosed()) {
+            throw new BadRequestException("Один из счетов закрыт");
+        }
+
+        Recurrence recurrence = request.getRecurrence() == null ? Recurrence.NONE : request.getRecurrence();
+        // Время хранится с точностью до секунды: по нему же планировщик фиксирует запуск условным обновлением
+        LocalDateTime runAt = request.getRunAt().truncatedTo(ChronoUnit.SECONDS);
+        ScheduledTransfer transfer = new ScheduledTransfer(null, userId, from.getId(), to.getId(),
+                request.getAmount(), recurrence, runAt, runAt, 0, true, null, now);
+        transfer.setId(scheduledTransferDao.save(transfer));
+
+        if (transferScheduler != null) {
+            transferScheduler.schedule(transfer);
+        }
+        log.info("User {} scheduled transfer {} ({}) from {} to {}, amount {}, first run at {}", userId,
+                transfer.getId(), recurrence, from.getId(), to.getId(), request.getAmount(), runAt);
+        return toDto(transfer);
+    }
+
+    /**
+     * Возвращает запланированные переводы пользователя, включая завершённые и отменённые.
+     *
+     * @param userId идентификатор пользователя
+     * @return список переводов
+     */
+    public List<ScheduledTransferResponse> getAllForUser(Long userId) {
+        return scheduledTransferDao.findByUserId(userId).stream()
+                .map(this::toDto)
+                .toList();
+    }
+
+    /**
+     * Отменяет запланированный перевод. Уже исполненные запуски не отменяются.
+     *
+     * @param userId идентификатор пользователя
+     * @param id     идентификатор запланированного перевода
+     * @throws NotFoundException   если перевод не найден или принадлежит другому пользователю
+     * @throws BadRequestException если перевод уже завершён или отменён
+     */
+    public void cancel(Long userId, Long id) {
+        ScheduledTransfer transfer = scheduledTransferDao.findById(id)
+                .filter(t -> t.getUserId().equals(userId))
+                .orElseThrow(() -> new NotFoundException("Запланированный перевод не найден"));
+        if (!transfer.isActive() || !scheduledTransferDao.cancel(id, userId)) {
+            throw new BadRequestException("Запланированный перевод уже завершён или отменён");
+        }
+        log.info("User {} cancelled scheduled transfer {}", userId, id);
+    }
+
+    /**
+     * Преобразует {@link ScheduledTransfer} в DTO {@link ScheduledTransferResponse}.
+     *
+     * @param transfer запланированный перевод
+     * @return DTO
+     */
+    private ScheduledTransferResponse toDto(ScheduledTransfer transfer) {
+        return new ScheduledTransferResponse(transfer.getId(), transfer.getFromAccountId(),
+                transfer.getToAccountId(), transfer.getAmount(), transfer.getRecurrence(), transfer.getNextRunAt(),
+                transfer.getRunCount(), transfer.isActive(), transfer.getLastError());
+    }
+}
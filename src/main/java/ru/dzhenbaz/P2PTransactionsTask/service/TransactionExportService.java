@@ -0,0 +1,124 @@
+package ru.dzhenbaz.P2PTransactionsTask.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionDao;
+import ru.dzhenbaz.P2PTransactionsTask.dto.ExportFormat;
+import ru.dzhenbaz.P2PTransactionsTask.exception.AccountNotFoundException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.AccountOwnershipException;
+import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+
+/**
+ * Сервис выгрузки полной истории переводов по счёту.
+ * <p>
+ * Строки читаются курсором БД внутри транзакции только для чтения и сразу записываются
+ * в переданный {@link Writer}, поэтому память не зависит от длины истории: в ней находятся
+ * только порция строк драйвера ({@code fetchSize}) и буфер вывода. Соединение с БД занято
+ * на всё время выгрузки.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+@Slf4j
+public class TransactionExportService {
+
+    private static final String CSV_HEADER = "id,from_account_id,to_account_id,amount,created_at\n";
+
+    private final AccountService accountService;
+    private final TransactionDao transactionDao;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int fetchSize;
+
+    /**
+     * Конструктор с внедрением зависимостей.
+     *
+     * @param accountService     сервис счетов для проверки владельца
+     * @param transactionDao     DAO переводов
+     * @param transactionManager менеджер транзакций для курсора БД
+     * @param fetchSize          число строк, получаемых от БД за одно обращение
+     */
+    public TransactionExportService(AccountService accountService, TransactionDao transactionDao,
+                                    PlatformTransactionManager transactionManager, int fetchSize) {
+        this.accountService = accountService;
+        this.transactionDao = transactionDao;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Проверяет, что пользователь может выгрузить историю счёта. Вызывается до начала потока,
+     * чтобы ошибка вернулась обычным ответом.
+     *
+     * @param userId    идентификатор пользователя
+     * @param accountId идентификатор счёта
+     * @throws AccountOwnershipException если счёт не принадлежит пользователю
+     * @throws AccountNotFoundException  если счёт не найден
+     */
+    public void checkAccess(Long userId, Long accountId) {
+        accountService.getAccountById(userId, accountId);
+    }
+
+    /**
+     * Записывает историю переводов по счёту в порядке проведения.
+     *
+     * @param accountId идентификатор счёта
+     * @param from      начало периода включительно или {@code null}
+     * @param to        конец периода не включительно или {@code null}
+     * @param format    формат выгрузки
+     * @param writer    приёмник; не закрывается
+     * @return число выгруженных переводов
+     * @throws UncheckedIOException если запись прервана, например клиент закрыл соединение
+     */
+    public long export(Long accountId, LocalDateTime from, LocalDateTime to, ExportFormat format, Writer writer) {
+        long[] rows = new long[1];
+        StringBuilder line = new StringBuilder(128);
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try {
+                if (format == ExportFormat.CSV) {
+                    writer.write(CSV_HEADER);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            transactionDao.streamByAccountId(accountId, from, to, fetchSize, tx -> {
+                line.setLength(0);
+                if (format == ExportFormat.CSV) {
+                    appendCsv(line, tx);
+                } else {
+                    appendJson(line, tx);
+                }
+                try {
+                    writer.append(line);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            });
+        });
+        log.info("Exported {} transactions of account {} as {}", rows[0], accountId, format);
+        return rows[0];
+    }
+
+    private static void appendCsv(StringBuilder line, Transaction tx) {
+        line.append(tx.getId()).append(',')
+                .append(tx.getFromAccountId()).append(',')
+                .append(tx.getToAccountId()).append(',')
+                .append(tx.getAmount()).append(',')
+                .append(tx.getCreatedAt()).append('\n');
+    }
+
+    private static void appendJson(StringBuilder line, Transaction tx) {
+        line.append("{\"id\":").append(tx.getId())
+                .append(",\"fromAccountId\":").append(tx.getFromAccountId())
+                .append(",\"toAccountId\":").append(tx.getToAccountId())
+                .append(",\"amount\":").append(tx.getAmount())
+                .append(",\"createdAt\":\"").append(tx.getCreatedAt()).append("\"}\n");
+    }
+}
@@ -0,0 +1,112 @@
+package ru.dzhenbaz.P2PTransactionsTask.service;
+
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionDao;
+import ru.dzhenbaz.P2PTransactionsTask.dto.TransactionPageResponse;
+import ru.dzhenbaz.P2PTransactionsTask.dto.TransactionResponse;
+import ru.dzhenbaz.P2PTransactionsTask.exception.AccountNotFoundException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.AccountOwnershipException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.BadRequestException;
+import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Сервис истории переводов по счёту.
+ * <p>
+ * История отдаётся страницами с пагинацией по ключу {@code (created_at, id)}: курсор
+ * кодирует последнюю строку страницы, и следующая страница читается строго после неё.
+ * Новые переводы не сдвигают уже выданные страницы, а стоимость запроса не зависит
+ * от глубины истории. Курсор непрозрачен для клиента.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+public class TransactionHistoryService {
+
+    private static final char CURSOR_SEPARATOR = '_';
+
+    private final AccountService accountService;
+    private final TransactionDao transactionDao;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    /**
+     * Конструктор с внедрением зависимостей.
+     *
+     * @param accountService  сервис счетов для проверки владельца
+     * @param transactionDao  DAO переводов
+     * @param defaultPageSize размер страницы, если клиент его не указал
+     * @param maxPageSize     максимальный размер страницы
+     */
+    public TransactionHistoryService(AccountService accountService, TransactionDao transactionDao,
+                                     int defaultPageSize, int maxPageSize) {
+        this.accountService = accountService;
+        this.transactionDao = transactionDao;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Возвращает страницу истории переводов по счёту пользователя.
+     *
+     * @param userId    идентификатор пользователя
+     * @param accountId идентификатор счёта
+     * @param cursor    курсор из предыдущей страницы или {@code null} для первой
+     * @param limit     размер страницы или {@code null} для размера по умолчанию
+     * @return страница переводов и курсор следующей
+     * @throws BadRequestException       если курсор некорректен или размер страницы вне допустимых пределов
+     * @throws AccountOwnershipException если счёт не принадлежит пользователю
+     * @throws AccountNotFoundException  если счёт не найден
+     */
+    public TransactionPageResponse getHistory(Long userId, Long accountId, String cursor, Integer limit) {
+        int pageSize = limit == null ? defaultPageSize : limit;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new BadRequestException("Размер страницы должен быть от 1 до " + maxPageSize);
+        }
+
+        LocalDateTime beforeCreatedAt = null;
+        Long beforeId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String decoded = decodeCursor(cursor);
+            int separator = decoded.lastIndexOf(CURSOR_SEPARATOR);
+            try {
+                beforeCreatedAt = LocalDateTime.parse(decoded.substring(0, separator));
+                beforeId = Long.parseLong(decoded.substring(separator + 1));
+            } catch (DateTimeParseException | IndexOutOfBoundsException | NumberFormatException e) {
+                throw new BadRequestException("Некорректный курсор");
+            }
+        }
+
+        accountService.getAccountById(userId, accountId);
+
+        List<Transaction> rows = transactionDao.findPageByAccountId(accountId, beforeCreatedAt, beforeId,
+                pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<Transaction> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = hasMore ? encodeCursor(page.get(page.size() - 1)) : null;
+        return new TransactionPageResponse(page.stream().map(this::toDto).toList(), nextCursor);
+    }
+
+    private static String encodeCursor(Transaction last) {
+        String raw = last.getCreatedAt().toString() + CURSOR_SEPARATOR + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Некорректный курсор");
+        }
+    }
+
+    private TransactionResponse toDto(Transaction tx) {
+        return new TransactionResponse(tx.getId(), tx.getFromAccountId(), tx.getToAccountId(), tx.getAmount(),
+                tx.getCreatedAt());
+    }
+}
@@ -9,8 +9,10 @@ import ru.dzhenbaz.P2PTransactionsTask.exception.BadRequestException;
 import ru.dzhenbaz.P2PTransactionsTask.exception.NotFoundException;
 import ru.dzhenbaz.P2PTransactionsTask.model.Account;
 import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
+import ru.dzhenbaz.P2PTransactionsTask.retry.RetryOnLockConflict;
 
 import java.time.LocalDateTime;
+import java.util.Optional;
 
 /**
  * Сервис для выполнения P2P-переводов между счетами.
@@ -29,16 +31,29 @@ public class TransactionService {
 
     private final AccountDao accountDao;
     private final TransactionDao transactionDao;
+    private final TransferMode mode;
 
     /**
-     * Конструктор с внедрением зависимостей.
+     * Конструктор с внедрением зависимостей. Использует режим {@link TransferMode#READ_MODIFY_WRITE}.
      *
      * @param accountDao     DAO для доступа к счетам
      * @param transactionDao DAO для работы с транзакциями
      */
     public TransactionService(AccountDao accountDao, TransactionDao transactionDao) {
+        this(accountDao, transactionDao, TransferMode.READ_MODIFY_WRITE);
+    }
+
+    /**
+     * Конструктор с внедрением зависимостей и выбором режима исполнения перевода.
+     *
+     * @param accountDao     DAO для доступа к счетам
+     * @param transactionDao DAO для работы с транзакциями
+     * @param mode           режим исполнения подтверждённого перевода
+     */
+    public TransactionService(AccountDao accountDao, TransactionDao transactionDao, TransferMode mode) {
         this.accountDao = accountDao;
         this.transactionDao = transactionDao;
+        this.mode = mode;
     }
 
     /**
@@ -47,6 +62,14 @@ public class TransactionService {
      * возвращает строку с запросом на подтверждение, при повторном (с {@code confirm = true})
      * — проводит операцию.</p>
      *
+     * <p>В режиме {@link TransferMode#GUARDED_UPDATE} подтверждённый перевод выполняется без
+     * предварительного чтения счетов: условное списание, условное зачисление и вставка транзакции.
+     * Счета читаются только при отказе, чтобы сообщить клиенту причину.</p>
+     *
+     * <p>В режиме {@link TransferMode#ORDERED_LOCKING} оба счёта перед проверками блокируются
+     * в порядке возрастания идентификатора. При взаимной блокировке или ошибке сериализации
+     * вызов повторяется целиком (см. {@link RetryOnLockConflict}).</p>
+     *
      * @param userId  идентификатор пользователя-отправителя (владелец счёта-источника)
      * @param request объект запроса на перевод
      * @return результат операции в виде строки
@@ -55,18 +78,21 @@ public class TransactionService {
      *                             неподтверждённый запрос или недостаточно средств
      * @throws NotFoundException если счёт-источник или счёт-получатель не существует
      */
+    @RetryOnLockConflict
     @Transactional
     public String transfer(Long userId, TransferRequest request) {
         Long fromId = request.getFromAccountId();
         Long toId = request.getToAccountId();
         Long amount = request.getAmount();
 
-        if (amount == null || amount <= 0) {
-            throw new BadRequestException("Сумма должна быть положительной");
+        validateRequest(request);
+
+        if (request.isConfirm() && mode == TransferMode.GUARDED_UPDATE) {
+            return executeGuarded(userId, fromId, toId, amount);
         }
 
-        if (fromId.equals(toId)) {
-            throw new BadRequestException("Нельзя переводить на тот же счёт");
+        if (request.isConfirm() && mode == TransferMode.ORDERED_LOCKING) {
+            return executeLocked(userId, fromId, toId, amount);
         }
 
         Account from = accountDao.findById(fromId)
@@ -102,4 +128,123 @@ public class TransactionService {
 
         return "Перевод выполнен";
     }
+
+    /**
+     * Проверяет параметры перевода, не требующие обращения к счетам.
+     *
+     * @param request объект запроса на перевод
+     * @throws BadRequestException если сумма не положительная или счета совпадают
+     */
+    protected void validateRequest(TransferRequest request) {
+        Long amount = request.getAmount();
+
+        if (amount == null || amount <= 0) {
+            throw new BadRequestException("Сумма должна быть положительной");
+        }
+
+        if (request.getFromAccountId().equals(request.getToAccountId())) {
+            throw new BadRequestException("Нельзя переводить на тот же счёт");
+        }
+    }
+
+    /**
+     * Проводит подтверждённый перевод относительными условными обновлениями.
+     * <p>Если списание или зачисление отклонено, счета перечитываются для определения причины,
+     * а выброшенное исключение откатывает уже выполненное в транзакции списание.</p>
+     *
+     * @param userId идентификатор владельца счёта-источника
+     * @param fromId идентификатор счёта-источника
+     * @param toId   идентификатор счёта-получателя
+     * @param amount сумма перевода в копейках
+     * @return результат операции в виде строки
+     */
+    private String executeGuarded(Long userId, Long fromId, Long toId, Long amount) {
+        if (!accountDao.debitIfSufficient(fromId, userId, amount)) {
+            throw rejectedDebit(userId, fromId, toId);
+        }
+
+        if (!accountDao.creditIfOpen(toId, amount)) {
+            throw accountDao.findById(toId).isPresent()
+                    ? new BadRequestException("Один из счетов закрыт")
+                    : new NotFoundException("Счёт получателя не найден");
+        }
+
+        transactionDao.save(new Transaction(null, fromId, toId, amount, LocalDateTime.now()));
+
+        log.info("User {} completed guarded transfer of {} from account {} to account {}",
+                userId, amount, fromId, toId);
+
+        return "Перевод выполнен";
+    }
+
+    /**
+     * Проводит подтверждённый перевод под блокировкой обоих счетов.
+     * <p>Строки блокируются в порядке возрастания идентификатора независимо от направления перевода,
+     * поэтому встречные переводы ожидают друг друга, а не образуют взаимную блокировку.
+     * Проверки выполняются по заблокированным строкам, так что вычисленные балансы не устаревают.</p>
+     *
+     * @param userId идентификатор владельца счёта-источника
+     * @param fromId идентификатор счёта-источника
+     * @param toId   идентификатор счёта-получателя
+     * @param amount сумма перевода в копейках
+     * @return результат операции в виде строки
+     */
+    private String executeLocked(Long userId, Long fromId, Long toId, Long amount) {
+        Optional<Account> first = accountDao.findByIdForUpdate(Math.min(fromId, toId));
+        Optional<Account> second = accountDao.findByIdForUpdate(Math.max(fromId, toId));
+
+        Account from = (fromId < toId ? first : second)
+                .orElseThrow(() -> new NotFoundException("Счёт отправителя не найден"));
+
+        if (!from.getUserId().equals(userId)) {
+            throw new BadRequestException("Счёт не принадлежит пользователю");
+        }
+
+        Account to = (fromId < toId ? second : first)
+                .orElseThrow(() -> new NotFoundException("Счёт получателя не найден"));
+
+        if (from.isClosed() || to.isClosed()) {
+            throw new BadRequestException("Один из счетов закрыт");
+        }
+
+        if (from.getBalance() < amount) {
+            throw new BadRequestException("Недостаточно средств");
+        }
+
+        accountDao.updateBalance(fromId, from.getBalance() - amount);
+        accountDao.updateBalance(toId, to.getBalance() + amount);
+        transactionDao.save(new Transaction(null, fromId, toId, amount, LocalDateTime.now()));
+
+        log.info("User {} completed locked transfer of {} from account {} to account {}",
+                userId, amount, fromId, toId);
+
+        return "Перевод выполнен";
+    }
+
+    /**
+     * Определяет причину отказа в условном списании в том же порядке проверок,
+     * что и основной сценарий перевода.
+     *
+     * @param userId идентификатор пользователя-отправителя
+     * @param fromId идентификатор счёта-источника
+     * @param toId   идентификатор счёта-получателя
+     * @return исключение, описывающее причину отказа
+     */
+    private RuntimeException rejectedDebit(Long userId, Long fromId, Long toId) {
+        Account from = accountDao.findById(fromId).orElse(null);
+        if (from == null) {
+            return new NotFoundException("Счёт отправителя не найден");
+        }
+        if (!from.getUserId().equals(userId)) {
+            return new BadRequestException("Счёт не принадлежит пользователю");
+        }
+        Account to = accountDao.findById(toId).orElse(null);
+        if (to == null) {
+            return new NotFoundException("Счёт получателя не найден");
+        }
+        if (from.isClosed() || to.isClosed()) {
+            return new BadRequestException("Один из счетов закрыт");
+        }
+        return new BadRequestException("Недостаточно средств");
+    }
 }
@@ -0,0 +1,39 @@
+package ru.dzhenbaz.P2PTransactionsTask.service;
+
+/**
+ * Режим исполнения подтверждённого перевода в {@link TransactionService}.
+ * <p>
+ * Определяет, каким образом изменяются балансы счетов после того,
+ * как пользователь передал {@code confirm = true}.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+public enum TransferMode {
+
+    /**
+     * Исходный режим: оба счёта читаются, новые балансы вычисляются в приложении
+     * и записываются абсолютными значениями.
+     */
+    READ_MODIFY_WRITE,
+
+    /**
+     * Относительные условные обновления: списание и зачисление выполняются одним
+     * {@code UPDATE} на счёт с проверкой остатка и статуса прямо в БД, без предварительного чтения.
+     */
+    GUARDED_UPDATE,
+
+    /**
+     * Пессимистическая блокировка: оба счёта блокируются {@code SELECT ... FOR UPDATE}
+     * в порядке возрастания идентификатора, что исключает взаимные блокировки
+     * встречных переводов A→B и B→A.
+     */
+    ORDERED_LOCKING,
+
+    /**
+     * Шардированный леджер в памяти: балансы принадлежат потокам шардов, перевод
+     * подтверждается после записи в локальный журнал, а таблицы обновляются асинхронно
+     * (см. {@code ru.dzhenbaz.P2PTransactionsTask.ledger.ShardedLedgerEngine}).
+     */
+    LEDGER
+}
@@ -0,0 +1,154 @@
+package ru.dzhenbaz.P2PTransactionsTask.admin;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.UserDao;
+import ru.dzhenbaz.P2PTransactionsTask.dto.TransferRequest;
+import ru.dzhenbaz.P2PTransactionsTask.model.Account;
+import ru.dzhenbaz.P2PTransactionsTask.model.User;
+import ru.dzhenbaz.P2PTransactionsTask.security.JwtUtil;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Интеграционные тесты для {@link BalanceSlotsEndpoint} и слотов баланса в {@link AccountDao}.
+ * <p>
+ * Проверяется, что зачисления на счёт со слотами распределяются по слотам, баланс счёта
+ * в API остаётся суммарным, а списание сводит слоты в основную строку.
+ * Использует реальные бины Spring Boot, MockMvc и H2-базу.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+@SpringBootTest(properties = "management.endpoints.web.exposure.include=health,metrics,balanceslots")
+@AutoConfigureMockMvc
+public class BalanceSlotsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private TransactionDao transactionDao;
+    @Autowired
+    private UserDao userDao;
+    @Autowired
+    private AccountDao accountDao;
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private String token;
+    private Long payerAccountId;
+    private Long merchantAccountId;
+
+    @BeforeEach
+    void setUp() {
+        transactionDao.deleteAll();
+        accountDao.deleteAll();
+        userDao.deleteAll();
+
+        userDao.save(new User(null, "slotsUser", "pass", LocalDateTime.now()));
+        Long userId = userDao.findByUsername("slotsUser").get().getId();
+        token = "Bearer " + jwtUtil.generateToken(userId);
+
+        accountDao.save(new Account(null, userId, 1000L, false, LocalDateTime.now()));
+        accountDao.save(new Account(null, userId, 0L, false, LocalDateTime.now()));
+        List<Account> accounts = accountDao.findByUserId(userId);
+        payerAccountId = accounts.get(0).getId();
+        merchantAccountId = accounts.get(1).getId();
+    }
+
+    /**
+     * Проверяет полный цикл: включение слотов, зачисления в слоты, суммарный баланс,
+     * списание сверх основной строки и отключение слотов без потери средств.
+     */
+    @Test
+    void balanceSlots_shouldKeepTotalBalanceThroughCreditsDebitsAndDisable() throws Exception {
+        mockMvc.perform(post("/actuator/balanceslots/" + merchantAccountId)
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"slots\": 4}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.slots.length()").value(4));
+
+        for (int i = 0; i < 20; i++) {
+            transfer(payerAccountId, merchantAccountId, 10L);
+        }
+
+        assertEquals(200L, accountDao.findById(merchantAccountId).get().getBalance());
+        assertEquals(200L, accountDao.findBalanceSlots(merchantAccountId).stream().mapToLong(Long::longValue).sum());
+        mockMvc.perform(get("/accounts/" + merchantAccountId)
+                        .header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(200));
+
+        transfer(merchantAccountId, payerAccountId, 150L);
+
+        assertEquals(50L, accountDao.findById(merchantAccountId).get().getBalance());
+        assertEquals(950L, accountDao.findById(payerAccountId).get().getBalance());
+
+        mockMvc.perform(delete("/actuator/balanceslots/" + merchantAccountId)
+                        .header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(50))
+                .andExpect(jsonPath("$.slots.length()").value(0));
+    }
+
+    /**
+     * Проверяет, что перебалансировка переносит суммы слотов в основную строку,
+     * не меняя суммарный баланс.
+     */
+    @Test
+    void rebalance_shouldMoveSlotBalancesToMainRow() throws Exception {
+        mockMvc.perform(post("/actuator/balanceslots/" + merchantAccountId)
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"slots\": 2}"))
+                .andExpect(status().isOk());
+        transfer(payerAccountId, merchantAccountId, 70L);
+
+        mockMvc.perform(post("/actuator/balanceslots/" + merchantAccountId)
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(70))
+                .andExpect(jsonPath("$.slots[0]").value(0))
+                .andExpect(jsonPath("$.slots[1]").value(0));
+    }
+
+    /**
+     * Проверяет отказ при недопустимом числе слотов.
+     */
+    @Test
+    void resize_shouldReturn400_whenSlotCountOutOfRange() throws Exception {
+        mockMvc.perform(post("/actuator/balanceslots/" + merchantAccountId)
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"slots\": 1000}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void transfer(Long fromId, Long toId, Long amount) throws Exception {
+        mockMvc.perform(post("/transactions/transfer")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TransferRequest(fromId, toId, amount, true))))
+                .andExpect(status().isOk());
+    }
+}
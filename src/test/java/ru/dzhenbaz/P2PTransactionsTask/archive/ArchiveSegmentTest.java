@@ -0,0 +1,141 @@
+package ru.dzhenbaz.P2PTransactionsTask.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Юнит-тесты для {@link ArchiveSegment} и {@link SegmentWriter}.
+ * Проверяются чтение по счёту через индекс с границами времени, постраничное чтение с конца,
+ * чтение всего сегмента и обнаружение повреждённого файла по контрольным суммам.
+ *
+ * @author Dzhenbaz
+ */
+public class ArchiveSegmentTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @TempDir
+    private Path directory;
+
+    /**
+     * Проверяет, что чтение по счёту возвращает те же строки, что и фильтр по исходным данным,
+     * в том числе в пределах диапазона времени, захватывающего несколько блоков.
+     */
+    @Test
+    void forEachByAccountId_shouldReturnAccountRowsInOrder() throws IOException {
+        List<Transaction> rows = rows(3000);
+        ArchiveSegment segment = write(rows);
+
+        assertEquals(rows.size(), segment.rowCount());
+        assertEquals(rows.stream().mapToLong(Transaction::getAmount).sum(), segment.amountSum());
+        assertTrue(segment.verify());
+
+        List<Transaction> all = new ArrayList<>();
+        segment.forEach(all::add);
+        assertEquals(rows, all);
+
+        LocalDateTime from = START.plusSeconds(700);
+        LocalDateTime to = START.plusSeconds(2500);
+        for (long account = 1; account <= 8; account++) {
+            long id = account;
+            List<Transaction> expected = rows.stream()
+                    .filter(tx -> tx.getFromAccountId() == id || tx.getToAccountId() == id)
+                    .filter(tx -> !tx.getCreatedAt().isBefore(from) && tx.getCreatedAt().isBefore(to))
+                    .toList();
+            List<Transaction> actual = new ArrayList<>();
+            segment.forEachByAccountId(account, from, to, actual::add);
+            assertEquals(expected, actual);
+        }
+
+        List<Transaction> missing = new ArrayList<>();
+        segment.forEachByAccountId(99L, null, null, missing::add);
+        assertTrue(missing.isEmpty());
+    }
+
+    /**
+     * Проверяет, что постраничное чтение с конца по курсору обходит все строки счёта
+     * в обратном порядке без пропусков и повторов.
+     */
+    @Test
+    void forEachByAccountIdDescending_shouldPageFromCursor() throws IOException {
+        List<Transaction> rows = rows(3000);
+        ArchiveSegment segment = write(rows);
+        List<Transaction> expected = new ArrayList<>(rows.stream()
+                .filter(tx -> tx.getFromAccountId() == 3L || tx.getToAccountId() == 3L)
+                .toList());
+        Collections.reverse(expected);
+
+        List<Transaction> actual = new ArrayList<>();
+        LocalDateTime cursorTime = null;
+        Long cursorId = null;
+        while (true) {
+            List<Transaction> page = new ArrayList<>();
+            int read = segment.forEachByAccountIdDescending(3L, cursorTime, cursorId, 50, page::add);
+            assertEquals(page.size(), read);
+            assertTrue(read <= 50);
+            if (page.isEmpty()) {
+                break;
+            }
+            actual.addAll(page);
+            cursorTime = page.get(page.size() - 1).getCreatedAt();
+            cursorId = page.get(page.size() - 1).getId();
+        }
+        assertEquals(expected, actual);
+
+        List<Transaction> missing = new ArrayList<>();
+        assertEquals(0, segment.forEachByAccountIdDescending(99L, null, null, 10, missing::add));
+    }
+
+    /**
+     * Проверяет, что повреждение файла обнаруживается проверкой сегмента и при чтении блока.
+     */
+    @Test
+    void verify_shouldDetectCorruptedBlock() throws IOException {
+        ArchiveSegment written = write(rows(100));
+        try (FileChannel channel = FileChannel.open(written.path(), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF, (byte) 0xFF}), 30);
+        }
+
+        ArchiveSegment segment = ArchiveSegment.open(written.path());
+
+        assertFalse(segment.verify());
+        assertThrows(IllegalStateException.class, () -> segment.forEachByAccountId(1L, null, null, tx -> { }));
+    }
+
+    private ArchiveSegment write(List<Transaction> rows) throws IOException {
+        Path path = directory.resolve("segment.seg");
+        try (SegmentWriter writer = new SegmentWriter(path)) {
+            for (Transaction tx : rows) {
+                writer.append(tx);
+            }
+            writer.finish();
+        }
+        assertTrue(Files.size(path) < rows.size() * 40L);
+        return ArchiveSegment.open(path);
+    }
+
+    private static List<Transaction> rows(int count) {
+        List<Transaction> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long from = 1 + i % 7;
+            long to = 1 + (i * 3 + 1) % 8;
+            rows.add(new Transaction(1000L + i, from, to == from ? 8L : to, 100L + i,
+                    START.plusSeconds(i).plusNanos(i % 1000 * 1000L)));
+        }
+        return rows;
+    }
+}
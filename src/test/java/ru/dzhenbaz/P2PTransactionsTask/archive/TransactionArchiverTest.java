@@ -0,0 +1,155 @@
+package ru.dzhenbaz.P2PTransactionsTask.archive;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionArchiveDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.UserDao;
+import ru.dzhenbaz.P2PTransactionsTask.model.Account;
+import ru.dzhenbaz.P2PTransactionsTask.model.ArchivedSegment;
+import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
+import ru.dzhenbaz.P2PTransactionsTask.model.User;
+
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Интеграционные тесты для {@link TransactionArchiver} и чтения архива через {@link TransactionDao}.
+ * Проверяет, что архивированные переводы удаляются из таблицы, но остаются видны в истории,
+ * постраничном чтении и выгрузке, а архивация и восстановление безопасно повторяются.
+ *
+ * @author Dzhenbaz
+ */
+@SpringBootTest
+public class TransactionArchiverTest {
+
+    @Autowired
+    private TransactionDao transactionDao;
+    @Autowired
+    private TransactionArchiveDao transactionArchiveDao;
+    @Autowired
+    private ArchiveStore archiveStore;
+    @Autowired
+    private AccountDao accountDao;
+    @Autowired
+    private UserDao userDao;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionArchiver archiver;
+    private Long a;
+    private Long b;
+
+    /**
+     * Создаёт два счёта и переводы за два старых месяца и текущий день.
+     */
+    @BeforeEach
+    void setUp() {
+        transactionDao.deleteAll();
+        accountDao.deleteAll();
+        userDao.deleteAll();
+
+        userDao.save(new User(null, "archiveUser", "pass", LocalDateTime.now()));
+        Long userId = userDao.findByUsername("archiveUser").get().getId();
+        accountDao.save(new Account(null, userId, 1000L, false, LocalDateTime.now()));
+        accountDao.save(new Account(null, userId, 1000L, false, LocalDateTime.now()));
+        List<Account> accounts = accountDao.findByUserId(userId);
+        a = accounts.get(0).getId();
+        b = accounts.get(1).getId();
+
+        List<Transaction> txs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            txs.add(new Transaction(null, a, b, 10L + i, LocalDateTime.of(2020, 1, 10 + i, 12, 0)));
+            txs.add(new Transaction(null, b, a, 20L + i, LocalDateTime.of(2020, 2, 10 + i, 12, 0, 0, 123_456_000)));
+        }
+        txs.add(new Transaction(null, a, b, 30L, LocalDateTime.now()));
+        transactionDao.saveAll(txs);
+
+        archiver = new TransactionArchiver(transactionArchiveDao, archiveStore, transactionManager,
+                Duration.ofDays(90), 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionDao.deleteAll();
+    }
+
+    /**
+     * Проверяет, что после архивации строки удалены из таблицы, а чтение по счёту возвращает
+     * ту же историю целиком, по страницам и в выгрузке; повторная архивация ничего не меняет.
+     */
+    @Test
+    void archive_shouldServeArchivedTransfersTransparently() {
+        List<Transaction> before = transactionDao.findAllByAccountId(a);
+
+        List<ArchivedSegment> archived = archiver.archiveBefore(LocalDateTime.of(2020, 3, 1, 0, 0));
+
+        assertEquals(2, archived.size());
+        assertEquals(5, archived.get(0).getRowCount());
+        assertEquals(10 + 11 + 12 + 13 + 14, archived.get(0).getAmountSum());
+        assertTrue(transactionArchiveDao.findIdsInRange(LocalDateTime.of(2020, 1, 1, 0, 0),
+                LocalDateTime.of(2020, 3, 1, 0, 0)).isEmpty());
+        assertEquals(2, archiveStore.segments().size());
+
+        assertEquals(before, transactionDao.findAllByAccountId(a));
+
+        List<Transaction> paged = new ArrayList<>();
+        List<Transaction> page = transactionDao.findPageByAccountId(a, null, null, 4);
+        while (!page.isEmpty()) {
+            paged.addAll(page);
+            Transaction last = page.get(page.size() - 1);
+            page = transactionDao.findPageByAccountId(a, last.getCreatedAt(), last.getId(), 4);
+        }
+        assertEquals(before, paged);
+
+        List<Transaction> streamed = new ArrayList<>();
+        transactionDao.streamByAccountId(b, LocalDateTime.of(2020, 1, 12, 0, 0), null, 2, streamed::add);
+        List<Transaction> expected = before.stream()
+                .filter(tx -> !tx.getCreatedAt().isBefore(LocalDateTime.of(2020, 1, 12, 0, 0)))
+                .sorted(Comparator.comparing(Transaction::getCreatedAt).thenComparing(Transaction::getId))
+                .toList();
+        assertEquals(expected, streamed);
+
+        assertTrue(archiver.archiveBefore(LocalDateTime.of(2020, 3, 1, 0, 0)).isEmpty());
+        ArchivedSegment again = archiver.archiveMonth(YearMonth.of(2020, 1)).orElseThrow();
+        assertEquals(archived.get(0).getChecksum(), again.getChecksum());
+        assertEquals(before, transactionDao.findAllByAccountId(a));
+        assertTrue(archiver.verify().stream().allMatch(verification -> Boolean.TRUE.equals(verification.valid())));
+    }
+
+    /**
+     * Проверяет, что восстановление возвращает строки месяца в таблицу и удаляет файл,
+     * а повторное восстановление ничего не меняет.
+     */
+    @Test
+    void restore_shouldReturnTransfersToTable() {
+        List<Transaction> before = transactionDao.findAllByAccountId(a);
+        archiver.archiveBefore(LocalDateTime.of(2020, 3, 1, 0, 0));
+        YearMonth january = YearMonth.of(2020, 1);
+
+        ArchivedSegment restored = archiver.restoreMonth(january).orElseThrow();
+
+        assertEquals(ArchivedSegment.Status.RESTORED, restored.getStatus());
+        assertEquals(5, transactionArchiveDao.findIdsInRange(january.atDay(1).atStartOfDay(),
+                january.plusMonths(1).atDay(1).atStartOfDay()).size());
+        assertFalse(Files.exists(archiveStore.segmentPath(january)));
+        assertFalse(archiveStore.segments().containsKey(january));
+        assertEquals(before, transactionDao.findAllByAccountId(a));
+
+        assertEquals(ArchivedSegment.Status.RESTORED, archiver.restoreMonth(january).orElseThrow().getStatus());
+        assertEquals(before, transactionDao.findAllByAccountId(a));
+        assertTrue(archiver.restoreMonth(YearMonth.of(2019, 1)).isEmpty());
+    }
+}
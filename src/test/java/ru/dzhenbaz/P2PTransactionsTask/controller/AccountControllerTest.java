@@ -1,5 +1,6 @@
 package ru.dzhenbaz.P2PTransactionsTask.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,12 +9,22 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionDao;
 import ru.dzhenbaz.P2PTransactionsTask.dao.UserDao;
 import ru.dzhenbaz.P2PTransactionsTask.dto.CreateAccountRequest;
+import ru.dzhenbaz.P2PTransactionsTask.model.Account;
+import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
 import ru.dzhenbaz.P2PTransactionsTask.model.User;
 import ru.dzhenbaz.P2PTransactionsTask.security.JwtUtil;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -38,6 +49,12 @@ public class AccountControllerTest {
     @Autowired
     private UserDao userDao;
 
+    @Autowired
+    private AccountDao accountDao;
+
+    @Autowired
+    private TransactionDao transactionDao;
+
     @Autowired
     private JwtUtil jwtUtil;
 
@@ -49,6 +66,8 @@ public class AccountControllerTest {
      */
     @BeforeEach
     void setUp() {
+        transactionDao.deleteAll();
+        accountDao.deleteAll();
         userDao.deleteAll();
 
         User user = new User(null, "accountUser", "pass", LocalDateTime.now());
@@ -97,6 +116,19 @@ public class AccountControllerTest {
                 .andExpect(content().json("[]"));
     }
 
+    /**
+     * Проверяет, что запрос с недействительным токеном или без него отклоняется до контроллера.
+     */
+    @Test
+    void getAllAccounts_shouldBeForbidden_withoutValidToken() throws Exception {
+        mockMvc.perform(get("/accounts")
+                        .header("Authorization", token + "x"))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(get("/accounts"))
+                .andExpect(status().isForbidden());
+    }
+
     /**
      * Проверяет, что при запросе несуществующего счёта возвращается 404.
      */
@@ -116,4 +148,111 @@ public class AccountControllerTest {
                         .header("Authorization", token))
                 .andExpect(status().isNotFound());
     }
+
+    /**
+     * Проверяет, что история переводов отдаётся страницами по курсору без пропусков и повторов,
+     * включая переводы с одинаковым временем, и что чужие переводы в неё не попадают.
+     */
+    @Test
+    void getTransactions_shouldPageThroughHistoryByCursor() throws Exception {
+        accountDao.save(new Account(null, userId, 1000L, false, LocalDateTime.now()));
+        accountDao.save(new Account(null, userId, 1000L, false, LocalDateTime.now()));
+        accountDao.save(new Account(null, userId, 1000L, false, LocalDateTime.now()));
+        List<Account> accounts = accountDao.findByUserId(userId);
+        Long a = accounts.get(0).getId();
+        Long b = accounts.get(1).getId();
+        Long c = accounts.get(2).getId();
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        transactionDao.saveAll(List.of(
+                new Transaction(null, a, b, 1L, now.minusMinutes(2)),
+                new Transaction(null, b, a, 2L, now.minusMinutes(1)),
+                new Transaction(null, a, b, 3L, now),
+                new Transaction(null, a, b, 4L, now),
+                new Transaction(null, b, c, 5L, now),
+                new Transaction(null, c, a, 6L, now)
+        ));
+
+        List<Long> amounts = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            var request = get("/accounts/" + a + "/transactions")
+                    .header("Authorization", token)
+                    .param("limit", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            String body = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+            JsonNode page = objectMapper.readTree(body);
+            page.get("items").forEach(item -> amounts.add(item.get("amount").asLong()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(List.of(6L, 4L, 3L, 2L, 1L), amounts);
+        assertEquals(3, pages);
+    }
+
+    /**
+     * Проверяет, что некорректный курсор и слишком большая страница отклоняются с 400.
+     */
+    @Test
+    void getTransactions_shouldReturn400_whenCursorOrLimitInvalid() throws Exception {
+        accountDao.save(new Account(null, userId, 1000L, false, LocalDateTime.now()));
+        Long accountId = accountDao.findByUserId(userId).get(0).getId();
+
+        mockMvc.perform(get("/accounts/" + accountId + "/transactions")
+                        .header("Authorization", token)
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/accounts/" + accountId + "/transactions")
+                        .header("Authorization", token)
+                        .param("limit", "100000"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Проверяет, что итоги за период считаются по дням и суммарно, а границы периода включаются.
+     */
+    @Test
+    void getRollup_shouldReturnDailyAndTotalSums() throws Exception {
+        accountDao.save(new Account(null, userId, 1000L, false, LocalDateTime.now()));
+        accountDao.save(new Account(null, userId, 1000L, false, LocalDateTime.now()));
+        List<Account> accounts = accountDao.findByUserId(userId);
+        Long a = accounts.get(0).getId();
+        Long b = accounts.get(1).getId();
+
+        LocalDateTime day = LocalDateTime.of(2025, 3, 10, 12, 0);
+        transactionDao.saveAll(List.of(
+                new Transaction(null, a, b, 100L, day.minusDays(1)),
+                new Transaction(null, a, b, 10L, day),
+                new Transaction(null, a, b, 20L, day.plusHours(1)),
+                new Transaction(null, b, a, 5L, day.plusDays(1)),
+                new Transaction(null, b, a, 7L, day.plusDays(2))
+        ));
+
+        mockMvc.perform(get("/accounts/" + a + "/rollup")
+                        .header("Authorization", token)
+                        .param("from", "2025-03-10")
+                        .param("to", "2025-03-11"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.days.length()").value(2))
+                .andExpect(jsonPath("$.days[0].date").value("2025-03-10"))
+                .andExpect(jsonPath("$.days[0].sentCount").value(2))
+                .andExpect(jsonPath("$.days[0].sentAmount").value(30))
+                .andExpect(jsonPath("$.days[1].receivedAmount").value(5))
+                .andExpect(jsonPath("$.sentAmount").value(30))
+                .andExpect(jsonPath("$.receivedCount").value(1))
+                .andExpect(jsonPath("$.receivedAmount").value(5));
+
+        mockMvc.perform(get("/accounts/" + a + "/rollup")
+                        .header("Authorization", token)
+                        .param("from", "2025-03-11")
+                        .param("to", "2025-03-10"))
+                .andExpect(status().isBadRequest());
+    }
 }
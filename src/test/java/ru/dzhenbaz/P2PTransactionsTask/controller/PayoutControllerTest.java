@@ -0,0 +1,130 @@
+package ru.dzhenbaz.P2PTransactionsTask.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.UserDao;
+import ru.dzhenbaz.P2PTransactionsTask.dto.PayoutRecipient;
+import ru.dzhenbaz.P2PTransactionsTask.dto.PayoutRequest;
+import ru.dzhenbaz.P2PTransactionsTask.model.Account;
+import ru.dzhenbaz.P2PTransactionsTask.model.User;
+import ru.dzhenbaz.P2PTransactionsTask.security.JwtUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Интеграционные тесты для {@link PayoutController}.
+ * Проверяет поток результатов массовой выплаты и отказ до начала потока.
+ *
+ * @author Dzhenbaz
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class PayoutControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Autowired
+    private UserDao userDao;
+    @Autowired
+    private AccountDao accountDao;
+    @Autowired
+    private TransactionDao transactionDao;
+
+    private String token;
+    private Long sourceId;
+    private List<Account> recipients;
+
+    /**
+     * Создаёт плательщика со счётом-источником и получателя с тремя счетами.
+     */
+    @BeforeEach
+    void setUp() {
+        transactionDao.deleteAll();
+        accountDao.deleteAll();
+        userDao.deleteAll();
+
+        userDao.save(new User(null, "payer", "pass", LocalDateTime.now()));
+        userDao.save(new User(null, "payee", "pass", LocalDateTime.now()));
+        Long payerId = userDao.findByUsername("payer").get().getId();
+        Long payeeId = userDao.findByUsername("payee").get().getId();
+        token = "Bearer " + jwtUtil.generateToken(payerId);
+
+        accountDao.save(new Account(null, payerId, 1000L, false, LocalDateTime.now()));
+        sourceId = accountDao.findByUserId(payerId).get(0).getId();
+        for (int i = 0; i < 3; i++) {
+            accountDao.save(new Account(null, payeeId, 0L, false, LocalDateTime.now()));
+        }
+        recipients = accountDao.findByUserId(payeeId);
+    }
+
+    /**
+     * Проверяет, что выплата передаёт строку на каждого получателя и итог, а балансы сходятся.
+     */
+    @Test
+    void payout_shouldStreamResultsAndApply() throws Exception {
+        accountDao.closeAccount(recipients.get(2).getId());
+        PayoutRequest request = new PayoutRequest(sourceId, List.of(
+                new PayoutRecipient(recipients.get(0).getId(), 100L),
+                new PayoutRecipient(recipients.get(1).getId(), 200L),
+                new PayoutRecipient(recipients.get(2).getId(), 300L)));
+
+        MvcResult async = mockMvc.perform(post("/transactions/payout")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(async))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = body.split("\n");
+        assertEquals(4, lines.length);
+        assertEquals("COMPLETED", objectMapper.readTree(lines[0]).get("status").asText());
+        assertEquals("Счёт получателя закрыт", objectMapper.readTree(lines[2]).get("message").asText());
+        JsonNode summary = objectMapper.readTree(lines[3]);
+        assertTrue(summary.get("applied").asBoolean());
+        assertEquals(300L, summary.get("debited").asLong());
+
+        assertEquals(700L, accountDao.findById(sourceId).get().getBalance());
+        assertEquals(200L, accountDao.findById(recipients.get(1).getId()).get().getBalance());
+    }
+
+    /**
+     * Проверяет, что выплата сверх остатка отклоняется ответом 400 без потока.
+     */
+    @Test
+    void payout_shouldReturnBadRequest_whenInsufficientFunds() throws Exception {
+        PayoutRequest request = new PayoutRequest(sourceId, List.of(
+                new PayoutRecipient(recipients.get(0).getId(), 600L),
+                new PayoutRecipient(recipients.get(1).getId(), 600L)));
+
+        mockMvc.perform(post("/transactions/payout")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(1000L, accountDao.findById(sourceId).get().getBalance());
+    }
+}
@@ -0,0 +1,135 @@
+package ru.dzhenbaz.P2PTransactionsTask.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.ScheduledTransferDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.UserDao;
+import ru.dzhenbaz.P2PTransactionsTask.dto.Recurrence;
+import ru.dzhenbaz.P2PTransactionsTask.dto.ScheduledTransferRequest;
+import ru.dzhenbaz.P2PTransactionsTask.model.Account;
+import ru.dzhenbaz.P2PTransactionsTask.model.ScheduledTransfer;
+import ru.dzhenbaz.P2PTransactionsTask.model.User;
+import ru.dzhenbaz.P2PTransactionsTask.security.JwtUtil;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Интеграционные тесты для {@link ScheduledTransferController}.
+ * Проверяет создание, исполнение планировщиком и отмену запланированных переводов.
+ *
+ * @author Dzhenbaz
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ScheduledTransferControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Autowired
+    private UserDao userDao;
+    @Autowired
+    private AccountDao accountDao;
+    @Autowired
+    private TransactionDao transactionDao;
+    @Autowired
+    private ScheduledTransferDao scheduledTransferDao;
+
+    private String token;
+    private Long fromAccountId;
+    private Long toAccountId;
+
+    /**
+     * Создаёт пользователя с двумя счетами и генерирует токен.
+     */
+    @BeforeEach
+    void setUp() {
+        scheduledTransferDao.deleteAll();
+        transactionDao.deleteAll();
+        accountDao.deleteAll();
+        userDao.deleteAll();
+
+        userDao.save(new User(null, "scheduleUser", "pass", LocalDateTime.now()));
+        Long userId = userDao.findByUsername("scheduleUser").get().getId();
+        token = "Bearer " + jwtUtil.generateToken(userId);
+
+        accountDao.save(new Account(null, userId, 1000L, false, LocalDateTime.now()));
+        accountDao.save(new Account(null, userId, 0L, false, LocalDateTime.now()));
+        fromAccountId = accountDao.findByUserId(userId).get(0).getId();
+        toAccountId = accountDao.findByUserId(userId).get(1).getId();
+    }
+
+    /**
+     * Проверяет, что однократный перевод исполняется планировщиком ровно один раз в назначенное время.
+     */
+    @Test
+    void scheduledTransfer_shouldBeExecutedOnce() throws Exception {
+        ScheduledTransferRequest request = new ScheduledTransferRequest(fromAccountId, toAccountId, 300L,
+                LocalDateTime.now().plusSeconds(1), Recurrence.NONE);
+
+        String body = mockMvc.perform(post("/transactions/scheduled")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.active").value(true))
+                .andReturn().getResponse().getContentAsString();
+        Long id = objectMapper.readTree(body).get("id").asLong();
+
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (scheduledTransferDao.findById(id).get().isActive() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+
+        ScheduledTransfer transfer = scheduledTransferDao.findById(id).get();
+        assertFalse(transfer.isActive());
+        assertEquals(1, transfer.getRunCount());
+        assertNull(transfer.getLastError());
+        assertEquals(700L, accountDao.findById(fromAccountId).get().getBalance());
+        assertEquals(300L, accountDao.findById(toAccountId).get().getBalance());
+    }
+
+    /**
+     * Проверяет, что отменённый перевод не исполняется и повторная отмена отклоняется.
+     */
+    @Test
+    void cancel_shouldDeactivateTransfer() throws Exception {
+        ScheduledTransferRequest request = new ScheduledTransferRequest(fromAccountId, toAccountId, 300L,
+                LocalDateTime.now().plusDays(1), Recurrence.WEEKLY);
+        String body = mockMvc.perform(post("/transactions/scheduled")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Long id = objectMapper.readTree(body).get("id").asLong();
+
+        mockMvc.perform(delete("/transactions/scheduled/" + id)
+                        .header("Authorization", token))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/transactions/scheduled/" + id)
+                        .header("Authorization", token))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/transactions/scheduled")
+                        .header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].active").value(false))
+                .andExpect(jsonPath("$[0].recurrence").value("WEEKLY"));
+    }
+}
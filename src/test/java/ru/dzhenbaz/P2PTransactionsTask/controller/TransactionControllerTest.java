@@ -9,16 +9,26 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDao;
 import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionDao;
 import ru.dzhenbaz.P2PTransactionsTask.dao.UserDao;
+import ru.dzhenbaz.P2PTransactionsTask.dto.BatchMode;
+import ru.dzhenbaz.P2PTransactionsTask.dto.BatchTransferRequest;
 import ru.dzhenbaz.P2PTransactionsTask.dto.TransferRequest;
+import ru.dzhenbaz.P2PTransactionsTask.dto.TransferStatus;
 import ru.dzhenbaz.P2PTransactionsTask.model.Account;
 import ru.dzhenbaz.P2PTransactionsTask.model.User;
 import ru.dzhenbaz.P2PTransactionsTask.security.JwtUtil;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -31,7 +41,11 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  *
  * @author Dzhenbaz
  */
-@SpringBootTest
+@SpringBootTest(properties = {
+        // строгий лимит счёта, чтобы отказ не зависел от скорости машины
+        "transfer.rate-limit.tiers.standard.account-rate=0.5",
+        "transfer.rate-limit.tiers.standard.account-burst=5"
+})
 @AutoConfigureMockMvc
 public class TransactionControllerTest {
     @Autowired
@@ -111,6 +125,33 @@ public class TransactionControllerTest {
                 .andExpect(content().string("Перевод выполнен"));
     }
 
+    /**
+     * Проверяет, что при превышении лимита частоты со счёта перевод отклоняется с 429 и {@code Retry-After}.
+     */
+    @Test
+    void transfer_shouldReturnTooManyRequests_whenAccountRateLimitExceeded() throws Exception {
+        TransferRequest request = new TransferRequest(fromAccountId, toAccountId, 1L, false);
+        String body = objectMapper.writeValueAsString(request);
+
+        int accepted = 0;
+        MvcResult last = null;
+        for (int i = 0; i < 20; i++) {
+            last = mockMvc.perform(post("/transactions/transfer")
+                            .header("Authorization", token)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                    .andReturn();
+            if (last.getResponse().getStatus() != 200) {
+                break;
+            }
+            accepted++;
+        }
+
+        assertTrue(accepted >= 5, "burst should be accepted, got " + accepted);
+        assertEquals(429, last.getResponse().getStatus());
+        assertNotNull(last.getResponse().getHeader("Retry-After"));
+    }
+
     /**
      * Проверяет, что отрицательная сумма вызывает ошибку 400.
      */
@@ -182,4 +223,185 @@ public class TransactionControllerTest {
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isNotFound());
     }
+
+    /**
+     * Проверяет, что после подтверждённого перевода балансы изменены ровно на сумму перевода.
+     */
+    @Test
+    void transfer_shouldMoveExactAmount_whenConfirmed() throws Exception {
+        TransferRequest request = new TransferRequest(fromAccountId, toAccountId, 300L, true);
+
+        mockMvc.perform(post("/transactions/transfer")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        assertEquals(700L, accountDao.findById(fromAccountId).get().getBalance());
+        assertEquals(300L, accountDao.findById(toAccountId).get().getBalance());
+    }
+
+    /**
+     * Проверяет, что отклонённое зачисление на закрытый счёт откатывает уже выполненное списание.
+     */
+    @Test
+    void transfer_shouldRollbackDebit_whenToAccountClosed() throws Exception {
+        accountDao.closeAccount(toAccountId);
+
+        TransferRequest request = new TransferRequest(fromAccountId, toAccountId, 100L, true);
+
+        mockMvc.perform(post("/transactions/transfer")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(1000L, accountDao.findById(fromAccountId).get().getBalance());
+    }
+
+    /**
+     * Проверяет, что подтверждённый пакет исполняется целиком и балансы отражают все переводы.
+     */
+    @Test
+    void transferBatch_shouldApplyAllTransfers_whenConfirmed() throws Exception {
+        BatchTransferRequest request = new BatchTransferRequest(List.of(
+                new TransferRequest(fromAccountId, toAccountId, 300L, false),
+                new TransferRequest(toAccountId, fromAccountId, 100L, false)
+        ), BatchMode.ALL_OR_NOTHING, true);
+
+        mockMvc.perform(post("/transactions/batch")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.completed").value(2))
+                .andExpect(jsonPath("$.results[1].status").value("COMPLETED"));
+
+        assertEquals(800L, accountDao.findById(fromAccountId).get().getBalance());
+        assertEquals(200L, accountDao.findById(toAccountId).get().getBalance());
+        assertEquals(2, transactionDao.findAllByAccountId(fromAccountId).size());
+    }
+
+    /**
+     * Проверяет, что пакет NETTING проводится по чистым позициям и сохраняет каждый перевод.
+     */
+    @Test
+    void transferBatch_shouldApplyNetPositions_whenNetting() throws Exception {
+        BatchTransferRequest request = new BatchTransferRequest(List.of(
+                new TransferRequest(toAccountId, fromAccountId, 500L, false),
+                new TransferRequest(fromAccountId, toAccountId, 1200L, false)
+        ), BatchMode.NETTING, true);
+
+        mockMvc.perform(post("/transactions/batch")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.completed").value(2));
+
+        assertEquals(300L, accountDao.findById(fromAccountId).get().getBalance());
+        assertEquals(700L, accountDao.findById(toAccountId).get().getBalance());
+        assertEquals(2, transactionDao.findAllByAccountId(fromAccountId).size());
+    }
+
+    /**
+     * Проверяет, что пакет ALL_OR_NOTHING с ошибочным переводом возвращает 400 и не меняет балансы.
+     */
+    @Test
+    void transferBatch_shouldRejectWholeBatch_whenAnyTransferInvalid() throws Exception {
+        BatchTransferRequest request = new BatchTransferRequest(List.of(
+                new TransferRequest(fromAccountId, toAccountId, 300L, false),
+                new TransferRequest(fromAccountId, toAccountId, 5000L, false)
+        ), BatchMode.ALL_OR_NOTHING, true);
+
+        mockMvc.perform(post("/transactions/batch")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.results[0].status").value("SKIPPED"))
+                .andExpect(jsonPath("$.results[1].status").value("REJECTED"));
+
+        assertEquals(1000L, accountDao.findById(fromAccountId).get().getBalance());
+    }
+
+    /**
+     * Проверяет, что повтор перевода с тем же Idempotency-Key возвращает исходный ответ
+     * и не списывает средства повторно.
+     */
+    @Test
+    void transfer_shouldDebitOnce_whenRetriedWithSameIdempotencyKey() throws Exception {
+        TransferRequest request = new TransferRequest(fromAccountId, toAccountId, 300L, true);
+        String key = UUID.randomUUID().toString();
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/transactions/transfer")
+                            .header("Authorization", token)
+                            .header("Idempotency-Key", key)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string("Перевод выполнен"));
+        }
+
+        assertEquals(700L, accountDao.findById(fromAccountId).get().getBalance());
+        assertEquals(1, transactionDao.findAllByAccountId(fromAccountId).size());
+    }
+
+    /**
+     * Проверяет, что Idempotency-Key, использованный для другого перевода, отклоняется с 409.
+     */
+    @Test
+    void transfer_shouldReturnConflict_whenIdempotencyKeyReusedForOtherTransfer() throws Exception {
+        String key = UUID.randomUUID().toString();
+
+        mockMvc.perform(post("/transactions/transfer")
+                        .header("Authorization", token)
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new TransferRequest(fromAccountId, toAccountId, 300L, true))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/transactions/transfer")
+                        .header("Authorization", token)
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new TransferRequest(fromAccountId, toAccountId, 400L, true))))
+                .andExpect(status().isConflict());
+
+        assertEquals(700L, accountDao.findById(fromAccountId).get().getBalance());
+    }
+
+    /**
+     * Проверяет, что асинхронный перевод принимается с 202, а затем его состояние
+     * становится COMPLETED и балансы изменяются.
+     */
+    @Test
+    void transferAsync_shouldAcceptAndCompleteTransfer() throws Exception {
+        TransferRequest request = new TransferRequest(fromAccountId, toAccountId, 250L, true);
+
+        MvcResult accepted = mockMvc.perform(post("/transactions/transfer/async")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status").value("PENDING"))
+                .andReturn();
+        String id = objectMapper.readTree(accepted.getResponse().getContentAsString()).get("id").asText();
+
+        String status = TransferStatus.PENDING.name();
+        for (int i = 0; i < 500 && status.equals(TransferStatus.PENDING.name()); i++) {
+            Thread.sleep(10);
+            String body = mockMvc.perform(get("/transactions/" + id + "/status")
+                            .header("Authorization", token))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            status = objectMapper.readTree(body).get("status").asText();
+        }
+
+        assertEquals(TransferStatus.COMPLETED.name(), status);
+        assertEquals(750L, accountDao.findById(fromAccountId).get().getBalance());
+    }
 }
@@ -0,0 +1,147 @@
+package ru.dzhenbaz.P2PTransactionsTask.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.UserDao;
+import ru.dzhenbaz.P2PTransactionsTask.model.Account;
+import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
+import ru.dzhenbaz.P2PTransactionsTask.model.User;
+import ru.dzhenbaz.P2PTransactionsTask.security.JwtUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Интеграционные тесты для {@link TransactionEventsController}.
+ * Проверяет доставку переводов подписчику, досылку пропущенных событий по {@code Last-Event-ID}
+ * и отказ по чужому счёту.
+ *
+ * @author Dzhenbaz
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class TransactionEventsControllerTest {
+
+    private static final Pattern EVENT_ID = Pattern.compile("id:(\\S+)");
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Autowired
+    private UserDao userDao;
+    @Autowired
+    private AccountDao accountDao;
+    @Autowired
+    private TransactionDao transactionDao;
+
+    private String token;
+    private Long accountId;
+    private Long otherAccountId;
+
+    /**
+     * Создаёт владельца счёта и чужой счёт.
+     */
+    @BeforeEach
+    void setUp() {
+        transactionDao.deleteAll();
+        accountDao.deleteAll();
+        userDao.deleteAll();
+
+        userDao.save(new User(null, "listener", "pass", LocalDateTime.now()));
+        userDao.save(new User(null, "payer", "pass", LocalDateTime.now()));
+        Long ownerId = userDao.findByUsername("listener").get().getId();
+        Long payerId = userDao.findByUsername("payer").get().getId();
+        token = "Bearer " + jwtUtil.generateToken(ownerId);
+
+        accountDao.save(new Account(null, ownerId, 1000L, false, LocalDateTime.now()));
+        accountDao.save(new Account(null, payerId, 1000L, false, LocalDateTime.now()));
+        accountId = accountDao.findByUserId(ownerId).get(0).getId();
+        otherAccountId = accountDao.findByUserId(payerId).get(0).getId();
+    }
+
+    /**
+     * Проверяет, что подписчик получает входящий перевод после его записи.
+     */
+    @Test
+    void events_shouldPushCommittedTransfer() throws Exception {
+        MvcResult result = subscribe(null);
+
+        transactionDao.save(new Transaction(null, otherAccountId, accountId, 321L, LocalDateTime.now()));
+
+        String body = awaitContent(result, "\"amount\":321");
+        assertTrue(body.contains("event:transfer"));
+        assertTrue(body.contains("\"fromAccountId\":" + otherAccountId));
+    }
+
+    /**
+     * Проверяет, что при переподключении с {@code Last-Event-ID} досылаются только пропущенные события,
+     * а для неизвестного идентификатора приходит {@code reset}.
+     */
+    @Test
+    void events_shouldResumeAfterLastEventId() throws Exception {
+        MvcResult first = subscribe(null);
+        transactionDao.save(new Transaction(null, otherAccountId, accountId, 11L, LocalDateTime.now()));
+        String body = awaitContent(first, "\"amount\":11");
+        Matcher matcher = EVENT_ID.matcher(body);
+        assertTrue(matcher.find());
+        String lastEventId = matcher.group(1);
+
+        transactionDao.save(new Transaction(null, otherAccountId, accountId, 22L, LocalDateTime.now()));
+
+        MvcResult resumed = subscribe(lastEventId);
+        String replay = awaitContent(resumed, "\"amount\":22");
+        assertFalse(replay.contains("\"amount\":11"));
+        assertFalse(replay.contains("event:reset"));
+
+        MvcResult stale = subscribe("1-1");
+        awaitContent(stale, "event:reset");
+    }
+
+    /**
+     * Проверяет, что на события чужого счёта подписаться нельзя.
+     */
+    @Test
+    void events_shouldReturn403_forForeignAccount() throws Exception {
+        mockMvc.perform(get("/accounts/" + otherAccountId + "/events")
+                        .header("Authorization", token))
+                .andExpect(status().isForbidden());
+    }
+
+    private MvcResult subscribe(String lastEventId) throws Exception {
+        var request = get("/accounts/" + accountId + "/events").header("Authorization", token);
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String body = "";
+        while (System.currentTimeMillis() < deadline) {
+            body = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+            if (body.contains(expected)) {
+                return body;
+            }
+            Thread.sleep(20);
+        }
+        fail("Event not received: " + expected + ", got: " + body);
+        return body;
+    }
+}
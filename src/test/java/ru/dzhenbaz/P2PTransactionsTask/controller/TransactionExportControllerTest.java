@@ -0,0 +1,176 @@
+package ru.dzhenbaz.P2PTransactionsTask.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.UserDao;
+import ru.dzhenbaz.P2PTransactionsTask.model.Account;
+import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
+import ru.dzhenbaz.P2PTransactionsTask.model.User;
+import ru.dzhenbaz.P2PTransactionsTask.security.JwtUtil;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Интеграционные тесты для {@link TransactionExportController}.
+ * Проверяет выгрузку истории в CSV и в сжатом NDJSON, ограничение периодом и отказ до начала потока.
+ *
+ * @author Dzhenbaz
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class TransactionExportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Autowired
+    private UserDao userDao;
+    @Autowired
+    private AccountDao accountDao;
+    @Autowired
+    private TransactionDao transactionDao;
+
+    private String token;
+    private Long accountId;
+    private Long otherAccountId;
+    private LocalDateTime now;
+
+    /**
+     * Создаёт владельца счёта с тремя переводами и чужой счёт.
+     */
+    @BeforeEach
+    void setUp() {
+        transactionDao.deleteAll();
+        accountDao.deleteAll();
+        userDao.deleteAll();
+
+        userDao.save(new User(null, "auditor", "pass", LocalDateTime.now()));
+        userDao.save(new User(null, "stranger", "pass", LocalDateTime.now()));
+        Long ownerId = userDao.findByUsername("auditor").get().getId();
+        Long strangerId = userDao.findByUsername("stranger").get().getId();
+        token = "Bearer " + jwtUtil.generateToken(ownerId);
+
+        accountDao.save(new Account(null, ownerId, 1000L, false, LocalDateTime.now()));
+        accountDao.save(new Account(null, strangerId, 1000L, false, LocalDateTime.now()));
+        accountId = accountDao.findByUserId(ownerId).get(0).getId();
+        otherAccountId = accountDao.findByUserId(strangerId).get(0).getId();
+
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        transactionDao.saveAll(List.of(
+                new Transaction(null, accountId, otherAccountId, 100L, now.minusMinutes(2)),
+                new Transaction(null, otherAccountId, accountId, 200L, now.minusMinutes(1)),
+                new Transaction(null, accountId, otherAccountId, 300L, now)
+        ));
+    }
+
+    /**
+     * Проверяет выгрузку в CSV: заголовок и переводы от старых к новым.
+     */
+    @Test
+    void export_shouldStreamCsvInChronologicalOrder() throws Exception {
+        MvcResult started = mockMvc.perform(get("/accounts/" + accountId + "/transactions/export")
+                        .header("Authorization", token)
+                        .param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = body.split("\n");
+        assertEquals(4, lines.length);
+        assertEquals("id,from_account_id,to_account_id,amount,created_at", lines[0]);
+        assertTrue(lines[1].contains(",100,"));
+        assertTrue(lines[2].contains(",200,"));
+        assertTrue(lines[3].contains(",300,"));
+    }
+
+    /**
+     * Проверяет, что выгрузка NDJSON со сжатием распаковывается в строки JSON.
+     */
+    @Test
+    void export_shouldStreamGzippedNdjson() throws Exception {
+        MvcResult started = mockMvc.perform(get("/accounts/" + accountId + "/transactions/export")
+                        .header("Authorization", token)
+                        .param("gzip", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] compressed = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        String body;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        String[] lines = body.split("\n");
+        assertEquals(3, lines.length);
+        JsonNode last = objectMapper.readTree(lines[2]);
+        assertEquals(300L, last.get("amount").asLong());
+        assertEquals(accountId, last.get("fromAccountId").asLong());
+    }
+
+    /**
+     * Проверяет, что выгрузка ограничивается периодом: начало включительно, конец не включительно.
+     */
+    @Test
+    void export_shouldRespectTimeBounds() throws Exception {
+        MvcResult started = mockMvc.perform(get("/accounts/" + accountId + "/transactions/export")
+                        .header("Authorization", token)
+                        .param("format", "CSV")
+                        .param("from", now.minusMinutes(1).toString())
+                        .param("to", now.toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].contains(",200,"));
+
+        mockMvc.perform(get("/accounts/" + accountId + "/transactions/export")
+                        .header("Authorization", token)
+                        .param("from", now.toString())
+                        .param("to", now.toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Проверяет, что выгрузка чужого счёта отклоняется до начала потока.
+     */
+    @Test
+    void export_shouldReturn403_whenAccountBelongsToAnotherUser() throws Exception {
+        mockMvc.perform(get("/accounts/" + otherAccountId + "/transactions/export")
+                        .header("Authorization", token))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isForbidden());
+    }
+}
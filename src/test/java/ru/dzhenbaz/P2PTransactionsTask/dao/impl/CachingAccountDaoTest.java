@@ -0,0 +1,109 @@
+package ru.dzhenbaz.P2PTransactionsTask.dao.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDao;
+import ru.dzhenbaz.P2PTransactionsTask.model.Account;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Юнит-тесты для {@link CachingAccountDao}.
+ * <p>
+ * Проверяются попадания в кэш вне транзакции, удаление счёта из кэша при изменении
+ * и чтение из БД внутри транзакции.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+@ExtendWith(MockitoExtension.class)
+public class CachingAccountDaoTest {
+
+    @Mock
+    private AccountDao delegate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CachingAccountDao accountDao;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        accountDao = new CachingAccountDao(delegate, 100, Duration.ofMinutes(1), meterRegistry);
+    }
+
+    /**
+     * Проверяет, что повторное чтение вне транзакции берётся из кэша, возвращает копию
+     * и учитывается в метриках.
+     */
+    @Test
+    void findById_shouldServeRepeatedReadsFromCache() {
+        when(delegate.findById(1L)).thenReturn(Optional.of(account(1000L)));
+
+        Account first = accountDao.findById(1L).orElseThrow();
+        first.setBalance(0L);
+        Account second = accountDao.findById(1L).orElseThrow();
+
+        assertEquals(1000L, second.getBalance());
+        verify(delegate, times(1)).findById(1L);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "accounts").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    /**
+     * Проверяет, что изменение баланса удаляет счёт из кэша.
+     */
+    @Test
+    void updateBalance_shouldInvalidateCachedAccount() {
+        when(delegate.findById(1L)).thenReturn(Optional.of(account(1000L)), Optional.of(account(400L)));
+
+        accountDao.findById(1L);
+        accountDao.updateBalance(1L, 400L);
+
+        assertEquals(400L, accountDao.findById(1L).orElseThrow().getBalance());
+        verify(delegate, times(2)).findById(1L);
+    }
+
+    /**
+     * Проверяет, что внутри транзакции счёт читается из БД, а после её завершения
+     * изменённый счёт повторно удаляется из кэша.
+     */
+    @Test
+    void findById_shouldBypassCache_whenTransactionActive() {
+        when(delegate.findById(1L)).thenReturn(Optional.of(account(1000L)));
+        when(delegate.creditIfOpen(1L, 100L)).thenReturn(true);
+        accountDao.findById(1L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            accountDao.findById(1L);
+            accountDao.creditIfOpen(1L, 100L);
+            accountDao.findById(1L);
+            verify(delegate, times(3)).findById(1L);
+        } finally {
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        accountDao.findById(1L);
+        accountDao.findById(1L);
+        verify(delegate, times(4)).findById(1L);
+    }
+
+    private static Account account(long balance) {
+        return new Account(1L, 1L, balance, false, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,96 @@
+package ru.dzhenbaz.P2PTransactionsTask.dao.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDailyRollupDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionDao;
+import ru.dzhenbaz.P2PTransactionsTask.model.AccountDailyRollup;
+import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Юнит-тесты для {@link RollupTransactionDao}.
+ * <p>
+ * Проверяются свёртка пакета переводов в приращения по счёту и дню, их порядок
+ * и очистка итогов вместе с переводами.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+@ExtendWith(MockitoExtension.class)
+public class RollupTransactionDaoTest {
+
+    @Mock
+    private TransactionDao delegate;
+
+    @Mock
+    private AccountDailyRollupDao rollupDao;
+
+    private RollupTransactionDao transactionDao;
+
+    @BeforeEach
+    void setUp() {
+        transactionDao = new RollupTransactionDao(delegate, rollupDao);
+    }
+
+    /**
+     * Проверяет, что переводы сначала записываются, а затем сворачиваются в одно приращение
+     * на пару (счёт, день), упорядоченное по счёту и дате.
+     */
+    @Test
+    void saveAll_shouldAddDeltasPerAccountAndDayInKeyOrder() {
+        LocalDateTime day1 = LocalDateTime.of(2025, 3, 1, 10, 0);
+        LocalDateTime day2 = day1.plusDays(1);
+        List<Transaction> txs = List.of(
+                new Transaction(null, 2L, 1L, 100L, day2),
+                new Transaction(null, 1L, 2L, 30L, day1),
+                new Transaction(null, 1L, 2L, 20L, day1.plusHours(5))
+        );
+
+        transactionDao.saveAll(txs);
+
+        InOrder inOrder = inOrder(delegate, rollupDao);
+        inOrder.verify(delegate).saveAll(txs);
+        inOrder.verify(rollupDao).addAll(List.of(
+                new AccountDailyRollup(1L, day1.toLocalDate(), 2, 50, 0, 0),
+                new AccountDailyRollup(1L, day2.toLocalDate(), 0, 0, 1, 100),
+                new AccountDailyRollup(2L, day1.toLocalDate(), 0, 0, 2, 50),
+                new AccountDailyRollup(2L, day2.toLocalDate(), 1, 100, 0, 0)
+        ));
+    }
+
+    /**
+     * Проверяет, что одиночный перевод даёт приращения отправителю и получателю.
+     */
+    @Test
+    void save_shouldAddDeltasForBothAccounts() {
+        Transaction tx = new Transaction(null, 5L, 3L, 70L, LocalDateTime.of(2025, 3, 1, 23, 59));
+
+        transactionDao.save(tx);
+
+        verify(rollupDao).addAll(List.of(
+                new AccountDailyRollup(3L, LocalDate.of(2025, 3, 1), 0, 0, 1, 70),
+                new AccountDailyRollup(5L, LocalDate.of(2025, 3, 1), 1, 70, 0, 0)
+        ));
+    }
+
+    /**
+     * Проверяет, что удаление переводов удаляет и итоги.
+     */
+    @Test
+    void deleteAll_shouldClearRollups() {
+        transactionDao.deleteAll();
+
+        verify(delegate).deleteAll();
+        verify(rollupDao).deleteAll();
+    }
+}
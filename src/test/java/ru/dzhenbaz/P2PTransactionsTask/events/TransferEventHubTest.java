@@ -0,0 +1,34 @@
+package ru.dzhenbaz.P2PTransactionsTask.events;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.dzhenbaz.P2PTransactionsTask.exception.ServiceUnavailableException;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Юнит-тесты для {@link TransferEventHub}.
+ *
+ * @author Dzhenbaz
+ */
+public class TransferEventHubTest {
+
+    /**
+     * Проверяет, что подписки сверх лимита отклоняются и не учитываются в числе подписчиков.
+     */
+    @Test
+    void subscribe_shouldReject_whenMaxSubscribersReached() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        try (TransferEventHub hub = new TransferEventHub(8, 8, 2, OverflowPolicy.DISCONNECT,
+                Duration.ofMinutes(1), Duration.ofMinutes(1), 1, meterRegistry)) {
+            hub.subscribe(1L, null);
+            hub.subscribe(2L, null);
+
+            assertThrows(ServiceUnavailableException.class, () -> hub.subscribe(3L, null));
+            assertEquals(2, hub.subscriberCount());
+            assertEquals(2.0, meterRegistry.get("transfer.events.subscribers").gauge().value());
+        }
+    }
+}
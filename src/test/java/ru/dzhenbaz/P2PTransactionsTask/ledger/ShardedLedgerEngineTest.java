@@ -0,0 +1,235 @@
+package ru.dzhenbaz.P2PTransactionsTask.ledger;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.dzhenbaz.P2PTransactionsTask.config.TransferProperties;
+import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.LedgerCheckpointDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.UserDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.impl.LedgerCheckpointDaoImpl;
+import ru.dzhenbaz.P2PTransactionsTask.exception.BadRequestException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.NotFoundException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.ServiceUnavailableException;
+import ru.dzhenbaz.P2PTransactionsTask.model.Account;
+import ru.dzhenbaz.P2PTransactionsTask.model.User;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Интеграционные тесты для {@link ShardedLedgerEngine}.
+ * <p>
+ * Леджер создаётся поверх H2-базы с двумя шардами, поэтому соседние счета попадают
+ * в разные шарды. Проверяются внутри- и межшардовые переводы, возврат резерва при отказе
+ * получателя, асинхронная запись в БД и восстановление из хвоста журнала.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+@SpringBootTest
+public class ShardedLedgerEngineTest {
+
+    @TempDir
+    Path journalDir;
+
+    @Autowired
+    private AccountDao accountDao;
+    @Autowired
+    private TransactionDao transactionDao;
+    @Autowired
+    private UserDao userDao;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private LedgerCheckpointDao checkpointDao;
+    private ShardedLedgerEngine engine;
+    private Long userId;
+    private Long sourceId;
+    private Long otherShardId;
+    private Long sameShardId;
+
+    @BeforeEach
+    void setUp() {
+        transactionDao.deleteAll();
+        accountDao.deleteAll();
+        userDao.deleteAll();
+
+        userDao.save(new User(null, "ledgerUser", "pass", LocalDateTime.now()));
+        userId = userDao.findByUsername("ledgerUser").get().getId();
+
+        for (int i = 0; i < 3; i++) {
+            accountDao.save(new Account(null, userId, i == 0 ? 300L : 0L, false, LocalDateTime.now()));
+        }
+        List<Account> accounts = accountDao.findByUserId(userId);
+        sourceId = accounts.get(0).getId();
+        otherShardId = accounts.get(1).getId();
+        sameShardId = accounts.get(2).getId();
+
+        checkpointDao = new LedgerCheckpointDaoImpl(jdbcTemplate);
+        engine = newEngine();
+        engine.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (engine != null) {
+            engine.close();
+        }
+        transactionDao.deleteAll();
+    }
+
+    /**
+     * Проверяет, что из 50 одновременных переводов по 10 проходят ровно 30,
+     * а после остановки леджера балансы и транзакции совпадают в памяти и в БД.
+     */
+    @Test
+    void transfer_shouldKeepBalancesConsistentAcrossShards() throws Exception {
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Long toId = i % 2 == 0 ? otherShardId : sameShardId;
+            futures.add(engine.transfer(userId, sourceId, toId, 10L));
+        }
+
+        int completed = 0;
+        for (CompletableFuture<String> future : futures) {
+            try {
+                assertEquals("Перевод выполнен", future.join());
+                completed++;
+            } catch (CompletionException e) {
+                assertInstanceOf(BadRequestException.class, e.getCause());
+            }
+        }
+
+        assertEquals(30, completed);
+        assertEquals(0L, engine.balanceOf(sourceId).getAsLong());
+        assertEquals(300L, engine.balanceOf(otherShardId).getAsLong() + engine.balanceOf(sameShardId).getAsLong());
+
+        engine.close();
+        engine = null;
+
+        long total = 0;
+        for (Long id : List.of(sourceId, otherShardId, sameShardId)) {
+            total += accountDao.findById(id).get().getBalance();
+        }
+        assertEquals(0L, accountDao.findById(sourceId).get().getBalance());
+        assertEquals(300L, total);
+        assertEquals(30, transactionDao.findAllByAccountId(sourceId).size());
+    }
+
+    /**
+     * Проверяет, что при отказе в зачислении на другом шарде резерв возвращается отправителю.
+     */
+    @Test
+    void transfer_shouldRefundWhenTargetRejectsCredit() {
+        accountDao.closeAccount(otherShardId);
+        Long missingId = otherShardId + 100;
+
+        CompletionException closed = assertThrows(CompletionException.class,
+                () -> engine.transfer(userId, sourceId, otherShardId, 50L).join());
+        CompletionException missing = assertThrows(CompletionException.class,
+                () -> engine.transfer(userId, sourceId, missingId + missingId % 2, 50L).join());
+
+        assertInstanceOf(BadRequestException.class, closed.getCause());
+        assertInstanceOf(NotFoundException.class, missing.getCause());
+        assertEquals(300L, engine.balanceOf(sourceId).getAsLong());
+    }
+
+    /**
+     * Проверяет, что закрытие счёта через леджер запрещает последующие зачисления.
+     */
+    @Test
+    void markClosed_shouldRejectLaterCredits() {
+        assertEquals("Перевод выполнен", engine.transfer(userId, sourceId, sameShardId, 10L).join());
+
+        engine.markClosed(sameShardId);
+
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> engine.transfer(userId, sourceId, sameShardId, 10L).join());
+        assertInstanceOf(BadRequestException.class, e.getCause());
+        assertEquals(290L, engine.balanceOf(sourceId).getAsLong());
+    }
+
+    /**
+     * Проверяет, что прямое изменение балансов через DAO режима LEDGER отклоняется с
+     * {@link ServiceUnavailableException}, а балансы не меняются.
+     */
+    @Test
+    void ledgerAccountDao_shouldRejectDirectBalanceWrites() {
+        LedgerAccountDao ledgerAccountDao = new LedgerAccountDao(accountDao, engine);
+
+        assertThrows(ServiceUnavailableException.class, () -> ledgerAccountDao.updateBalance(sourceId, 0L));
+        assertThrows(ServiceUnavailableException.class,
+                () -> ledgerAccountDao.applyBalanceDeltas(Map.of(sourceId, -10L, sameShardId, 10L)));
+        assertThrows(ServiceUnavailableException.class, () -> ledgerAccountDao.resizeBalanceSlots(sourceId, 4));
+        assertEquals(300L, ledgerAccountDao.findById(sourceId).get().getBalance());
+    }
+
+    /**
+     * Проверяет, что записи журнала, не перенесённые в БД до остановки,
+     * применяются при следующем запуске ровно один раз.
+     */
+    @Test
+    void start_shouldReplayJournalTailIntoTables() throws Exception {
+        engine.close();
+        engine = null;
+        LedgerJournal.deleteAll(journalDir);
+
+        long checkpoint = checkpointDao.getLastSeq();
+        LedgerWriteBehind stalled = new LedgerWriteBehind(null, null, null,
+                new TransactionTemplate(transactionManager), 100, 100, settings().getWriteBehindInterval());
+        LedgerJournal journal = new LedgerJournal(journalDir, settings().getJournalSegmentSize().toBytes(),
+                checkpoint + 1, 16, 16, stalled, null, new SimpleMeterRegistry());
+        journal.start();
+        List<CompletableFuture<String>> written = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            CompletableFuture<String> result = new CompletableFuture<>();
+            journal.append(new LedgerEntry(0, userId, sourceId, otherShardId, 25L, System.currentTimeMillis(),
+                    result));
+            written.add(result);
+        }
+        written.forEach(CompletableFuture::join);
+        journal.close();
+
+        engine = newEngine();
+        engine.start();
+        engine.close();
+        engine = newEngine();
+        engine.start();
+
+        assertEquals(225L, accountDao.findById(sourceId).get().getBalance());
+        assertEquals(75L, accountDao.findById(otherShardId).get().getBalance());
+        assertEquals(3, transactionDao.findAllByAccountId(sourceId).size());
+        assertEquals(checkpoint + 3, checkpointDao.getLastSeq());
+    }
+
+    private ShardedLedgerEngine newEngine() {
+        return new ShardedLedgerEngine(accountDao, transactionDao, checkpointDao, transactionManager, settings(),
+                new SimpleMeterRegistry());
+    }
+
+    private TransferProperties.Ledger settings() {
+        TransferProperties.Ledger settings = new TransferProperties.Ledger();
+        settings.setShards(2);
+        settings.setRingCapacity(64);
+        settings.setJournalDir(journalDir.toString());
+        return settings;
+    }
+}
@@ -0,0 +1,212 @@
+package ru.dzhenbaz.P2PTransactionsTask.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.UserDao;
+import ru.dzhenbaz.P2PTransactionsTask.dto.TransferRequest;
+import ru.dzhenbaz.P2PTransactionsTask.model.Account;
+import ru.dzhenbaz.P2PTransactionsTask.model.User;
+import ru.dzhenbaz.P2PTransactionsTask.security.JwtUtil;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Нагрузочный тест пути перевода.
+ * <p>
+ * Поднимает приложение на случайном порту, создаёт пользователей и счета и в течение заданного
+ * времени отправляет подтверждённые переводы в {@code POST /transactions/transfer} из нескольких
+ * потоков по HTTP. Счета выбираются по распределению Ципфа, так что часть счетов «горячая».
+ * В конце печатает пропускную способность, перцентили задержек и распределение кодов ответа.
+ * </p>
+ *
+ * <p>Тест падает, если суммарный баланс всех счетов изменился или какой-либо баланс стал
+ * отрицательным.</p>
+ *
+ * <p>Не входит в обычный прогон тестов. Запуск: {@code mvn test -Pload-test}. Параметры задаются
+ * системными свойствами: {@code load.users}, {@code load.accounts-per-user}, {@code load.initial-balance},
+ * {@code load.max-amount}, {@code load.concurrency}, {@code load.duration} (секунды),
+ * {@code load.zipf-exponent}. По умолчанию используется H2; для локального PostgreSQL достаточно
+ * передать {@code -Dspring.datasource.url=...}, {@code -Dspring.datasource.username=...},
+ * {@code -Dspring.datasource.password=...} и {@code -Dspring.datasource.driver-class-name=org.postgresql.Driver}.
+ * Режим перевода переключается так же: {@code -Dtransfer.mode=ORDERED_LOCKING}.</p>
+ *
+ * @author Dzhenbaz
+ */
+@Tag("load")
+// Ограничитель частоты отключён: тест нагружает горячие счета намеренно
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "transfer.rate-limit.enabled=false")
+public class TransferLoadTest {
+
+    private static final int USERS = Integer.getInteger("load.users", 100);
+    private static final int ACCOUNTS_PER_USER = Integer.getInteger("load.accounts-per-user", 2);
+    private static final long INITIAL_BALANCE = Long.getLong("load.initial-balance", 100_000L);
+    private static final long MAX_AMOUNT = Long.getLong("load.max-amount", 1_000L);
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 32);
+    private static final int DURATION_SECONDS = Integer.getInteger("load.duration", 20);
+    private static final double ZIPF_EXPONENT = Double.parseDouble(System.getProperty("load.zipf-exponent", "1.0"));
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private TransactionDao transactionDao;
+    @Autowired
+    private UserDao userDao;
+    @Autowired
+    private AccountDao accountDao;
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    /**
+     * Счёт нагрузочного теста и токен его владельца.
+     */
+    private record LoadAccount(Long id, Long userId, String token) {
+    }
+
+    /**
+     * Удаляет данные, созданные тестом.
+     */
+    @AfterEach
+    void tearDown() {
+        transactionDao.deleteAll();
+        accountDao.deleteAll();
+        userDao.deleteAll();
+    }
+
+    /**
+     * Нагружает переводы и проверяет сохранение суммарного баланса.
+     */
+    @Test
+    void transfer_shouldConserveMoney_underConcurrentLoad() throws Exception {
+        List<LoadAccount> accounts = seed();
+        long totalBefore = totalBalance(accounts);
+
+        ZipfDistribution zipf = new ZipfDistribution(accounts.size(), ZIPF_EXPONENT);
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(CONCURRENCY);
+        HttpClient client = HttpClient.newBuilder()
+                .executor(clientExecutor)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        URI uri = URI.create("http://localhost:" + port + "/transactions/transfer");
+        Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        ExecutorService workers = Executors.newFixedThreadPool(CONCURRENCY);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(DURATION_SECONDS);
+        long startedAt = System.nanoTime();
+        List<Future<Histogram>> results = new ArrayList<>();
+        for (int i = 0; i < CONCURRENCY; i++) {
+            results.add(workers.submit(() -> {
+                Histogram histogram = new Histogram(TimeUnit.SECONDS.toNanos(60), 3);
+                while (System.nanoTime() < deadline) {
+                    LoadAccount from = accounts.get(zipf.sample());
+                    LoadAccount to = accounts.get(zipf.sample());
+                    if (from.id().equals(to.id())) {
+                        continue;
+                    }
+                    long amount = 1 + ThreadLocalRandom.current().nextLong(MAX_AMOUNT);
+                    HttpRequest request = HttpRequest.newBuilder(uri)
+                            .header("Authorization", "Bearer " + from.token())
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(
+                                    new TransferRequest(from.id(), to.id(), amount, true))))
+                            .build();
+                    long sentAt = System.nanoTime();
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    histogram.recordValue(Math.min(System.nanoTime() - sentAt, histogram.getHighestTrackableValue()));
+                    statuses.computeIfAbsent(response.statusCode(), code -> new LongAdder()).increment();
+                }
+                return histogram;
+            }));
+        }
+
+        Histogram latency = new Histogram(TimeUnit.SECONDS.toNanos(60), 3);
+        for (Future<Histogram> result : results) {
+            latency.add(result.get());
+        }
+        double elapsedSeconds = (System.nanoTime() - startedAt) / 1e9;
+        workers.shutdown();
+        clientExecutor.shutdown();
+
+        report(latency, statuses, elapsedSeconds);
+
+        List<Account> after = new ArrayList<>();
+        for (int u = 0; u < accounts.size(); u += ACCOUNTS_PER_USER) {
+            after.addAll(accountDao.findByUserId(accounts.get(u).userId()));
+        }
+        after.forEach(account -> assertTrue(account.getBalance() >= 0,
+                "Отрицательный баланс счёта " + account.getId() + ": " + account.getBalance()));
+        assertEquals(totalBefore, after.stream().mapToLong(Account::getBalance).sum(),
+                "Суммарный баланс изменился");
+        assertTrue(statuses.getOrDefault(200, new LongAdder()).sum() > 0, "Ни один перевод не выполнен");
+    }
+
+    private List<LoadAccount> seed() {
+        List<LoadAccount> accounts = new ArrayList<>(USERS * ACCOUNTS_PER_USER);
+        for (int u = 0; u < USERS; u++) {
+            String username = "load-user-" + u;
+            userDao.save(new User(null, username, "pass", LocalDateTime.now()));
+            Long userId = userDao.findByUsername(username).get().getId();
+            String token = jwtUtil.generateToken(userId);
+            for (int a = 0; a < ACCOUNTS_PER_USER; a++) {
+                accountDao.save(new Account(null, userId, INITIAL_BALANCE, false, LocalDateTime.now()));
+            }
+            accountDao.findByUserId(userId).forEach(account ->
+                    accounts.add(new LoadAccount(account.getId(), userId, token)));
+        }
+        return accounts;
+    }
+
+    private long totalBalance(List<LoadAccount> accounts) {
+        return accounts.stream()
+                .mapToLong(account -> accountDao.findById(account.id()).orElseThrow().getBalance())
+                .sum();
+    }
+
+    private static void report(Histogram latency, Map<Integer, LongAdder> statuses, double elapsedSeconds) {
+        long ok = statuses.getOrDefault(200, new LongAdder()).sum();
+        Map<Integer, Long> byStatus = new TreeMap<>();
+        statuses.forEach((code, count) -> byStatus.put(code, count.sum()));
+
+        System.out.printf("%nTransfer load test: %d users x %d accounts, concurrency %d, zipf %.2f, %.1f s%n",
+                USERS, ACCOUNTS_PER_USER, CONCURRENCY, ZIPF_EXPONENT, elapsedSeconds);
+        System.out.printf("  requests: %d, completed transfers: %d (%.1f/s), by status: %s%n",
+                latency.getTotalCount(), ok, ok / elapsedSeconds, byStatus);
+        System.out.printf("  latency ms: p50 %.2f, p90 %.2f, p99 %.2f, p99.9 %.2f, max %.2f%n",
+                millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(90)),
+                millis(latency.getValueAtPercentile(99)), millis(latency.getValueAtPercentile(99.9)),
+                millis(latency.getMaxValue()));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,44 @@
+package ru.dzhenbaz.P2PTransactionsTask.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Распределение Ципфа на индексах {@code 0..n-1}: индекс {@code k} выпадает с вероятностью,
+ * пропорциональной {@code 1 / (k + 1)^s}. Показатель {@code 0} даёт равномерное распределение,
+ * чем он больше — тем сильнее нагрузка сосредоточена на первых счетах.
+ *
+ * @author Dzhenbaz
+ */
+class ZipfDistribution {
+
+    private final double[] cumulative;
+
+    /**
+     * Строит таблицу накопленных вероятностей.
+     *
+     * @param n        число индексов
+     * @param exponent показатель распределения
+     */
+    ZipfDistribution(int n, double exponent) {
+        cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cumulative[k] /= sum;
+        }
+    }
+
+    /**
+     * Выбирает случайный индекс.
+     *
+     * @return индекс в диапазоне {@code 0..n-1}
+     */
+    int sample() {
+        int index = Arrays.binarySearch(cumulative, ThreadLocalRandom.current().nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+}
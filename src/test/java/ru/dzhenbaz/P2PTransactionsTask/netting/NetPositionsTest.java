@@ -0,0 +1,50 @@
+package ru.dzhenbaz.P2PTransactionsTask.netting;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Юнит-тесты для {@link NetPositions} и {@link LongLongHashMap}.
+ *
+ * @author Dzhenbaz
+ */
+public class NetPositionsTest {
+
+    /**
+     * Проверяет, что встречные и циклические переводы взаимно погашаются,
+     * а сумма позиций равна нулю.
+     */
+    @Test
+    void nonZeroPositions_shouldCancelCycles() {
+        NetPositions positions = new NetPositions(4);
+        positions.add(1, 2, 500);
+        positions.add(2, 3, 500);
+        positions.add(3, 1, 500);
+        positions.add(1, 4, 100);
+
+        assertEquals(Map.of(1L, -100L, 4L, 100L), positions.nonZeroPositions());
+        assertEquals(4, positions.accountCount());
+        assertEquals(0, positions.positionOf(2));
+    }
+
+    /**
+     * Проверяет, что таблица сохраняет значения при росте сверх начальной ёмкости.
+     */
+    @Test
+    void longLongHashMap_shouldKeepValues_whenGrowing() {
+        LongLongHashMap map = new LongLongHashMap(2);
+        for (long key = 1; key <= 10_000; key++) {
+            map.addTo(key * 31, key);
+            map.addTo(key * 31, key);
+        }
+
+        assertEquals(10_000, map.size());
+        assertEquals(2 * 5_000, map.get(5_000 * 31));
+        assertTrue(map.containsKey(31));
+        assertFalse(map.containsKey(32));
+        assertEquals(0, map.get(32));
+    }
+}
@@ -0,0 +1,66 @@
+package ru.dzhenbaz.P2PTransactionsTask.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.dzhenbaz.P2PTransactionsTask.model.OutboxEvent;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Юнит-тесты для {@link HttpOutboxSink} с локальной заглушкой HTTP-получателя.
+ *
+ * @author Dzhenbaz
+ */
+public class HttpOutboxSinkTest {
+
+    private HttpServer server;
+    private final AtomicReference<String> body = new AtomicReference<>();
+    private final AtomicInteger status = new AtomicInteger(200);
+    private HttpOutboxSink sink;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/transfers", exchange -> {
+            body.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            exchange.sendResponseHeaders(status.get(), -1);
+            exchange.close();
+        });
+        server.start();
+        URI url = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/transfers");
+        sink = new HttpOutboxSink(url, Duration.ofSeconds(5), new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    /**
+     * Проверяет, что пачка отправляется JSON-массивом, а ответ не 2xx считается ошибкой доставки.
+     */
+    @Test
+    void deliver_shouldPostBatch_andFailOnErrorStatus() throws IOException {
+        List<OutboxEvent> events = List.of(new OutboxEvent(5L, 1L, 2L, 100L, LocalDateTime.now()));
+
+        sink.deliver(events);
+        assertTrue(body.get().startsWith("[{\"seq\":5,"));
+
+        status.set(503);
+        assertThrows(IOException.class, () -> sink.deliver(events));
+    }
+}
@@ -0,0 +1,161 @@
+package ru.dzhenbaz.P2PTransactionsTask.outbox;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.OutboxDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.UserDao;
+import ru.dzhenbaz.P2PTransactionsTask.model.Account;
+import ru.dzhenbaz.P2PTransactionsTask.model.OutboxEvent;
+import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
+import ru.dzhenbaz.P2PTransactionsTask.model.User;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Интеграционные тесты для {@link OutboxRelay}.
+ * Проверяет доставку событий о записанных переводах по порядку и повторную доставку
+ * с сохранённого смещения после ошибки получателя.
+ *
+ * @author Dzhenbaz
+ */
+@SpringBootTest
+public class OutboxRelayTest {
+
+    @Autowired
+    private OutboxDao outboxDao;
+    @Autowired
+    private TransactionDao transactionDao;
+    @Autowired
+    private AccountDao accountDao;
+    @Autowired
+    private UserDao userDao;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long a;
+    private Long b;
+
+    /**
+     * Создаёт два счёта и очищает очередь.
+     */
+    @BeforeEach
+    void setUp() {
+        transactionDao.deleteAll();
+        accountDao.deleteAll();
+        userDao.deleteAll();
+
+        userDao.save(new User(null, "outboxUser", "pass", LocalDateTime.now()));
+        Long userId = userDao.findByUsername("outboxUser").get().getId();
+        accountDao.save(new Account(null, userId, 1000L, false, LocalDateTime.now()));
+        accountDao.save(new Account(null, userId, 1000L, false, LocalDateTime.now()));
+        List<Account> accounts = accountDao.findByUserId(userId);
+        a = accounts.get(0).getId();
+        b = accounts.get(1).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxDao.deleteConsumer("queue");
+        outboxDao.deleteConsumer("flaky");
+    }
+
+    /**
+     * Проверяет, что события доставляются в порядке записи переводов с возрастающими номерами.
+     */
+    @Test
+    void relay_shouldDeliverTransfersInOrder() {
+        QueueOutboxSink queue = new QueueOutboxSink(100);
+        OutboxRelay relay = new OutboxRelay(outboxDao, transactionManager, List.of(queue), 2,
+                new SimpleMeterRegistry());
+        relay.relay();
+
+        transactionDao.save(new Transaction(null, a, b, 1L, LocalDateTime.now()));
+        transactionDao.saveAll(List.of(
+                new Transaction(null, b, a, 2L, LocalDateTime.now()),
+                new Transaction(null, a, b, 3L, LocalDateTime.now())
+        ));
+        relayUntil(relay, () -> ours(new ArrayList<>(queue.queue())).size() == 3);
+
+        List<OutboxEvent> events = ours(new ArrayList<>(queue.queue()));
+        assertEquals(List.of(1L, 2L, 3L), events.stream().map(OutboxEvent::getAmount).toList());
+        assertTrue(events.get(0).getSeq() < events.get(1).getSeq());
+        assertTrue(events.get(1).getSeq() < events.get(2).getSeq());
+    }
+
+    /**
+     * Проверяет, что ошибка одного получателя не мешает другому, а неудачная пачка
+     * доставляется повторно при следующем проходе.
+     */
+    @Test
+    void relay_shouldRedeliverFromOffset_whenSinkFails() {
+        QueueOutboxSink queue = new QueueOutboxSink(100);
+        FlakySink flaky = new FlakySink();
+        OutboxRelay relay = new OutboxRelay(outboxDao, transactionManager, List.of(queue, flaky), 10,
+                new SimpleMeterRegistry());
+        relay.relay();
+
+        transactionDao.save(new Transaction(null, a, b, 7L, LocalDateTime.now()));
+        flaky.failNext = true;
+        relayUntil(relay, () -> ours(new ArrayList<>(queue.queue())).size() == 1);
+
+        assertFalse(flaky.failNext);
+        assertTrue(ours(flaky.received).isEmpty());
+
+        relay.relay();
+
+        assertEquals(List.of(7L), ours(flaky.received).stream().map(OutboxEvent::getAmount).toList());
+    }
+
+    /**
+     * Повторяет проходы, пока условие не выполнится: нумерацию может ненадолго занять
+     * ретранслятор тестового контекста.
+     */
+    private static void relayUntil(OutboxRelay relay, BooleanSupplier condition) {
+        for (int attempt = 0; attempt < 50 && !condition.getAsBoolean(); attempt++) {
+            relay.relay();
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    private List<OutboxEvent> ours(List<OutboxEvent> events) {
+        Set<Long> accounts = Set.of(a, b);
+        return events.stream().filter(e -> accounts.contains(e.getFromAccountId())).toList();
+    }
+
+    /**
+     * Получатель, отказывающий по запросу.
+     */
+    private static class FlakySink implements OutboxSink {
+
+        private final List<OutboxEvent> received = new ArrayList<>();
+        private boolean failNext;
+
+        @Override
+        public String name() {
+            return "flaky";
+        }
+
+        @Override
+        public void deliver(List<OutboxEvent> events) throws IOException {
+            if (failNext) {
+                failNext = false;
+                throw new IOException("sink is down");
+            }
+            received.addAll(events);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package ru.dzhenbaz.P2PTransactionsTask.partition;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Юнит-тесты для {@link TransactionPartitionManager}.
+ * <p>
+ * Проверяются создание недостающих будущих секций, отсоединение секций старше срока хранения
+ * и отключение обслуживания вне PostgreSQL.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+@ExtendWith(MockitoExtension.class)
+public class TransactionPartitionManagerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Проверяет, что создаются только отсутствующие секции до горизонта и отсоединяются устаревшие.
+     */
+    @Test
+    void maintain_shouldCreateMissingAndDetachExpiredPartitions() {
+        TransactionPartitionManager manager = new TransactionPartitionManager(jdbcTemplate, 2, 3);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(
+                "transactions_p202607", "transactions_p202608", "transactions_p202609", "transactions_p202610"));
+
+        manager.maintain(YearMonth.of(2026, 10));
+
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS transactions_p202611 PARTITION OF transactions "
+                + "FOR VALUES FROM ('2026-11-01') TO ('2026-12-01')");
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS transactions_p202612 PARTITION OF transactions "
+                + "FOR VALUES FROM ('2026-12-01') TO ('2027-01-01')");
+        verify(jdbcTemplate).execute("ALTER TABLE transactions DETACH PARTITION transactions_p202607");
+        verify(jdbcTemplate, times(3)).execute(anyString());
+    }
+
+    /**
+     * Проверяет, что вне PostgreSQL секции не обслуживаются.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void maintain_shouldDoNothing_whenDatabaseIsNotPostgres() {
+        TransactionPartitionManager manager = new TransactionPartitionManager(jdbcTemplate, 3, 0);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("H2");
+
+        manager.maintain();
+        manager.maintain();
+
+        verify(jdbcTemplate, times(1)).execute(any(ConnectionCallback.class));
+        verify(jdbcTemplate, never()).execute(anyString());
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(String.class));
+    }
+}
@@ -0,0 +1,148 @@
+package ru.dzhenbaz.P2PTransactionsTask.pipeline;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import ru.dzhenbaz.P2PTransactionsTask.controller.TransactionController;
+import ru.dzhenbaz.P2PTransactionsTask.dao.IdempotencyKeyDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.UserDao;
+import ru.dzhenbaz.P2PTransactionsTask.dto.TransferRequest;
+import ru.dzhenbaz.P2PTransactionsTask.exception.BadRequestException;
+import ru.dzhenbaz.P2PTransactionsTask.model.Account;
+import ru.dzhenbaz.P2PTransactionsTask.model.User;
+import ru.dzhenbaz.P2PTransactionsTask.security.UserPrincipal;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * Интеграционные тесты для {@link GroupCommitTransferPipeline}.
+ * <p>
+ * Проверяется, что конкурентные переводы объединяются в группы, отказ одного перевода
+ * не откатывает остальные переводы группы, а сумма балансов сохраняется. Перевод с
+ * {@code Idempotency-Key} идёт мимо конвейера и фиксируется вместе с ключом.
+ * Использует H2-базу и реальные бины со включённым конвейером.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+@SpringBootTest(properties = {
+        "transfer.group-commit.enabled=true",
+        "transfer.group-commit.partitions=2",
+        "transfer.group-commit.max-wait=20ms"
+})
+public class GroupCommitTransferPipelineTest {
+
+    @Autowired
+    private GroupCommitTransferPipeline pipeline;
+    @Autowired
+    private AccountDao accountDao;
+    @Autowired
+    private TransactionDao transactionDao;
+    @Autowired
+    private UserDao userDao;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private TransactionController transactionController;
+    @MockitoSpyBean
+    private IdempotencyKeyDao idempotencyKeyDao;
+
+    private Long userId;
+    private Long fromAccountId;
+    private Long toAccountId;
+
+    @BeforeEach
+    void setUp() {
+        transactionDao.deleteAll();
+        accountDao.deleteAll();
+        userDao.deleteAll();
+
+        userDao.save(new User(null, "pipelineUser", "pass", LocalDateTime.now()));
+        userId = userDao.findByUsername("pipelineUser").get().getId();
+
+        accountDao.save(new Account(null, userId, 300L, false, LocalDateTime.now()));
+        accountDao.save(new Account(null, userId, 0L, false, LocalDateTime.now()));
+        List<Account> accounts = accountDao.findByUserId(userId);
+        fromAccountId = accounts.get(0).getId();
+        toAccountId = accounts.get(1).getId();
+    }
+
+    /**
+     * Проверяет, что из 50 одновременных переводов по 10 проходят ровно 30,
+     * остальные отклоняются без влияния на группу, а деньги не теряются.
+     */
+    @Test
+    void submit_shouldCommitGroupsAndIsolateRejectedTransfers() {
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(pipeline.submit(userId, new TransferRequest(fromAccountId, toAccountId, 10L, true)));
+        }
+
+        int completed = 0;
+        int rejected = 0;
+        for (CompletableFuture<String> future : futures) {
+            try {
+                assertEquals("Перевод выполнен", future.join());
+                completed++;
+            } catch (CompletionException e) {
+                assertInstanceOf(BadRequestException.class, e.getCause());
+                rejected++;
+            }
+        }
+
+        assertEquals(30, completed);
+        assertEquals(20, rejected);
+        assertEquals(0L, accountDao.findById(fromAccountId).get().getBalance());
+        assertEquals(300L, accountDao.findById(toAccountId).get().getBalance());
+        assertEquals(30, transactionDao.findAllByAccountId(fromAccountId).size());
+        assertTrue(meterRegistry.get("transfer.group_commit.batch_size").summary().max() > 1);
+    }
+
+    /**
+     * Проверяет, что синхронный вызов пробрасывает исключение перевода без обёртки.
+     */
+    @Test
+    void transfer_shouldRethrowBusinessException() {
+        TransferRequest request = new TransferRequest(fromAccountId, toAccountId, 1000L, true);
+
+        assertThrows(BadRequestException.class, () -> pipeline.transfer(userId, request));
+        assertEquals(300L, accountDao.findById(fromAccountId).get().getBalance());
+    }
+
+    /**
+     * Проверяет, что при включённом конвейере перевод с Idempotency-Key откатывается вместе с ключом,
+     * если ответ не удалось сохранить, и повтор с тем же ключом списывает средства ровно один раз.
+     */
+    @Test
+    void idempotentTransfer_shouldCommitWithKey_whenGroupCommitEnabled() {
+        String key = UUID.randomUUID().toString();
+        TransferRequest request = new TransferRequest(fromAccountId, toAccountId, 10L, true);
+        UserPrincipal principal = new UserPrincipal(userId);
+        doThrow(new DataAccessResourceFailureException("connection lost"))
+                .doCallRealMethod()
+                .when(idempotencyKeyDao).complete(any(), any(), any());
+
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> transactionController.transfer(principal, key, request));
+        assertEquals(300L, accountDao.findById(fromAccountId).get().getBalance());
+
+        assertEquals("Перевод выполнен", transactionController.transfer(principal, key, request).getBody());
+        assertEquals(290L, accountDao.findById(fromAccountId).get().getBalance());
+        assertEquals(1, transactionDao.findAllByAccountId(fromAccountId).size());
+    }
+}
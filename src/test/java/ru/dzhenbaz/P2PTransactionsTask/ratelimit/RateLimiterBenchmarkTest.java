@@ -0,0 +1,81 @@
+package ru.dzhenbaz.P2PTransactionsTask.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import ru.dzhenbaz.P2PTransactionsTask.exception.RateLimitExceededException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Замер накладных расходов {@link RateLimiter#check}.
+ * <p>
+ * Потоки (по числу ядер) проверяют лимиты по случайным пользователям и счетам из прогретого набора
+ * ключей; отказы по лимиту входят в замер. Время проверки — время прогона, делённое на число
+ * проверок одного потока; оно должно быть меньше микросекунды.
+ * Запускается вместе с нагрузочными тестами: {@code mvn test -Pload-test}.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+@Tag("load")
+public class RateLimiterBenchmarkTest {
+
+    private static final int THREADS = Integer.getInteger("bench.threads", Runtime.getRuntime().availableProcessors());
+    private static final int KEYS = 10_000;
+    private static final int WARMUP = 2_000_000;
+    private static final int ITERATIONS = 5_000_000;
+
+    @Test
+    void check_shouldTakeLessThanMicrosecond() throws Exception {
+        RateLimiter limiter = new RateLimiter(new RateLimiter.Tier(50, 100, 20, 40), Map.of(), 1_000_000,
+                new SimpleMeterRegistry());
+
+        run(limiter, WARMUP);
+        long elapsed = run(limiter, ITERATIONS);
+
+        double nanosPerCheck = (double) elapsed / ITERATIONS;
+        System.out.printf("Rate limiter check: %.1f ns/op (%d threads)%n", nanosPerCheck, THREADS);
+        assertTrue(nanosPerCheck < 1_000, "check took " + nanosPerCheck + " ns");
+    }
+
+    /**
+     * @return время прогона, за который каждый поток выполнил {@code iterations} проверок, в наносекундах
+     */
+    private static long run(RateLimiter limiter, int iterations) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Thread thread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < iterations; i++) {
+                    long key = random.nextInt(KEYS);
+                    try {
+                        limiter.check(key, key);
+                    } catch (RateLimitExceededException ignored) {
+                        // отказ по лимиту — штатный исход проверки
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return System.nanoTime() - begin;
+    }
+}
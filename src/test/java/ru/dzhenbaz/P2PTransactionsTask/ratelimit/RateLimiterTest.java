@@ -0,0 +1,127 @@
+package ru.dzhenbaz.P2PTransactionsTask.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.dzhenbaz.P2PTransactionsTask.exception.RateLimitExceededException;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Юнит-тесты для {@link TokenBucket} и {@link RateLimiter}.
+ * <p>
+ * Проверяются всплеск и пополнение корзины, раздельные лимиты счетов, тарифы пользователей,
+ * возврат токена пользователя при отказе по счёту и удаление наполнившихся корзин из ограниченной таблицы.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+public class RateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    /**
+     * Проверяет, что корзина пропускает всплеск, затем сообщает время ожидания и пополняется со временем.
+     */
+    @Test
+    void tokenBucket_shouldAllowBurstThenRefill() {
+        TokenBucket bucket = new TokenBucket(2, 3, 0);
+
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(SECOND / 2, bucket.tryAcquire(0));
+
+        assertEquals(0, bucket.tryAcquire(SECOND / 2));
+        assertTrue(bucket.tryAcquire(SECOND / 2) > 0);
+        assertEquals(0, bucket.tryAcquire(10 * SECOND));
+    }
+
+    /**
+     * Проверяет, что лимит счёта не влияет на другие счета, а отказ содержит время до повтора.
+     */
+    @Test
+    void check_shouldLimitEachAccountSeparately() {
+        RateLimiter limiter = new RateLimiter(new RateLimiter.Tier(1000, 1000, 0.5, 2), Map.of(), 100,
+                new SimpleMeterRegistry());
+
+        limiter.check(1L, 10L);
+        limiter.check(1L, 10L);
+        RateLimitExceededException ex = assertThrows(RateLimitExceededException.class,
+                () -> limiter.check(1L, 10L));
+        assertEquals(2, ex.getRetryAfterSeconds());
+
+        assertDoesNotThrow(() -> limiter.check(1L, 11L));
+    }
+
+    /**
+     * Проверяет, что пользователь с отдельным тарифом получает его лимиты.
+     */
+    @Test
+    void check_shouldApplyUserTier() {
+        RateLimiter.Tier strict = new RateLimiter.Tier(0.1, 1, 1000, 1000);
+        RateLimiter limiter = new RateLimiter(new RateLimiter.Tier(1000, 1000, 1000, 1000), Map.of(2L, strict),
+                100, new SimpleMeterRegistry());
+
+        limiter.check(1L, null);
+        limiter.check(1L, null);
+        limiter.check(2L, null);
+        assertThrows(RateLimitExceededException.class, () -> limiter.check(2L, null));
+    }
+
+    /**
+     * Проверяет, что при заполненной таблице удаляются только полные корзины, а новый ключ
+     * отклоняется, пока места нет.
+     */
+    @Test
+    void tokenBucketMap_shouldEvictOnlyFullBuckets() {
+        TokenBucketMap map = new TokenBucketMap(2);
+        TokenBucketMap.BucketFactory factory = now -> new TokenBucket(1, 1, now);
+
+        map.get(1L, 0, factory).tryAcquire(0);
+        map.get(2L, 0, factory).tryAcquire(0);
+        assertNull(map.get(3L, 0, factory));
+        assertEquals(2, map.size());
+
+        assertNotNull(map.get(3L, SECOND, factory));
+        assertEquals(1, map.size());
+    }
+
+    /**
+     * Проверяет, что отказ по лимиту счёта не расходует токен пользователя.
+     */
+    @Test
+    void check_shouldRefundUserToken_whenAccountLimitRejects() {
+        RateLimiter limiter = new RateLimiter(new RateLimiter.Tier(0.001, 2, 0.001, 1), Map.of(), 100,
+                new SimpleMeterRegistry());
+
+        limiter.check(1L, 10L);
+        assertThrows(RateLimitExceededException.class, () -> limiter.check(1L, 10L));
+        assertThrows(RateLimitExceededException.class, () -> limiter.check(1L, 10L));
+
+        assertDoesNotThrow(() -> limiter.check(1L, 11L));
+        assertThrows(RateLimitExceededException.class, () -> limiter.check(1L, 12L));
+    }
+
+    /**
+     * Проверяет, что при заполненной таблице новый ключ проверяет лишь часть записей:
+     * место освобождается за несколько обращений, а не одним полным обходом.
+     */
+    @Test
+    void tokenBucketMap_shouldEvictSampleOnNewKey() {
+        int keys = TokenBucketMap.EVICTION_SAMPLE * 4;
+        TokenBucketMap map = new TokenBucketMap(keys);
+        TokenBucketMap.BucketFactory factory = now -> new TokenBucket(1, 1, now);
+        for (long key = 0; key < keys; key++) {
+            assertEquals(0, map.tryAcquire(key, 0, factory));
+        }
+        assertEquals(SECOND, map.tryAcquire((long) keys, 0, factory));
+
+        assertNotNull(map.get((long) keys, SECOND, factory));
+        assertEquals(keys - TokenBucketMap.EVICTION_SAMPLE + 1, map.size());
+
+        assertEquals(keys - TokenBucketMap.EVICTION_SAMPLE + 1, map.evictFull(SECOND));
+        assertEquals(0, map.size());
+    }
+}
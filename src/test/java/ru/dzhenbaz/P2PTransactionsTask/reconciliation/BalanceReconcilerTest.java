@@ -0,0 +1,135 @@
+package ru.dzhenbaz.P2PTransactionsTask.reconciliation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.dzhenbaz.P2PTransactionsTask.archive.ArchiveStore;
+import ru.dzhenbaz.P2PTransactionsTask.archive.TransactionArchiver;
+import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.ReconciliationDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionArchiveDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.UserDao;
+import ru.dzhenbaz.P2PTransactionsTask.dto.BalanceDriftResponse;
+import ru.dzhenbaz.P2PTransactionsTask.dto.ReconciliationResponse;
+import ru.dzhenbaz.P2PTransactionsTask.model.Account;
+import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
+import ru.dzhenbaz.P2PTransactionsTask.model.User;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Интеграционные тесты для {@link BalanceReconciler}.
+ * Проверяет, что согласованные балансы, в том числе с архивированными переводами,
+ * не дают расхождений, а изменённый в обход переводов баланс попадает в отчёт.
+ *
+ * @author Dzhenbaz
+ */
+@SpringBootTest
+public class BalanceReconcilerTest {
+
+    @Autowired
+    private ReconciliationDao reconciliationDao;
+    @Autowired
+    private TransactionArchiveDao transactionArchiveDao;
+    @Autowired
+    private ArchiveStore archiveStore;
+    @Autowired
+    private TransactionDao transactionDao;
+    @Autowired
+    private AccountDao accountDao;
+    @Autowired
+    private UserDao userDao;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private BalanceReconciler reconciler;
+    private List<Long> accounts;
+
+    /**
+     * Создаёт пять счетов и проводит между ними переводы за старый месяц и текущий день.
+     */
+    @BeforeEach
+    void setUp() {
+        transactionDao.deleteAll();
+        accountDao.deleteAll();
+        userDao.deleteAll();
+
+        userDao.save(new User(null, "reconcileUser", "pass", LocalDateTime.now()));
+        Long userId = userDao.findByUsername("reconcileUser").get().getId();
+        for (int i = 0; i < 5; i++) {
+            accountDao.save(new Account(null, userId, 1000L, false, LocalDateTime.now()));
+        }
+        accounts = accountDao.findByUserId(userId).stream().map(Account::getId).toList();
+
+        List<Transaction> transfers = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            LocalDateTime createdAt = i < 10 ? LocalDateTime.of(2020, 1, 1 + i, 12, 0) : LocalDateTime.now();
+            transfers.add(new Transaction(null, accounts.get(i % 5), accounts.get((i + 2) % 5), 10L + i, createdAt));
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            accountDao.applyTransfers(transfers);
+            transactionDao.saveAll(transfers);
+        });
+
+        reconciler = new BalanceReconciler(reconciliationDao, transactionArchiveDao, archiveStore, transactionManager,
+                4, 1, 2, 10, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        reconciler.close();
+        transactionDao.deleteAll();
+    }
+
+    /**
+     * Проверяет, что балансы, изменённые только переводами, сходятся с историей,
+     * в том числе после переноса части переводов в архив.
+     */
+    @Test
+    void reconcile_shouldFindNoDrift_whenBalancesMatchHistory() {
+        ReconciliationResponse response = reconciler.reconcile();
+
+        assertEquals(5, response.getAccountsChecked());
+        assertEquals(40, response.getTransfersScanned());
+        assertEquals(0, response.getDriftCount());
+        assertEquals(0, response.getFailedRanges());
+
+        new TransactionArchiver(transactionArchiveDao, archiveStore, transactionManager, Duration.ofDays(90), 100)
+                .archiveBefore(LocalDateTime.of(2020, 2, 1, 0, 0));
+        ReconciliationResponse afterArchive = reconciler.reconcile();
+
+        assertEquals(20, afterArchive.getTransfersScanned());
+        assertEquals(0, afterArchive.getDriftCount());
+        assertSame(afterArchive, reconciler.lastResult());
+    }
+
+    /**
+     * Проверяет, что баланс, изменённый в обход переводов, попадает в отчёт с ожидаемым значением.
+     */
+    @Test
+    void reconcile_shouldReportDrift_whenBalanceChangedOutsideTransfers() {
+        Long account = accounts.get(2);
+        long balance = accountDao.findById(account).orElseThrow().getBalance();
+        accountDao.updateBalance(account, balance + 7);
+
+        ReconciliationResponse response = reconciler.reconcile();
+
+        assertEquals(1, response.getDriftCount());
+        BalanceDriftResponse drift = response.getDrifts().get(0);
+        assertEquals(account, drift.getAccountId());
+        assertEquals(balance, drift.getExpectedBalance());
+        assertEquals(balance + 7, drift.getActualBalance());
+        assertEquals(7, drift.getDrift());
+    }
+}
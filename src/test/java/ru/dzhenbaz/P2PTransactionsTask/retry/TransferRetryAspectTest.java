@@ -0,0 +1,112 @@
+package ru.dzhenbaz.P2PTransactionsTask.retry;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.PessimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Юнит-тесты для {@link TransferRetryAspect}.
+ * <p>
+ * Проверяются повтор при конфликте блокировок, прекращение попыток после лимита,
+ * отказ от повтора для прочих исключений и значения счётчиков.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+public class TransferRetryAspectTest {
+
+    private SimpleMeterRegistry registry;
+    private TransferRetryAspect aspect;
+
+    /**
+     * Тестовая цель, падающая заданное число раз.
+     */
+    public static class FlakyTarget {
+        final AtomicInteger calls = new AtomicInteger();
+        int failures;
+        RuntimeException failure = new CannotAcquireLockException("deadlock detected");
+
+        @RetryOnLockConflict
+        public String transfer() {
+            if (calls.incrementAndGet() <= failures) {
+                throw failure;
+            }
+            return "ok";
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        aspect = new TransferRetryAspect(3, Duration.ZERO, Duration.ZERO, registry);
+    }
+
+    private FlakyTarget proxy(FlakyTarget target) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        return factory.getProxy();
+    }
+
+    /**
+     * Проверяет, что вызов повторяется и завершается успешно, если конфликт исчез до исчерпания попыток.
+     */
+    @Test
+    void retry_shouldSucceed_whenConflictResolvesWithinLimit() {
+        FlakyTarget target = new FlakyTarget();
+        target.failures = 2;
+
+        assertEquals("ok", proxy(target).transfer());
+        assertEquals(3, target.calls.get());
+        assertEquals(2.0, registry.counter("transfer.retry.retries").count());
+        assertEquals(0.0, registry.counter("transfer.retry.aborts").count());
+    }
+
+    /**
+     * Проверяет, что после исчерпания попыток пробрасывается исходное исключение и учитывается отказ.
+     */
+    @Test
+    void retry_shouldAbort_whenAttemptsExhausted() {
+        FlakyTarget target = new FlakyTarget();
+        target.failures = 10;
+
+        assertThrows(PessimisticLockingFailureException.class, () -> proxy(target).transfer());
+        assertEquals(3, target.calls.get());
+        assertEquals(1.0, registry.counter("transfer.retry.aborts").count());
+    }
+
+    /**
+     * Проверяет, что исключения, не связанные с блокировками, не повторяются.
+     */
+    @Test
+    void retry_shouldNotRetry_otherExceptions() {
+        FlakyTarget target = new FlakyTarget();
+        target.failures = 1;
+        target.failure = new IllegalStateException("boom");
+
+        assertThrows(IllegalStateException.class, () -> proxy(target).transfer());
+        assertEquals(1, target.calls.get());
+    }
+
+    /**
+     * Проверяет, что пауза не превышает экспоненциальную границу и максимум.
+     */
+    @Test
+    void backoff_shouldStayWithinBounds() {
+        TransferRetryAspect bounded = new TransferRetryAspect(5, Duration.ofMillis(10), Duration.ofMillis(25),
+                new SimpleMeterRegistry());
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(bounded.backoffMillis(1) <= 10);
+            assertTrue(bounded.backoffMillis(4) <= 25);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package ru.dzhenbaz.P2PTransactionsTask.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Юнит-тесты для {@link HierarchicalTimingWheel}.
+ * <p>
+ * Проверяются срабатывание задач на разных уровнях колеса не раньше назначенного времени
+ * и не позже одного тика после него, а также продвижение времени сразу на много оборотов.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+public class HierarchicalTimingWheelTest {
+
+    /**
+     * Проверяет, что задачи нижнего и верхних уровней срабатывают в пределах тика после своего момента.
+     */
+    @Test
+    void advance_shouldFireTasksWithinOneTick_acrossLevels() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(10, 8, 0);
+        long[] expirations = {5, 15, 79, 80, 300, 641, 5_000};
+        for (long expiration : expirations) {
+            assertTrue(wheel.add(expiration, expiration));
+        }
+        assertEquals(expirations.length, wheel.size());
+
+        List<long[]> fired = new ArrayList<>();
+        for (long now = 1; now <= 6_000; now += 3) {
+            long time = now;
+            wheel.advance(time, item -> fired.add(new long[]{item, time}));
+        }
+
+        assertEquals(expirations.length, fired.size());
+        assertEquals(0, wheel.size());
+        for (long[] event : fired) {
+            assertTrue(event[1] >= event[0], "fired early: " + event[0] + " at " + event[1]);
+            assertTrue(event[1] - event[0] < 10 + 3, "fired late: " + event[0] + " at " + event[1]);
+        }
+    }
+
+    /**
+     * Проверяет, что при продвижении сразу на много оборотов срабатывают все наступившие задачи,
+     * а будущие остаются в колесе.
+     */
+    @Test
+    void advance_shouldFireAllDueTasks_whenClockJumps() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 4, 0);
+        wheel.add(25, "a");
+        wheel.add(170, "b");
+        wheel.add(900, "c");
+        wheel.add(2_000, "d");
+
+        List<String> fired = new ArrayList<>();
+        wheel.advance(1_000, fired::add);
+
+        assertEquals(List.of("a", "b", "c"), fired.stream().sorted().toList());
+        assertEquals(1, wheel.size());
+
+        wheel.advance(2_005, fired::add);
+        assertEquals("d", fired.get(3));
+    }
+
+    /**
+     * Проверяет, что задача с наступившим моментом не добавляется.
+     */
+    @Test
+    void add_shouldReturnFalse_whenAlreadyDue() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 4, 100);
+
+        assertFalse(wheel.add(100, "now"));
+        assertFalse(wheel.add(50, "past"));
+        assertTrue(wheel.add(101, "future"));
+    }
+}
@@ -0,0 +1,98 @@
+package ru.dzhenbaz.P2PTransactionsTask.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Замер стоимости проверки bearer-токена в {@link JwtUtil#validateTokenAndRetrieveClaim}.
+ * <p>
+ * Сравниваются три варианта: сборка алгоритма и верификатора на каждый вызов (прежнее поведение),
+ * общий верификатор без кэша и общий верификатор с кэшем проверенных токенов. Потоки (по числу ядер)
+ * проверяют случайные токены из набора активных сессий. Время проверки — время прогона, делённое
+ * на число проверок одного потока; кэш должен давать выигрыш хотя бы в два раза.
+ * Запускается вместе с нагрузочными тестами: {@code mvn test -Pload-test}.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+@Tag("load")
+public class JwtUtilBenchmarkTest {
+
+    private static final int THREADS = Integer.getInteger("bench.threads", Runtime.getRuntime().availableProcessors());
+    private static final String SECRET = "SECRET";
+    private static final int SESSIONS = 1_000;
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 500_000;
+
+    @Test
+    void validate_shouldBeCheaperWithSharedVerifierAndCache() throws Exception {
+        JwtUtil uncached = new JwtUtil(SECRET, 0, new SimpleMeterRegistry());
+        JwtUtil cached = new JwtUtil(SECRET, 10_000, new SimpleMeterRegistry());
+        String[] tokens = new String[SESSIONS];
+        for (int i = 0; i < SESSIONS; i++) {
+            tokens[i] = uncached.generateToken((long) i);
+        }
+
+        Function<String, Long> rebuilt = token -> JWT.require(Algorithm.HMAC256(SECRET))
+                .withSubject("User details")
+                .withIssuer("Dzhenbaz")
+                .build()
+                .verify(token)
+                .getClaim("userId").asLong();
+        double rebuiltNanos = measure("per-call verifier", rebuilt, tokens);
+        double sharedNanos = measure("shared verifier", uncached::validateTokenAndRetrieveClaim, tokens);
+        double cachedNanos = measure("verified-token cache", cached::validateTokenAndRetrieveClaim, tokens);
+
+        assertTrue(sharedNanos < rebuiltNanos, "shared verifier took " + sharedNanos + " ns");
+        assertTrue(cachedNanos * 2 < sharedNanos, "cached check took " + cachedNanos + " ns");
+    }
+
+    private static double measure(String name, Function<String, Long> validate, String[] tokens) throws Exception {
+        run(validate, tokens, WARMUP);
+        long elapsed = run(validate, tokens, ITERATIONS);
+        double nanosPerCheck = (double) elapsed / ITERATIONS;
+        System.out.printf("JWT %s: %.1f ns/op (%d threads)%n", name, nanosPerCheck, THREADS);
+        return nanosPerCheck;
+    }
+
+    /**
+     * @return время прогона, за который каждый поток выполнил {@code iterations} проверок, в наносекундах
+     */
+    private static long run(Function<String, Long> validate, String[] tokens, int iterations)
+            throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Thread thread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < iterations; i++) {
+                    validate.apply(tokens[random.nextInt(tokens.length)]);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return System.nanoTime() - begin;
+    }
+}
@@ -0,0 +1,64 @@
+package ru.dzhenbaz.P2PTransactionsTask.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.exceptions.TokenExpiredException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit-тесты для {@link JwtUtil}.
+ * Проверяет извлечение {@code userId} с кэшем проверенных токенов и без него,
+ * отказ для изменённых и просроченных токенов.
+ *
+ * @author Dzhenbaz
+ */
+public class JwtUtilTest {
+
+    private static final String SECRET = "SECRET";
+
+    @Test
+    void validateTokenAndRetrieveClaim_shouldReturnUserId_fromCacheAndWithoutIt() {
+        JwtUtil cached = new JwtUtil(SECRET, 100, new SimpleMeterRegistry());
+        JwtUtil uncached = new JwtUtil(SECRET, 0, new SimpleMeterRegistry());
+        String token = cached.generateToken(42L);
+
+        assertEquals(42L, cached.validateTokenAndRetrieveClaim(token));
+        assertEquals(42L, cached.validateTokenAndRetrieveClaim(token));
+        assertEquals(42L, uncached.validateTokenAndRetrieveClaim(token));
+    }
+
+    @Test
+    void validateTokenAndRetrieveClaim_shouldRejectTamperedToken_evenIfOriginalIsCached() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 100, new SimpleMeterRegistry());
+        String token = jwtUtil.generateToken(1L);
+        jwtUtil.validateTokenAndRetrieveClaim(token);
+
+        String foreign = new JwtUtil("OTHER", 100, new SimpleMeterRegistry()).generateToken(1L);
+        String tampered = token.substring(0, token.lastIndexOf('.') + 1) + foreign.substring(foreign.lastIndexOf('.') + 1);
+
+        assertThrows(JWTVerificationException.class, () -> jwtUtil.validateTokenAndRetrieveClaim(tampered));
+        assertThrows(JWTVerificationException.class, () -> jwtUtil.validateTokenAndRetrieveClaim(foreign));
+    }
+
+    @Test
+    void validateTokenAndRetrieveClaim_shouldRejectCachedToken_afterItExpires() throws InterruptedException {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 100, new SimpleMeterRegistry());
+        String token = JWT.create()
+                .withSubject("User details")
+                .withClaim("userId", 7L)
+                .withIssuer("Dzhenbaz")
+                .withExpiresAt(Instant.now().plusSeconds(1))
+                .sign(Algorithm.HMAC256(SECRET));
+
+        assertEquals(7L, jwtUtil.validateTokenAndRetrieveClaim(token));
+        Thread.sleep(1_100);
+
+        assertThrows(TokenExpiredException.class, () -> jwtUtil.validateTokenAndRetrieveClaim(token));
+    }
+}
@@ -0,0 +1,130 @@
+package ru.dzhenbaz.P2PTransactionsTask.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.dzhenbaz.P2PTransactionsTask.dto.TransferRequest;
+import ru.dzhenbaz.P2PTransactionsTask.dto.TransferStatus;
+import ru.dzhenbaz.P2PTransactionsTask.dto.TransferStatusResponse;
+import ru.dzhenbaz.P2PTransactionsTask.exception.BadRequestException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.NotFoundException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.ServiceUnavailableException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Юнит-тесты для {@link AsyncTransferService}.
+ * <p>
+ * Проверяются исполнение принятого перевода, сохранение причины отказа,
+ * видимость состояния только владельцу и отказ при переполнении очереди.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+@ExtendWith(MockitoExtension.class)
+public class AsyncTransferServiceTest {
+
+    @Mock
+    private TransactionService transactionService;
+
+    private AsyncTransferService asyncTransferService;
+
+    private final TransferRequest request = new TransferRequest(10L, 20L, 500L, true);
+
+    @BeforeEach
+    void setUp() {
+        asyncTransferService = new AsyncTransferService(transactionService, null, 1, 1, 100,
+                Duration.ofMinutes(1), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        asyncTransferService.close();
+    }
+
+    /**
+     * Проверяет, что принятый перевод исполняется и его состояние становится COMPLETED.
+     */
+    @Test
+    void submit_shouldCompleteTransfer() throws InterruptedException {
+        when(transactionService.transfer(1L, request)).thenReturn("Перевод выполнен");
+
+        TransferStatusResponse accepted = asyncTransferService.submit(1L, request);
+        TransferStatusResponse status = awaitFinished(1L, accepted.getId());
+
+        assertEquals(TransferStatus.COMPLETED, status.getStatus());
+        assertEquals("Перевод выполнен", status.getMessage());
+    }
+
+    /**
+     * Проверяет, что причина бизнес-отказа сохраняется в состоянии FAILED.
+     */
+    @Test
+    void submit_shouldStoreFailureMessage_whenTransferRejected() throws InterruptedException {
+        when(transactionService.transfer(1L, request)).thenThrow(new BadRequestException("Недостаточно средств"));
+
+        TransferStatusResponse accepted = asyncTransferService.submit(1L, request);
+        TransferStatusResponse status = awaitFinished(1L, accepted.getId());
+
+        assertEquals(TransferStatus.FAILED, status.getStatus());
+        assertEquals("Недостаточно средств", status.getMessage());
+    }
+
+    /**
+     * Проверяет, что состояние перевода недоступно другому пользователю,
+     * а неподтверждённый перевод не принимается.
+     */
+    @Test
+    void getStatus_shouldThrow_whenRequestedByOtherUser() {
+        when(transactionService.transfer(1L, request)).thenReturn("Перевод выполнен");
+
+        TransferStatusResponse accepted = asyncTransferService.submit(1L, request);
+
+        assertThrows(NotFoundException.class, () -> asyncTransferService.getStatus(2L, accepted.getId()));
+        assertThrows(BadRequestException.class,
+                () -> asyncTransferService.submit(1L, new TransferRequest(10L, 20L, 500L, false)));
+    }
+
+    /**
+     * Проверяет, что при занятом пуле и заполненной очереди подача отклоняется.
+     */
+    @Test
+    void submit_shouldThrow_whenQueueFull() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(transactionService.transfer(eq(1L), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "Перевод выполнен";
+        });
+
+        asyncTransferService.submit(1L, request);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        asyncTransferService.submit(1L, request);
+
+        assertThrows(ServiceUnavailableException.class, () -> asyncTransferService.submit(1L, request));
+        release.countDown();
+    }
+
+    private TransferStatusResponse awaitFinished(Long userId, String id) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            TransferStatusResponse status = asyncTransferService.getStatus(userId, id);
+            if (status.getStatus() != TransferStatus.PENDING) {
+                return status;
+            }
+            Thread.sleep(10);
+        }
+        return fail("Перевод не завершился");
+    }
+}
@@ -0,0 +1,114 @@
+package ru.dzhenbaz.P2PTransactionsTask.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDao;
+import ru.dzhenbaz.P2PTransactionsTask.dto.BalanceSlotsResponse;
+import ru.dzhenbaz.P2PTransactionsTask.exception.BadRequestException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.NotFoundException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.ServiceUnavailableException;
+import ru.dzhenbaz.P2PTransactionsTask.model.Account;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Юнит-тесты для {@link BalanceSlotService}.
+ * <p>
+ * Проверяются границы числа слотов, отказ для несуществующего счёта и делегирование
+ * перебалансировки и отключения в {@link AccountDao}.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+@ExtendWith(MockitoExtension.class)
+public class BalanceSlotServiceTest {
+
+    @Mock
+    private AccountDao accountDao;
+
+    private BalanceSlotService balanceSlotService;
+
+    private final Account merchant = new Account(1L, 1L, 500L, false, LocalDateTime.now());
+
+    @BeforeEach
+    void setUp() {
+        balanceSlotService = new BalanceSlotService(accountDao, 8);
+    }
+
+    /**
+     * Проверяет, что число слотов вне диапазона отклоняется без обращения к БД.
+     */
+    @Test
+    void resize_shouldRejectSlotCountOutOfRange() {
+        assertThrows(BadRequestException.class, () -> balanceSlotService.resize(1L, 0));
+        assertThrows(BadRequestException.class, () -> balanceSlotService.resize(1L, 9));
+
+        verifyNoInteractions(accountDao);
+    }
+
+    /**
+     * Проверяет, что для несуществующего счёта слоты не создаются.
+     */
+    @Test
+    void resize_shouldThrowNotFound_whenAccountMissing() {
+        when(accountDao.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> balanceSlotService.resize(1L, 4));
+
+        verify(accountDao, never()).resizeBalanceSlots(anyLong(), anyInt());
+    }
+
+    /**
+     * Проверяет, что перебалансировка сводит слоты, сохраняя их число.
+     */
+    @Test
+    void rebalance_shouldConsolidateSlots() {
+        when(accountDao.findById(1L)).thenReturn(Optional.of(merchant));
+        when(accountDao.findBalanceSlots(1L)).thenReturn(List.of(0L, 0L));
+
+        BalanceSlotsResponse response = balanceSlotService.rebalance(1L);
+
+        verify(accountDao).consolidateBalanceSlots(1L);
+        verify(accountDao, never()).resizeBalanceSlots(anyLong(), anyInt());
+        assertEquals(500L, response.getBalance());
+        assertEquals(2, response.getSlots().size());
+    }
+
+    /**
+     * Проверяет, что отключение пересоздаёт слоты в количестве ноль.
+     */
+    @Test
+    void disable_shouldResizeToZero() {
+        when(accountDao.findById(1L)).thenReturn(Optional.of(merchant));
+        when(accountDao.findBalanceSlots(1L)).thenReturn(List.of());
+
+        BalanceSlotsResponse response = balanceSlotService.disable(1L);
+
+        verify(accountDao).resizeBalanceSlots(1L, 0);
+        assertTrue(response.getSlots().isEmpty());
+    }
+
+    /**
+     * Проверяет, что в режиме LEDGER раскладка баланса по слотам не меняется.
+     */
+    @Test
+    void changes_shouldBeUnavailable_inLedgerMode() {
+        BalanceSlotService ledgerService = new BalanceSlotService(accountDao, 8, TransferMode.LEDGER);
+
+        assertThrows(ServiceUnavailableException.class, () -> ledgerService.resize(1L, 4));
+        assertThrows(ServiceUnavailableException.class, () -> ledgerService.rebalance(1L));
+        assertThrows(ServiceUnavailableException.class, () -> ledgerService.disable(1L));
+
+        verifyNoInteractions(accountDao);
+    }
+}
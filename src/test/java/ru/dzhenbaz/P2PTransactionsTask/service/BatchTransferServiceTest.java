@@ -0,0 +1,247 @@
+package ru.dzhenbaz.P2PTransactionsTask.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionDao;
+import ru.dzhenbaz.P2PTransactionsTask.dto.BatchMode;
+import ru.dzhenbaz.P2PTransactionsTask.dto.BatchTransferItemResult.Status;
+import ru.dzhenbaz.P2PTransactionsTask.dto.BatchTransferRequest;
+import ru.dzhenbaz.P2PTransactionsTask.dto.BatchTransferResponse;
+import ru.dzhenbaz.P2PTransactionsTask.dto.TransferRequest;
+import ru.dzhenbaz.P2PTransactionsTask.exception.BadRequestException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.ServiceUnavailableException;
+import ru.dzhenbaz.P2PTransactionsTask.model.Account;
+import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Юнит-тесты для {@link BatchTransferService}.
+ * <p>
+ * Проверяются проверка пакета без подтверждения, последовательный учёт балансов внутри пакета,
+ * режимы ALL_OR_NOTHING и BEST_EFFORT и ограничение размера пакета.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+@ExtendWith(MockitoExtension.class)
+public class BatchTransferServiceTest {
+
+    @Mock
+    private AccountDao accountDao;
+
+    @Mock
+    private TransactionDao transactionDao;
+
+    private BatchTransferService batchTransferService;
+
+    private final Account a = new Account(1L, 1L, 1000L, false, LocalDateTime.now());
+    private final Account b = new Account(2L, 1L, 0L, false, LocalDateTime.now());
+    private final Account c = new Account(3L, 2L, 0L, false, LocalDateTime.now());
+
+    @BeforeEach
+    void setUp() {
+        batchTransferService = new BatchTransferService(accountDao, transactionDao, 3);
+    }
+
+    /**
+     * Проверяет, что неподтверждённый пакет только проверяется: счета читаются без блокировки, записи нет.
+     */
+    @Test
+    void transferBatch_shouldOnlyValidate_whenNotConfirmed() {
+        BatchTransferRequest request = new BatchTransferRequest(List.of(
+                new TransferRequest(1L, 2L, 600L, false),
+                new TransferRequest(1L, 3L, 600L, false)
+        ), BatchMode.BEST_EFFORT, false);
+        when(accountDao.findAllByIds(anyCollection())).thenReturn(List.of(a, b, c));
+
+        BatchTransferResponse response = batchTransferService.transferBatch(1L, request);
+
+        assertFalse(response.isApplied());
+        assertEquals(Status.VALIDATED, response.getResults().get(0).getStatus());
+        assertEquals(Status.REJECTED, response.getResults().get(1).getStatus());
+        assertEquals("Недостаточно средств", response.getResults().get(1).getMessage());
+        verify(accountDao, never()).findAllByIdsForUpdate(anyCollection());
+        verify(accountDao, never()).applyTransfers(any());
+    }
+
+    /**
+     * Проверяет, что средства, зачисленные предыдущим переводом пакета, доступны следующему.
+     */
+    @Test
+    void transferBatch_shouldApplyChainedTransfers_whenConfirmed() {
+        BatchTransferRequest request = new BatchTransferRequest(List.of(
+                new TransferRequest(1L, 2L, 1000L, false),
+                new TransferRequest(2L, 3L, 400L, false)
+        ), BatchMode.ALL_OR_NOTHING, true);
+        when(accountDao.findAllByIdsForUpdate(anyCollection())).thenReturn(List.of(a, b, c));
+
+        BatchTransferResponse response = batchTransferService.transferBatch(1L, request);
+
+        assertTrue(response.isApplied());
+        assertEquals(2, response.getCompleted());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Transaction>> captor = ArgumentCaptor.forClass(List.class);
+        verify(accountDao).applyTransfers(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        verify(transactionDao).saveAll(captor.getValue());
+    }
+
+    /**
+     * Проверяет, что в режиме ALL_OR_NOTHING одна ошибка отменяет весь пакет.
+     */
+    @Test
+    void transferBatch_shouldSkipAll_whenAllOrNothingHasRejection() {
+        BatchTransferRequest request = new BatchTransferRequest(List.of(
+                new TransferRequest(1L, 2L, 100L, false),
+                new TransferRequest(3L, 1L, 100L, false)
+        ), BatchMode.ALL_OR_NOTHING, true);
+        when(accountDao.findAllByIdsForUpdate(anyCollection())).thenReturn(List.of(a, b, c));
+
+        BatchTransferResponse response = batchTransferService.transferBatch(1L, request);
+
+        assertFalse(response.isApplied());
+        assertEquals(Status.SKIPPED, response.getResults().get(0).getStatus());
+        assertEquals("Счёт не принадлежит пользователю", response.getResults().get(1).getMessage());
+        verify(accountDao, never()).applyTransfers(any());
+        verify(transactionDao, never()).saveAll(any());
+    }
+
+    /**
+     * Проверяет, что в режиме BEST_EFFORT исполняются только корректные переводы.
+     */
+    @Test
+    void transferBatch_shouldApplyValidOnly_whenBestEffort() {
+        BatchTransferRequest request = new BatchTransferRequest(List.of(
+                new TransferRequest(1L, 2L, 100L, false),
+                new TransferRequest(1L, 99L, 100L, false),
+                new TransferRequest(1L, 1L, 100L, false)
+        ), BatchMode.BEST_EFFORT, true);
+        when(accountDao.findAllByIdsForUpdate(anyCollection())).thenReturn(List.of(a, b));
+
+        BatchTransferResponse response = batchTransferService.transferBatch(1L, request);
+
+        assertTrue(response.isApplied());
+        assertEquals(1, response.getCompleted());
+        assertEquals(2, response.getRejected());
+        assertEquals(Status.COMPLETED, response.getResults().get(0).getStatus());
+        assertEquals("Счёт получателя не найден", response.getResults().get(1).getMessage());
+        assertEquals("Нельзя переводить на тот же счёт", response.getResults().get(2).getMessage());
+    }
+
+    /**
+     * Проверяет, что пакет больше допустимого размера отклоняется до обращения к БД.
+     */
+    @Test
+    void transferBatch_shouldThrow_whenBatchTooLarge() {
+        TransferRequest item = new TransferRequest(1L, 2L, 1L, false);
+        BatchTransferRequest request = new BatchTransferRequest(List.of(item, item, item, item),
+                BatchMode.BEST_EFFORT, true);
+
+        assertThrows(BadRequestException.class, () -> batchTransferService.transferBatch(1L, request));
+        verifyNoInteractions(accountDao);
+    }
+
+    /**
+     * Проверяет, что в режиме NETTING циклический пакет проводится, даже если последовательно
+     * первый перевод превысил бы баланс, а взаимно погашенные позиции не пишутся в счета.
+     */
+    @Test
+    void transferBatch_shouldApplyNetPositions_whenNetting() {
+        Account empty = new Account(4L, 1L, 0L, false, LocalDateTime.now());
+        BatchTransferRequest request = new BatchTransferRequest(List.of(
+                new TransferRequest(4L, 2L, 700L, false),
+                new TransferRequest(2L, 1L, 700L, false),
+                new TransferRequest(1L, 4L, 900L, false)
+        ), BatchMode.NETTING, true);
+        when(accountDao.findAllByIdsForUpdate(anyCollection())).thenReturn(List.of(a, b, empty));
+
+        BatchTransferResponse response = batchTransferService.transferBatch(1L, request);
+
+        assertTrue(response.isApplied());
+        assertEquals(3, response.getCompleted());
+        verify(accountDao).applyBalanceDeltas(Map.of(1L, -200L, 4L, 200L));
+        verify(accountDao, never()).applyTransfers(any());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Transaction>> captor = ArgumentCaptor.forClass(List.class);
+        verify(transactionDao).saveAll(captor.capture());
+        assertEquals(3, captor.getValue().size());
+    }
+
+    /**
+     * Проверяет, что в режиме NETTING отрицательная чистая позиция отклоняет последний перевод
+     * со счёта, после чего остальные переводы помещаются в баланс, а весь пакет отклоняется.
+     */
+    @Test
+    void transferBatch_shouldRejectWholeBatch_whenNetPositionOverdrawn() {
+        BatchTransferRequest request = new BatchTransferRequest(List.of(
+                new TransferRequest(1L, 2L, 800L, false),
+                new TransferRequest(1L, 2L, 800L, false),
+                new TransferRequest(2L, 1L, 100L, false)
+        ), BatchMode.NETTING, true);
+        when(accountDao.findAllByIdsForUpdate(anyCollection())).thenReturn(List.of(a, b));
+
+        BatchTransferResponse response = batchTransferService.transferBatch(1L, request);
+
+        assertFalse(response.isApplied());
+        assertEquals(1, response.getRejected());
+        assertEquals(Status.SKIPPED, response.getResults().get(0).getStatus());
+        assertEquals(Status.REJECTED, response.getResults().get(1).getStatus());
+        assertEquals("Недостаточно средств", response.getResults().get(1).getMessage());
+        assertEquals(Status.SKIPPED, response.getResults().get(2).getStatus());
+        verify(accountDao, never()).applyBalanceDeltas(any());
+    }
+
+    /**
+     * Проверяет, что при проверке NETTING-пакета позиции пересчитываются после каждого отклонения:
+     * ранний перевод со счёта остаётся, если без отклонённого помещается в баланс, а перевод со счёта,
+     * который держался только на отклонённом зачислении, тоже отклоняется.
+     */
+    @Test
+    void transferBatch_shouldRecomputePositions_afterRejectingNettingLeg() {
+        Account d = new Account(4L, 1L, 0L, false, LocalDateTime.now());
+        BatchTransferService service = new BatchTransferService(accountDao, transactionDao, 10);
+        BatchTransferRequest request = new BatchTransferRequest(List.of(
+                new TransferRequest(1L, 3L, 500L, false),
+                new TransferRequest(1L, 2L, 800L, false),
+                new TransferRequest(4L, 2L, 100L, false),
+                new TransferRequest(2L, 3L, 100L, false)
+        ), BatchMode.NETTING, false);
+        when(accountDao.findAllByIds(anyCollection())).thenReturn(List.of(a, b, c, d));
+
+        BatchTransferResponse response = service.transferBatch(1L, request);
+
+        assertEquals(Status.VALIDATED, response.getResults().get(0).getStatus());
+        assertEquals(Status.REJECTED, response.getResults().get(1).getStatus());
+        assertEquals(Status.REJECTED, response.getResults().get(2).getStatus());
+        assertEquals(Status.REJECTED, response.getResults().get(3).getStatus());
+        assertEquals(3, response.getRejected());
+    }
+
+    /**
+     * Проверяет, что в режиме LEDGER подтверждённый пакет отклоняется до чтения счетов.
+     */
+    @Test
+    void transferBatch_shouldBeUnavailable_whenConfirmedInLedgerMode() {
+        BatchTransferService ledgerService = new BatchTransferService(accountDao, transactionDao, 3, TransferMode.LEDGER);
+        BatchTransferRequest request = new BatchTransferRequest(List.of(
+                new TransferRequest(1L, 2L, 100L, false)
+        ), BatchMode.ALL_OR_NOTHING, true);
+
+        assertThrows(ServiceUnavailableException.class, () -> ledgerService.transferBatch(1L, request));
+
+        verifyNoInteractions(accountDao, transactionDao);
+    }
+}
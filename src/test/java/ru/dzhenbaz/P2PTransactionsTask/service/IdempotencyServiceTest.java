@@ -0,0 +1,122 @@
+package ru.dzhenbaz.P2PTransactionsTask.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.dzhenbaz.P2PTransactionsTask.dao.IdempotencyKeyDao;
+import ru.dzhenbaz.P2PTransactionsTask.dto.TransferRequest;
+import ru.dzhenbaz.P2PTransactionsTask.exception.BadRequestException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.IdempotencyConflictException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.ServiceUnavailableException;
+import ru.dzhenbaz.P2PTransactionsTask.model.IdempotencyRecord;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Юнит-тесты для {@link IdempotencyService}.
+ * <p>
+ * Проверяются повтор из кэша без обращения к БД, повтор ключа, занятого другим экземпляром,
+ * конфликт отпечатков и проверка формата ключа.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyKeyDao idempotencyKeyDao;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotencyService idempotencyService;
+
+    private final TransferRequest request = new TransferRequest(1L, 2L, 500L, true);
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(idempotencyKeyDao, transactionManager, 100, Duration.ofHours(1));
+    }
+
+    /**
+     * Проверяет, что повтор выполненного запроса отдаётся из кэша без перевода и без обращения к БД.
+     */
+    @Test
+    void execute_shouldReplayFromCache_whenKeyCompleted() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String first = idempotencyService.execute(1L, "key", request, () -> "ok-" + calls.incrementAndGet());
+        clearInvocations(idempotencyKeyDao);
+        String second = idempotencyService.execute(1L, "key", request, () -> "ok-" + calls.incrementAndGet());
+
+        assertEquals("ok-1", first);
+        assertEquals("ok-1", second);
+        assertEquals(1, calls.get());
+        verifyNoInteractions(idempotencyKeyDao);
+    }
+
+    /**
+     * Проверяет, что ключ, уже занятый и выполненный в другом экземпляре, возвращает сохранённый ответ.
+     */
+    @Test
+    void execute_shouldReturnStoredResponse_whenKeyClaimedElsewhere() {
+        doThrow(new DuplicateKeyException("duplicate")).when(idempotencyKeyDao).insert(any());
+        when(idempotencyKeyDao.find(1L, "key")).thenReturn(Optional.of(
+                new IdempotencyRecord(1L, "key", "1>2:500", "stored", LocalDateTime.now())));
+
+        String response = idempotencyService.execute(1L, "key", request, () -> fail("перевод не должен выполняться"));
+
+        assertEquals("stored", response);
+    }
+
+    /**
+     * Проверяет, что ключ, использованный для другого перевода, вызывает конфликт.
+     */
+    @Test
+    void execute_shouldThrowConflict_whenFingerprintDiffers() {
+        idempotencyService.execute(1L, "key", request, () -> "ok");
+
+        TransferRequest other = new TransferRequest(1L, 2L, 600L, true);
+        assertThrows(IdempotencyConflictException.class,
+                () -> idempotencyService.execute(1L, "key", other, () -> "ok"));
+    }
+
+    /**
+     * Проверяет, что слишком длинный ключ отклоняется до обращения к БД.
+     */
+    @Test
+    void execute_shouldThrow_whenKeyTooLong() {
+        String key = "k".repeat(IdempotencyService.MAX_KEY_LENGTH + 1);
+
+        assertThrows(BadRequestException.class, () -> idempotencyService.execute(1L, key, request, () -> "ok"));
+        verifyNoInteractions(idempotencyKeyDao);
+    }
+
+    /**
+     * Проверяет, что в режиме LEDGER запрос с ключом отклоняется до перевода и обращения к БД:
+     * леджер не фиксирует перевод в транзакции ключа.
+     */
+    @Test
+    void execute_shouldReject_whenLedgerMode() {
+        IdempotencyService ledgerService = new IdempotencyService(idempotencyKeyDao, transactionManager, 100,
+                Duration.ofHours(1), TransferMode.LEDGER);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(ServiceUnavailableException.class,
+                () -> ledgerService.execute(1L, "key", request, () -> "ok-" + calls.incrementAndGet()));
+        assertEquals(0, calls.get());
+        verifyNoInteractions(idempotencyKeyDao);
+    }
+}
@@ -0,0 +1,145 @@
+package ru.dzhenbaz.P2PTransactionsTask.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionDao;
+import ru.dzhenbaz.P2PTransactionsTask.dto.BatchTransferItemResult;
+import ru.dzhenbaz.P2PTransactionsTask.dto.BatchTransferItemResult.Status;
+import ru.dzhenbaz.P2PTransactionsTask.dto.PayoutRecipient;
+import ru.dzhenbaz.P2PTransactionsTask.dto.PayoutRequest;
+import ru.dzhenbaz.P2PTransactionsTask.dto.PayoutResponse;
+import ru.dzhenbaz.P2PTransactionsTask.exception.BadRequestException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.ServiceUnavailableException;
+import ru.dzhenbaz.P2PTransactionsTask.model.Account;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Юнит-тесты для {@link PayoutService}.
+ * <p>
+ * Проверяются запись выплаты порциями с одним списанием на порцию, откат только упавшей порции
+ * и проверка общей суммы по остатку источника.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+@ExtendWith(MockitoExtension.class)
+public class PayoutServiceTest {
+
+    @Mock
+    private AccountDao accountDao;
+
+    @Mock
+    private TransactionDao transactionDao;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PayoutService payoutService;
+
+    private final Account source = new Account(1L, 1L, 1000L, false, LocalDateTime.now());
+    private final Account b = new Account(2L, 2L, 0L, false, LocalDateTime.now());
+    private final Account c = new Account(3L, 3L, 0L, false, LocalDateTime.now());
+
+    @BeforeEach
+    void setUp() {
+        payoutService = new PayoutService(accountDao, transactionDao, transactionManager, 10, 2);
+    }
+
+    /**
+     * Проверяет, что источник блокируется один раз, каждая порция списывается одной суммой,
+     * а некорректный получатель отклоняется без остановки выплаты.
+     */
+    @Test
+    void payout_shouldApplyEachChunkWithSingleDebit() {
+        PayoutRequest request = new PayoutRequest(1L, List.of(
+                new PayoutRecipient(2L, 100L),
+                new PayoutRecipient(99L, 100L),
+                new PayoutRecipient(3L, 200L)));
+        when(accountDao.findByIdForUpdate(1L)).thenReturn(Optional.of(source));
+        when(accountDao.findAllByIds(anyCollection())).thenReturn(List.of(b), List.of(c));
+        List<List<BatchTransferItemResult>> progress = new ArrayList<>();
+
+        PayoutResponse response = payoutService.payout(1L, request, progress::add);
+
+        assertTrue(response.isApplied());
+        assertEquals(2, response.getCompleted());
+        assertEquals(1, response.getRejected());
+        assertEquals(300L, response.getDebited());
+        assertEquals(2, progress.size());
+        assertEquals("Счёт получателя не найден", progress.get(0).get(1).getMessage());
+        verify(accountDao, times(1)).findByIdForUpdate(1L);
+        verify(accountDao).applyBalanceDeltas(Map.of(1L, -100L, 2L, 100L));
+        verify(accountDao).applyBalanceDeltas(Map.of(1L, -200L, 3L, 200L));
+    }
+
+    /**
+     * Проверяет, что ошибка записи порции отклоняет только её выплаты, а следующие порции записываются.
+     */
+    @Test
+    void payout_shouldRejectOnlyFailedChunk() {
+        PayoutRequest request = new PayoutRequest(1L, List.of(
+                new PayoutRecipient(2L, 100L),
+                new PayoutRecipient(3L, 200L)));
+        payoutService = new PayoutService(accountDao, transactionDao, transactionManager, 10, 1);
+        when(accountDao.findByIdForUpdate(1L)).thenReturn(Optional.of(source));
+        when(accountDao.findAllByIds(anyCollection())).thenReturn(List.of(b), List.of(c));
+        doThrow(new QueryTimeoutException("timeout")).doNothing().when(transactionDao).saveAll(any());
+        List<List<BatchTransferItemResult>> progress = new ArrayList<>();
+
+        PayoutResponse response = payoutService.payout(1L, request, progress::add);
+
+        assertEquals(1, response.getCompleted());
+        assertEquals(200L, response.getDebited());
+        assertEquals(Status.REJECTED, progress.get(0).get(0).getStatus());
+        assertEquals(Status.COMPLETED, progress.get(1).get(0).getStatus());
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    /**
+     * Проверяет, что выплата, превышающая остаток источника, отклоняется целиком до записи.
+     */
+    @Test
+    void validate_shouldThrow_whenTotalExceedsBalance() {
+        PayoutRequest request = new PayoutRequest(1L, List.of(
+                new PayoutRecipient(2L, 600L),
+                new PayoutRecipient(3L, 600L)));
+        when(accountDao.findById(1L)).thenReturn(Optional.of(source));
+
+        BadRequestException ex = assertThrows(BadRequestException.class, () -> payoutService.validate(1L, request));
+
+        assertEquals("Недостаточно средств", ex.getMessage());
+        verify(accountDao, never()).applyBalanceDeltas(any());
+    }
+
+    /**
+     * Проверяет, что в режиме LEDGER выплата отклоняется ещё при проверке, без обращения к счетам.
+     */
+    @Test
+    void validate_shouldBeUnavailable_inLedgerMode() {
+        PayoutService ledgerService = new PayoutService(accountDao, transactionDao, transactionManager, 10, 2,
+                TransferMode.LEDGER);
+        PayoutRequest request = new PayoutRequest(1L, List.of(new PayoutRecipient(2L, 100L)));
+
+        assertThrows(ServiceUnavailableException.class, () -> ledgerService.validate(1L, request));
+        assertThrows(ServiceUnavailableException.class, () -> ledgerService.payout(1L, request, results -> {
+        }));
+
+        verifyNoInteractions(accountDao, transactionDao, transactionManager);
+    }
+}
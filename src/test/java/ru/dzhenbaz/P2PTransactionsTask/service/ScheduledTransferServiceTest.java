@@ -0,0 +1,101 @@
+package ru.dzhenbaz.P2PTransactionsTask.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDao;
+import ru.dzhenbaz.P2PTransactionsTask.dao.ScheduledTransferDao;
+import ru.dzhenbaz.P2PTransactionsTask.dto.Recurrence;
+import ru.dzhenbaz.P2PTransactionsTask.dto.ScheduledTransferRequest;
+import ru.dzhenbaz.P2PTransactionsTask.dto.ScheduledTransferResponse;
+import ru.dzhenbaz.P2PTransactionsTask.exception.BadRequestException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.NotFoundException;
+import ru.dzhenbaz.P2PTransactionsTask.model.Account;
+import ru.dzhenbaz.P2PTransactionsTask.model.ScheduledTransfer;
+import ru.dzhenbaz.P2PTransactionsTask.scheduler.TransferScheduler;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Юнит-тесты для {@link ScheduledTransferService}.
+ * <p>
+ * Проверяются создание расписания с передачей планировщику, отказ для прошедшего времени
+ * и отмена только своих переводов.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+@ExtendWith(MockitoExtension.class)
+public class ScheduledTransferServiceTest {
+
+    @Mock
+    private ScheduledTransferDao scheduledTransferDao;
+
+    @Mock
+    private AccountDao accountDao;
+
+    @Mock
+    private TransferScheduler transferScheduler;
+
+    private ScheduledTransferService scheduledTransferService;
+
+    @BeforeEach
+    void setUp() {
+        scheduledTransferService = new ScheduledTransferService(scheduledTransferDao, accountDao, transferScheduler);
+    }
+
+    /**
+     * Проверяет, что созданный перевод сохраняется и передаётся планировщику.
+     */
+    @Test
+    void create_shouldSaveAndSchedule() {
+        LocalDateTime runAt = LocalDateTime.now().plusDays(1).withNano(0);
+        when(accountDao.findById(1L)).thenReturn(Optional.of(new Account(1L, 1L, 500L, false, LocalDateTime.now())));
+        when(accountDao.findById(2L)).thenReturn(Optional.of(new Account(2L, 2L, 0L, false, LocalDateTime.now())));
+        when(scheduledTransferDao.save(any())).thenReturn(7L);
+
+        ScheduledTransferResponse response = scheduledTransferService.create(1L,
+                new ScheduledTransferRequest(1L, 2L, 100L, runAt, Recurrence.MONTHLY));
+
+        assertEquals(7L, response.getId());
+        assertEquals(runAt, response.getNextRunAt());
+        assertTrue(response.isActive());
+        ArgumentCaptor<ScheduledTransfer> captor = ArgumentCaptor.forClass(ScheduledTransfer.class);
+        verify(transferScheduler).schedule(captor.capture());
+        assertEquals(7L, captor.getValue().getId());
+        assertEquals(Recurrence.MONTHLY, captor.getValue().getRecurrence());
+    }
+
+    /**
+     * Проверяет, что перевод на прошедшее время отклоняется до обращения к БД.
+     */
+    @Test
+    void create_shouldThrow_whenRunAtInPast() {
+        ScheduledTransferRequest request = new ScheduledTransferRequest(1L, 2L, 100L,
+                LocalDateTime.now().minusMinutes(1), Recurrence.NONE);
+
+        assertThrows(BadRequestException.class, () -> scheduledTransferService.create(1L, request));
+        verifyNoInteractions(accountDao, scheduledTransferDao, transferScheduler);
+    }
+
+    /**
+     * Проверяет, что чужой перевод нельзя отменить.
+     */
+    @Test
+    void cancel_shouldThrow_whenTransferBelongsToAnotherUser() {
+        ScheduledTransfer transfer = new ScheduledTransfer(5L, 2L, 3L, 1L, 100L, Recurrence.DAILY,
+                LocalDateTime.now(), LocalDateTime.now(), 0, true, null, LocalDateTime.now());
+        when(scheduledTransferDao.findById(5L)).thenReturn(Optional.of(transfer));
+
+        assertThrows(NotFoundException.class, () -> scheduledTransferService.cancel(1L, 5L));
+        verify(scheduledTransferDao, never()).cancel(any(), any());
+    }
+}
@@ -0,0 +1,94 @@
+package ru.dzhenbaz.P2PTransactionsTask.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.dzhenbaz.P2PTransactionsTask.dao.TransactionDao;
+import ru.dzhenbaz.P2PTransactionsTask.dto.TransactionPageResponse;
+import ru.dzhenbaz.P2PTransactionsTask.exception.AccountOwnershipException;
+import ru.dzhenbaz.P2PTransactionsTask.exception.BadRequestException;
+import ru.dzhenbaz.P2PTransactionsTask.model.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Юнит-тесты для {@link TransactionHistoryService}.
+ * <p>
+ * Проверяются выдача курсора следующей страницы и его разбор, последняя страница,
+ * ограничение размера страницы и проверка владельца счёта.
+ * </p>
+ *
+ * @author Dzhenbaz
+ */
+@ExtendWith(MockitoExtension.class)
+public class TransactionHistoryServiceTest {
+
+    @Mock
+    private AccountService accountService;
+
+    @Mock
+    private TransactionDao transactionDao;
+
+    private TransactionHistoryService historyService;
+
+    private final LocalDateTime time = LocalDateTime.of(2025, 1, 15, 10, 30, 0, 123_456_000);
+
+    @BeforeEach
+    void setUp() {
+        historyService = new TransactionHistoryService(accountService, transactionDao, 2, 10);
+    }
+
+    /**
+     * Проверяет, что при лишней строке выдаётся курсор, указывающий на последнюю строку страницы.
+     */
+    @Test
+    void getHistory_shouldReturnCursorOfLastRow_whenMoreRowsExist() {
+        when(transactionDao.findPageByAccountId(1L, null, null, 3)).thenReturn(List.of(
+                new Transaction(12L, 1L, 2L, 100L, time),
+                new Transaction(11L, 2L, 1L, 200L, time),
+                new Transaction(10L, 1L, 2L, 300L, time.minusSeconds(1))
+        ));
+
+        TransactionPageResponse page = historyService.getHistory(1L, 1L, null, null);
+
+        assertEquals(2, page.getItems().size());
+        assertNotNull(page.getNextCursor());
+
+        when(transactionDao.findPageByAccountId(1L, time, 11L, 3)).thenReturn(List.of(
+                new Transaction(10L, 1L, 2L, 300L, time.minusSeconds(1))
+        ));
+
+        TransactionPageResponse next = historyService.getHistory(1L, 1L, page.getNextCursor(), null);
+
+        assertEquals(10L, next.getItems().get(0).getId());
+        assertNull(next.getNextCursor());
+    }
+
+    /**
+     * Проверяет, что размер страницы вне допустимых пределов отклоняется до обращения к БД.
+     */
+    @Test
+    void getHistory_shouldThrow_whenLimitOutOfRange() {
+        assertThrows(BadRequestException.class, () -> historyService.getHistory(1L, 1L, null, 11));
+        assertThrows(BadRequestException.class, () -> historyService.getHistory(1L, 1L, null, 0));
+        verifyNoInteractions(transactionDao);
+    }
+
+    /**
+     * Проверяет, что история чужого счёта не читается.
+     */
+    @Test
+    void getHistory_shouldThrow_whenAccountBelongsToAnotherUser() {
+        when(accountService.getAccountById(2L, 1L)).thenThrow(new AccountOwnershipException());
+
+        assertThrows(AccountOwnershipException.class, () -> historyService.getHistory(2L, 1L, null, null));
+        verify(transactionDao, never()).findPageByAccountId(any(), any(), any(), anyInt());
+    }
+}
@@ -1,8 +1,9 @@
 package ru.dzhenbaz.P2PTransactionsTask.service;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.dzhenbaz.P2PTransactionsTask.dao.AccountDao;
@@ -37,9 +38,19 @@ public class TransactionServiceTest {
     @Mock
     private TransactionDao transactionDao;
 
-    @InjectMocks
     private TransactionService transactionService;
 
+    private TransactionService guardedService;
+
+    private TransactionService lockingService;
+
+    @BeforeEach
+    void setUp() {
+        transactionService = new TransactionService(accountDao, transactionDao);
+        guardedService = new TransactionService(accountDao, transactionDao, TransferMode.GUARDED_UPDATE);
+        lockingService = new TransactionService(accountDao, transactionDao, TransferMode.ORDERED_LOCKING);
+    }
+
     /**
      * Проверяет, что при неподтверждённом переводе возвращается сообщение с просьбой подтвердить.
      */
@@ -173,4 +184,139 @@ public class TransactionServiceTest {
         assertThrows(BadRequestException.class, () -> transactionService.transfer(1L, request));
     }
 
+    /**
+     * Проверяет, что в режиме условных обновлений подтверждённый перевод не читает счета
+     * и изменяет балансы относительными обновлениями.
+     */
+    @Test
+    void guardedTransfer_shouldDebitAndCreditWithoutReads() {
+        TransferRequest request = new TransferRequest(10L, 20L, 500L, true);
+        when(accountDao.debitIfSufficient(10L, 1L, 500L)).thenReturn(true);
+        when(accountDao.creditIfOpen(20L, 500L)).thenReturn(true);
+
+        String result = guardedService.transfer(1L, request);
+
+        assertEquals("Перевод выполнен", result);
+        verify(accountDao, never()).findById(anyLong());
+        verify(accountDao, never()).updateBalance(anyLong(), anyLong());
+        verify(transactionDao).save(any(Transaction.class));
+    }
+
+    /**
+     * Проверяет, что при отклонённом списании причина определяется по текущему состоянию счетов.
+     */
+    @Test
+    void guardedTransfer_shouldThrow_whenDebitRejectedForInsufficientFunds() {
+        TransferRequest request = new TransferRequest(10L, 20L, 2000L, true);
+        Account from = new Account(10L, 1L, 1000L, false, LocalDateTime.now());
+        Account to = new Account(20L, 2L, 1000L, false, LocalDateTime.now());
+        when(accountDao.debitIfSufficient(10L, 1L, 2000L)).thenReturn(false);
+        when(accountDao.findById(10L)).thenReturn(Optional.of(from));
+        when(accountDao.findById(20L)).thenReturn(Optional.of(to));
+
+        BadRequestException ex = assertThrows(BadRequestException.class, () -> guardedService.transfer(1L, request));
+
+        assertEquals("Недостаточно средств", ex.getMessage());
+        verify(accountDao, never()).creditIfOpen(anyLong(), anyLong());
+        verify(transactionDao, never()).save(any());
+    }
+
+    /**
+     * Проверяет, что отклонённое списание с чужого счёта сообщает о нарушении владения.
+     */
+    @Test
+    void guardedTransfer_shouldThrow_whenDebitRejectedForForeignAccount() {
+        TransferRequest request = new TransferRequest(10L, 20L, 100L, true);
+        Account from = new Account(10L, 999L, 1000L, false, LocalDateTime.now());
+        when(accountDao.debitIfSufficient(10L, 1L, 100L)).thenReturn(false);
+        when(accountDao.findById(10L)).thenReturn(Optional.of(from));
+
+        BadRequestException ex = assertThrows(BadRequestException.class, () -> guardedService.transfer(1L, request));
+
+        assertEquals("Счёт не принадлежит пользователю", ex.getMessage());
+    }
+
+    /**
+     * Проверяет, что при отклонённом зачислении на несуществующий счёт выбрасывается {@link NotFoundException},
+     * а запись о транзакции не создаётся.
+     */
+    @Test
+    void guardedTransfer_shouldThrow_whenCreditRejectedForMissingAccount() {
+        TransferRequest request = new TransferRequest(10L, 20L, 100L, true);
+        when(accountDao.debitIfSufficient(10L, 1L, 100L)).thenReturn(true);
+        when(accountDao.creditIfOpen(20L, 100L)).thenReturn(false);
+        when(accountDao.findById(20L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> guardedService.transfer(1L, request));
+        verify(transactionDao, never()).save(any());
+    }
+
+    /**
+     * Проверяет, что неподтверждённый перевод в режиме условных обновлений по-прежнему валидируется чтением.
+     */
+    @Test
+    void guardedTransfer_shouldReturnConfirmationMessage_whenNotConfirmed() {
+        TransferRequest request = new TransferRequest(10L, 20L, 500L, false);
+        Account from = new Account(10L, 1L, 1000L, false, LocalDateTime.now());
+        Account to = new Account(20L, 2L, 1000L, false, LocalDateTime.now());
+        when(accountDao.findById(10L)).thenReturn(Optional.of(from));
+        when(accountDao.findById(20L)).thenReturn(Optional.of(to));
+
+        String result = guardedService.transfer(1L, request);
+
+        assertEquals("Подтвердите перевод 500 от счёта 10 к счёту 20", result);
+        verify(accountDao, never()).debitIfSufficient(anyLong(), anyLong(), anyLong());
+    }
+
+    /**
+     * Проверяет, что в режиме блокировок счета блокируются по возрастанию идентификатора
+     * даже при переводе со счёта с большим идентификатором на счёт с меньшим.
+     */
+    @Test
+    void lockedTransfer_shouldLockAccountsInAscendingIdOrder() {
+        TransferRequest request = new TransferRequest(20L, 10L, 500L, true);
+        Account from = new Account(20L, 1L, 1000L, false, LocalDateTime.now());
+        Account to = new Account(10L, 2L, 1000L, false, LocalDateTime.now());
+        when(accountDao.findByIdForUpdate(10L)).thenReturn(Optional.of(to));
+        when(accountDao.findByIdForUpdate(20L)).thenReturn(Optional.of(from));
+
+        String result = lockingService.transfer(1L, request);
+
+        assertEquals("Перевод выполнен", result);
+        InOrder inOrder = inOrder(accountDao);
+        inOrder.verify(accountDao).findByIdForUpdate(10L);
+        inOrder.verify(accountDao).findByIdForUpdate(20L);
+        verify(accountDao).updateBalance(20L, 500L);
+        verify(accountDao).updateBalance(10L, 1500L);
+        verify(accountDao, never()).findById(anyLong());
+        verify(transactionDao).save(any(Transaction.class));
+    }
+
+    /**
+     * Проверяет, что в режиме блокировок проверки выполняются по заблокированным строкам.
+     */
+    @Test
+    void lockedTransfer_shouldThrow_whenInsufficientFunds() {
+        TransferRequest request = new TransferRequest(10L, 20L, 2000L, true);
+        Account from = new Account(10L, 1L, 1000L, false, LocalDateTime.now());
+        Account to = new Account(20L, 2L, 1000L, false, LocalDateTime.now());
+        when(accountDao.findByIdForUpdate(10L)).thenReturn(Optional.of(from));
+        when(accountDao.findByIdForUpdate(20L)).thenReturn(Optional.of(to));
+
+        assertThrows(BadRequestException.class, () -> lockingService.transfer(1L, request));
+        verify(accountDao, never()).updateBalance(anyLong(), anyLong());
+    }
+
+    /**
+     * Проверяет, что при отсутствии заблокированного счёта получателя выбрасывается {@link NotFoundException}.
+     */
+    @Test
+    void lockedTransfer_shouldThrow_whenToAccountNotFound() {
+        TransferRequest request = new TransferRequest(10L, 20L, 100L, true);
+        Account from = new Account(10L, 1L, 1000L, false, LocalDateTime.now());
+        when(accountDao.findByIdForUpdate(10L)).thenReturn(Optional.of(from));
+        when(accountDao.findByIdForUpdate(20L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> lockingService.transfer(1L, request));
+    }
 }